@@ -0,0 +1,306 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.io.IOException;
+
+
+
+/**
+ * Limits the number of tasks executed concurrently as native command line processes, adapting the limit in real time to the observed completion latency.
+ * <p>
+ * Callers either execute tasks through 'exec(...)', which mirrors 'Exec.exec(...)', or bracket their own work with 'acquire()' and 'release(...)'.  A caller blocks in 'acquire()' while the number of in-flight executions is at the current limit.
+ * <p>
+ * The limit is adjusted on every completion using latency-gradient control with an AIMD backstop:
+ * <ul>
+ *    <li>a long-term latency baseline is tracked as an exponentially weighted moving average; a short-term latency is tracked the same way but reacts quickly</li>
+ *    <li>the gradient, baseline * tolerance / short-term latency clamped to [0.5,1.0], scales the limit down when latency rises due to contention and leaves it unchanged otherwise</li>
+ *    <li>a headroom of sqrt(limit) is added to each new estimate so that the limit probes upward while latency is flat, which raises throughput for IO-bound tasks</li>
+ *    <li>growth is suppressed while fewer than half of the permits are in use, since latency observed then says nothing about a higher limit</li>
+ *    <li>an execution that fails to run (e.g. an IOException) multiplicatively decreases the limit</li>
+ * </ul>
+ * <p>
+ * The limit is always kept on the range [minLimit,maxLimit].  Instances are thread-safe.
+ *
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+   /** default initial limit; the number of available processors */
+   public static final int DEFAULT_INITIAL_LIMIT = Runtime.getRuntime( ).availableProcessors( );
+
+   /** default minimum limit */
+   public static final int DEFAULT_MIN_LIMIT = 1;
+
+   /** default maximum limit */
+   public static final int DEFAULT_MAX_LIMIT = 256;
+
+
+   /** ratio by which the baseline latency may be exceeded before the limit is reduced */
+   private static final double TOLERANCE = 1.5;
+
+   /** multiplicative decrease applied when an execution fails to run */
+   private static final double BACKOFF_RATIO = 0.9;
+
+   /** weight given to a new limit estimate */
+   private static final double SMOOTHING = 0.2;
+
+   /** weight given to a sample in the short-term latency */
+   private static final double SHORT_ALPHA = 0.5;
+
+   /** weight given to a sample in the long-term latency baseline */
+   private static final double LONG_ALPHA = 2.0 / ( 600 + 1 );
+
+
+   private final int minLimit;
+   private final int maxLimit;
+
+   private final ReentrantLock lock = new ReentrantLock( );
+   private final Condition permitAvailable = lock.newCondition( );
+
+   private double limit;
+   private int inFlight;
+   private double shortLatencyNanos;
+   private double longLatencyNanos;
+
+
+   /**
+    * Constructs an AdaptiveConcurrencyLimiter with the default initial, minimum, and maximum limits.
+    *
+    */
+   public AdaptiveConcurrencyLimiter( ) {
+      this( Math.min( DEFAULT_INITIAL_LIMIT, DEFAULT_MAX_LIMIT ), DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT );
+   }
+
+
+   /**
+    * Constructs an AdaptiveConcurrencyLimiter with the specified initial, minimum, and maximum limits.
+    *
+    * @param initialLimit
+    *    the limit to start with; must be on the range [minLimit,maxLimit]
+    * @param minLimit
+    *    the lowest value the limit may be reduced to; must be at least 1
+    * @param maxLimit
+    *    the highest value the limit may be raised to; must be at least minLimit
+    * @throws IllegalArgumentException
+    *    if the limits are not ordered as minLimit &lt;= initialLimit &lt;= maxLimit or if minLimit is less than 1
+    */
+   public AdaptiveConcurrencyLimiter( int initialLimit, int minLimit, int maxLimit ) {
+
+      if ( minLimit < 1 ) {
+         throw new IllegalArgumentException( "Illegal value '" + minLimit + "' for 'minLimit'.  Must be at least 1." );
+      }
+
+      if ( maxLimit < minLimit ) {
+         throw new IllegalArgumentException( "Illegal value '" + maxLimit + "' for 'maxLimit'.  Must be at least 'minLimit'." );
+      }
+
+      if ( initialLimit < minLimit || initialLimit > maxLimit ) {
+         throw new IllegalArgumentException( "Illegal value '" + initialLimit + "' for 'initialLimit'.  Must be on the range ['minLimit','maxLimit']." );
+      }
+
+      this.minLimit = minLimit;
+      this.maxLimit = maxLimit;
+      this.limit = initialLimit;
+   }
+
+
+   /**
+    * Executes a task as a native command line process once a permit is available, and returns a Map result as per 'Exec.exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;)'.
+    * <p>
+    * The completion latency of the task is fed back into the limit.  A task that completes with a non-zero exit value is a valid latency sample; a task that throws an exception is treated as a dropped execution and reduces the limit.
+    *
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @param config
+    *    a Map of key-value pairs defining the configuration; optional, can be empty or null
+    * @param addEnv
+    *    a Map of key-value of environment variables to add; optional, can be empty or null
+    * @param removeEnv
+    *    a List of environment variables to remove; optional, can be empty or null
+    * @return a Map of the result of the command execution
+    * @throws InterruptedException
+    *    if the current thread is interrupted while waiting for a permit
+    * @throws IOException
+    *    if an I/O error occurs
+    * @see Exec#exec(List,Map,Map,List)
+    */
+   public Map<String,String> exec( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv )
+         throws IOException, InterruptedException {
+
+      acquire( );
+
+      long start = System.nanoTime( );
+      boolean dropped = true;
+
+      try {
+         Map<String,String> resultMap = Exec.exec( task, config, addEnv, removeEnv );
+         dropped = false;
+         return( resultMap );
+      } finally {
+         release( System.nanoTime( ) - start, dropped );
+      }
+
+   }
+
+
+   /**
+    * Blocks until the number of in-flight executions is below the current limit, then claims a permit.
+    * <p>
+    * Each successful call must be paired with exactly one call to 'release(...)'.
+    *
+    * @throws InterruptedException
+    *    if the current thread is interrupted while waiting
+    */
+   public void acquire( )
+         throws InterruptedException {
+
+      lock.lockInterruptibly( );
+
+      try {
+         while ( inFlight >= (int)limit ) {
+            permitAvailable.await( );
+         }
+         inFlight++;
+      } finally {
+         lock.unlock( );
+      }
+
+   }
+
+
+   /**
+    * Returns a permit claimed by 'acquire()' and updates the limit with the observed completion latency.
+    *
+    * @param latencyNanos
+    *    the time in nanoseconds from acquiring the permit to completion of the execution
+    * @param dropped
+    *    'true' if the execution failed to run, e.g. an exception was thrown, and 'false' if it completed (regardless of its exit value)
+    * @throws IllegalStateException
+    *    if no permit is held
+    */
+   public void release( long latencyNanos, boolean dropped ) {
+
+      lock.lock( );
+
+      try {
+
+         if ( inFlight == 0 ) {
+            throw new IllegalStateException( "Called 'release(...)' without a matching 'acquire()'." );
+         }
+
+         int inFlightAtCompletion = inFlight;
+         inFlight--;
+
+         if ( dropped ) {
+            limit = Math.max( minLimit, limit * BACKOFF_RATIO );
+         } else {
+            update( Math.max( 1L, latencyNanos ), inFlightAtCompletion );
+         }
+
+         permitAvailable.signalAll( );
+
+      } finally {
+         lock.unlock( );
+      }
+
+   }
+
+
+   /**
+    * Returns the current concurrency limit.
+    *
+    * @return the current limit on the range [minLimit,maxLimit]
+    */
+   public int getLimit( ) {
+
+      lock.lock( );
+
+      try {
+         return( (int)limit );
+      } finally {
+         lock.unlock( );
+      }
+
+   }
+
+
+   /**
+    * Returns the number of permits currently held.
+    *
+    * @return the number of in-flight executions
+    */
+   public int getInFlight( ) {
+
+      lock.lock( );
+
+      try {
+         return( inFlight );
+      } finally {
+         lock.unlock( );
+      }
+
+   }
+
+
+   /*
+    * Updates the latency averages and the limit from a latency sample.  Must be called while holding the lock.
+    *
+    * @param latencyNanos
+    *    latency of a completed execution in nanoseconds
+    * @param inFlightAtCompletion
+    *    number of in-flight executions, including the completed one, when the execution completed
+    */
+   private void update( long latencyNanos, int inFlightAtCompletion ) {
+
+      if ( longLatencyNanos == 0 ) {
+         shortLatencyNanos = latencyNanos;
+         longLatencyNanos = latencyNanos;
+      } else {
+         shortLatencyNanos = shortLatencyNanos * ( 1 - SHORT_ALPHA ) + latencyNanos * SHORT_ALPHA;
+         longLatencyNanos = longLatencyNanos * ( 1 - LONG_ALPHA ) + latencyNanos * LONG_ALPHA;
+      }
+
+      // after a sustained latency drop, let the baseline catch up instead of holding the limit down
+      if ( longLatencyNanos / shortLatencyNanos > 2 ) {
+         longLatencyNanos *= 0.95;
+      }
+
+      double gradient = Math.max( 0.5, Math.min( 1.0, TOLERANCE * longLatencyNanos / shortLatencyNanos ) );
+
+      // don't probe upward if the current limit isn't being used
+      if ( gradient == 1.0 && inFlightAtCompletion < limit / 2 ) {
+         return;
+      }
+
+      double newLimit = limit * gradient + Math.sqrt( limit );
+
+      limit = limit * ( 1 - SMOOTHING ) + newLimit * SMOOTHING;
+      limit = Math.max( minLimit, Math.min( maxLimit, limit ) );
+
+   }
+
+}
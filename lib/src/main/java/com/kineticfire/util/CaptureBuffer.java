@@ -0,0 +1,355 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.io.InputStream;
+import java.io.IOException;
+
+
+
+/*
+ * A reusable buffer that captures the text of a process output stream for the result Map of 'Exec'.
+ * <p>
+ * The stream is read in bulk chunks and decoded with the default charset into a growable char array, normalizing line endings as reading the stream line by line does:  '\r\n' and '\r' become '\n', and non-empty text ends with '\n'.  The text is then copied once into an exactly sized String, optionally trimmed, so the per-call allocation is about the size of the output itself.
+ * <p>
+ * An unpooled buffer can also index lines while capturing, recording the position of each '\n' in a growable int array, for 'IndexedOutput'.
+ * <p>
+ * Buffers are borrowed with 'acquire()' and returned with 'release(CaptureBuffer)' to a bounded shared pool with size classes by capacity.  A buffer that grew past the largest class isn't pooled, so a single large output doesn't stay resident.  Pooled buffers are used by one thread at a time:  the thread draining the stream, then the thread that joined it.
+ *
+ */
+final class CaptureBuffer {
+
+   /* size of the chunk read from the stream, in bytes, and of the decoded chunk, in chars */
+   private static final int CHUNK_SIZE = 8192;
+
+   /* capacities of the size classes, in chars, and the buffers pooled per class */
+   private static final int[] CLASS_CAPACITIES = { 8192, 65536, 524288 };
+   private static final int[] CLASS_SLOTS = { 16, 8, 4 };
+
+   /* largest array that can be allocated, as some VMs reserve header words in an array */
+   private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+   private static final ArrayBlockingQueue<CaptureBuffer>[] POOLS = newPools( );
+
+
+   private final byte[] bytes = new byte[CHUNK_SIZE];
+   private final ByteBuffer byteBuffer = ByteBuffer.wrap( bytes );
+   private final CharBuffer charBuffer = CharBuffer.allocate( CHUNK_SIZE );
+   private final CharsetDecoder decoder = Charset.defaultCharset( ).newDecoder( ).onMalformedInput( CodingErrorAction.REPLACE ).onUnmappableCharacter( CodingErrorAction.REPLACE );
+
+   private char[] data = new char[CLASS_CAPACITIES[0]];
+   private int length;
+   private boolean pendingCr;
+
+   /* positions of the '\n' ending each line, if indexing lines */
+   private int[] lineEnds;
+   private int lineCount;
+
+
+   private CaptureBuffer( ) { }
+
+
+   /*
+    * Constructs an unpooled buffer that, if indexLines is 'true', records the position of each line end as it captures.
+    */
+   CaptureBuffer( boolean indexLines ) {
+      this.lineEnds = indexLines ? new int[1024] : null;
+   }
+
+
+   @SuppressWarnings( { "unchecked", "rawtypes" } )
+   private static ArrayBlockingQueue<CaptureBuffer>[] newPools( ) {
+
+      ArrayBlockingQueue<CaptureBuffer>[] pools = new ArrayBlockingQueue[CLASS_CAPACITIES.length];
+
+      for ( int i = 0; i < pools.length; i++ ) {
+         pools[i] = new ArrayBlockingQueue<CaptureBuffer>( CLASS_SLOTS[i] );
+      }
+
+      return( pools );
+
+   }
+
+
+   /*
+    * Returns an empty buffer from the pool, preferring the largest so that repeated large outputs don't regrow a buffer, or a new buffer if the pool is empty.
+    */
+   static CaptureBuffer acquire( ) {
+
+      for ( int i = POOLS.length - 1; i >= 0; i-- ) {
+         CaptureBuffer buffer = POOLS[i].poll( );
+         if ( buffer != null ) {
+            return( buffer );
+         }
+      }
+
+      return( new CaptureBuffer( ) );
+
+   }
+
+
+   /*
+    * Returns the buffer to the pool for reuse, unless it grew past the largest size class or its class is full.  The buffer must not be used after it's released.
+    */
+   static void release( CaptureBuffer buffer ) {
+
+      if ( buffer.lineEnds != null ) {
+         return;
+      }
+
+      buffer.length = 0;
+      buffer.pendingCr = false;
+
+      int capacity = buffer.data.length;
+
+      if ( capacity > CLASS_CAPACITIES[CLASS_CAPACITIES.length - 1] ) {
+         return;
+      }
+
+      for ( int i = CLASS_CAPACITIES.length - 1; i >= 0; i-- ) {
+         if ( capacity >= CLASS_CAPACITIES[i] ) {
+            POOLS[i].offer( buffer );
+            return;
+         }
+      }
+
+   }
+
+
+   /*
+    * Returns the number of buffers in the pool.
+    */
+   static int pooled( ) {
+
+      int count = 0;
+
+      for ( ArrayBlockingQueue<CaptureBuffer> pool : POOLS ) {
+         count += pool.size( );
+      }
+
+      return( count );
+
+   }
+
+
+   /*
+    * Reads the stream to its end, appending its decoded and line-normalized text to the buffer.
+    *
+    * @param in
+    *    the stream to read
+    * @throws IOException
+    *    if an I/O error occurs
+    */
+   void readFrom( InputStream in )
+         throws IOException {
+
+      decoder.reset( );
+      byteBuffer.clear( );
+
+      int n;
+
+      // the decoder leaves at most a partial character in the byte buffer, so there's always room to read
+      while ( ( n = in.read( bytes, byteBuffer.position( ), byteBuffer.remaining( ) ) ) != -1 ) {
+         byteBuffer.position( byteBuffer.position( ) + n );
+         byteBuffer.flip( );
+         decode( false );
+         byteBuffer.compact( );
+      }
+
+      byteBuffer.flip( );
+      decode( true );
+
+      while ( decoder.flush( charBuffer ).isOverflow( ) ) {
+         appendDecoded( );
+      }
+      appendDecoded( );
+
+      if ( length > 0 && data[length - 1] != '\n' ) {
+         ensureCapacity( 1 );
+         if ( lineEnds != null ) {
+            addLineEnd( length );
+         }
+         data[length++] = '\n';
+      }
+
+   }
+
+
+   private void decode( boolean endOfInput ) {
+
+      CoderResult result;
+
+      do {
+         result = decoder.decode( byteBuffer, charBuffer, endOfInput );
+         appendDecoded( );
+      } while ( result.isOverflow( ) );
+
+   }
+
+
+   /*
+    * Appends the decoded chars to the buffer, replacing '\r\n' and '\r' with '\n', and clears the char buffer.
+    */
+   private void appendDecoded( ) {
+
+      int count = charBuffer.position( );
+      char[] chars = charBuffer.array( );
+
+      ensureCapacity( count );
+
+      for ( int i = 0; i < count; i++ ) {
+         char c = chars[i];
+         if ( pendingCr ) {
+            pendingCr = false;
+            if ( c == '\n' ) {
+               continue;
+            }
+         }
+         if ( c == '\r' ) {
+            c = '\n';
+            pendingCr = true;
+         }
+         if ( c == '\n' && lineEnds != null ) {
+            addLineEnd( length );
+         }
+         data[length++] = c;
+      }
+
+      charBuffer.clear( );
+
+   }
+
+
+   private void ensureCapacity( int more ) {
+
+      if ( more > data.length - length ) {
+         char[] grown = new char[grownCapacity( data.length, length, more )];
+         System.arraycopy( data, 0, grown, 0, length );
+         data = grown;
+      }
+
+   }
+
+
+   /*
+    * Returns the capacity to which an array of the capacity, holding 'length' elements, grows to hold 'more' elements:  doubled until large enough, then capped at the largest array size.
+    *
+    * @throws OutOfMemoryError
+    *    if 'length + more' exceeds the largest array size
+    */
+   static int grownCapacity( int capacity, int length, int more ) {
+
+      if ( more > MAX_ARRAY_SIZE - length ) {
+         throw new OutOfMemoryError( "Captured output of more than " + MAX_ARRAY_SIZE + " chars is too large for the buffer." );
+      }
+
+      int needed = length + more;
+
+      while ( capacity < needed ) {
+         capacity = ( capacity > MAX_ARRAY_SIZE / 2 ) ? MAX_ARRAY_SIZE : capacity << 1;
+      }
+
+      return( capacity );
+
+   }
+
+
+   private void addLineEnd( int position ) {
+
+      if ( lineCount == lineEnds.length ) {
+         lineEnds = Arrays.copyOf( lineEnds, grownCapacity( lineEnds.length, lineCount, 1 ) );
+      }
+
+      lineEnds[lineCount++] = position;
+
+   }
+
+
+   /*
+    * Returns the array holding the captured chars in [0,length()), which is only valid until more is captured.
+    */
+   char[] array( ) {
+      return( data );
+   }
+
+
+   /*
+    * Returns the positions of the '\n' ending each line in [0,lineCount()), or null if not indexing lines.
+    */
+   int[] lineEnds( ) {
+      return( lineEnds );
+   }
+
+
+   /*
+    * Returns the number of lines captured, if indexing lines.
+    */
+   int lineCount( ) {
+      return( lineCount );
+   }
+
+
+   /*
+    * Returns the number of chars captured.
+    */
+   int length( ) {
+      return( length );
+   }
+
+
+   /*
+    * Returns the captured text as an exactly sized String, with leading and trailing whitespace removed as by 'String.trim()' if trim is 'true'.
+    */
+   String toString( boolean trim ) {
+
+      int start = 0;
+      int end = length;
+
+      if ( trim ) {
+         while ( start < end && data[start] <= ' ' ) {
+            start++;
+         }
+         while ( end > start && data[end - 1] <= ' ' ) {
+            end--;
+         }
+      }
+
+      return( new String( data, start, end - start ) );
+
+   }
+
+
+   @Override
+   public String toString( ) {
+      return( toString( false ) );
+   }
+
+}
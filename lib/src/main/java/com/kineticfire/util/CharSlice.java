@@ -0,0 +1,83 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+/*
+ * A CharSequence view of a range of a char array, without copying.
+ * <p>
+ * The range can be repositioned with 'set(...)' so that one instance can be reused to present successive lines to a predicate.
+ *
+ */
+final class CharSlice implements CharSequence {
+
+   private char[] array;
+   private int start;
+   private int end;
+
+
+   CharSlice( char[] array, int start, int end ) {
+      set( array, start, end );
+   }
+
+
+   /*
+    * Repositions the view to the range [start,end) of the array.
+    */
+   CharSlice set( char[] array, int start, int end ) {
+      this.array = array;
+      this.start = start;
+      this.end = end;
+      return( this );
+   }
+
+
+   @Override
+   public int length( ) {
+      return( end - start );
+   }
+
+
+   @Override
+   public char charAt( int index ) {
+      if ( index < 0 || index >= end - start ) {
+         throw new IndexOutOfBoundsException( "Index " + index + " out of bounds for length " + ( end - start ) );
+      }
+      return( array[start + index] );
+   }
+
+
+   @Override
+   public CharSequence subSequence( int from, int to ) {
+      if ( from < 0 || to > end - start || from > to ) {
+         throw new IndexOutOfBoundsException( "Range [" + from + "," + to + ") out of bounds for length " + ( end - start ) );
+      }
+      return( new CharSlice( array, start + from, start + to ) );
+   }
+
+
+   @Override
+   public String toString( ) {
+      return( new String( array, start, end - start ) );
+   }
+
+}
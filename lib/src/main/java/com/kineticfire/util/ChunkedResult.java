@@ -0,0 +1,439 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+
+
+/**
+ * The merged result of a task executed over a list of arguments split into chunks by 'Exec.execChunked(...)', in the manner of 'xargs'.
+ * <p>
+ * Each chunk is a native command line process running the base task followed by some of the arguments.  The result holds the result of each chunk, in argument order, and merges them:  the task succeeded only if every chunk succeeded, and the output and error output are those of the chunks concatenated in argument order.  Use 'getFailedChunks()' to attribute failures to the arguments of the chunks that failed.  Instances are immutable.
+ *
+ */
+public final class ChunkedResult {
+
+   /** ARG_MAX assumed if it can't be queried, the Linux value before kernel 2.6.23 */
+   private static final long DEFAULT_ARG_MAX = 131072;
+
+   /** bytes of the argument and environment space kept free, as by 'xargs' */
+   private static final long HEADROOM = 2048;
+
+   /** maximum bytes of a single argument or environment string on Linux (MAX_ARG_STRLEN) */
+   private static final long MAX_ARG_STRLEN = 131072;
+
+   /** bytes of the pointer to each argument and environment string */
+   private static final long POINTER_SIZE = 8;
+
+
+   private final List<Chunk> chunks;
+
+
+   private ChunkedResult( List<Chunk> chunks ) {
+      this.chunks = Collections.unmodifiableList( chunks );
+   }
+
+
+   /*
+    * Executes the base task over the arguments split into chunks, with up to 'parallelism' chunks at a time, and returns the merged result.
+    * <p>
+    * See 'Exec.execChunked(List&lt;String&gt;,List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;,int,int)' for the parameters and exceptions.
+    */
+   static ChunkedResult execute( List<String> baseTask, List<String> args, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv, int maxArgsPerChunk, int parallelism )
+         throws IOException {
+
+      if ( args == null ) {
+         throw new NullPointerException( "Argument 'args' cannot be null." );
+      }
+
+      if ( maxArgsPerChunk < 0 ) {
+         throw new IllegalArgumentException( "Illegal value '" + maxArgsPerChunk + "' for 'maxArgsPerChunk'.  Must be non-negative." );
+      }
+
+      if ( parallelism < 1 ) {
+         throw new IllegalArgumentException( "Illegal value '" + parallelism + "' for 'parallelism'.  Must be positive." );
+      }
+
+      if ( config != null ) {
+         for ( String key : new String[]{ "redirectOutType", "redirectErrType" } ) {
+            if ( "overwrite".equals( config.get( key ) ) ) {
+               // each chunk would overwrite the output of the others
+               throw new IllegalArgumentException( "Illegal value 'overwrite' for '" + key + "' in 'config'.  Chunks must 'append'." );
+            }
+         }
+      }
+
+      Exec.Setup setup = Exec.configure( baseTask, config, addEnv, removeEnv );
+
+      List<List<String>> argChunks = split( setup.processBuilder.command( ), args, setup.processBuilder.environment( ), argMax( ), maxArgsPerChunk );
+
+      List<Chunk> chunks = new ArrayList<Chunk>( argChunks.size( ) );
+
+      if ( argChunks.isEmpty( ) ) {
+         return( new ChunkedResult( chunks ) );
+      }
+
+      ExecutorService executor = Executors.newFixedThreadPool( Math.min( parallelism, argChunks.size( ) ) );
+
+      try {
+
+         List<Future<Chunk>> futures = new ArrayList<Future<Chunk>>( argChunks.size( ) );
+
+         for ( List<String> argChunk : argChunks ) {
+            futures.add( executor.submit( TraceContext.propagate( ( ) -> {
+               List<String> task = new ArrayList<String>( baseTask.size( ) + argChunk.size( ) );
+               task.addAll( baseTask );
+               task.addAll( argChunk );
+               return( new Chunk( argChunk, Exec.exec( task, config, addEnv, removeEnv ) ) );
+            } ) ) );
+         }
+
+         for ( Future<Chunk> future : futures ) {
+            chunks.add( future.get( ) );
+         }
+
+      } catch ( ExecutionException e ) {
+         if ( e.getCause( ) instanceof IOException ) {
+            throw( (IOException)e.getCause( ) );
+         } else if ( e.getCause( ) instanceof RuntimeException ) {
+            throw( (RuntimeException)e.getCause( ) );
+         }
+         throw new IOException( "Exception while executing chunk.", e.getCause( ) );
+      } catch ( InterruptedException e ) {
+         Thread.currentThread( ).interrupt( );
+         throw new InterruptedIOException( "Interrupted while waiting for task execution." );
+      } finally {
+         executor.shutdownNow( );
+      }
+
+      return( new ChunkedResult( chunks ) );
+
+   }
+
+
+   /*
+    * Splits the arguments into chunks such that the command, each chunk of arguments, and the environment fit within the argument space.
+    *
+    * @param command
+    *    the command and its fixed arguments, which precede each chunk
+    * @param args
+    *    the arguments to split
+    * @param environment
+    *    the environment of the processes
+    * @param argMax
+    *    the bytes of the argument and environment space, as per ARG_MAX
+    * @param maxArgsPerChunk
+    *    the maximum number of arguments per chunk, or 0 for no limit
+    * @return the chunks of arguments, in order
+    * @throws IllegalArgumentException
+    *    if an argument is too long to pass to a process, or the command and environment leave no room for an argument
+    */
+   static List<List<String>> split( List<String> command, List<String> args, Map<String,String> environment, long argMax, int maxArgsPerChunk ) {
+
+      long fixed = HEADROOM;
+
+      for ( String part : command ) {
+         fixed += cost( part );
+      }
+
+      for ( Map.Entry<String,String> entry : environment.entrySet( ) ) {
+         fixed += cost( entry.getKey( ) + "=" + entry.getValue( ) );
+      }
+
+      List<List<String>> chunks = new ArrayList<List<String>>( );
+      List<String> chunk = new ArrayList<String>( );
+      long size = fixed;
+
+      for ( String arg : args ) {
+
+         if ( arg == null ) {
+            throw new NullPointerException( "Argument 'args' cannot contain null." );
+         }
+
+         long argCost = cost( arg );
+
+         if ( argCost - POINTER_SIZE > MAX_ARG_STRLEN || fixed + argCost > argMax ) {
+            throw new IllegalArgumentException( "Illegal value for 'args'.  Argument of " + ( argCost - POINTER_SIZE - 1 ) + " bytes doesn't fit in the argument space." );
+         }
+
+         if ( !chunk.isEmpty( ) && ( size + argCost > argMax || ( maxArgsPerChunk > 0 && chunk.size( ) == maxArgsPerChunk ) ) ) {
+            chunks.add( chunk );
+            chunk = new ArrayList<String>( );
+            size = fixed;
+         }
+
+         chunk.add( arg );
+         size += argCost;
+
+      }
+
+      if ( !chunk.isEmpty( ) ) {
+         chunks.add( chunk );
+      }
+
+      return( chunks );
+
+   }
+
+
+   /*
+    * Returns the bytes a string takes in the argument space:  its encoding, its terminating NUL, and its pointer.
+    */
+   private static long cost( String value ) {
+      return( value.getBytes( StandardCharsets.UTF_8 ).length + 1 + POINTER_SIZE );
+   }
+
+
+   /*
+    * Returns the bytes of the argument and environment space of a new process, queried once with 'getconf ARG_MAX'.
+    */
+   static long argMax( ) {
+      return( ArgMaxHolder.ARG_MAX );
+   }
+
+
+   private static final class ArgMaxHolder {
+
+      static final long ARG_MAX = queryArgMax( );
+
+      private static long queryArgMax( ) {
+
+         try {
+
+            Process proc = new ProcessBuilder( "getconf", "ARG_MAX" ).redirectErrorStream( true ).start( );
+
+            String line;
+
+            try ( BufferedReader reader = new BufferedReader( new InputStreamReader( proc.getInputStream( ) ) ) ) {
+               line = reader.readLine( );
+            }
+
+            if ( proc.waitFor( ) == 0 && line != null && line.trim( ).matches( "[0-9]{1,18}" ) ) {
+               return( Long.parseLong( line.trim( ) ) );
+            }
+
+         } catch ( IOException ignore ) {
+            // fall through to the default
+         } catch ( InterruptedException e ) {
+            Thread.currentThread( ).interrupt( );
+         }
+
+         return( DEFAULT_ARG_MAX );
+
+      }
+
+   }
+
+
+   /**
+    * Returns whether every chunk succeeded, e.g. returned an exit value of 0.
+    *
+    * @return 'true' if every chunk succeeded and 'false' otherwise
+    */
+   public boolean isSuccess( ) {
+      return( getFailedChunks( ).isEmpty( ) );
+   }
+
+
+   /**
+    * Returns the merged exit value:  that of the first chunk, in argument order, that failed, or 0 if every chunk succeeded.
+    *
+    * @return the merged exit value
+    */
+   public int getExitValue( ) {
+
+      for ( Chunk chunk : chunks ) {
+         if ( !chunk.isSuccess( ) ) {
+            return( chunk.getExitValue( ) );
+         }
+      }
+
+      return( 0 );
+
+   }
+
+
+   /**
+    * Returns the output of the chunks, in argument order, joined with '\n' and omitting empty outputs.
+    *
+    * @return the merged output, which is empty if no chunk had output or output was redirected to a file
+    */
+   public String getOut( ) {
+      return( join( false ) );
+   }
+
+
+   /**
+    * Returns the error output of the chunks, in argument order, joined with '\n' and omitting empty error outputs.
+    *
+    * @return the merged error output, which is empty if no chunk had error output
+    */
+   public String getErr( ) {
+      return( join( true ) );
+   }
+
+
+   /**
+    * Returns the number of chunks, which is the number of processes executed.
+    *
+    * @return the number of chunks
+    */
+   public int getChunkCount( ) {
+      return( chunks.size( ) );
+   }
+
+
+   /**
+    * Returns the chunks, in argument order.
+    *
+    * @return the chunks
+    */
+   public List<Chunk> getChunks( ) {
+      return( chunks );
+   }
+
+
+   /**
+    * Returns the chunks that failed, in argument order.
+    *
+    * @return the failed chunks, which is empty if every chunk succeeded
+    */
+   public List<Chunk> getFailedChunks( ) {
+
+      List<Chunk> failed = new ArrayList<Chunk>( );
+
+      for ( Chunk chunk : chunks ) {
+         if ( !chunk.isSuccess( ) ) {
+            failed.add( chunk );
+         }
+      }
+
+      return( failed );
+
+   }
+
+
+   private String join( boolean err ) {
+
+      StringBuilder sb = new StringBuilder( );
+
+      for ( Chunk chunk : chunks ) {
+         String text = err ? chunk.getErr( ) : chunk.getOut( );
+         if ( !text.isEmpty( ) ) {
+            if ( sb.length( ) > 0 ) {
+               sb.append( '\n' );
+            }
+            sb.append( text );
+         }
+      }
+
+      return( sb.toString( ) );
+
+   }
+
+
+   /**
+    * The result of one chunk:  the base task executed with some of the arguments.
+    *
+    */
+   public static final class Chunk {
+
+      private final List<String> args;
+      private final int exitValue;
+      private final String out;
+      private final String err;
+
+
+      Chunk( List<String> args, Map<String,String> resultMap ) {
+         this.args = Collections.unmodifiableList( args );
+         this.exitValue = Integer.parseInt( resultMap.get( "exitValue" ) );
+         this.out = resultMap.get( "out" ) != null ? resultMap.get( "out" ) : "";
+         this.err = resultMap.get( "err" ) != null ? resultMap.get( "err" ) : "";
+      }
+
+
+      /**
+       * Returns the arguments passed to this chunk.
+       *
+       * @return the arguments of the chunk
+       */
+      public List<String> getArgs( ) {
+         return( args );
+      }
+
+
+      /**
+       * Returns whether the chunk succeeded, e.g. returned an exit value of 0.
+       *
+       * @return 'true' if the chunk succeeded and 'false' otherwise
+       */
+      public boolean isSuccess( ) {
+         return( exitValue == 0 );
+      }
+
+
+      /**
+       * Returns the exit value returned by the process.
+       *
+       * @return the exit value on the range of [0,255]
+       */
+      public int getExitValue( ) {
+         return( exitValue );
+      }
+
+
+      /**
+       * Returns the output of the chunk.
+       *
+       * @return the output, which is empty if there was none or it was redirected to a file
+       */
+      public String getOut( ) {
+         return( out );
+      }
+
+
+      /**
+       * Returns the error output of the chunk.
+       *
+       * @return the error output, which is empty if there was none or it was redirected
+       */
+      public String getErr( ) {
+         return( err );
+      }
+
+   }
+
+}
@@ -0,0 +1,370 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.IOException;
+
+
+
+/**
+ * Captures a process output stream in memory as compressed blocks, compressing the output as it arrives and decompressing it only when read.
+ * <p>
+ * Pass an instance as a handler to 'Exec.exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;,OutputHandler,OutputHandler)'.  Output is collected into blocks that are compressed with the JDK's Deflater at its fastest level as each block fills, so at most one uncompressed block is held while capturing.  Repetitive output such as build logs and test reports typically compresses to a small fraction of its size, which suits retaining the output of many executions.
+ * <p>
+ * Read the output with 'openStream()', 'asString()', or 'lines()'; each decompresses the blocks one at a time as it proceeds, and nothing decompressed is retained.  Captured output is the raw bytes produced by the process, without line ending normalization or trimming.  An instance captures one stream once.
+ * <p>
+ * Instances are thread-safe.  While a stream is being captured, 'size()', 'compressedSize()', and the read methods reflect the blocks compressed so far, not the partial block being filled.
+ *
+ */
+public final class CompressedCapture implements OutputHandler {
+
+   /** default size in bytes of an uncompressed block */
+   public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+
+   private final int blockSize;
+
+   private final List<byte[]> blocks = new ArrayList<byte[]>( );
+   private final List<Integer> blockLengths = new ArrayList<Integer>( );
+   private long size;
+   private long compressedSize;
+   private boolean handled;
+
+
+   /**
+    * Constructs a CompressedCapture with the default block size.
+    *
+    */
+   public CompressedCapture( ) {
+      this( DEFAULT_BLOCK_SIZE );
+   }
+
+
+   /**
+    * Constructs a CompressedCapture with the specified block size.
+    * <p>
+    * Larger blocks compress better, while smaller blocks hold less uncompressed output while capturing and reading.
+    *
+    * @param blockSize
+    *    the size in bytes of an uncompressed block; must be at least 1
+    * @throws IllegalArgumentException
+    *    if blockSize is less than 1
+    */
+   public CompressedCapture( int blockSize ) {
+
+      if ( blockSize < 1 ) {
+         throw new IllegalArgumentException( "Illegal value '" + blockSize + "' for 'blockSize'.  Must be at least 1." );
+      }
+
+      this.blockSize = blockSize;
+   }
+
+
+   /**
+    * Captures and compresses the stream until end of stream.
+    *
+    * @param in
+    *    the stream to capture
+    * @param process
+    *    the process producing the stream
+    * @throws IOException
+    *    if an I/O error occurs reading the stream
+    * @throws IllegalStateException
+    *    if this instance already captured a stream
+    */
+   @Override
+   public void handle( InputStream in, Process process )
+         throws IOException {
+
+      synchronized ( this ) {
+
+         if ( handled ) {
+            throw new IllegalStateException( "CompressedCapture already captured a stream." );
+         }
+
+         handled = true;
+
+      }
+
+      Deflater deflater = new Deflater( Deflater.BEST_SPEED );
+
+      try {
+
+         byte[] block = new byte[blockSize];
+         byte[] buffer = new byte[blockSize + blockSize / 16 + 64];
+         int length = 0;
+         int read;
+
+         while ( ( read = in.read( block, length, blockSize - length ) ) != -1 ) {
+
+            length += read;
+
+            if ( length == blockSize ) {
+               buffer = compress( deflater, block, length, buffer );
+               length = 0;
+            }
+
+         }
+
+         if ( length > 0 ) {
+            compress( deflater, block, length, buffer );
+         }
+
+      } finally {
+         deflater.end( );
+      }
+
+   }
+
+
+   /**
+    * Returns the number of bytes captured, before compression.
+    *
+    * @return the number of bytes captured
+    */
+   public synchronized long size( ) {
+      return( size );
+   }
+
+
+   /**
+    * Returns the number of bytes held for the captured output, after compression.
+    *
+    * @return the compressed size in bytes
+    */
+   public synchronized long compressedSize( ) {
+      return( compressedSize );
+   }
+
+
+   /**
+    * Opens a stream that decompresses the captured output from the beginning, one block at a time.
+    *
+    * @return a stream of the captured output
+    */
+   public synchronized InputStream openStream( ) {
+      return( new BlockInputStream( new ArrayList<byte[]>( blocks ), new ArrayList<Integer>( blockLengths ) ) );
+   }
+
+
+   /**
+    * Returns the captured output as a String decoded with the default charset, as used by 'Exec.exec(...)'.
+    *
+    * @return the captured output as a String
+    * @throws IllegalStateException
+    *    if the output is too large for a String
+    */
+   public String asString( ) {
+      return( asString( Charset.defaultCharset( ) ) );
+   }
+
+
+   /**
+    * Returns the captured output as a String decoded with the specified charset.
+    *
+    * @param charset
+    *    the charset with which to decode the output
+    * @return the captured output as a String
+    * @throws IllegalStateException
+    *    if the output is too large for a String
+    */
+   public String asString( Charset charset ) {
+
+      long total = size( );
+
+      if ( total > Integer.MAX_VALUE - 8 ) {
+         throw new IllegalStateException( "Captured output of " + total + " bytes is too large for a String." );
+      }
+
+      try ( InputStream in = openStream( ) ) {
+         return( new String( in.readAllBytes( ), charset ) );
+      } catch ( IOException e ) {
+         // the output is in memory, so reading it can't fail
+         throw new IllegalStateException( "Exception while decompressing captured output.", e );
+      }
+
+   }
+
+
+   /**
+    * Returns the lines of the captured output, decoded with the default charset and split as by 'BufferedReader.readLine()', decompressing the output as the stream is consumed.
+    * <p>
+    * The stream holds a native decompressor, so close it when done, e.g. with try-with-resources.
+    *
+    * @return a stream of the lines, without line terminators
+    */
+   public Stream<String> lines( ) {
+
+      InputStream in = openStream( );
+
+      return( new BufferedReader( new InputStreamReader( in, Charset.defaultCharset( ) ) ).lines( ).onClose( ( ) -> {
+         try {
+            in.close( );
+         } catch ( IOException ignore ) {
+            // closing releases the decompressor and can't fail
+         }
+      } ) );
+
+   }
+
+
+   /*
+    * Compresses a block and appends it, returning the buffer, which may have been enlarged.  The lock is held only to append the compressed block, so that readers aren't blocked while capturing.
+    */
+   private byte[] compress( Deflater deflater, byte[] block, int length, byte[] buffer ) {
+
+      deflater.reset( );
+      deflater.setInput( block, 0, length );
+      deflater.finish( );
+
+      int compressedLength = 0;
+
+      while ( !deflater.finished( ) ) {
+         if ( compressedLength == buffer.length ) {
+            buffer = Arrays.copyOf( buffer, buffer.length * 2 );
+         }
+         compressedLength += deflater.deflate( buffer, compressedLength, buffer.length - compressedLength );
+      }
+
+      byte[] compressed = Arrays.copyOf( buffer, compressedLength );
+
+      synchronized ( this ) {
+         blocks.add( compressed );
+         blockLengths.add( length );
+         size += length;
+         compressedSize += compressedLength;
+      }
+
+      return( buffer );
+
+   }
+
+
+   /*
+    * Reads compressed blocks, decompressing each when the previous one is exhausted.
+    *
+    */
+   private static final class BlockInputStream extends InputStream {
+
+      private final List<byte[]> blocks;
+      private final List<Integer> blockLengths;
+      private final Inflater inflater = new Inflater( );
+      private byte[] current = new byte[0];
+      private int position;
+      private int length;
+      private int nextBlock;
+
+      BlockInputStream( List<byte[]> blocks, List<Integer> blockLengths ) {
+         this.blocks = blocks;
+         this.blockLengths = blockLengths;
+      }
+
+      @Override
+      public int read( )
+            throws IOException {
+
+         if ( !fill( ) ) {
+            return( -1 );
+         }
+
+         return( current[position++] & 0xff );
+
+      }
+
+      @Override
+      public int read( byte[] b, int off, int len )
+            throws IOException {
+
+         if ( len == 0 ) {
+            return( 0 );
+         }
+
+         if ( !fill( ) ) {
+            return( -1 );
+         }
+
+         int count = Math.min( len, length - position );
+
+         System.arraycopy( current, position, b, off, count );
+         position += count;
+
+         return( count );
+
+      }
+
+      @Override
+      public void close( ) {
+         inflater.end( );
+      }
+
+      /*
+       * Decompresses the next block if the current one is exhausted, returning 'false' at the end of the output.
+       */
+      private boolean fill( )
+            throws IOException {
+
+         while ( position == length ) {
+
+            if ( nextBlock == blocks.size( ) ) {
+               return( false );
+            }
+
+            int blockLength = blockLengths.get( nextBlock );
+
+            if ( current.length < blockLength ) {
+               current = new byte[blockLength];
+            }
+
+            inflater.reset( );
+            inflater.setInput( blocks.get( nextBlock ) );
+
+            try {
+               length = inflater.inflate( current, 0, blockLength );
+            } catch ( DataFormatException e ) {
+               throw new IOException( "Corrupt compressed block " + nextBlock + ".", e );
+            }
+
+            position = 0;
+            nextBlock++;
+
+         }
+
+         return( true );
+
+      }
+
+   }
+
+}
@@ -27,13 +27,21 @@ import com.kineticfire.util.TaskExecutionException;
 
 
 import java.lang.ProcessBuilder.Redirect;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.HashMap;
-import java.io.BufferedReader;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.io.FilterInputStream;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.File;
 import java.io.IOException;
 
@@ -47,6 +55,12 @@ import java.io.IOException;
  */
 public final class Exec {
 
+   private static final Launcher DEFAULT_LAUNCHER = Exec::launchProcess;
+
+   private static volatile Launcher launcher = DEFAULT_LAUNCHER;
+
+   private static volatile SpanExporter spanExporter;
+
 
    /**
     * Executes a task as a native command line process and returns a Map result, including any error output from the process.
@@ -110,6 +124,14 @@ public final class Exec {
     *    <li>redirectErrToOut - "true" to redirect the standard error to standard output; optional, default is not to redirect standard error; cannot be used in combination with 'redirectErrToFile' otherwise an exception will be thrown</li>
     *    <li>redirectErrFilePath - redirect standard error by providing a file path and name of the error file; must also define 'redirectErrType' otherwise an exception is thrown; cannot use in conjection with 'redirectErrToFile' otherwise an error is thrown; optional, defaults to return standard error in Map key 'err'</li>
     *    <li>redirectErrType - 'overwrite' to overwrite the contents of the file and 'append' to append additional output to existing file contents; required if defining 'redirectErrFilePath', otherwise defining will throw an exception</li>
+    *    <li>nice - the niceness adjustment on the range [-20,19] with which to run the task, applied with 'nice'; negative values require privileges; optional, defaults to the niceness of the JVM</li>
+    *    <li>ionice - the I/O scheduling class, as 'idle', 'best-effort:&lt;level&gt;', or 'realtime:&lt;level&gt;' with a level on the range [0,7], applied with 'ionice'; 'realtime' requires privileges; optional, defaults to the I/O scheduling of the JVM</li>
+    *    <li>cpuAffinity - the CPUs on which the task may run as a list such as '0-3,6', applied with 'taskset'; optional, defaults to the CPU affinity of the JVM</li>
+    *    <li>rlimitAs - the maximum address space (virtual memory) of the task in bytes, applied with 'prlimit'; optional, defaults to no added limit</li>
+    *    <li>rlimitCpu - the maximum CPU time of the task in seconds, after which it is killed by SIGXCPU, applied with 'prlimit'; optional, defaults to no added limit</li>
+    *    <li>rlimitNofile - the maximum number of open files of the task, applied with 'prlimit'; optional, defaults to no added limit</li>
+    *    <li>resolveExecutable - "true" to resolve the command to the absolute path of its executable with the cached 'ExecutableResolver.getDefault()' rather than having the PATH searched for every execution, and "false" otherwise; a command that isn't found is left unresolved; optional, defaults to "false"</li>
+    *    <li>statusOnly - "true" to discard standard output and standard error that aren't redirected to a file, using the operating system's null file, so that no thread reads output and the call only awaits the exit of the process, and "false" otherwise; neither 'out' nor 'err' is then defined; optional, defaults to "false"</li>
     * </ul>
     * <p>
     * Returns a Map (unless an exception is thrown) with key-value pairs:
@@ -117,6 +139,8 @@ public final class Exec {
     *    <li>exitValue - the String representation of the integer exit value returned by the process on the range of [0,255]; 0 for success and other values indicate an error; always defined</li>
     *    <li>out - the output returned by the process as a String, which could be an empty String; defined unless the output was redirected to a file</li>
     *    <li>err - contains the error output returned by the process as a String; defined if an error occurred (e.g. exitValue is non-zero), standard error wasn't merged with standard output, and standard error wasn't redirected to a file</li>
+    *    <li>appliedLimits - the resource controls applied to the task, as comma-separated 'key=value' pairs in the order 'rlimitAs', 'rlimitCpu', 'rlimitNofile', 'cpuAffinity', 'nice', 'ionice'; defined if any resource control was configured</li>
+    *    <li>limitHit - the configured rlimit that the task was judged to have hit, or 'none':  'rlimitCpu' if the task was killed by SIGXCPU, and 'rlimitAs' or 'rlimitNofile' if it failed with a standard error message reporting that memory or file descriptors were exhausted; best-effort, since a task may handle a limit without failing; defined if an rlimit was configured</li>
     * </ul>
     *
     * @param task
@@ -176,17 +200,29 @@ public final class Exec {
     *    <li>redirectErrToOut - "true" to redirect the standard error to standard output; optional, default is not to redirect standard error; cannot be used in combination with 'redirectErrToFile' otherwise an exception will be thrown</li>
     *    <li>redirectErrFilePath - redirect standard error by providing a file path and name of the error file; must also define 'redirectErrType' otherwise an exception is thrown; cannot use in conjection with 'redirectErrToFile' otherwise an error is thrown; optional, defaults to return standard error in Map key 'err'</li>
     *    <li>redirectErrType - 'overwrite' to overwrite the contents of the file and 'append' to append additional output to existing file contents; required if defining 'redirectErrFilePath', otherwise defining will throw an exception</li>
+    *    <li>nice - the niceness adjustment on the range [-20,19] with which to run the task, applied with 'nice'; negative values require privileges; optional, defaults to the niceness of the JVM</li>
+    *    <li>ionice - the I/O scheduling class, as 'idle', 'best-effort:&lt;level&gt;', or 'realtime:&lt;level&gt;' with a level on the range [0,7], applied with 'ionice'; 'realtime' requires privileges; optional, defaults to the I/O scheduling of the JVM</li>
+    *    <li>cpuAffinity - the CPUs on which the task may run as a list such as '0-3,6', applied with 'taskset'; optional, defaults to the CPU affinity of the JVM</li>
+    *    <li>rlimitAs - the maximum address space (virtual memory) of the task in bytes, applied with 'prlimit'; optional, defaults to no added limit</li>
+    *    <li>rlimitCpu - the maximum CPU time of the task in seconds, after which it is killed by SIGXCPU, applied with 'prlimit'; optional, defaults to no added limit</li>
+    *    <li>rlimitNofile - the maximum number of open files of the task, applied with 'prlimit'; optional, defaults to no added limit</li>
+    *    <li>resolveExecutable - "true" to resolve the command to the absolute path of its executable with the cached 'ExecutableResolver.getDefault()' rather than having the PATH searched for every execution, and "false" otherwise; a command that isn't found is left unresolved; optional, defaults to "false"</li>
+    *    <li>statusOnly - "true" to discard standard output and standard error that aren't redirected to a file, using the operating system's null file, so that no thread reads output and the call only awaits the exit of the process, and "false" otherwise; neither 'out' nor 'err' is then defined; optional, defaults to "false"</li>
     * </ul>
     * <p>
     * The optional addEnv (which may be null or empty) defines environment variables as key-value pairs to add when executing the task.
     * <p>
     * The optional removeEnv (which may be null or empty) defines environment variables as a list to remove when executing the task.
     * <p>
+    * The task is executed by the installed Launcher, which by default starts a native command line process; see 'setLauncher(Launcher)'.
+    * <p>
     * Returns a Map (unless an exception is thrown) with key-value pairs:
     * <ul>
     *    <li>exitValue - the String representation of the integer exit value returned by the process on the range of [0,255]; 0 for success and other values indicate an error; always defined</li>
     *    <li>out - the output returned by the process as a String, which could be an empty String; defined unless the output was redirected to a file</li>
     *    <li>err - contains the error output returned by the process as a String; defined if an error occurred (e.g. exitValue is non-zero), standard error wasn't merged with standard output, and standard error wasn't redirected to a file</li>
+    *    <li>appliedLimits - the resource controls applied to the task, as comma-separated 'key=value' pairs in the order 'rlimitAs', 'rlimitCpu', 'rlimitNofile', 'cpuAffinity', 'nice', 'ionice'; defined if any resource control was configured</li>
+    *    <li>limitHit - the configured rlimit that the task was judged to have hit, or 'none':  'rlimitCpu' if the task was killed by SIGXCPU, and 'rlimitAs' or 'rlimitNofile' if it failed with a standard error message reporting that memory or file descriptors were exhausted; best-effort, since a task may handle a limit without failing; defined if an rlimit was configured</li>
     * </ul>
     *
     * @param task
@@ -238,7 +274,352 @@ public final class Exec {
    public static Map<String,String> exec( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv )
         throws IOException { 
 
-      Map<String,String> resultMap = new HashMap<String,String>( );
+      return( launcher.launch( task, config, addEnv, removeEnv ) );
+
+   }
+
+
+   /**
+    * Executes a task as a native command line process, passing standard output and/or standard error to OutputHandlers as the process produces them, and returns a Map result.
+    * <p>
+    * This method is equivalent to 'exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;)', except that a stream with a non-null handler is passed to that handler on its own thread instead of being buffered.  A handler sees an empty stream if the corresponding output was redirected to a file or, for standard error, merged into standard output.  The 'trim' configuration doesn't apply to a stream passed to a handler.  Anything a handler leaves unread is discarded.
+    * <p>
+    * Returns a Map (unless an exception is thrown) with key-value pairs:
+    * <ul>
+    *    <li>exitValue - the String representation of the integer exit value returned by the process on the range of [0,255]; 0 for success and other values indicate an error; always defined</li>
+    *    <li>out - the output returned by the process as a String, which could be an empty String; defined unless the output was redirected to a file or passed to a handler</li>
+    *    <li>err - contains the error output returned by the process as a String; defined if an error occurred (e.g. exitValue is non-zero), standard error wasn't merged with standard output, standard error wasn't redirected to a file, and standard error wasn't passed to a handler</li>
+    *    <li>appliedLimits - the resource controls applied to the task, as comma-separated 'key=value' pairs in the order 'rlimitAs', 'rlimitCpu', 'rlimitNofile', 'cpuAffinity', 'nice', 'ionice'; defined if any resource control was configured</li>
+    *    <li>limitHit - the configured rlimit that the task was judged to have hit, or 'none':  'rlimitCpu' if the task was killed by SIGXCPU, and 'rlimitAs' or 'rlimitNofile' if it failed with a standard error message reporting that memory or file descriptors were exhausted; best-effort, since a task may handle a limit without failing; defined if an rlimit was configured</li>
+    * </ul>
+    *
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @param config
+    *    a Map of key-value pairs defining the configuration; optional, can be empty or null
+    * @param addEnv
+    *    a Map of key-value of environment variables to add; optional, can be empty or null
+    * @param removeEnv
+    *    a List of environment variables to remove; optional, can be empty or null
+    * @param outHandler
+    *    handler for standard output; optional, can be null to return standard output in Map key 'out'
+    * @param errHandler
+    *    handler for standard error; optional, can be null to return standard error in Map key 'err'
+    * @return a Map of the result of the command execution
+    * @throws IllegalArgumentException
+    *    <ul>
+    *       <li>if an illegal or inappropriate argument was passed to this method</li>
+    *       <li>if configuring environment variables and the system does not allow such modifications</li>
+    *    </ul>
+    * @throws IndexOutOfBoundsException
+    *    if the task is an empty list
+    * @throws IOException
+    *    if an I/O error occurs, including an exception thrown by a handler
+    * @throws NullPointerException
+    *    <ul>
+    *       <li>if an element in task list is null, or</li>
+    *       <li>attempting to add null key environment variables, or</li> 
+    *       <li>if defining an output file with a null pathname</li>
+    *    </ul>
+    * @throws SecurityException
+    *    if a security manager exists and denies creation of the subprocess, access to a redirect file, or access to the process environment
+    * @throws UnsupportedOperationException
+    *    <ul>
+    *       <li>if the operating system does not support the creation of processes, or</li>
+    *       <li>if configuring environment variables and the system does not allow such modifications</li>
+    *    </ul>
+    */
+   public static Map<String,String> exec( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv, OutputHandler outHandler, OutputHandler errHandler )
+        throws IOException { 
+
+      return( startAndComplete( task, config, addEnv, removeEnv, outHandler, errHandler ) );
+
+   }
+
+
+   /**
+    * Starts a task as a native command line process that discards its output and returns a CompletableFuture that completes with the result Map when the process exits, without a thread waiting for it.
+    * <p>
+    * This method is equivalent to 'exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;)' with 'statusOnly' set to "true" in the config:  standard output and standard error that aren't redirected to a file are discarded and no thread reads output.  The future is completed on exit by 'Process.onExit()', so many tasks can be awaited at the cost of one process launch each.  The result Map defines 'exitValue' and, if resource controls were configured, 'appliedLimits' and 'limitHit'.
+    * <p>
+    * The task always starts a process, without the installed Launcher.  The TraceContext current for the calling thread is passed to the process, and a span is recorded if a SpanExporter is installed, as by 'exec(...)'.  Cancelling the future forcibly destroys the process and its descendants.
+    *
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @param config
+    *    a Map of key-value pairs defining the configuration, as per 'exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;)'; 'statusOnly' is always "true"; optional, can be empty or null
+    * @param addEnv
+    *    a Map of key-value of environment variables to add; optional, can be empty or null
+    * @param removeEnv
+    *    a List of environment variables to remove; optional, can be empty or null
+    * @return a CompletableFuture of the result Map
+    * @throws IllegalArgumentException
+    *    if an illegal or inappropriate argument was passed to this method
+    * @throws IndexOutOfBoundsException
+    *    if the task is an empty list
+    * @throws IOException
+    *    if an I/O error occurs, e.g. the process couldn't be started
+    * @throws NullPointerException
+    *    if an element in task list is null
+    */
+   public static CompletableFuture<Map<String,String>> execAsync( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv )
+        throws IOException {
+
+      Map<String,String> statusConfig = ( config != null ) ? new HashMap<String,String>( config ) : new HashMap<String,String>( );
+      statusConfig.put( "statusOnly", "true" );
+
+      SpanExporter exporter = spanExporter;
+      TraceContext parent = TraceContext.current( );
+      TraceContext context = ( exporter == null ) ? parent : ( parent != null ) ? parent.newChild( ) : TraceContext.newRoot( );
+
+      Setup setup = configure( task, statusConfig, ( context != null ) ? withTraceContext( addEnv, context ) : addEnv, removeEnv );
+
+      Instant startInstant = Instant.now( );
+      long start = System.nanoTime( );
+      Process proc;
+
+      try {
+         proc = setup.processBuilder.start( );
+      } catch ( IOException | RuntimeException e ) {
+         if ( exporter != null ) {
+            long end = System.nanoTime( );
+            exportSpan( exporter, context, parent, task, startInstant, start, end, end, end, -1, new long[2], errorMessage( e ) );
+         }
+         throw( e );
+      }
+
+      long started = System.nanoTime( );
+
+      CompletableFuture<Map<String,String>> future = proc.onExit( ).thenApply( exited -> {
+
+         closeStreams( exited );
+
+         int exitValue = exited.exitValue( );
+
+         if ( exporter != null ) {
+            long end = System.nanoTime( );
+            exportSpan( exporter, context, parent, task, startInstant, start, started, end, end, exitValue, new long[2], null );
+         }
+
+         return( toResultMap( setup, exitValue, null, null ) );
+
+      } );
+
+      future.whenComplete( ( resultMap, e ) -> {
+         if ( e instanceof CancellationException ) {
+            destroyTree( proc );
+         }
+      } );
+
+      return( future );
+
+   }
+
+
+   /**
+    * Installs the Launcher used by 'exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;)' and the methods built on it, such as 'execExceptionOnTaskFail(...)' and 'execResult(...)'.
+    * <p>
+    * The launcher applies JVM-wide, e.g. to install a ReplayLauncher for a test suite.  Methods that take OutputHandlers always start a native command line process.
+    *
+    * @param newLauncher
+    *    the launcher to install, or null to restore the default launcher
+    */
+   public static void setLauncher( Launcher newLauncher ) {
+      launcher = ( newLauncher != null ) ? newLauncher : DEFAULT_LAUNCHER;
+   }
+
+
+   /**
+    * Returns the installed Launcher.
+    *
+    * @return the installed launcher
+    */
+   public static Launcher getLauncher( ) {
+      return( launcher );
+   }
+
+
+   /**
+    * Returns the default Launcher, which starts a native command line process for each task.
+    * <p>
+    * Use it as the delegate of a launcher that wraps process execution, such as a RecordingLauncher.
+    *
+    * @return the default launcher
+    */
+   public static Launcher getDefaultLauncher( ) {
+      return( DEFAULT_LAUNCHER );
+   }
+
+
+   /*
+    * Starts the task as a native command line process and returns the result Map; the implementation of the default Launcher.
+    */
+   private static Map<String,String> launchProcess( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv )
+        throws IOException {
+
+      return( startAndComplete( task, config, addEnv, removeEnv, null, null ) );
+
+   }
+
+
+   /**
+    * Installs the SpanExporter that receives a span for each native command line process started by 'exec(...)' and the methods built on it, such as 'execExceptionOnTaskFail(...)' and 'execResult(...)'.
+    * <p>
+    * The exporter applies JVM-wide.  While it is installed, each execution is recorded as a child span of the TraceContext current for the calling thread, or as the root span of a new trace if none is current, and the process receives the span's context in the 'TRACEPARENT' and 'TRACESTATE' environment variables.  Tasks served by a Launcher without starting a process aren't recorded.
+    *
+    * @param exporter
+    *    the exporter to install, or null to stop recording spans
+    * @see TraceContext
+    */
+   public static void setSpanExporter( SpanExporter exporter ) {
+      spanExporter = exporter;
+   }
+
+
+   /**
+    * Returns the installed SpanExporter.
+    *
+    * @return the installed exporter, or null if spans aren't recorded
+    */
+   public static SpanExporter getSpanExporter( ) {
+      return( spanExporter );
+   }
+
+
+   /*
+    * Starts the task as a native command line process and completes it, passing the TraceContext current for the calling thread to the process and, if a SpanExporter is installed, recording a span of the execution.
+    */
+   private static Map<String,String> startAndComplete( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv, OutputHandler outHandler, OutputHandler errHandler )
+        throws IOException {
+
+      SpanExporter exporter = spanExporter;
+      TraceContext parent = TraceContext.current( );
+
+      if ( exporter == null && parent == null ) {
+         Setup setup = configure( task, config, addEnv, removeEnv );
+         return( complete( setup, setup.processBuilder.start( ), outHandler, errHandler ) );
+      }
+
+      if ( exporter == null ) {
+         // propagate the caller's context, without a span of our own
+         Setup setup = configure( task, config, withTraceContext( addEnv, parent ), removeEnv );
+         return( complete( setup, setup.processBuilder.start( ), outHandler, errHandler ) );
+      }
+
+      TraceContext context = ( parent != null ) ? parent.newChild( ) : TraceContext.newRoot( );
+
+      Setup setup = configure( task, config, withTraceContext( addEnv, context ), removeEnv );
+
+      Instant startInstant = Instant.now( );
+      long start = System.nanoTime( );
+      long started = 0;
+      long[] exited = { 0 };
+      long[] byteCounts = new long[2];
+      int exitValue = -1;
+      String error = null;
+
+      try {
+
+         Process proc = setup.processBuilder.start( );
+         started = System.nanoTime( );
+
+         proc.onExit( ).thenRun( ( ) -> {
+            synchronized ( exited ) {
+               exited[0] = System.nanoTime( );
+            }
+         } );
+
+         Map<String,String> resultMap = complete( setup, proc, outHandler, errHandler, byteCounts );
+
+         exitValue = proc.exitValue( );
+
+         return( resultMap );
+
+      } catch ( IOException | RuntimeException e ) {
+         error = errorMessage( e );
+         throw( e );
+      } finally {
+
+         long end = System.nanoTime( );
+
+         long exitAt;
+         synchronized ( exited ) {
+            exitAt = ( exited[0] == 0 || exited[0] > end ) ? end : exited[0];
+         }
+
+         if ( started == 0 ) {
+            // the process didn't start, so the whole span was spent spawning
+            started = end;
+            exitAt = end;
+         }
+
+         exportSpan( exporter, context, parent, task, startInstant, start, started, exitAt, end, exitValue, byteCounts, error );
+
+      }
+
+   }
+
+
+   /*
+    * Exports the span of an execution from the times, in 'System.nanoTime()', at which it started, the process started, the process exited, and the execution ended.  An exception thrown by the exporter is ignored.
+    */
+   private static void exportSpan( SpanExporter exporter, TraceContext context, TraceContext parent, List<String> task, Instant startInstant, long start, long started, long exitAt, long end, int exitValue, long[] byteCounts, String error ) {
+
+      ExecSpan span = new ExecSpan( context, parent != null ? parent.getSpanId( ) : null, task, startInstant.getEpochSecond( ) * 1000000000L + startInstant.getNano( ),
+                                    started - start, exitAt - started, end - exitAt, exitValue, byteCounts[0], byteCounts[1], error );
+
+      try {
+         exporter.export( span );
+      } catch ( RuntimeException ignore ) {
+         // tracing never fails a task
+      }
+
+   }
+
+
+   private static String errorMessage( Exception e ) {
+      return( e.getMessage( ) != null ? e.getMessage( ) : e.getClass( ).getName( ) );
+   }
+
+
+   /*
+    * Returns the environment variables to add, with the 'TRACEPARENT' and 'TRACESTATE' of the context unless the caller set 'TRACEPARENT'.
+    */
+   static Map<String,String> withTraceContext( Map<String,String> addEnv, TraceContext context ) {
+
+      if ( addEnv != null && addEnv.containsKey( "TRACEPARENT" ) ) {
+         return( addEnv );
+      }
+
+      Map<String,String> env = ( addEnv != null ) ? new HashMap<String,String>( addEnv ) : new HashMap<String,String>( );
+
+      env.put( "TRACEPARENT", context.toTraceparent( ) );
+
+      if ( context.getTraceState( ) != null ) {
+         env.put( "TRACESTATE", context.getTraceState( ) );
+      }
+
+      return( env );
+
+   }
+
+
+   /*
+    * Validates the configuration and environment settings and returns a Setup with a ProcessBuilder ready to start the task, without starting it.
+    * <p>
+    * See 'exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;)' for the parameters and exceptions.
+    *
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @param config
+    *    a Map of key-value pairs defining the configuration; optional, can be empty or null
+    * @param addEnv
+    *    a Map of key-value of environment variables to add; optional, can be empty or null
+    * @param removeEnv
+    *    a List of environment variables to remove; optional, can be empty or null
+    * @return the Setup for the task
+    */
+   static Setup configure( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv ) {
 
       // define flags
       boolean outToFile = false;   // 'true' if standard output is redirected to a file and false otherwise
@@ -347,6 +728,27 @@ public final class Exec {
             errRedirect = true;
          }
 
+         // if specified, discard the output streams not redirected to a file, so there's nothing to read
+         if ( config.get( "statusOnly" ) != null ) {
+
+            if ( config.get( "statusOnly" ).equals( "true" ) ) {
+
+               if ( !outToFile ) {
+                  processBuilder.redirectOutput( Redirect.DISCARD );
+                  outToFile = true;
+               }
+
+               if ( !errRedirect ) {
+                  processBuilder.redirectError( Redirect.DISCARD );
+                  errRedirect = true;
+               }
+
+            } else if ( !config.get( "statusOnly" ).equals( "false" ) ) {
+               throw new IllegalArgumentException( "Illegal value '" + config.get( "statusOnly" ) + "' for 'statusOnly' in 'config'." );
+            }
+
+         }
+
       }
 
       if ( addEnv != null || removeEnv != null ) {
@@ -369,57 +771,405 @@ public final class Exec {
 
       }
 
-      Process proc = processBuilder.start( );
+      if ( config != null && config.get( "resolveExecutable" ) != null ) {
 
-      StringBuffer outSb = new StringBuffer( );
-      StringBuffer errSb = new StringBuffer( );
+         if ( config.get( "resolveExecutable" ).equals( "true" ) ) {
 
-      waitForProcessOutput( proc, outSb, errSb );
+            if ( task.isEmpty( ) ) {
+               throw new IndexOutOfBoundsException( "Argument 'task' cannot be an empty list." );
+            }
 
-      resultMap.put( "exitValue", Integer.toString( proc.exitValue( ) ) );
+            // resolve the command of the task before any resource control wrapper is added in front of it
+            Path resolved = ( task.get( 0 ) != null ) ? ExecutableResolver.getDefault( ).resolve( task.get( 0 ) ) : null;
 
-      if ( !outToFile ) {
-         // if output wasn't redirected to a file, then output is captured in the 'outSb' string buffer (which could be an empty string)
-            // 'out' will be defined unless (1) standard output was redirected to a file or (2) an exception occurred
+            if ( resolved != null ) {
+               List<String> resolvedCommand = new ArrayList<String>( task );
+               resolvedCommand.set( 0, resolved.toString( ) );
+               processBuilder.command( resolvedCommand );
+            }
 
-         String outString;
+         } else if ( !config.get( "resolveExecutable" ).equals( "false" ) ) {
+            throw new IllegalArgumentException( "Illegal value '" + config.get( "resolveExecutable" ) + "' for 'resolveExecutable' in 'config'." );
+         }
 
-         if ( trim ) {
-            outString = outSb.toString( ).trim( );
-         } else {
-            outString = outSb.toString( );
+      }
+
+      StringBuilder appliedLimits = new StringBuilder( );
+      List<String> prefix = resourcePrefix( config, appliedLimits );
+
+      if ( !prefix.isEmpty( ) ) {
+
+         if ( task.isEmpty( ) ) {
+            throw new IndexOutOfBoundsException( "Argument 'task' cannot be an empty list." );
          }
 
-         resultMap.put( "out", outString );
+         // each wrapper execs the next, so the task keeps the process ID of the started process
+         prefix.addAll( processBuilder.command( ) );
+         processBuilder.command( prefix );
 
       }
 
-      if ( proc.exitValue( ) != 0 ) {
+      return( new Setup( processBuilder, outToFile, errRedirect, trim, appliedLimits.length( ) > 0 ? appliedLimits.toString( ) : null, appliedLimits.indexOf( "rlimit" ) >= 0 ) );
 
-         if ( !errRedirect ) {
-            // if the process indicated an error (exit value > 0) and standard error wasn't redirected (to a file or to standard output), so error output is captured in the 'errSb' string buffer (which could be an empty string)
-               // 'err' will only be defined when a process exit value was non-zero and not redirected. So 'err' is only defined when (1) an exception didn't occur so the task ran, (2) the task produced a non-zero exit value, (3) error was not redirected to standard out, and (4) error was not directed to a file
+   }
 
-            String errString;
 
-            if ( trim ) {
-               errString = errSb.toString( ).trim( );
-            } else {
-               errString = errSb.toString( );
-            }
+   /*
+    * Returns the command prefix that applies the resource controls in the config with the standard Linux utilities, appending the applied controls to 'appliedLimits'.
+    *
+    * @param config
+    *    a Map of key-value pairs defining the configuration; optional, can be empty or null
+    * @param appliedLimits
+    *    receives the applied controls as comma-separated 'key=value' pairs
+    * @return the command prefix, which is empty if no resource control was configured
+    * @throws IllegalArgumentException
+    *    if a resource control has an illegal value
+    */
+   private static List<String> resourcePrefix( Map<String,String> config, StringBuilder appliedLimits ) {
 
-            resultMap.put( "err", errString );
-         }
+      List<String> prefix = new ArrayList<String>( );
 
+      if ( config == null ) {
+         return( prefix );
       }
 
-      return( resultMap );
-   }
+      List<String> prlimit = new ArrayList<String>( );
 
+      for ( String key : Arrays.asList( "rlimitAs", "rlimitCpu", "rlimitNofile" ) ) {
+         if ( config.get( key ) != null ) {
+            String value = config.get( key );
+            if ( !value.matches( "[0-9]{1,18}" ) ) {
+               throw new IllegalArgumentException( "Illegal value '" + value + "' for '" + key + "' in 'config'." );
+            }
+            String limit = value;
+            if ( key.equals( "rlimitCpu" ) ) {
+               // a hard limit one second above the soft limit lets SIGXCPU, rather than SIGKILL, end the task
+               limit = value + ":" + ( Long.parseLong( value ) + 1 );
+            }
+            prlimit.add( "--" + key.substring( "rlimit".length( ) ).toLowerCase( ) + "=" + limit );
+            appendLimit( appliedLimits, key, value );
+         }
+      }
 
-   /**
-    * Executes a task as a native command line process and returns the output as a String on success, throwing exceptions on any task execution failure.
-    * <p>
+      if ( !prlimit.isEmpty( ) ) {
+         prefix.add( "prlimit" );
+         prefix.addAll( prlimit );
+         prefix.add( "--" );
+      }
+
+      if ( config.get( "cpuAffinity" ) != null ) {
+         String value = config.get( "cpuAffinity" );
+         if ( !value.matches( "[0-9]+(-[0-9]+)?(,[0-9]+(-[0-9]+)?)*" ) ) {
+            throw new IllegalArgumentException( "Illegal value '" + value + "' for 'cpuAffinity' in 'config'." );
+         }
+         prefix.addAll( Arrays.asList( "taskset", "-c", value ) );
+         appendLimit( appliedLimits, "cpuAffinity", value );
+      }
+
+      if ( config.get( "nice" ) != null ) {
+         String value = config.get( "nice" );
+         int niceness;
+         try {
+            niceness = Integer.parseInt( value );
+         } catch ( NumberFormatException e ) {
+            niceness = Integer.MIN_VALUE;
+         }
+         if ( niceness < -20 || niceness > 19 ) {
+            throw new IllegalArgumentException( "Illegal value '" + value + "' for 'nice' in 'config'." );
+         }
+         prefix.addAll( Arrays.asList( "nice", "-n", Integer.toString( niceness ) ) );
+         appendLimit( appliedLimits, "nice", Integer.toString( niceness ) );
+      }
+
+      if ( config.get( "ionice" ) != null ) {
+         String value = config.get( "ionice" );
+         if ( value.equals( "idle" ) ) {
+            prefix.addAll( Arrays.asList( "ionice", "-c", "3" ) );
+         } else if ( value.matches( "best-effort:[0-7]" ) ) {
+            prefix.addAll( Arrays.asList( "ionice", "-c", "2", "-n", value.substring( value.length( ) - 1 ) ) );
+         } else if ( value.matches( "realtime:[0-7]" ) ) {
+            prefix.addAll( Arrays.asList( "ionice", "-c", "1", "-n", value.substring( value.length( ) - 1 ) ) );
+         } else {
+            throw new IllegalArgumentException( "Illegal value '" + value + "' for 'ionice' in 'config'." );
+         }
+         appendLimit( appliedLimits, "ionice", value );
+      }
+
+      return( prefix );
+
+   }
+
+
+   private static void appendLimit( StringBuilder appliedLimits, String key, String value ) {
+
+      if ( appliedLimits.length( ) > 0 ) {
+         appliedLimits.append( ',' );
+      }
+
+      appliedLimits.append( key ).append( '=' ).append( value );
+
+   }
+
+
+   /*
+    * Drains the output and error streams of a process started from the Setup, waits for it to exit, and returns the result Map as defined by 'exec(...)'.
+    * <p>
+    * A stream with a non-null OutputHandler is passed to that handler and isn't captured in the result Map.
+    *
+    * @param setup
+    *    the Setup from which the process was started
+    * @param proc
+    *    the started process
+    * @param outHandler
+    *    handler for standard output; optional, can be null
+    * @param errHandler
+    *    handler for standard error; optional, can be null
+    * @return a Map of the result of the command execution
+    * @throws IOException
+    *    if a handler threw an exception
+    */
+   static Map<String,String> complete( Setup setup, Process proc, OutputHandler outHandler, OutputHandler errHandler )
+        throws IOException {
+
+      return( complete( setup, proc, outHandler, errHandler, null ) );
+
+   }
+
+
+   /*
+    * Drains the output and error streams of a process started from the Setup, as per 'complete(Setup,Process,OutputHandler,OutputHandler)', and counts the bytes read.
+    *
+    * @param byteCounts
+    *    receives the bytes read from standard output at index 0 and from standard error at index 1; optional, can be null
+    */
+   static Map<String,String> complete( Setup setup, Process proc, OutputHandler outHandler, OutputHandler errHandler, long[] byteCounts )
+        throws IOException {
+
+      if ( outHandler == null && errHandler == null && setup.outToFile && setup.errRedirect ) {
+         // both streams go to files or are discarded, so only await the exit without starting reader threads
+         return( toResultMap( setup, awaitExit( proc ), null, null ) );
+      }
+
+      CaptureBuffer outCapture = null;
+      CaptureBuffer errCapture = null;
+
+      Runnable outDumper;
+      Runnable errDumper;
+
+      InputStream outStream = proc.getInputStream( );
+      InputStream errStream = proc.getErrorStream( );
+
+      if ( byteCounts != null ) {
+         outStream = new CountingInputStream( outStream );
+         errStream = new CountingInputStream( errStream );
+      }
+
+      if ( outHandler == null ) {
+         outCapture = CaptureBuffer.acquire( );
+         outDumper = new TextDumper( outStream, outCapture );
+      } else {
+         outDumper = new HandlerDumper( outStream, proc, outHandler );
+      }
+
+      if ( errHandler == null ) {
+         errCapture = CaptureBuffer.acquire( );
+         errDumper = new TextDumper( errStream, errCapture );
+      } else {
+         errDumper = new HandlerDumper( errStream, proc, errHandler );
+      }
+
+      try {
+
+         try {
+            waitForProcessOutput( proc, outDumper, errDumper );
+         } finally {
+            if ( byteCounts != null ) {
+               byteCounts[0] = ( (CountingInputStream)outStream ).count;
+               byteCounts[1] = ( (CountingInputStream)errStream ).count;
+            }
+         }
+
+         HandlerDumper.rethrow( outDumper );
+         HandlerDumper.rethrow( errDumper );
+
+         int exitValue = proc.exitValue( );
+
+         // standard error is only needed for a failed task, or to judge whether it hit an rlimit
+         String out = ( outCapture != null && !setup.outToFile ) ? outCapture.toString( setup.trim ) : null;
+         String err = ( errCapture != null && ( exitValue != 0 || setup.rlimits ) ) ? errCapture.toString( setup.trim ) : null;
+
+         return( toResultMap( setup, exitValue, out, err ) );
+
+      } finally {
+         // a buffer is only reused once its drainer thread is done with it
+         TextDumper.release( outDumper );
+         TextDumper.release( errDumper );
+      }
+
+   }
+
+
+   /*
+    * Waits for the exit of a process whose output streams are redirected, then closes its streams.
+    *
+    * @param proc
+    *    the started process
+    * @return the exit value of the process
+    */
+   private static int awaitExit( Process proc ) {
+
+      boolean interrupted = false;
+
+      try {
+         while ( true ) {
+            try {
+               return( proc.waitFor( ) );
+            } catch ( InterruptedException ignore ) {
+               interrupted = true;
+            }
+         }
+      } finally {
+         closeStreams( proc );
+         if ( interrupted ) Thread.currentThread( ).interrupt( );
+      }
+
+   }
+
+
+   /*
+    * Returns the result Map as defined by 'exec(...)' from the exit value and captured output of a process started from the Setup.
+    *
+    * @param setup
+    *    the Setup from which the process was started
+    * @param exitValue
+    *    the exit value of the process
+    * @param outSb
+    *    the captured standard output, or null if passed to a handler
+    * @param errSb
+    *    the captured standard error, or null if passed to a handler
+    * @return a Map of the result of the command execution
+    */
+   static Map<String,String> toResultMap( Setup setup, int exitValue, CharSequence outSb, CharSequence errSb ) {
+
+      Map<String,String> resultMap = new HashMap<String,String>( );
+
+      boolean outToFile = setup.outToFile;
+      boolean errRedirect = setup.errRedirect;
+      boolean trim = setup.trim;
+
+      resultMap.put( "exitValue", Integer.toString( exitValue ) );
+
+      if ( !outToFile && outSb != null ) {
+         // if output wasn't redirected to a file, then output is captured in the 'outSb' string buffer (which could be an empty string)
+            // 'out' will be defined unless (1) standard output was redirected to a file or (2) an exception occurred
+
+         String outString;
+
+         if ( trim ) {
+            outString = outSb.toString( ).trim( );
+         } else {
+            outString = outSb.toString( );
+         }
+
+         resultMap.put( "out", outString );
+
+      }
+
+      if ( exitValue != 0 ) {
+
+         if ( !errRedirect && errSb != null ) {
+            // if the process indicated an error (exit value > 0) and standard error wasn't redirected (to a file or to standard output), so error output is captured in the 'errSb' string buffer (which could be an empty string)
+               // 'err' will only be defined when a process exit value was non-zero and not redirected. So 'err' is only defined when (1) an exception didn't occur so the task ran, (2) the task produced a non-zero exit value, (3) error was not redirected to standard out, and (4) error was not directed to a file
+
+            String errString;
+
+            if ( trim ) {
+               errString = errSb.toString( ).trim( );
+            } else {
+               errString = errSb.toString( );
+            }
+
+            resultMap.put( "err", errString );
+         }
+
+      }
+
+      if ( setup.appliedLimits != null ) {
+
+         resultMap.put( "appliedLimits", setup.appliedLimits );
+
+         if ( setup.rlimits ) {
+            resultMap.put( "limitHit", limitHit( setup.appliedLimits, exitValue, errSb ) );
+         }
+
+      }
+
+      return( resultMap );
+   }
+
+
+   /*
+    * Returns the configured rlimit that a task was judged to have hit, or 'none', from its exit value and standard error.
+    *
+    * @param appliedLimits
+    *    the applied resource controls
+    * @param exitValue
+    *    the exit value of the process
+    * @param errSb
+    *    the captured standard error, or null if not captured
+    * @return the name of the rlimit, or 'none'
+    */
+   static String limitHit( String appliedLimits, int exitValue, CharSequence errSb ) {
+
+      if ( exitValue == 0 ) {
+         return( "none" );
+      }
+
+      // a process killed by a signal exits with 128 plus the signal number; SIGXCPU is 24
+      if ( exitValue == 128 + 24 && appliedLimits.contains( "rlimitCpu=" ) ) {
+         return( "rlimitCpu" );
+      }
+
+      String err = ( errSb != null ) ? errSb.toString( ) : "";
+
+      if ( appliedLimits.contains( "rlimitAs=" ) && ( err.contains( "Cannot allocate memory" ) || err.contains( "memory exhausted" ) || err.contains( "Out of memory" ) || err.contains( "MemoryError" ) || err.contains( "bad_alloc" ) ) ) {
+         return( "rlimitAs" );
+      }
+
+      if ( appliedLimits.contains( "rlimitNofile=" ) && err.contains( "Too many open files" ) ) {
+         return( "rlimitNofile" );
+      }
+
+      return( "none" );
+
+   }
+
+
+   /*
+    * Returns the text with line endings normalized as reading a process stream line by line does for the result Map:  '\r\n' and '\r' become '\n', and non-empty text ends with '\n'.
+    *
+    * @param text
+    *    the raw text produced by a process
+    * @return the normalized text
+    */
+   static CharSequence normalizeLines( CharSequence text ) {
+
+      int length = text.length( );
+
+      if ( length == 0 || ( text.charAt( length - 1 ) == '\n' && text.toString( ).indexOf( '\r' ) < 0 ) ) {
+         return( text );
+      }
+
+      String normalized = text.toString( ).replace( "\r\n", "\n" ).replace( '\r', '\n' );
+
+      return( normalized.endsWith( "\n" ) ? normalized : normalized + "\n" );
+
+   }
+
+
+   /**
+    * Executes a task as a native command line process and returns the output as a String on success, throwing exceptions on any task execution failure.
+    * <p>
     * This method provides a wrapper around Java's ProcessBuilder and Process for simplifying configuration through convention, handling access to and buffering process outputs, and promptly writing to the input stream and reading from the output stream to prevent process block or deadlock.
     * <p>
     * This method is a convenience method for 'execExceptionOnTaskFail(List&lt;String&gt;,null,null,null)' which is similar to 'exec(...)', except that method returns a Map&lt;String,String&gt; result for successful or failed command line task and an exception in other cases while this method returns the output of the task as a String if succesful and otherwise throws an exception on any failure (including command line task failure).  A limitation of 'execExceptionOnTaskFail(...)' is that standard error cannot be redirected--to standard out or to a file--as with 'exec(...)' because task errors need to be observed by this method in order to throw the exception.  Information from standard error is available in the thrown exception.
@@ -469,6 +1219,14 @@ public final class Exec {
     *    <li>directory - the working directory in which the task should execute; optional, defaults to the current directory from which the program is executed</li>
     *    <li>redirectOutFilePath - redirect standard output by providing a file path and name of the output file; must also define 'redirectOutType' otherwise an exception is thrown; optional, defaults to returning standard output as  String in Map key 'out'</li>
     *    <li>redirectOutType - 'overwrite' to overwrite the contents of the file and 'append' to append additional output to existing file contents; required if defining 'redirectOutFilePath', otherwise defining will throw an exception</li>
+    *    <li>lightweightException - "true" to throw a lightweight TaskExecutionException, without a stack trace and with a lazily built message, for cheap handling of expected failures, and "false" otherwise; optional, defaults to "false"</li>
+    *    <li>nice - the niceness adjustment on the range [-20,19] with which to run the task, applied with 'nice'; negative values require privileges; optional, defaults to the niceness of the JVM</li>
+    *    <li>ionice - the I/O scheduling class, as 'idle', 'best-effort:&lt;level&gt;', or 'realtime:&lt;level&gt;' with a level on the range [0,7], applied with 'ionice'; 'realtime' requires privileges; optional, defaults to the I/O scheduling of the JVM</li>
+    *    <li>cpuAffinity - the CPUs on which the task may run as a list such as '0-3,6', applied with 'taskset'; optional, defaults to the CPU affinity of the JVM</li>
+    *    <li>rlimitAs - the maximum address space (virtual memory) of the task in bytes, applied with 'prlimit'; optional, defaults to no added limit</li>
+    *    <li>rlimitCpu - the maximum CPU time of the task in seconds, after which it is killed by SIGXCPU, applied with 'prlimit'; optional, defaults to no added limit</li>
+    *    <li>rlimitNofile - the maximum number of open files of the task, applied with 'prlimit'; optional, defaults to no added limit</li>
+    *    <li>resolveExecutable - "true" to resolve the command to the absolute path of its executable with the cached 'ExecutableResolver.getDefault()' rather than having the PATH searched for every execution, and "false" otherwise; a command that isn't found is left unresolved; optional, defaults to "false"</li>
     * </ul>
     * <p>
     * Returns a String result of the task execution on success, and throws an exception on any error.  An empty String may be returned by the task or when standard output is redirected to a file.
@@ -517,6 +1275,14 @@ public final class Exec {
     *    <li>directory - the working directory in which the task should execute; optional, defaults to the current directory from which the program is executed</li>
     *    <li>redirectOutFilePath - redirect standard output by providing a file path and name of the output file; must also define 'redirectOutType' otherwise an exception is thrown; optional, defaults to returning standard output as  String in Map key 'out'</li>
     *    <li>redirectOutType - 'overwrite' to overwrite the contents of the file and 'append' to append additional output to existing file contents; required if defining 'redirectOutFilePath', otherwise defining will throw an exception</li>
+    *    <li>lightweightException - "true" to throw a lightweight TaskExecutionException, without a stack trace and with a lazily built message, for cheap handling of expected failures, and "false" otherwise; optional, defaults to "false"</li>
+    *    <li>nice - the niceness adjustment on the range [-20,19] with which to run the task, applied with 'nice'; negative values require privileges; optional, defaults to the niceness of the JVM</li>
+    *    <li>ionice - the I/O scheduling class, as 'idle', 'best-effort:&lt;level&gt;', or 'realtime:&lt;level&gt;' with a level on the range [0,7], applied with 'ionice'; 'realtime' requires privileges; optional, defaults to the I/O scheduling of the JVM</li>
+    *    <li>cpuAffinity - the CPUs on which the task may run as a list such as '0-3,6', applied with 'taskset'; optional, defaults to the CPU affinity of the JVM</li>
+    *    <li>rlimitAs - the maximum address space (virtual memory) of the task in bytes, applied with 'prlimit'; optional, defaults to no added limit</li>
+    *    <li>rlimitCpu - the maximum CPU time of the task in seconds, after which it is killed by SIGXCPU, applied with 'prlimit'; optional, defaults to no added limit</li>
+    *    <li>rlimitNofile - the maximum number of open files of the task, applied with 'prlimit'; optional, defaults to no added limit</li>
+    *    <li>resolveExecutable - "true" to resolve the command to the absolute path of its executable with the cached 'ExecutableResolver.getDefault()' rather than having the PATH searched for every execution, and "false" otherwise; a command that isn't found is left unresolved; optional, defaults to "false"</li>
     * </ul>
     * <p>
     * The optional addEnv (which may be null or empty) defines environment variables as key-value pairs to add when executing the task.
@@ -566,7 +1332,347 @@ public final class Exec {
    public static String execExceptionOnTaskFail( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv ) 
            throws IOException, TaskExecutionException {
 
-      String out = ""; // return empty string, unless 'out' has data or an is exception thrown
+      boolean lightweight = checkExceptionOnTaskFailConfig( config );
+
+      Map<String,String> resultMap = exec( task, config, addEnv, removeEnv );
+            /* return is as below (unless an exception was thrown):
+             *    - exitValue: the String representation of the integer exit value returned by the process on the range of [0,255]; 0 for success and other values indicate an error; always defined
+             *    - out: the output returned by the process as a String, which could be an empty String; defined unless the output was redirected to a file
+             *    - err: contains the error output returned by the process as a String; defined if an error occurred (e.g. exitValue is non-zero), standard error wasn't merged with standard output, and standard error wasn't redirected to a file
+             */
+
+      return( outOrThrow( task, resultMap, lightweight ) );
+
+   }
+
+
+   /**
+    * Executes a task as a native command line process and returns a TaskResult describing its success or failure, without throwing an exception on task failure.
+    * <p>
+    * This method is a convenience method for 'execResult(List&lt;String&gt;,null,null,null)'.
+    *
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @return the result of the command execution
+    * @throws IllegalArgumentException
+    *    if an illegal or inappropriate argument was passed to this method
+    * @throws IndexOutOfBoundsException
+    *    if the task is an empty list
+    * @throws IOException
+    *    if an I/O error occurs
+    * @throws NullPointerException
+    *    if an element in task list is null
+    * @throws SecurityException
+    *    if a security manager exists and, when attemping to start the process, its checkExec method doesn't allow creation of the subprocess
+    * @throws UnsupportedOperationException
+    *    if the operating system does not support the creation of processes
+    */
+   public static TaskResult execResult( List<String> task )
+           throws IOException {
+
+      return( execResult( task, null, null, null ) );
+
+   }
+
+
+   /**
+    * Executes a task as a native command line process and returns a TaskResult describing its success or failure, without throwing an exception on task failure.
+    * <p>
+    * This method is equivalent to 'execExceptionOnTaskFail(...)', with the same config restrictions, except that a failed task is reported through the returned TaskResult instead of a thrown TaskExecutionException.  This avoids the cost of constructing and throwing an exception for expected failures, such as 'grep' without a match.  The 'lightweightException' config key doesn't apply.
+    *
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @param config
+    *    a Map of key-value pairs defining the configuration; optional, can be empty or null
+    * @param addEnv
+    *    a Map of key-value of environment variables to add; optional, can be empty or null
+    * @param removeEnv
+    *    a List of environment variables to remove; optional, can be empty or null
+    * @return the result of the command execution
+    * @throws IllegalArgumentException
+    *    <ul>
+    *       <li>if an illegal or inappropriate argument was passed to this method</li>
+    *       <li>if configuring environment variables and the system does not allow such modifications</li>
+    *    </ul>
+    * @throws IndexOutOfBoundsException
+    *    if the task is an empty list
+    * @throws IOException
+    *    if an I/O error occurs
+    * @throws NullPointerException
+    *    <ul>
+    *       <li>if an element in task list is null, or</li>
+    *       <li>attempting to add null key environment variables, or</li> 
+    *       <li>if defining an output file with a null pathname</li>
+    *    </ul>
+    * @throws SecurityException
+    *    if a security manager exists and
+    *    <ul>
+    *       <li>when attemping to start the process, its checkExec method doesn't allow creation of the subprocess, or</li>
+    *       <li>when attemping to configure the environment variables, its checkPermission method doesn't allow access to the process environment, or</li>
+    *    </ul>
+    * @throws UnsupportedOperationException
+    *    <ul>
+    *       <li>if the operating system does not support the creation of processes, or</li>
+    *       <li>if configuring environment variables and the system does not allow such modifications</li>
+    *    </ul>
+    */
+   public static TaskResult execResult( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv )
+           throws IOException {
+
+      checkExceptionOnTaskFailConfig( config );
+
+      Map<String,String> resultMap = exec( task, config, addEnv, removeEnv );
+
+      int exitValue = Integer.parseInt( resultMap.get( "exitValue" ) );
+
+      // 'out' is undefined if redirected to a file, and 'err' is defined only on failure since standard error can't be redirected
+      String out = resultMap.get( "out" ) != null ? resultMap.get( "out" ) : "";
+
+      return( new TaskResult( task, exitValue, out, resultMap.get( "err" ) ) );
+
+   }
+
+
+   /**
+    * Executes a task repeatedly in sequence as a native command line process and returns the statistics of its wall time, spawn time, and output size.
+    * <p>
+    * This method is a convenience method for 'profile(List&lt;String&gt;,Map&lt;String,String&gt;,int,int,1)'.
+    *
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @param config
+    *    a Map of key-value pairs defining the configuration as per 'exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;)'; optional, can be empty or null
+    * @param runs
+    *    the number of measured runs; must be positive
+    * @param warmups
+    *    the number of unmeasured runs before the measured runs; must be non-negative
+    * @return the profile of the task
+    * @throws IllegalArgumentException
+    *    if an illegal or inappropriate argument was passed to this method
+    * @throws IndexOutOfBoundsException
+    *    if the task is an empty list
+    * @throws IOException
+    *    if an I/O error occurs, including if the current thread is interrupted while waiting
+    * @throws NullPointerException
+    *    if an element in task list is null, or if defining an output file with a null pathname
+    * @see #profile(List,Map,int,int,int)
+    */
+   public static ExecProfile profile( List<String> task, Map<String,String> config, int runs, int warmups )
+           throws IOException {
+
+      return( profile( task, config, runs, warmups, 1 ) );
+
+   }
+
+
+   /**
+    * Executes a task repeatedly, with up to 'concurrency' runs at a time, as a native command line process and returns the statistics of its wall time, spawn time, and output size.
+    * <p>
+    * The task is executed 'warmups' times without being measured, to load the command and its files into the caches, then 'runs' times.  Each run starts a native command line process, bypassing any installed Launcher.  Standard output is counted and discarded rather than captured; standard error is captured as by 'exec(...)'.  A run that returns a non-zero exit value is counted as a failure, but is still measured.  Compare two profiles with 'ExecProfile.compare(ExecProfile)'.
+    *
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @param config
+    *    a Map of key-value pairs defining the configuration as per 'exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;)'; optional, can be empty or null
+    * @param runs
+    *    the number of measured runs; must be positive
+    * @param warmups
+    *    the number of unmeasured runs before the measured runs; must be non-negative
+    * @param concurrency
+    *    the maximum number of runs executed at a time; must be positive
+    * @return the profile of the task
+    * @throws IllegalArgumentException
+    *    if an illegal or inappropriate argument was passed to this method
+    * @throws IndexOutOfBoundsException
+    *    if the task is an empty list
+    * @throws IOException
+    *    if an I/O error occurs, including if the current thread is interrupted while waiting
+    * @throws NullPointerException
+    *    if an element in task list is null, or if defining an output file with a null pathname
+    */
+   public static ExecProfile profile( List<String> task, Map<String,String> config, int runs, int warmups, int concurrency )
+           throws IOException {
+
+      return( ExecProfile.measure( task, config, runs, warmups, concurrency ) );
+
+   }
+
+
+   /**
+    * Starts a task as a native command line process and returns once a line of its standard output or error contains a match of the pattern, e.g. a server logging that it is listening.
+    * <p>
+    * This method is a convenience method for 'startAndAwaitReady(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;,Predicate&lt;CharSequence&gt;,long)' with a predicate that tests lines as by 'Matcher.find()'.
+    *
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @param config
+    *    a Map of key-value pairs defining the configuration as per 'exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;)'; optional, can be empty or null
+    * @param addEnv
+    *    a Map of key-value of environment variables to add; optional, can be empty or null
+    * @param removeEnv
+    *    a List of environment variables to remove; optional, can be empty or null
+    * @param readyPattern
+    *    the pattern found in the line that signals the process is ready; required
+    * @param timeoutMillis
+    *    the maximum time to wait for the process to be ready, in milliseconds; must be non-negative
+    * @return the running process, which the caller must stop
+    * @throws IllegalArgumentException
+    *    if an illegal or inappropriate argument was passed to this method
+    * @throws IndexOutOfBoundsException
+    *    if the task is an empty list
+    * @throws IOException
+    *    if an I/O error occurs, including if the process couldn't be started or the current thread is interrupted while waiting
+    * @throws NullPointerException
+    *    <ul>
+    *       <li>if an element in task list is null, or</li>
+    *       <li>attempting to add null key environment variables, or</li>
+    *       <li>if defining an output file with a null pathname, or</li>
+    *       <li>if the readyPattern is null</li>
+    *    </ul>
+    * @throws TaskExecutionException
+    *    if the process exited before it was ready; the exception holds the exit value
+    * @throws TimeoutException
+    *    if the process wasn't ready within the timeout
+    */
+   public static RunningProcess startAndAwaitReady( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv, Pattern readyPattern, long timeoutMillis )
+           throws IOException, TaskExecutionException, TimeoutException {
+
+      if ( readyPattern == null ) {
+         throw new NullPointerException( "Argument 'readyPattern' cannot be null." );
+      }
+
+      return( startAndAwaitReady( task, config, addEnv, removeEnv, line -> readyPattern.matcher( line ).find( ), timeoutMillis ) );
+
+   }
+
+
+   /**
+    * Starts a task as a native command line process and returns once a line of its standard output or error satisfies the predicate, e.g. a server logging that it is listening.
+    * <p>
+    * Lines are tested as the process writes them, so this method returns as soon as the process is ready rather than after a fixed delay.  The standard output and error continue to be drained in the background after this method returns.  Output redirected to a file isn't tested.
+    * <p>
+    * If the process exits before it's ready, a TaskExecutionException is thrown.  If it isn't ready within the timeout, it is stopped and a TimeoutException is thrown.  The exception messages include the recent output of the process.  If the ready predicate throws a RuntimeException, the process is stopped and that exception is thrown.
+    *
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @param config
+    *    a Map of key-value pairs defining the configuration as per 'exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;)'; optional, can be empty or null
+    * @param addEnv
+    *    a Map of key-value of environment variables to add; optional, can be empty or null
+    * @param removeEnv
+    *    a List of environment variables to remove; optional, can be empty or null
+    * @param ready
+    *    tests each line, without its line terminator, for the signal that the process is ready; called by one thread at a time until it returns 'true'; required
+    * @param timeoutMillis
+    *    the maximum time to wait for the process to be ready, in milliseconds; must be non-negative
+    * @return the running process, which the caller must stop
+    * @throws IllegalArgumentException
+    *    if an illegal or inappropriate argument was passed to this method
+    * @throws IndexOutOfBoundsException
+    *    if the task is an empty list
+    * @throws IOException
+    *    if an I/O error occurs, including if the process couldn't be started or the current thread is interrupted while waiting
+    * @throws NullPointerException
+    *    <ul>
+    *       <li>if an element in task list is null, or</li>
+    *       <li>attempting to add null key environment variables, or</li>
+    *       <li>if defining an output file with a null pathname, or</li>
+    *       <li>if the ready predicate is null</li>
+    *    </ul>
+    * @throws TaskExecutionException
+    *    if the process exited before it was ready; the exception holds the exit value
+    * @throws TimeoutException
+    *    if the process wasn't ready within the timeout
+    */
+   public static RunningProcess startAndAwaitReady( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv, Predicate<CharSequence> ready, long timeoutMillis )
+           throws IOException, TaskExecutionException, TimeoutException {
+
+      return( RunningProcess.start( task, config, addEnv, removeEnv, ready, timeoutMillis ) );
+
+   }
+
+
+   /**
+    * Executes a base task over a list of arguments, split into as few chunks as fit the system's argument space, with up to 'parallelism' chunks at a time, and returns the merged result.
+    * <p>
+    * This method is a convenience method for 'execChunked(List&lt;String&gt;,List&lt;String&gt;,null,null,null,0,int)'.
+    *
+    * @param baseTask
+    *    the command and any fixed arguments, which precede the arguments of each chunk; required
+    * @param args
+    *    the arguments to split into chunks; required, can be empty
+    * @param parallelism
+    *    the maximum number of chunks executed at a time; must be positive
+    * @return the merged result of the chunks
+    * @throws IllegalArgumentException
+    *    if an illegal or inappropriate argument was passed to this method, including an argument too long to pass to a process
+    * @throws IndexOutOfBoundsException
+    *    if the base task is an empty list
+    * @throws IOException
+    *    if an I/O error occurs, including if the current thread is interrupted while waiting
+    * @throws NullPointerException
+    *    if an element in the base task or argument list is null, or the argument list is null
+    * @see #execChunked(List,List,Map,Map,List,int,int)
+    */
+   public static ChunkedResult execChunked( List<String> baseTask, List<String> args, int parallelism )
+           throws IOException {
+
+      return( execChunked( baseTask, args, null, null, null, 0, parallelism ) );
+
+   }
+
+
+   /**
+    * Executes a base task over a list of arguments, split into as few chunks as fit the system's argument space, with up to 'parallelism' chunks at a time, and returns the merged result.
+    * <p>
+    * Like 'xargs', each chunk executes the base task followed by as many of the arguments, in order, as fit within ARG_MAX after the command and the environment of the process, or as 'maxArgsPerChunk' allows.  Chunks are executed as by 'exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;)', so the installed Launcher applies.  An empty argument list executes no chunks.
+    * <p>
+    * The ChunkedResult holds the exit value, output, and error output of each chunk and merges them in argument order.  A chunk that fails doesn't stop the others.  Redirected output must use type 'append', since chunks would otherwise overwrite each other's output; output of chunks executed in parallel may interleave in the file.
+    *
+    * @param baseTask
+    *    the command and any fixed arguments, which precede the arguments of each chunk; required
+    * @param args
+    *    the arguments to split into chunks; required, can be empty
+    * @param config
+    *    a Map of key-value pairs defining the configuration as per 'exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;)'; optional, can be empty or null
+    * @param addEnv
+    *    a Map of key-value of environment variables to add; optional, can be empty or null
+    * @param removeEnv
+    *    a List of environment variables to remove; optional, can be empty or null
+    * @param maxArgsPerChunk
+    *    the maximum number of arguments per chunk, or 0 to be limited only by the argument space
+    * @param parallelism
+    *    the maximum number of chunks executed at a time; must be positive
+    * @return the merged result of the chunks
+    * @throws IllegalArgumentException
+    *    if an illegal or inappropriate argument was passed to this method, including an argument too long to pass to a process or a redirect type of 'overwrite'
+    * @throws IndexOutOfBoundsException
+    *    if the base task is an empty list
+    * @throws IOException
+    *    if an I/O error occurs, including if the current thread is interrupted while waiting
+    * @throws NullPointerException
+    *    if an element in the base task or argument list is null, or the argument list is null
+    */
+   public static ChunkedResult execChunked( List<String> baseTask, List<String> args, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv, int maxArgsPerChunk, int parallelism )
+           throws IOException {
+
+      return( ChunkedResult.execute( baseTask, args, config, addEnv, removeEnv, maxArgsPerChunk, parallelism ) );
+
+   }
+
+
+   /*
+    * Throws an IllegalArgumentException if the config defines a key-value pair that redirects standard error, which 'execExceptionOnTaskFail(...)' doesn't allow, or has an illegal 'lightweightException' value.
+    *
+    * @param config
+    *    a Map of key-value pairs defining the configuration; optional, can be empty or null
+    * @return 'true' if the config selects a lightweight TaskExecutionException and 'false' otherwise
+    * @throws IllegalArgumentException
+    *    if the config redirects standard error or has an illegal 'lightweightException' value
+    */
+   static boolean checkExceptionOnTaskFailConfig( Map<String,String> config ) {
+
+      boolean lightweight = false;
 
       if ( config != null ) {
          // if a config was provided, then need to check for key-value pairs that shouldn't be set
@@ -586,17 +1692,44 @@ public final class Exec {
              throw new IllegalArgumentException( "Illegal configuration in 'config'.  Cannot define 'redirectErrType'." );
          }
 
+         // if 'statusOnly' defined and set to anything but 'false', then throw exception
+         if ( config.get( "statusOnly" ) != null && !config.get( "statusOnly" ).equals( "false" ) ) {
+             throw new IllegalArgumentException( "Illegal configuration in 'config'.  Either do not define 'statusOnly' or set to 'false'." );
+         }
+
+         if ( config.get( "lightweightException" ) != null ) {
+            if ( config.get( "lightweightException" ).equals( "true" ) ) {
+               lightweight = true;
+            } else if ( !config.get( "lightweightException" ).equals( "false" ) ) {
+               throw new IllegalArgumentException( "Illegal value '" + config.get( "lightweightException" ) + "' for 'lightweightException' in 'config'." );
+            }
+         }
+
       }
 
+      return( lightweight );
 
-      Map<String,String> resultMap = exec( task, config, addEnv, removeEnv );
-            /* return is as below (unless an exception was thrown):
-             *    - exitValue: the String representation of the integer exit value returned by the process on the range of [0,255]; 0 for success and other values indicate an error; always defined
-             *    - out: the output returned by the process as a String, which could be an empty String; defined unless the output was redirected to a file
-             *    - err: contains the error output returned by the process as a String; defined if an error occurred (e.g. exitValue is non-zero), standard error wasn't merged with standard output, and standard error wasn't redirected to a file
-             */
+   }
 
 
+   /*
+    * Returns the output in the result Map of a task execution if the task succeeded and otherwise throws a TaskExecutionException describing the failure, as per 'execExceptionOnTaskFail(...)'.
+    *
+    * @param task
+    *    the executed task
+    * @param resultMap
+    *    the result Map returned by 'exec(...)' for a config that doesn't redirect standard error
+    * @param lightweight
+    *    'true' to throw a lightweight TaskExecutionException and 'false' otherwise
+    * @return a String result of the command execution
+    * @throws TaskExecutionException
+    *    if the task returned a non-zero exit value
+    */
+   static String outOrThrow( List<String> task, Map<String,String> resultMap, boolean lightweight )
+           throws TaskExecutionException {
+
+      String out = ""; // return empty string, unless 'out' has data or an is exception thrown
+
       // 'exitValue' always defined
       if ( resultMap.get( "exitValue" ).equals( "0" ) ) {
 
@@ -617,29 +1750,12 @@ public final class Exec {
          }
 
 
-         StringBuffer messageSb = new StringBuffer( );
-         StringBuffer taskSb = new StringBuffer( );
-
-         taskSb.append( "[" );
-
-         // 'task' can't be null, otherwise Process would have thrown NullPointerException
-         for ( String item : task ) {
-             taskSb.append( item + "," );
-         }
-
-         taskSb.deleteCharAt( taskSb.length( ) - 1 ); // remove dangling ','
-
-         taskSb.append( "]" );
-
-
-         messageSb.append( "Executing task '" + taskSb.toString( ) + "' failed with exit value '" + exitValue + "." );
-
          // key 'err' always defined in this case, since error cannot be redirected output or a file; 'err' may be empty String
-         if ( !resultMap.get( "err" ).equals( "" ) ) {
-            messageSb.append( "  " + resultMap.get( "err" ) );
+         if ( lightweight ) {
+            throw( new TaskExecutionException( task, exitValue, resultMap.get( "err" ) ) );
          }
 
-        throw( new TaskExecutionException( messageSb.toString( ), exitValue ) );
+        throw( new TaskExecutionException( TaskExecutionException.buildMessage( task, exitValue, resultMap.get( "err" ) ), exitValue ) );
           
       }
 
@@ -652,19 +1768,19 @@ public final class Exec {
    /*
     * Gets the output and error streams from a process and reads them
     * to keep the process from blocking due to a full output buffer.
-    * The processed stream data is appended to the supplied Appendable.
+    * The processed stream data is consumed by the supplied dumpers.
     * For this, two Threads are started, but join()ed, so we wait.
     * As implied by the waitFor... name, we also wait until we finish
     * as well. Finally, the input, output and error streams are closed.
     *
     * @param self
     *    a Process
-    * @param output
-    *    an Appendable to capture the process stdout
-    * @param error
-    *    an Appendable to capture the process stderr
+    * @param outDumper
+    *    a Runnable that consumes the process stdout
+    * @param errDumper
+    *    a Runnable that consumes the process stderr
     */
-   private static void waitForProcessOutput( Process proc, Appendable output, Appendable error ) {
+   private static void waitForProcessOutput( Process proc, Runnable outDumper, Runnable errDumper ) {
       /*
        * From: Groovy 4.0.15
        * Link: https://github.com/apache/groovy/blob/GROOVY_4_0_15/src/main/java/org/codehaus/groovy/runtime/ProcessGroovyMethods.java
@@ -672,18 +1788,20 @@ public final class Exec {
        * License: Apache License 2.0
        */
 
-      Thread outThread = consumeProcessOutputStream( proc, output );
-      Thread errThread = consumeProcessErrorStream( proc, error );
-
-
       boolean interrupted = false;
+      boolean completed = false;
 
       try {
+         Thread outThread = consumeProcessStream( outDumper );
+         Thread errThread = consumeProcessStream( errDumper );
          try { outThread.join( ); } catch ( InterruptedException ignore ) { interrupted = true; }
          try { errThread.join( ); } catch ( InterruptedException ignore ) { interrupted = true; }
          try { proc.waitFor( ); } catch ( InterruptedException ignore ) { interrupted = true; }
-         closeStreams( proc );
+         completed = true;
       } finally {
+         // if a reader thread couldn't be started, the process may block on a full pipe, so end it before releasing its streams
+         if ( !completed ) destroyTree( proc );
+         closeStreams( proc );
          if ( interrupted ) Thread.currentThread( ).interrupt( );
       }
 
@@ -691,22 +1809,19 @@ public final class Exec {
 
 
     /*
-     * Gets the output stream from a process and reads it
+     * Reads a stream from a process with the supplied dumper
      * to keep the process from blocking due to a full output buffer.
-     * The processed stream data is appended to the supplied Appendable.
      * A new Thread is started, so this method will return immediately.
      *
      * From: Groovy 4.0.15
      * Link: https://github.com/apache/groovy/blob/GROOVY_4_0_15/src/main/java/org/codehaus/groovy/runtime/ProcessGroovyMethods.java
      * License: Apache License 2.0
      *
-     * @param self
-     *   a Process
-     * @param output
-     *   an Appendable to capture the process stdout
+     * @param dumper
+     *   a Runnable that consumes the stream
      * @return the Thread
      */
-    private static Thread consumeProcessOutputStream( Process proc, Appendable output ) {
+    private static Thread consumeProcessStream( Runnable dumper ) {
       /*
        * From: Groovy 4.0.15
        * Link: https://github.com/apache/groovy/blob/GROOVY_4_0_15/src/main/java/org/codehaus/groovy/runtime/ProcessGroovyMethods.java
@@ -714,25 +1829,17 @@ public final class Exec {
        * License: Apache License 2.0
        */
 
-        Thread thread = new Thread( new TextDumper( proc.getInputStream( ), output ) );
+        Thread thread = new Thread( dumper );
         thread.start( );
         return( thread );
     }
 
 
     /*
-     * Gets the error stream from a process and reads it
-     * to keep the process from blocking due to a full buffer.
-     * The processed stream data is appended to the supplied Appendable.
-     * A new Thread is started, so this method will return immediately.
+     * Captures text output in bulk into a pooled CaptureBuffer, then discards anything left unread if reading failed, so the process can't block.  An exception thrown while reading is held for 'HandlerDumper.rethrow(...)'.
      *
-     * @param self
-     *   a Process
-     * @param error
-     *   an Appendable to capture the process stderr
-     * @return the Thread
      */
-    private static Thread consumeProcessErrorStream( Process proc, Appendable error ) {
+    private static class TextDumper implements Runnable {
       /*
        * From: Groovy 4.0.15
        * Link: https://github.com/apache/groovy/blob/GROOVY_4_0_15/src/main/java/org/codehaus/groovy/runtime/ProcessGroovyMethods.java
@@ -740,51 +1847,133 @@ public final class Exec {
        * License: Apache License 2.0
        */
 
-        Thread thread = new Thread( new TextDumper( proc.getErrorStream( ), error ) );
-        thread.start( );
-        return( thread );
+        final InputStream in;
+        final CaptureBuffer capture;
+        volatile Throwable exception;
+        volatile boolean finished;
+
+        public TextDumper( InputStream in, CaptureBuffer capture ) {
+            this.in = in;
+            this.capture = capture;
+        }
+
+        @Override
+        public void run( ) {
+            try {
+                capture.readFrom( in );
+            } catch ( Throwable e ) {
+                exception = e;
+                try {
+                    in.transferTo( OutputStream.nullOutputStream( ) );
+                } catch ( Throwable ignore ) { }
+            } finally {
+                finished = true;
+            }
+        }
+
+        static void release( Runnable dumper ) {
+            if ( dumper instanceof TextDumper && ( (TextDumper)dumper ).finished ) {
+                CaptureBuffer.release( ( (TextDumper)dumper ).capture );
+            }
+        }
     }
 
 
     /*
-     * Captures text output.
+     * Passes a stream to an OutputHandler, then discards anything the handler left unread, even if it failed with an Error, so the process can't block.  Anything thrown by the handler is held for 'rethrow(...)'.
      *
      */
-    private static class TextDumper implements Runnable {
-      /*
-       * From: Groovy 4.0.15
-       * Link: https://github.com/apache/groovy/blob/GROOVY_4_0_15/src/main/java/org/codehaus/groovy/runtime/ProcessGroovyMethods.java
-       * Downloaded: 2023-10-15
-       * License: Apache License 2.0
-       */
+    private static class HandlerDumper implements Runnable {
 
         final InputStream in;
-        final Appendable app;
+        final Process proc;
+        final OutputHandler handler;
+        volatile Throwable exception;
 
-        public TextDumper( InputStream in, Appendable app ) {
+        HandlerDumper( InputStream in, Process proc, OutputHandler handler ) {
             this.in = in;
-            this.app = app;
+            this.proc = proc;
+            this.handler = handler;
         }
 
         @Override
         public void run( ) {
-            InputStreamReader isr = new InputStreamReader( in );
-            BufferedReader br = new BufferedReader( isr );
-            String next;
             try {
-                while ( ( next = br.readLine( ) ) != null ) {
-                    if ( app != null ) {
-                        app.append( next );
-                        app.append( "\n" );
-                    }
+                handler.handle( in, proc );
+            } catch ( Throwable e ) {
+                exception = e;
+            } finally {
+                try {
+                    in.transferTo( OutputStream.nullOutputStream( ) );
+                } catch ( Throwable ignore ) { }
+            }
+        }
+
+        static void rethrow( Runnable dumper )
+                throws IOException {
+            if ( dumper instanceof HandlerDumper && ( (HandlerDumper)dumper ).exception != null ) {
+                Throwable e = ( (HandlerDumper)dumper ).exception;
+                if ( e instanceof IOException ) {
+                    throw( (IOException)e );
+                } else if ( e instanceof Error ) {
+                    // e.g. OutOfMemoryError, rethrown on the calling thread now that the stream is drained
+                    throw( (Error)e );
+                }
+                throw new IOException( "Exception while handling process stream", e );
+            } else if ( dumper instanceof TextDumper && ( (TextDumper)dumper ).exception != null ) {
+                Throwable e = ( (TextDumper)dumper ).exception;
+                if ( e instanceof Error ) {
+                    throw( (Error)e );
                 }
-            } catch ( IOException e ) {
-                throw new RuntimeException("Exception while reading process stream", e);
+                throw new IOException( "Exception while reading process stream", e );
             }
         }
     }
 
 
+   /*
+    * Counts the bytes read through it.  Only the thread draining the stream reads it, and the count is read after that thread is joined.
+    *
+    */
+   private static final class CountingInputStream extends FilterInputStream {
+
+      long count;
+
+      CountingInputStream( InputStream in ) {
+         super( in );
+      }
+
+      @Override
+      public int read( )
+            throws IOException {
+         int b = super.read( );
+         if ( b != -1 ) {
+            count++;
+         }
+         return( b );
+      }
+
+      @Override
+      public int read( byte[] b, int off, int len )
+            throws IOException {
+         int n = super.read( b, off, len );
+         if ( n > 0 ) {
+            count += n;
+         }
+         return( n );
+      }
+
+      @Override
+      public long skip( long n )
+            throws IOException {
+         long skipped = super.skip( n );
+         count += skipped;
+         return( skipped );
+      }
+
+   }
+
+
    /*
     * Closes all streams associated with the process, ignoring any IOExceptions
     *
@@ -805,6 +1994,54 @@ public final class Exec {
     }
 
 
+   /*
+    * Forcibly destroys a process and all of its descendants.
+    *
+    * @param proc
+    *    process
+    */
+   static void destroyTree( Process proc ) {
+      proc.descendants( ).forEach( ProcessHandle::destroyForcibly );
+      proc.destroyForcibly( );
+   }
+
+
+   /*
+    * A configured, but not yet started, task and the flags needed to build its result Map.
+    *
+    */
+   static final class Setup {
+
+      /** builder configured with the task, working directory, redirects, and environment */
+      final ProcessBuilder processBuilder;
+
+      /** 'true' if standard output is redirected to a file and false otherwise */
+      final boolean outToFile;
+
+      /** 'true' if standard error is being redirected to either standard output or to a file and false otherwise */
+      final boolean errRedirect;
+
+      /** 'true' to trim returned output and error streams and 'false' otherwise */
+      final boolean trim;
+
+      /** the applied resource controls as comma-separated 'key=value' pairs, or null if none */
+      final String appliedLimits;
+
+      /** 'true' if an rlimit is applied and false otherwise */
+      final boolean rlimits;
+
+      Setup( ProcessBuilder processBuilder, boolean outToFile, boolean errRedirect, boolean trim, String appliedLimits, boolean rlimits ) {
+         this.processBuilder = processBuilder;
+         this.outToFile = outToFile;
+         this.errRedirect = errRedirect;
+         this.trim = trim;
+         this.appliedLimits = appliedLimits;
+         this.rlimits = rlimits;
+      }
+
+   }
+
+
    private Exec( ) { 
       throw new UnsupportedOperationException( "Class instantiation not supported" );
    }
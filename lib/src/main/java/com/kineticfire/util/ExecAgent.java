@@ -0,0 +1,374 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+
+
+/**
+ * Executes tasks received over TCP from a RemoteExec client as native command line processes, streaming their output back and returning the result Map of 'Exec.exec(...)'.
+ * <p>
+ * The agent doesn't buffer the output of a task:  it forwards each chunk as it's read, and the result Map it returns holds empty 'out' and 'err' values that the client fills from the forwarded output.  A task with a lot of output therefore uses no more memory on the agent than one with little.
+ * <p>
+ * An agent executes at most 'maxConcurrency' tasks at a time; further requests wait for a running task to finish.  The limit is advertised to clients when they connect, so that they don't place more work on the agent than it accepts.  Tasks run with the agent's working directory, environment, and filesystem:  the 'directory' and redirect file paths in a config refer to the agent's host.
+ * <p>
+ * Start an agent in-process with the constructor, or as a standalone process with 'main(String[])':
+ * <pre>
+ *    java -cp java-util.jar com.kineticfire.util.ExecAgent &lt;port&gt; [maxConcurrency] [bindAddress]
+ * </pre>
+ * <p>
+ * The protocol has no authentication or encryption, and an agent executes any task it receives.  'main(String[])' therefore listens on the loopback address unless a bind address is given.  Only bind an agent to a trusted network.
+ *
+ */
+public final class ExecAgent implements AutoCloseable {
+
+   /** identifies the protocol in the handshake sent by the agent */
+   static final int MAGIC = 0x4B464541;
+
+   /** protocol version */
+   static final int VERSION = 2;
+
+   /** frame holding a chunk of standard output */
+   static final byte FRAME_OUT = 'O';
+
+   /** frame holding a chunk of standard error */
+   static final byte FRAME_ERR = 'E';
+
+   /** frame holding the result Map, which ends a response */
+   static final byte FRAME_RESULT = 'R';
+
+   /** frame holding an exception type and message, which ends a response */
+   static final byte FRAME_EXCEPTION = 'X';
+
+
+   /** maximum number of bytes of output in a frame */
+   static final int CHUNK_SIZE = 8192;
+
+
+   private final ServerSocket serverSocket;
+   private final int maxConcurrency;
+   private final Semaphore permits;
+   private final ExecutorService executor;
+   private final AtomicLong executedCount = new AtomicLong( );
+
+
+   /**
+    * Constructs an ExecAgent listening on the address and starts accepting connections.
+    *
+    * @param bindAddress
+    *    the address and port on which to listen; a port of 0 selects a free port, which 'getPort()' returns; required
+    * @param maxConcurrency
+    *    the maximum number of tasks to execute at a time; must be at least 1
+    * @throws IllegalArgumentException
+    *    if maxConcurrency is less than 1
+    * @throws IOException
+    *    if the address can't be bound
+    */
+   public ExecAgent( InetSocketAddress bindAddress, int maxConcurrency )
+         throws IOException {
+
+      if ( maxConcurrency < 1 ) {
+         throw new IllegalArgumentException( "Illegal value '" + maxConcurrency + "' for 'maxConcurrency'.  Must be at least 1." );
+      }
+
+      this.maxConcurrency = maxConcurrency;
+      permits = new Semaphore( maxConcurrency, true );
+
+      serverSocket = new ServerSocket( );
+      serverSocket.setReuseAddress( true );
+      serverSocket.bind( bindAddress );
+
+      executor = Executors.newCachedThreadPool( runnable -> {
+         Thread thread = new Thread( runnable, "exec-agent" );
+         thread.setDaemon( true );
+         return( thread );
+      } );
+
+      executor.execute( this::accept );
+   }
+
+
+   /**
+    * Starts an agent from the command line and runs until the process is terminated.
+    * <p>
+    * Arguments are the port, an optional maximum concurrency that defaults to the number of available processors, and an optional bind address that defaults to the loopback address.  Give a bind address, e.g. '0.0.0.0' for all interfaces, to accept connections from other hosts.
+    *
+    * @param args
+    *    the command line arguments
+    * @throws IOException
+    *    if the address can't be bound
+    */
+   public static void main( String[] args )
+         throws IOException {
+
+      if ( args.length < 1 || args.length > 3 ) {
+         System.err.println( "Usage: ExecAgent <port> [maxConcurrency] [bindAddress]" );
+         System.exit( 2 );
+      }
+
+      int port = Integer.parseInt( args[0] );
+      int concurrency = args.length > 1 ? Integer.parseInt( args[1] ) : Runtime.getRuntime( ).availableProcessors( );
+      InetSocketAddress address = args.length > 2 ? new InetSocketAddress( args[2], port ) : new InetSocketAddress( InetAddress.getLoopbackAddress( ), port );
+
+      ExecAgent agent = new ExecAgent( address, concurrency );
+
+      System.out.println( "ExecAgent listening on " + address.getAddress( ).getHostAddress( ) + " port " + agent.getPort( ) + " with maxConcurrency " + concurrency + "." );
+
+   }
+
+
+   /**
+    * Returns the port on which the agent listens.
+    *
+    * @return the port
+    */
+   public int getPort( ) {
+      return( serverSocket.getLocalPort( ) );
+   }
+
+
+   /**
+    * Returns the maximum number of tasks the agent executes at a time.
+    *
+    * @return the maximum concurrency
+    */
+   public int getMaxConcurrency( ) {
+      return( maxConcurrency );
+   }
+
+
+   /**
+    * Returns the number of tasks currently executing.
+    *
+    * @return the number of executing tasks
+    */
+   public int getActiveCount( ) {
+      return( maxConcurrency - permits.availablePermits( ) );
+   }
+
+
+   /**
+    * Returns the number of tasks executed since the agent started, including tasks that failed to start.
+    *
+    * @return the number of executed tasks
+    */
+   public long getExecutedCount( ) {
+      return( executedCount.get( ) );
+   }
+
+
+   /**
+    * Stops accepting connections and closes the listening socket.  Executing tasks run to completion, but their results may not be delivered.
+    *
+    * @throws IOException
+    *    if an I/O error occurs closing the socket
+    */
+   @Override
+   public void close( )
+         throws IOException {
+
+      serverSocket.close( );
+      executor.shutdown( );
+
+   }
+
+
+   /*
+    * Accepts connections until the listening socket is closed, serving each on its own thread.
+    */
+   private void accept( ) {
+
+      while ( !serverSocket.isClosed( ) ) {
+         try {
+            Socket socket = serverSocket.accept( );
+            executor.execute( ( ) -> serve( socket ) );
+         } catch ( IOException e ) {
+            // socket was closed, or accept failed transiently
+         }
+      }
+
+   }
+
+
+   /*
+    * Sends the handshake, then serves requests on the connection one at a time until the client closes it.
+    */
+   private void serve( Socket socket ) {
+
+      try ( socket ) {
+
+         socket.setTcpNoDelay( true );
+
+         DataInputStream in = new DataInputStream( new BufferedInputStream( socket.getInputStream( ) ) );
+         DataOutputStream out = new DataOutputStream( new BufferedOutputStream( socket.getOutputStream( ) ) );
+
+         out.writeInt( MAGIC );
+         out.writeInt( VERSION );
+         out.writeInt( maxConcurrency );
+         out.flush( );
+
+         while ( true ) {
+
+            List<String> task;
+
+            try {
+               task = RecordingLauncher.readList( in );
+            } catch ( EOFException e ) {
+               // client closed the connection
+               return;
+            }
+
+            Map<String,String> config = RecordingLauncher.readMap( in );
+            Map<String,String> addEnv = RecordingLauncher.readMap( in );
+            List<String> removeEnv = RecordingLauncher.readList( in );
+
+            permits.acquire( );
+
+            try {
+               execute( task, config, addEnv, removeEnv, out );
+            } finally {
+               permits.release( );
+            }
+
+         }
+
+      } catch ( IOException e ) {
+         // client disconnected
+      } catch ( InterruptedException e ) {
+         Thread.currentThread( ).interrupt( );
+      }
+
+   }
+
+
+   /*
+    * Executes a task, streaming its output as frames, and writes the result or exception frame.  The result Map holds empty 'out' and 'err' values, which the client replaces with the output it received.
+    *
+    * @throws IOException
+    *    if the response can't be written to the client
+    */
+   private void execute( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv, DataOutputStream out )
+         throws IOException {
+
+      executedCount.incrementAndGet( );
+
+      Map<String,String> resultMap;
+
+      try {
+
+         Exec.Setup setup = Exec.configure( task, config, addEnv.isEmpty( ) ? null : addEnv, removeEnv.isEmpty( ) ? null : removeEnv );
+
+         Process proc = setup.processBuilder.start( );
+
+         Exec.complete( setup, proc, forwarder( FRAME_OUT, out ), forwarder( FRAME_ERR, out ) );
+
+         resultMap = Exec.toResultMap( setup, proc.exitValue( ), "", "" );
+
+      } catch ( IOException | RuntimeException e ) {
+
+         if ( e instanceof ClientException ) {
+            throw (ClientException)e;
+         }
+
+         synchronized ( out ) {
+            out.writeByte( FRAME_EXCEPTION );
+            RecordingLauncher.writeString( out, e.getClass( ).getSimpleName( ) );
+            RecordingLauncher.writeString( out, e.getMessage( ) );
+            out.flush( );
+         }
+
+         return;
+
+      }
+
+      synchronized ( out ) {
+         out.writeByte( FRAME_RESULT );
+         RecordingLauncher.writeMap( out, resultMap );
+         out.flush( );
+      }
+
+   }
+
+
+   /*
+    * Returns a handler that forwards each chunk of a stream to the client as a frame of the type, destroying the process if the client can't be written.
+    */
+   private static OutputHandler forwarder( byte frameType, DataOutputStream out ) {
+
+      return( ( in, process ) -> {
+
+         byte[] chunk = new byte[CHUNK_SIZE];
+         int read;
+
+         while ( ( read = in.read( chunk ) ) != -1 ) {
+
+            try {
+               synchronized ( out ) {
+                  out.writeByte( frameType );
+                  out.writeInt( read );
+                  out.write( chunk, 0, read );
+                  out.flush( );
+               }
+            } catch ( IOException e ) {
+               Exec.destroyTree( process );
+               throw new ClientException( e );
+            }
+
+         }
+
+      } );
+
+   }
+
+
+   /*
+    * Indicates that the client connection failed, as opposed to the task.
+    *
+    */
+   private static final class ClientException extends IOException {
+
+      private static final long serialVersionUID = 1L;
+
+      ClientException( IOException cause ) {
+         super( "Connection to client failed.", cause );
+      }
+
+   }
+
+}
@@ -0,0 +1,563 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.apache.commons.math3.stat.inference.TTest;
+
+
+
+/**
+ * The latency profile of a task executed repeatedly as a native command line process by 'Exec.profile(...)'.
+ * <p>
+ * A profile holds descriptive statistics for three measures of each measured run:
+ * <ul>
+ *    <li>wall time - milliseconds from starting the process until it exited and its output was read</li>
+ *    <li>spawn time - milliseconds to start the process, e.g. fork and exec</li>
+ *    <li>output size - bytes written to standard output; 0 if standard output is redirected to a file</li>
+ * </ul>
+ * <p>
+ * Use 'compare(ExecProfile)' to test whether the wall time of this profile differs from that of a baseline, e.g. another command or an earlier version of the same command.  Instances are immutable.
+ *
+ */
+public final class ExecProfile {
+
+   private final List<String> task;
+   private final int concurrency;
+   private final int failureCount;
+   private final long elapsedNanos;
+   private final Statistics wallTime;
+   private final Statistics spawnTime;
+   private final Statistics outputSize;
+
+
+   /*
+    * Constructs an ExecProfile from the measurements of each run.
+    *
+    * @param task
+    *    the profiled task
+    * @param concurrency
+    *    the number of runs executed at a time
+    * @param failureCount
+    *    the number of measured runs that returned a non-zero exit value
+    * @param elapsedNanos
+    *    the elapsed time of the measured runs
+    * @param wallMillis
+    *    the wall time of each run in milliseconds
+    * @param spawnMillis
+    *    the spawn time of each run in milliseconds
+    * @param outputBytes
+    *    the output size of each run in bytes
+    */
+   private ExecProfile( List<String> task, int concurrency, int failureCount, long elapsedNanos, double[] wallMillis, double[] spawnMillis, double[] outputBytes ) {
+      this.task = task;
+      this.concurrency = concurrency;
+      this.failureCount = failureCount;
+      this.elapsedNanos = elapsedNanos;
+      this.wallTime = new Statistics( wallMillis );
+      this.spawnTime = new Statistics( spawnMillis );
+      this.outputSize = new Statistics( outputBytes );
+   }
+
+
+   /*
+    * Executes the task 'warmups' times without measuring it, then 'runs' times measuring each run, with up to 'concurrency' runs at a time, and returns the profile.
+    * <p>
+    * See 'Exec.profile(List&lt;String&gt;,Map&lt;String,String&gt;,int,int,int)' for the parameters and exceptions.
+    */
+   static ExecProfile measure( List<String> task, Map<String,String> config, int runs, int warmups, int concurrency )
+         throws IOException {
+
+      if ( runs < 1 ) {
+         throw new IllegalArgumentException( "Illegal value '" + runs + "' for 'runs'.  Must be positive." );
+      }
+
+      if ( warmups < 0 ) {
+         throw new IllegalArgumentException( "Illegal value '" + warmups + "' for 'warmups'.  Must be non-negative." );
+      }
+
+      if ( concurrency < 1 ) {
+         throw new IllegalArgumentException( "Illegal value '" + concurrency + "' for 'concurrency'.  Must be positive." );
+      }
+
+      // validate before starting any process
+      Exec.configure( task, config, null, null );
+
+      double[] wallMillis = new double[runs];
+      double[] spawnMillis = new double[runs];
+      double[] outputBytes = new double[runs];
+      AtomicInteger failures = new AtomicInteger( );
+
+      runAll( task, config, warmups, concurrency, null, null, null, null );
+
+      long start = System.nanoTime( );
+
+      runAll( task, config, runs, concurrency, wallMillis, spawnMillis, outputBytes, failures );
+
+      long elapsedNanos = System.nanoTime( ) - start;
+
+      return( new ExecProfile( new ArrayList<String>( task ), concurrency, failures.get( ), elapsedNanos, wallMillis, spawnMillis, outputBytes ) );
+
+   }
+
+
+   /*
+    * Executes the task 'count' times with up to 'concurrency' runs at a time, recording the measurements of run 'i' at index 'i' of the arrays unless they are null.
+    */
+   private static void runAll( List<String> task, Map<String,String> config, int count, int concurrency, double[] wallMillis, double[] spawnMillis, double[] outputBytes, AtomicInteger failures )
+         throws IOException {
+
+      if ( count == 0 ) {
+         return;
+      }
+
+      if ( concurrency == 1 ) {
+         Exec.Setup setup = Exec.configure( task, config, null, null );
+         for ( int i = 0; i < count; i++ ) {
+            run( setup, i, wallMillis, spawnMillis, outputBytes, failures );
+         }
+         return;
+      }
+
+      AtomicInteger next = new AtomicInteger( );
+      int workers = Math.min( concurrency, count );
+      ExecutorService executor = Executors.newFixedThreadPool( workers );
+
+      try {
+
+         List<Future<Void>> futures = new ArrayList<Future<Void>>( workers );
+
+         for ( int w = 0; w < workers; w++ ) {
+            futures.add( executor.submit( ( ) -> {
+               // a Setup per worker, since a ProcessBuilder isn't thread-safe
+               Exec.Setup setup = Exec.configure( task, config, null, null );
+               int i;
+               while ( ( i = next.getAndIncrement( ) ) < count ) {
+                  run( setup, i, wallMillis, spawnMillis, outputBytes, failures );
+               }
+               return( null );
+            } ) );
+         }
+
+         for ( Future<Void> future : futures ) {
+            future.get( );
+         }
+
+      } catch ( ExecutionException e ) {
+         if ( e.getCause( ) instanceof IOException ) {
+            throw( (IOException)e.getCause( ) );
+         } else if ( e.getCause( ) instanceof RuntimeException ) {
+            throw( (RuntimeException)e.getCause( ) );
+         }
+         throw new IOException( "Exception while profiling task execution.", e.getCause( ) );
+      } catch ( InterruptedException e ) {
+         Thread.currentThread( ).interrupt( );
+         throw new InterruptedIOException( "Interrupted while waiting for task execution." );
+      } finally {
+         executor.shutdownNow( );
+      }
+
+   }
+
+
+   /*
+    * Executes the task once, recording its measurements at index 'i' of the arrays unless they are null.
+    */
+   private static void run( Exec.Setup setup, int i, double[] wallMillis, double[] spawnMillis, double[] outputBytes, AtomicInteger failures )
+         throws IOException {
+
+      long[] bytes = new long[1];
+
+      // count and discard standard output, so the measurements don't include capturing it
+      OutputHandler counter = ( InputStream in, Process process ) -> {
+         byte[] buffer = new byte[8192];
+         int read;
+         while ( ( read = in.read( buffer ) ) != -1 ) {
+            bytes[0] += read;
+         }
+      };
+
+      long start = System.nanoTime( );
+
+      Process proc = setup.processBuilder.start( );
+
+      long started = System.nanoTime( );
+
+      Map<String,String> resultMap = Exec.complete( setup, proc, counter, null );
+
+      long end = System.nanoTime( );
+
+      if ( wallMillis != null ) {
+         wallMillis[i] = ( end - start ) / 1.0e6;
+         spawnMillis[i] = ( started - start ) / 1.0e6;
+         outputBytes[i] = bytes[0];
+         if ( !resultMap.get( "exitValue" ).equals( "0" ) ) {
+            failures.incrementAndGet( );
+         }
+      }
+
+   }
+
+
+   /**
+    * Returns the profiled task.
+    *
+    * @return the profiled task
+    */
+   public List<String> getTask( ) {
+      return( new ArrayList<String>( task ) );
+   }
+
+
+   /**
+    * Returns the number of measured runs.
+    *
+    * @return the number of measured runs
+    */
+   public int getRuns( ) {
+      return( (int)wallTime.getCount( ) );
+   }
+
+
+   /**
+    * Returns the maximum number of runs executed at a time.
+    *
+    * @return the concurrency
+    */
+   public int getConcurrency( ) {
+      return( concurrency );
+   }
+
+
+   /**
+    * Returns the number of measured runs that returned a non-zero exit value.  Failed runs are included in the statistics.
+    *
+    * @return the number of failed runs
+    */
+   public int getFailureCount( ) {
+      return( failureCount );
+   }
+
+
+   /**
+    * Returns the elapsed time of all measured runs in milliseconds.
+    *
+    * @return the elapsed time in milliseconds
+    */
+   public double getElapsedMillis( ) {
+      return( elapsedNanos / 1.0e6 );
+   }
+
+
+   /**
+    * Returns the sustained throughput of the measured runs.
+    *
+    * @return the number of runs per second
+    */
+   public double getThroughput( ) {
+      return( getRuns( ) / ( elapsedNanos / 1.0e9 ) );
+   }
+
+
+   /**
+    * Returns the statistics of the wall time, in milliseconds, from starting the process until it exited and its output was read.
+    *
+    * @return the wall time statistics
+    */
+   public Statistics getWallTime( ) {
+      return( wallTime );
+   }
+
+
+   /**
+    * Returns the statistics of the time, in milliseconds, to start the process.
+    *
+    * @return the spawn time statistics
+    */
+   public Statistics getSpawnTime( ) {
+      return( spawnTime );
+   }
+
+
+   /**
+    * Returns the statistics of the number of bytes written to standard output.
+    *
+    * @return the output size statistics
+    */
+   public Statistics getOutputSize( ) {
+      return( outputSize );
+   }
+
+
+   /**
+    * Compares the wall time of this profile to that of a baseline profile.
+    *
+    * @param baseline
+    *    the profile to compare against; required
+    * @return the comparison
+    * @throws NullPointerException
+    *    if the baseline is null
+    */
+   public Comparison compare( ExecProfile baseline ) {
+
+      if ( baseline == null ) {
+         throw new NullPointerException( "Argument 'baseline' cannot be null." );
+      }
+
+      return( new Comparison( wallTime, baseline.wallTime ) );
+
+   }
+
+
+   /**
+    * Returns a one-line summary of the profile.
+    *
+    * @return a summary of the profile
+    */
+   @Override
+   public String toString( ) {
+      return( String.format( "%s: runs=%d concurrency=%d failures=%d throughput=%.1f/s wallMillis[%s] spawnMillis[%s] outputBytes[%s]",
+                             String.join( " ", task ), getRuns( ), concurrency, failureCount, getThroughput( ), wallTime, spawnTime, outputSize ) );
+   }
+
+
+   /**
+    * Descriptive statistics of one measure over the measured runs.
+    *
+    */
+   public static final class Statistics {
+
+      private final double[] values;
+      private final double mean;
+      private final double standardDeviation;
+      private final double min;
+      private final double max;
+      private final double p50;
+      private final double p90;
+      private final double p99;
+
+
+      Statistics( double[] values ) {
+
+         DescriptiveStatistics stats = new DescriptiveStatistics( values );
+
+         this.values = values;
+         this.mean = stats.getMean( );
+         this.standardDeviation = stats.getStandardDeviation( );
+         this.min = stats.getMin( );
+         this.max = stats.getMax( );
+         this.p50 = stats.getPercentile( 50 );
+         this.p90 = stats.getPercentile( 90 );
+         this.p99 = stats.getPercentile( 99 );
+      }
+
+
+      /**
+       * Returns the number of values.
+       *
+       * @return the number of values
+       */
+      public long getCount( ) {
+         return( values.length );
+      }
+
+
+      /**
+       * Returns the arithmetic mean.
+       *
+       * @return the mean
+       */
+      public double getMean( ) {
+         return( mean );
+      }
+
+
+      /**
+       * Returns the sample standard deviation.
+       *
+       * @return the standard deviation, which is 0 for a single value
+       */
+      public double getStandardDeviation( ) {
+         return( standardDeviation );
+      }
+
+
+      /**
+       * Returns the minimum.
+       *
+       * @return the minimum
+       */
+      public double getMin( ) {
+         return( min );
+      }
+
+
+      /**
+       * Returns the maximum.
+       *
+       * @return the maximum
+       */
+      public double getMax( ) {
+         return( max );
+      }
+
+
+      /**
+       * Returns the median.
+       *
+       * @return the 50th percentile
+       */
+      public double getP50( ) {
+         return( p50 );
+      }
+
+
+      /**
+       * Returns the 90th percentile.
+       *
+       * @return the 90th percentile
+       */
+      public double getP90( ) {
+         return( p90 );
+      }
+
+
+      /**
+       * Returns the 99th percentile.
+       *
+       * @return the 99th percentile
+       */
+      public double getP99( ) {
+         return( p99 );
+      }
+
+
+      /**
+       * Returns an estimate of the percentile.
+       *
+       * @param percentile
+       *    the percentile on the range (0,100]
+       * @return the estimated percentile
+       * @throws IllegalArgumentException
+       *    if the percentile is out of range
+       */
+      public double getPercentile( double percentile ) {
+         return( new DescriptiveStatistics( values ).getPercentile( percentile ) );
+      }
+
+
+      @Override
+      public String toString( ) {
+         return( String.format( "mean=%.3f sd=%.3f p50=%.3f p90=%.3f p99=%.3f max=%.3f", mean, standardDeviation, p50, p90, p99, max ) );
+      }
+
+   }
+
+
+   /**
+    * The comparison of the wall time of a profile to that of a baseline profile, using Welch's t-test for the significance of the difference in means.
+    *
+    */
+   public static final class Comparison {
+
+      private final double meanDifference;
+      private final double ratio;
+      private final double pValue;
+
+
+      Comparison( Statistics candidate, Statistics baseline ) {
+
+         this.meanDifference = candidate.mean - baseline.mean;
+         this.ratio = candidate.mean / baseline.mean;
+
+         if ( candidate.values.length < 2 || baseline.values.length < 2 ) {
+            // the test needs at least two values per sample
+            this.pValue = Double.NaN;
+         } else {
+            this.pValue = new TTest( ).tTest( candidate.values, baseline.values );
+         }
+      }
+
+
+      /**
+       * Returns the mean wall time of the profile minus that of the baseline, in milliseconds.
+       *
+       * @return the difference in mean wall time; positive if the profile is slower than the baseline
+       */
+      public double getMeanDifferenceMillis( ) {
+         return( meanDifference );
+      }
+
+
+      /**
+       * Returns the mean wall time of the profile divided by that of the baseline.
+       *
+       * @return the ratio of mean wall times; greater than 1 if the profile is slower than the baseline
+       */
+      public double getRatio( ) {
+         return( ratio );
+      }
+
+
+      /**
+       * Returns the two-sided p-value of Welch's t-test of the hypothesis that the mean wall times are equal.
+       *
+       * @return the p-value, or NaN if either profile has fewer than two runs or neither varies
+       */
+      public double getPValue( ) {
+         return( pValue );
+      }
+
+
+      /**
+       * Returns whether the difference in mean wall time is significant at the given level.
+       *
+       * @param alpha
+       *    the significance level, e.g. 0.05
+       * @return 'true' if the p-value is less than alpha and 'false' otherwise
+       */
+      public boolean isSignificant( double alpha ) {
+         return( pValue < alpha );
+      }
+
+
+      @Override
+      public String toString( ) {
+         return( String.format( "meanDifferenceMillis=%.3f ratio=%.3f pValue=%.4g", meanDifference, ratio, pValue ) );
+      }
+
+   }
+
+}
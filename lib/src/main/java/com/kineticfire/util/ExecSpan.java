@@ -0,0 +1,306 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.util.List;
+
+
+
+/**
+ * The span of one native command line process started by 'Exec', passed to the installed SpanExporter.
+ * <p>
+ * The duration of the span is split into three phases:
+ * <ul>
+ *    <li>spawn - starting the process, e.g. fork and exec</li>
+ *    <li>run - from when the process started until it exited</li>
+ *    <li>drain - from when the process exited until its output was read and its streams closed</li>
+ * </ul>
+ * <p>
+ * Instances are immutable.
+ *
+ */
+public final class ExecSpan {
+
+   private final TraceContext context;
+   private final String parentSpanId;
+   private final List<String> task;
+   private final long startEpochNanos;
+   private final long spawnNanos;
+   private final long runNanos;
+   private final long drainNanos;
+   private final int exitValue;
+   private final long outBytes;
+   private final long errBytes;
+   private final String error;
+
+
+   /*
+    * Constructs an ExecSpan.
+    *
+    * @param context
+    *    the context of this span
+    * @param parentSpanId
+    *    the span ID of the parent span, or null if this is a root span
+    * @param task
+    *    the executed task
+    * @param startEpochNanos
+    *    the start time in nanoseconds since the epoch
+    * @param spawnNanos
+    *    the duration of the spawn phase
+    * @param runNanos
+    *    the duration of the run phase
+    * @param drainNanos
+    *    the duration of the drain phase
+    * @param exitValue
+    *    the exit value of the process, or -1 if it didn't start
+    * @param outBytes
+    *    the bytes read from standard output
+    * @param errBytes
+    *    the bytes read from standard error
+    * @param error
+    *    the message of the exception that failed the execution, or null if none
+    */
+   ExecSpan( TraceContext context, String parentSpanId, List<String> task, long startEpochNanos, long spawnNanos, long runNanos, long drainNanos, int exitValue, long outBytes, long errBytes, String error ) {
+      this.context = context;
+      this.parentSpanId = parentSpanId;
+      this.task = List.copyOf( task );
+      this.startEpochNanos = startEpochNanos;
+      this.spawnNanos = spawnNanos;
+      this.runNanos = runNanos;
+      this.drainNanos = drainNanos;
+      this.exitValue = exitValue;
+      this.outBytes = outBytes;
+      this.errBytes = errBytes;
+      this.error = error;
+   }
+
+
+   /**
+    * Returns the context of this span, which was passed to the process in the 'TRACEPARENT' environment variable.
+    *
+    * @return the context of this span
+    */
+   public TraceContext getContext( ) {
+      return( context );
+   }
+
+
+   /**
+    * Returns the trace ID.
+    *
+    * @return the trace ID
+    */
+   public String getTraceId( ) {
+      return( context.getTraceId( ) );
+   }
+
+
+   /**
+    * Returns the span ID.
+    *
+    * @return the span ID
+    */
+   public String getSpanId( ) {
+      return( context.getSpanId( ) );
+   }
+
+
+   /**
+    * Returns the span ID of the parent span, which was the current TraceContext when the task was executed.
+    *
+    * @return the parent span ID, or null if this span started a new trace
+    */
+   public String getParentSpanId( ) {
+      return( parentSpanId );
+   }
+
+
+   /**
+    * Returns the name of the span, which is 'exec ' followed by the command.
+    *
+    * @return the name of the span
+    */
+   public String getName( ) {
+      return( "exec " + task.get( 0 ) );
+   }
+
+
+   /**
+    * Returns the executed task.
+    *
+    * @return the task
+    */
+   public List<String> getTask( ) {
+      return( task );
+   }
+
+
+   /**
+    * Returns the start time.
+    *
+    * @return the start time in nanoseconds since the epoch
+    */
+   public long getStartEpochNanos( ) {
+      return( startEpochNanos );
+   }
+
+
+   /**
+    * Returns the duration of the span, which is the sum of its phases.
+    *
+    * @return the duration in nanoseconds
+    */
+   public long getDurationNanos( ) {
+      return( spawnNanos + runNanos + drainNanos );
+   }
+
+
+   /**
+    * Returns the duration of the spawn phase.
+    *
+    * @return the spawn duration in nanoseconds
+    */
+   public long getSpawnNanos( ) {
+      return( spawnNanos );
+   }
+
+
+   /**
+    * Returns the duration of the run phase.
+    *
+    * @return the run duration in nanoseconds, which is 0 if the process didn't start
+    */
+   public long getRunNanos( ) {
+      return( runNanos );
+   }
+
+
+   /**
+    * Returns the duration of the drain phase.
+    *
+    * @return the drain duration in nanoseconds, which is 0 if the process didn't start
+    */
+   public long getDrainNanos( ) {
+      return( drainNanos );
+   }
+
+
+   /**
+    * Returns the exit value of the process.
+    *
+    * @return the exit value, or -1 if the process didn't start
+    */
+   public int getExitValue( ) {
+      return( exitValue );
+   }
+
+
+   /**
+    * Returns the number of bytes read from standard output, which is 0 if it was redirected to a file.
+    *
+    * @return the bytes of output
+    */
+   public long getOutBytes( ) {
+      return( outBytes );
+   }
+
+
+   /**
+    * Returns the number of bytes read from standard error, which is 0 if it was redirected.
+    *
+    * @return the bytes of error output
+    */
+   public long getErrBytes( ) {
+      return( errBytes );
+   }
+
+
+   /**
+    * Returns the message of the exception that failed the execution, e.g. if the process couldn't be started.
+    *
+    * @return the error message, or null if the execution didn't fail with an exception
+    */
+   public String getError( ) {
+      return( error );
+   }
+
+
+   /**
+    * Returns whether the execution succeeded:  the process started, returned an exit value of 0, and its output was read without an exception.
+    *
+    * @return 'true' if the execution succeeded and 'false' otherwise
+    */
+   public boolean isSuccess( ) {
+      return( exitValue == 0 && error == null );
+   }
+
+
+   /**
+    * Returns the span as a single-line JSON object, with OpenTelemetry-style field and attribute names.
+    *
+    * @return the span as JSON
+    */
+   public String toJson( ) {
+
+      StringBuilder sb = new StringBuilder( 512 );
+
+      sb.append( "{\"traceId\":" ).append( Json.string( getTraceId( ) ) );
+      sb.append( ",\"spanId\":" ).append( Json.string( getSpanId( ) ) );
+      sb.append( ",\"parentSpanId\":" ).append( parentSpanId != null ? Json.string( parentSpanId ) : "null" );
+      sb.append( ",\"name\":" ).append( Json.string( getName( ) ) );
+      sb.append( ",\"kind\":\"INTERNAL\"" );
+      sb.append( ",\"startTimeUnixNano\":" ).append( startEpochNanos );
+      sb.append( ",\"endTimeUnixNano\":" ).append( startEpochNanos + getDurationNanos( ) );
+      sb.append( ",\"status\":" ).append( isSuccess( ) ? "\"OK\"" : "\"ERROR\"" );
+
+      sb.append( ",\"attributes\":{\"process.command\":" ).append( Json.string( task.get( 0 ) ) );
+      sb.append( ",\"process.command_args\":[" );
+      for ( int i = 0; i < task.size( ); i++ ) {
+         if ( i > 0 ) {
+            sb.append( ',' );
+         }
+         sb.append( Json.string( task.get( i ) ) );
+      }
+      sb.append( ']' );
+      sb.append( ",\"process.exit.code\":" ).append( exitValue );
+      sb.append( ",\"exec.spawn_nanos\":" ).append( spawnNanos );
+      sb.append( ",\"exec.run_nanos\":" ).append( runNanos );
+      sb.append( ",\"exec.drain_nanos\":" ).append( drainNanos );
+      sb.append( ",\"exec.out_bytes\":" ).append( outBytes );
+      sb.append( ",\"exec.err_bytes\":" ).append( errBytes );
+      if ( error != null ) {
+         sb.append( ",\"error.message\":" ).append( Json.string( error ) );
+      }
+      sb.append( "}}" );
+
+      return( sb.toString( ) );
+
+   }
+
+
+   @Override
+   public String toString( ) {
+      return( toJson( ) );
+   }
+
+}
@@ -0,0 +1,356 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.io.File;
+import java.io.IOException;
+
+
+
+/**
+ * Resolves command names to the absolute paths of executables found by searching the directories of a PATH, caching the results.
+ * <p>
+ * A command is searched once per PATH value; later lookups are answered from the cache, including lookups of commands that weren't found.  The PATH directories are watched for files being created, deleted, or changed, and a cached result is discarded when a file of the same name changes in one of the directories it was searched in.  As a safety net for file systems that don't report changes, such as some network file systems, cached results also expire after a maximum age.  PATH directories that don't exist when searched aren't watched, so a result that depends on one is only refreshed when it expires.
+ * <p>
+ * Command names containing a file separator aren't searched for; they resolve to themselves if they name an executable file.
+ * <p>
+ * Use the shared instance from 'getDefault()', or construct an instance with a different maximum age.  Instances are thread-safe.
+ *
+ */
+public final class ExecutableResolver implements AutoCloseable {
+
+   /** default maximum age of a cached result, in milliseconds */
+   public static final long DEFAULT_MAX_AGE_MILLIS = 60000;
+
+
+   private static final ExecutableResolver DEFAULT = new ExecutableResolver( DEFAULT_MAX_AGE_MILLIS );
+
+
+   private final long maxAgeNanos;
+   private final Map<String,Entry> cache = new ConcurrentHashMap<String,Entry>( );
+   private final Set<Path> watchedDirs = ConcurrentHashMap.newKeySet( );
+   private final AtomicLong generation = new AtomicLong( );
+   private final WatchService watchService;
+
+
+   /**
+    * Constructs an ExecutableResolver whose cached results expire after the maximum age.
+    *
+    * @param maxAgeMillis
+    *    the maximum age of a cached result in milliseconds, or 0 for results to expire only when a PATH directory changes; must be non-negative
+    * @throws IllegalArgumentException
+    *    if maxAgeMillis is negative
+    */
+   public ExecutableResolver( long maxAgeMillis ) {
+
+      if ( maxAgeMillis < 0 ) {
+         throw new IllegalArgumentException( "Illegal value '" + maxAgeMillis + "' for 'maxAgeMillis'.  Must be non-negative." );
+      }
+
+      this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos( maxAgeMillis );
+
+      WatchService service;
+
+      try {
+         service = FileSystems.getDefault( ).newWatchService( );
+      } catch ( IOException | UnsupportedOperationException e ) {
+         // rely on the maximum age alone
+         service = null;
+      }
+
+      this.watchService = service;
+
+      if ( watchService != null ) {
+         Thread thread = new Thread( this::processEvents, "executable-resolver-watch" );
+         thread.setDaemon( true );
+         thread.start( );
+      }
+   }
+
+
+   /**
+    * Returns the shared ExecutableResolver, whose cached results expire after 'DEFAULT_MAX_AGE_MILLIS'.
+    *
+    * @return the shared instance
+    */
+   public static ExecutableResolver getDefault( ) {
+      return( DEFAULT );
+   }
+
+
+   /**
+    * Returns the absolute path of the executable for the command found on the PATH of this JVM, which is the PATH that ProcessBuilder searches.
+    *
+    * @param command
+    *    the command name, e.g. 'git'; required
+    * @return the path of the executable, or null if not found
+    * @throws NullPointerException
+    *    if the command is null
+    */
+   public Path resolve( String command ) {
+      return( resolve( command, System.getenv( "PATH" ) ) );
+   }
+
+
+   /**
+    * Returns the absolute path of the executable for the command found on the PATH.
+    *
+    * @param command
+    *    the command name, e.g. 'git'; required
+    * @param pathValue
+    *    the PATH value as directories separated by the platform's path separator; null or empty to search no directories
+    * @return the path of the executable, or null if not found
+    * @throws NullPointerException
+    *    if the command is null
+    */
+   public Path resolve( String command, String pathValue ) {
+
+      if ( command == null ) {
+         throw new NullPointerException( "Argument 'command' cannot be null." );
+      }
+
+      if ( command.isEmpty( ) ) {
+         return( null );
+      }
+
+      if ( command.indexOf( '/' ) >= 0 || command.indexOf( File.separatorChar ) >= 0 ) {
+         return( isExecutable( command ) );
+      }
+
+      if ( pathValue == null ) {
+         pathValue = "";
+      }
+
+      String key = pathValue + File.pathSeparator + command;
+
+      Entry entry = cache.get( key );
+
+      if ( entry != null && ( maxAgeNanos == 0 || System.nanoTime( ) - entry.createdNanos < maxAgeNanos ) ) {
+         return( entry.path );
+      }
+
+      List<Path> dirs = parsePath( pathValue );
+
+      // watch before searching, so a change during the search discards the result
+      for ( Path dir : dirs ) {
+         watch( dir );
+      }
+
+      long before = generation.get( );
+
+      Path resolved = search( command, dirs );
+
+      cache.put( key, new Entry( command, dirs, resolved ) );
+
+      if ( generation.get( ) != before ) {
+         cache.remove( key );
+      }
+
+      return( resolved );
+
+   }
+
+
+   /**
+    * Returns whether an executable for the command is found on the PATH of this JVM.
+    *
+    * @param command
+    *    the command name, e.g. 'shellcheck'; required
+    * @return 'true' if the command is available and 'false' otherwise
+    * @throws NullPointerException
+    *    if the command is null
+    */
+   public boolean isAvailable( String command ) {
+      return( resolve( command ) != null );
+   }
+
+
+   /**
+    * Discards all cached results.
+    *
+    */
+   public void invalidate( ) {
+      generation.incrementAndGet( );
+      cache.clear( );
+   }
+
+
+   /**
+    * Stops watching the PATH directories; later lookups rely on the maximum age alone.  Closing the shared instance from 'getDefault()' has no effect.
+    *
+    */
+   @Override
+   public void close( ) {
+
+      if ( this == DEFAULT || watchService == null ) {
+         return;
+      }
+
+      try {
+         watchService.close( );
+      } catch ( IOException ignore ) { }
+
+   }
+
+
+   private static Path isExecutable( String command ) {
+
+      try {
+         Path path = Path.of( command );
+         return( Files.isRegularFile( path ) && Files.isExecutable( path ) ? path : null );
+      } catch ( InvalidPathException e ) {
+         return( null );
+      }
+
+   }
+
+
+   /*
+    * Returns the directories of the PATH value, where an empty entry is the current directory.
+    */
+   private static List<Path> parsePath( String pathValue ) {
+
+      List<Path> dirs = new ArrayList<Path>( );
+
+      if ( pathValue.isEmpty( ) ) {
+         return( dirs );
+      }
+
+      for ( String dir : pathValue.split( File.pathSeparator, -1 ) ) {
+         try {
+            dirs.add( Path.of( dir.isEmpty( ) ? "." : dir ).toAbsolutePath( ) );
+         } catch ( InvalidPathException ignore ) {
+            // not a directory that can be searched
+         }
+      }
+
+      return( dirs );
+
+   }
+
+
+   private static Path search( String command, List<Path> dirs ) {
+
+      for ( Path dir : dirs ) {
+         Path candidate = dir.resolve( command );
+         if ( Files.isRegularFile( candidate ) && Files.isExecutable( candidate ) ) {
+            return( candidate );
+         }
+      }
+
+      return( null );
+
+   }
+
+
+   private void watch( Path dir ) {
+
+      if ( watchService == null || watchedDirs.contains( dir ) ) {
+         return;
+      }
+
+      try {
+         dir.register( watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY );
+         watchedDirs.add( dir );
+      } catch ( IOException | ClosedWatchServiceException | UnsupportedOperationException ignore ) {
+         // the directory doesn't exist or can't be watched, so rely on the maximum age
+      }
+
+   }
+
+
+   /*
+    * Discards the cached results invalidated by changes in the watched directories, until the watch service is closed.
+    */
+   private void processEvents( ) {
+
+      while ( true ) {
+
+         WatchKey key;
+
+         try {
+            key = watchService.take( );
+         } catch ( ClosedWatchServiceException | InterruptedException e ) {
+            return;
+         }
+
+         Path dir = (Path)key.watchable( );
+
+         generation.incrementAndGet( );
+
+         for ( WatchEvent<?> event : key.pollEvents( ) ) {
+            if ( event.kind( ) == StandardWatchEventKinds.OVERFLOW ) {
+               cache.clear( );
+            } else {
+               String name = event.context( ).toString( );
+               cache.values( ).removeIf( entry -> entry.command.equals( name ) && entry.dirs.contains( dir ) );
+            }
+         }
+
+         if ( !key.reset( ) ) {
+            // the directory was deleted or can no longer be watched
+            watchedDirs.remove( dir );
+            cache.values( ).removeIf( entry -> entry.dirs.contains( dir ) );
+         }
+
+      }
+
+   }
+
+
+   /*
+    * A cached result.
+    *
+    */
+   private static final class Entry {
+
+      final String command;
+      final List<Path> dirs;
+      final Path path;
+      final long createdNanos = System.nanoTime( );
+
+      Entry( String command, List<Path> dirs, Path path ) {
+         this.command = command;
+         this.dirs = dirs;
+         this.path = path;
+      }
+
+   }
+
+}
@@ -0,0 +1,391 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+
+
+/**
+ * Executes idempotent tasks as native command line processes with hedging to reduce tail latency.
+ * <p>
+ * A task is started once.  If it hasn't finished by the hedge delay, and the per-command hedge budget allows it, an identical second process is started.  The first attempt to succeed wins, and the process tree of the other attempt is forcibly destroyed.  If an attempt fails while the other is still running, the other attempt is awaited; if both fail, the failure of the first attempt is reported.  A task that fails before the hedge delay is not hedged.
+ * <p>
+ * The hedge delay for a command is the configured fixed delay until enough latencies have been observed for that command, after which it is the configured percentile of the recent latencies.  Latencies and budget are kept per command, the first item of the task, so executions of a command with varying arguments share them.  The statistics of the 256 most recently used commands are retained.
+ * <p>
+ * The hedge budget bounds the extra load:  each execution of a command earns 'budgetRatio' of a hedge, up to a small cap, and each hedge spends one.  With a ratio of 0.1, at most about one execution in ten is hedged.
+ * <p>
+ * Attempts start their processes directly rather than through the Launcher installed with 'Exec.setLauncher(Launcher)', because hedging needs the Process of each attempt to destroy the loser.  Hedged executions are therefore not recorded by a RecordingLauncher, served by a ReplayLauncher or IntrinsicLauncher, or run remotely, and aren't recorded as spans by an installed SpanExporter.  Both attempts are passed the TraceContext current for the calling thread, as by 'Exec.exec(...)'.
+ * <p>
+ * Only use hedging for tasks that are safe to run twice concurrently, such as read-only queries.  Instances are thread-safe.
+ *
+ */
+public final class HedgedExec {
+
+   /** default delay before hedging in milliseconds, used until enough latencies are observed */
+   public static final long DEFAULT_HEDGE_DELAY_MILLIS = 50;
+
+   /** default latency percentile at which to hedge */
+   public static final double DEFAULT_HEDGE_PERCENTILE = 95.0;
+
+   /** default fraction of executions that may be hedged */
+   public static final double DEFAULT_BUDGET_RATIO = 0.1;
+
+
+   /** number of observed latencies required before the percentile replaces the fixed delay */
+   private static final int MIN_SAMPLES = 20;
+
+   /** number of recent latencies retained per command */
+   private static final int MAX_SAMPLES = 128;
+
+   /** maximum number of hedges that may be banked per command */
+   private static final double MAX_TOKENS = 10.0;
+
+   /** maximum number of commands for which statistics are retained */
+   private static final int MAX_COMMANDS = 256;
+
+
+   private static final ExecutorService ATTEMPT_EXECUTOR = Executors.newCachedThreadPool( runnable -> {
+      Thread thread = new Thread( runnable, "hedged-exec" );
+      thread.setDaemon( true );
+      return( thread );
+   } );
+
+
+   private final long hedgeDelayMillis;
+   private final double hedgePercentile;
+   private final double budgetRatio;
+
+   /* statistics by command in access order, guarded by the map */
+   private final Map<String,CommandStats> statsMap = new LinkedHashMap<String,CommandStats>( 16, 0.75f, true );
+
+
+   /**
+    * Constructs a HedgedExec with the default hedge delay, percentile, and budget ratio.
+    *
+    */
+   public HedgedExec( ) {
+      this( DEFAULT_HEDGE_DELAY_MILLIS, DEFAULT_HEDGE_PERCENTILE, DEFAULT_BUDGET_RATIO );
+   }
+
+
+   /**
+    * Constructs a HedgedExec with the specified hedge delay, percentile, and budget ratio.
+    *
+    * @param hedgeDelayMillis
+    *    the delay in milliseconds after which to hedge, used until enough latencies have been observed for a command; must be non-negative
+    * @param hedgePercentile
+    *    the percentile of observed latencies after which to hedge, on the range (0,100]; or 0 to always use the fixed delay
+    * @param budgetRatio
+    *    the fraction of executions of a command that may be hedged, on the range [0,1]
+    * @throws IllegalArgumentException
+    *    if an argument is out of range
+    */
+   public HedgedExec( long hedgeDelayMillis, double hedgePercentile, double budgetRatio ) {
+
+      if ( hedgeDelayMillis < 0 ) {
+         throw new IllegalArgumentException( "Illegal value '" + hedgeDelayMillis + "' for 'hedgeDelayMillis'.  Must be non-negative." );
+      }
+
+      if ( hedgePercentile < 0 || hedgePercentile > 100 ) {
+         throw new IllegalArgumentException( "Illegal value '" + hedgePercentile + "' for 'hedgePercentile'.  Must be on the range [0,100]." );
+      }
+
+      if ( budgetRatio < 0 || budgetRatio > 1 ) {
+         throw new IllegalArgumentException( "Illegal value '" + budgetRatio + "' for 'budgetRatio'.  Must be on the range [0,1]." );
+      }
+
+      this.hedgeDelayMillis = hedgeDelayMillis;
+      this.hedgePercentile = hedgePercentile;
+      this.budgetRatio = budgetRatio;
+   }
+
+
+   /**
+    * Executes a task with hedging and returns the output as a String on success, throwing exceptions on any task execution failure.
+    * <p>
+    * This method is a convenience method for 'execExceptionOnTaskFail(List&lt;String&gt;,null,null,null)'.
+    *
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @return a trimmed String result of the command execution
+    * @throws IOException
+    *    if an I/O error occurs, including if the current thread is interrupted while waiting
+    * @throws TaskExecutionException
+    *    if the task run as a command line process failed, e.g. it returned a non-zero exit value
+    * @see Exec#execExceptionOnTaskFail(List)
+    */
+   public String execExceptionOnTaskFail( List<String> task )
+         throws IOException, TaskExecutionException {
+
+      return( execExceptionOnTaskFail( task, null, null, null ) );
+
+   }
+
+
+   /**
+    * Executes a task with hedging and returns the output as a String on success, throwing exceptions on any task execution failure.
+    * <p>
+    * The config, addEnv, and removeEnv arguments, the return value, and the exceptions are as per 'Exec.execExceptionOnTaskFail(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;)'.  Don't redirect standard output to a file with 'overwrite', since both attempts would write to it.
+    *
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @param config
+    *    a Map of key-value pairs defining the configuration; optional, can be empty or null
+    * @param addEnv
+    *    a Map of key-value of environment variables to add; optional, can be empty or null
+    * @param removeEnv
+    *    a List of environment variables to remove; optional, can be empty or null
+    * @return a String result of the command execution
+    * @throws IOException
+    *    if an I/O error occurs, including if the current thread is interrupted while waiting
+    * @throws TaskExecutionException
+    *    if the task run as a command line process failed, e.g. it returned a non-zero exit value
+    * @see Exec#execExceptionOnTaskFail(List,Map,Map,List)
+    */
+   public String execExceptionOnTaskFail( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv )
+         throws IOException, TaskExecutionException {
+
+      boolean lightweight = Exec.checkExceptionOnTaskFailConfig( config );
+
+      TraceContext context = TraceContext.current( );
+
+      Exec.Setup setup = Exec.configure( task, config, ( context != null ) ? Exec.withTraceContext( addEnv, context ) : addEnv, removeEnv );
+
+      CommandStats stats = stats( task.isEmpty( ) ? null : task.get( 0 ) );
+      stats.earn( budgetRatio );
+
+      BlockingQueue<Attempt> completed = new LinkedBlockingQueue<Attempt>( );
+      List<Attempt> attempts = new ArrayList<Attempt>( 2 );
+
+      attempts.add( startAttempt( setup, completed ) );
+
+      try {
+
+         Attempt first = completed.poll( stats.hedgeDelayMillis( hedgeDelayMillis, hedgePercentile ), TimeUnit.MILLISECONDS );
+
+         if ( first == null && stats.spend( ) ) {
+            try {
+               attempts.add( startAttempt( setup, completed ) );
+            } catch ( IOException ignore ) {
+               // the hedge couldn't start, so rely on the first attempt
+            }
+         }
+
+         if ( first == null ) {
+            first = completed.take( );
+         }
+
+         Attempt winner = first;
+
+         if ( !first.succeeded( ) && attempts.size( ) > 1 ) {
+            Attempt second = completed.take( );
+            if ( second.succeeded( ) ) {
+               winner = second;
+            }
+         }
+
+         if ( winner.succeeded( ) ) {
+            stats.record( winner.latencyMillis );
+         }
+
+         if ( winner.exception != null ) {
+            throw( winner.exception );
+         }
+
+         return( Exec.outOrThrow( task, winner.resultMap, lightweight ) );
+
+      } catch ( InterruptedException e ) {
+         Thread.currentThread( ).interrupt( );
+         throw new InterruptedIOException( "Interrupted while waiting for task execution." );
+      } finally {
+         for ( Attempt attempt : attempts ) {
+            if ( attempt.process.isAlive( ) ) {
+               Exec.destroyTree( attempt.process );
+            }
+         }
+      }
+
+   }
+
+
+   /*
+    * Returns the statistics of the command, creating them if absent and evicting the least recently used command if more than 'MAX_COMMANDS' are retained.
+    */
+   private CommandStats stats( String command ) {
+
+      synchronized ( statsMap ) {
+
+         CommandStats stats = statsMap.get( command );
+
+         if ( stats == null ) {
+
+            stats = new CommandStats( );
+            statsMap.put( command, stats );
+
+            if ( statsMap.size( ) > MAX_COMMANDS ) {
+               Iterator<CommandStats> eldest = statsMap.values( ).iterator( );
+               eldest.next( );
+               eldest.remove( );
+            }
+
+         }
+
+         return( stats );
+
+      }
+
+   }
+
+
+   /*
+    * Returns the number of commands for which statistics are retained.
+    */
+   int commandCount( ) {
+      synchronized ( statsMap ) {
+         return( statsMap.size( ) );
+      }
+   }
+
+
+   /*
+    * Starts the task from the Setup and completes it on a background thread, posting the finished attempt to the queue.
+    *
+    * @param setup
+    *    the Setup of the task
+    * @param completed
+    *    queue that receives the attempt when it finishes
+    * @return the started attempt
+    * @throws IOException
+    *    if the process could not be started
+    */
+   private static Attempt startAttempt( Exec.Setup setup, BlockingQueue<Attempt> completed )
+         throws IOException {
+
+      long start = System.nanoTime( );
+
+      Attempt attempt = new Attempt( setup.processBuilder.start( ) );
+
+      ATTEMPT_EXECUTOR.execute( ( ) -> {
+         try {
+            attempt.resultMap = Exec.complete( setup, attempt.process, null, null );
+         } catch ( IOException e ) {
+            attempt.exception = e;
+         } catch ( RuntimeException e ) {
+            attempt.exception = new IOException( "Exception while completing task execution.", e );
+         } catch ( Error e ) {
+            attempt.exception = new IOException( "Error while completing task execution.", e );
+            throw e;
+         } finally {
+            // always post the attempt, so that the caller waiting for it isn't blocked forever
+            attempt.latencyMillis = TimeUnit.NANOSECONDS.toMillis( System.nanoTime( ) - start );
+            completed.add( attempt );
+         }
+      } );
+
+      return( attempt );
+
+   }
+
+
+   /*
+    * A started execution of the task.  Fields are written by the completing thread before the attempt is posted to the queue.
+    *
+    */
+   private static final class Attempt {
+
+      final Process process;
+      Map<String,String> resultMap;
+      IOException exception;
+      long latencyMillis;
+
+      Attempt( Process process ) {
+         this.process = process;
+      }
+
+      boolean succeeded( ) {
+         return( exception == null && resultMap.get( "exitValue" ).equals( "0" ) );
+      }
+
+   }
+
+
+   /*
+    * Recent latencies and hedge budget of a command.
+    *
+    */
+   private static final class CommandStats {
+
+      private final long[] latencies = new long[MAX_SAMPLES];
+      private int count;
+      private int next;
+      private double tokens;
+
+      synchronized void earn( double ratio ) {
+         tokens = Math.min( MAX_TOKENS, tokens + ratio );
+      }
+
+      synchronized boolean spend( ) {
+         if ( tokens >= 1.0 ) {
+            tokens -= 1.0;
+            return( true );
+         }
+         return( false );
+      }
+
+      synchronized void record( long latencyMillis ) {
+         latencies[next] = latencyMillis;
+         next = ( next + 1 ) % MAX_SAMPLES;
+         count = Math.min( MAX_SAMPLES, count + 1 );
+      }
+
+      synchronized long hedgeDelayMillis( long fixedDelayMillis, double percentile ) {
+
+         if ( percentile == 0 || count < MIN_SAMPLES ) {
+            return( fixedDelayMillis );
+         }
+
+         long[] sorted = Arrays.copyOf( latencies, count );
+         Arrays.sort( sorted );
+
+         int index = (int)Math.ceil( percentile / 100.0 * count ) - 1;
+
+         return( sorted[Math.max( 0, index )] );
+
+      }
+
+   }
+
+}
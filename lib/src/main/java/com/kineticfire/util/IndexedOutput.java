@@ -0,0 +1,251 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+import java.io.InputStream;
+import java.io.IOException;
+
+
+
+/**
+ * Captures a process output stream in memory with an index of its lines, for random access to the lines of large outputs without splitting them into Strings.
+ * <p>
+ * Pass an instance as a handler to 'Exec.exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;,OutputHandler,OutputHandler)'.  The stream is decoded with the default charset into a char array while the position of each line end is recorded in an int array, so the index costs four bytes per line.  Once the call returns, look up line N with 'line(int)' in constant time, take the last lines with 'lastLines(int)', iterate backwards with 'reverseLines()', or count lines with 'lineCount()' and 'countLines(Predicate)'.
+ * <p>
+ * Lines are split as by 'BufferedReader.readLine()':  '\n', '\r\n', and '\r' end a line, and a final line without a terminator is a line.  Lines are returned as CharSequence views of the captured text without line terminators, and without copying; convert a view with 'toString()' to retain it as a String.
+ * <p>
+ * An instance captures one stream once.
+ *
+ */
+public final class IndexedOutput implements OutputHandler {
+
+   private final CaptureBuffer capture = new CaptureBuffer( true );
+   private boolean handled;
+
+   private char[] text = new char[0];
+   private int[] lineEnds = new int[0];
+   private int lineCount;
+
+
+   /**
+    * Constructs an IndexedOutput.
+    *
+    */
+   public IndexedOutput( ) { }
+
+
+   /**
+    * Captures and indexes the stream until end of stream.
+    *
+    * @param in
+    *    the stream to capture
+    * @param process
+    *    the process producing the stream
+    * @throws IOException
+    *    if an I/O error occurs
+    * @throws IllegalStateException
+    *    if this instance already captured a stream
+    */
+   @Override
+   public synchronized void handle( InputStream in, Process process )
+         throws IOException {
+
+      if ( handled ) {
+         throw new IllegalStateException( "IndexedOutput already captured a stream." );
+      }
+
+      handled = true;
+
+      capture.readFrom( in );
+
+      text = capture.array( );
+      lineEnds = capture.lineEnds( );
+      lineCount = capture.lineCount( );
+
+   }
+
+
+   /**
+    * Returns the number of lines.
+    *
+    * @return the number of lines
+    */
+   public synchronized int lineCount( ) {
+      return( lineCount );
+   }
+
+
+   /**
+    * Returns the line at the index, without its line terminator.
+    *
+    * @param index
+    *    the zero-based index of the line
+    * @return a view of the line
+    * @throws IndexOutOfBoundsException
+    *    if the index is negative or not less than 'lineCount()'
+    */
+   public synchronized CharSequence line( int index ) {
+
+      Objects.checkIndex( index, lineCount );
+
+      return( new CharSlice( text, lineStart( index ), lineEnds[index] ) );
+
+   }
+
+
+   /**
+    * Returns the lines, in the order produced, as a List of views that looks up each line in constant time.
+    *
+    * @return an unmodifiable List of the lines
+    */
+   public List<CharSequence> lines( ) {
+      return( new Lines( ) );
+   }
+
+
+   /**
+    * Returns the last lines, in the order produced.
+    *
+    * @param count
+    *    the number of lines; fewer are returned if there are fewer lines
+    * @return an unmodifiable List of the last lines
+    * @throws IllegalArgumentException
+    *    if count is negative
+    */
+   public List<CharSequence> lastLines( int count ) {
+
+      if ( count < 0 ) {
+         throw new IllegalArgumentException( "Illegal value '" + count + "' for 'count'.  Must be non-negative." );
+      }
+
+      List<CharSequence> lines = lines( );
+
+      return( lines.subList( Math.max( 0, lines.size( ) - count ), lines.size( ) ) );
+
+   }
+
+
+   /**
+    * Returns the lines from last to first.
+    *
+    * @return an Iterable over the lines in reverse order
+    */
+   public Iterable<CharSequence> reverseLines( ) {
+
+      return( ( ) -> new Iterator<CharSequence>( ) {
+
+         private int next = lineCount( ) - 1;
+
+         @Override
+         public boolean hasNext( ) {
+            return( next >= 0 );
+         }
+
+         @Override
+         public CharSequence next( ) {
+            if ( next < 0 ) {
+               throw new NoSuchElementException( );
+            }
+            return( line( next-- ) );
+         }
+
+      } );
+
+   }
+
+
+   /**
+    * Returns the number of lines satisfying the predicate, testing each line in place without creating a view per line.
+    * <p>
+    * The CharSequence passed to the predicate is only valid for the duration of the call; convert it with 'toString()' to retain it.
+    *
+    * @param predicate
+    *    tests each line, without its line terminator; required
+    * @return the number of matching lines
+    * @throws NullPointerException
+    *    if the predicate is null
+    */
+   public synchronized int countLines( Predicate<CharSequence> predicate ) {
+
+      if ( predicate == null ) {
+         throw new NullPointerException( "Argument 'predicate' cannot be null." );
+      }
+
+      CharSlice slice = new CharSlice( text, 0, 0 );
+      int count = 0;
+
+      for ( int i = 0; i < lineCount; i++ ) {
+         if ( predicate.test( slice.set( text, lineStart( i ), lineEnds[i] ) ) ) {
+            count++;
+         }
+      }
+
+      return( count );
+
+   }
+
+
+   /**
+    * Returns the captured text, with line terminators normalized to '\n' and a final '\n' if the text is non-empty.
+    *
+    * @return a view of the text
+    */
+   public synchronized CharSequence getText( ) {
+      return( new CharSlice( text, 0, capture.length( ) ) );
+   }
+
+
+   /*
+    * Returns the start of the line at the index, which follows the end of the previous line.
+    */
+   private int lineStart( int index ) {
+      return( index == 0 ? 0 : lineEnds[index - 1] + 1 );
+   }
+
+
+   /*
+    * A List view of the lines.
+    *
+    */
+   private final class Lines extends AbstractList<CharSequence> implements RandomAccess {
+
+      @Override
+      public CharSequence get( int index ) {
+         return( line( index ) );
+      }
+
+      @Override
+      public int size( ) {
+         return( lineCount( ) );
+      }
+
+   }
+
+}
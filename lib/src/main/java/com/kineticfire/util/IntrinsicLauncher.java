@@ -0,0 +1,410 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+
+
+/**
+ * Satisfies trivial commands in-process, without starting a native command line process, and passes all other tasks to a delegate Launcher.
+ * <p>
+ * Install an instance with 'Exec.setLauncher(Launcher)', typically wrapping 'Exec.getDefaultLauncher()'.  The following commands, given by bare name as the first item of the task, are intrinsic:
+ * <ul>
+ *    <li>true, false - with any arguments other than a lone '--help' or '--version'</li>
+ *    <li>echo - with options '-n' and '-E'; backslash escapes aren't interpreted, as for the default '-E'</li>
+ *    <li>cat - one or more regular files, without options</li>
+ *    <li>test - '-f', '-d', or '-e' and one path</li>
+ *    <li>pwd - without arguments; prints the physical working directory</li>
+ *    <li>mkdir - '-p' and one or more directories</li>
+ *    <li>basename - a name and an optional suffix, without options</li>
+ *    <li>dirname - one name, without options</li>
+ * </ul>
+ * <p>
+ * An intrinsic command returns the same result Map as 'Exec.exec(...)', including the exit value, line ending normalization, 'trim', the 'directory' for relative paths, and the creation of files configured with 'redirectOutFilePath' and 'redirectErrFilePath'.  The commands behave as the GNU coreutils commands.  A command that would fail with an error message, such as 'cat' of a missing file or 'mkdir -p' without permission, is passed to the delegate so that the error output is exactly that of the real command.  Tasks that add or remove environment variables, or use any other command, option, or form, are also passed to the delegate.
+ * <p>
+ * Instances are thread-safe.
+ *
+ */
+public final class IntrinsicLauncher implements Launcher {
+
+   private final Launcher delegate;
+
+
+   /**
+    * Constructs an IntrinsicLauncher that passes non-intrinsic tasks to the delegate.
+    *
+    * @param delegate
+    *    the launcher that executes non-intrinsic tasks; required
+    * @throws NullPointerException
+    *    if the delegate is null
+    */
+   public IntrinsicLauncher( Launcher delegate ) {
+
+      if ( delegate == null ) {
+         throw new NullPointerException( "Argument 'delegate' cannot be null." );
+      }
+
+      this.delegate = delegate;
+   }
+
+
+   /**
+    * Executes the task in-process if it's intrinsic, and otherwise with the delegate.
+    *
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @param config
+    *    a Map of key-value pairs defining the configuration; optional, can be empty or null
+    * @param addEnv
+    *    a Map of key-value of environment variables to add; optional, can be empty or null
+    * @param removeEnv
+    *    a List of environment variables to remove; optional, can be empty or null
+    * @return a Map of the result of the command execution
+    * @throws IllegalArgumentException
+    *    if an illegal or inappropriate argument was passed to this method
+    * @throws IOException
+    *    if an I/O error occurs, including writing a redirect file
+    */
+   @Override
+   public Map<String,String> launch( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv )
+         throws IOException {
+
+      // 'contains(null)' throws for immutable lists such as those of 'List.of(...)', so test each item
+      if ( task != null && !task.isEmpty( ) && task.stream( ).noneMatch( Objects::isNull ) && ( addEnv == null || addEnv.isEmpty( ) ) && ( removeEnv == null || removeEnv.isEmpty( ) ) ) {
+
+         Exec.Setup setup = Exec.configure( task, config, null, null );
+
+         // resource controls apply to a real process, so leave them to the delegate
+         if ( setup.appliedLimits == null ) {
+
+            Map<String,String> resultMap = launchIntrinsic( setup, task );
+
+            if ( resultMap != null ) {
+               return( resultMap );
+            }
+
+         }
+
+      }
+
+      return( delegate.launch( task, config, addEnv, removeEnv ) );
+
+   }
+
+
+   /*
+    * Executes the task in-process and returns the result Map, or returns null if the task isn't intrinsic or would fail with an error message.
+    */
+   private static Map<String,String> launchIntrinsic( Exec.Setup setup, List<String> task )
+         throws IOException {
+
+      File directoryFile = setup.processBuilder.directory( );
+      Path directory = Path.of( directoryFile != null ? directoryFile.getPath( ) : System.getProperty( "user.dir" ) );
+
+      if ( !Files.isDirectory( directory ) ) {
+         // the process can't start, so let the delegate report it
+         return( null );
+      }
+
+      List<String> args = task.subList( 1, task.size( ) );
+      StringBuilder out = new StringBuilder( );
+      ByteArrayOutputStream rawOut = null;  // the exact bytes of standard output, for commands that copy files
+      int exitValue = 0;
+
+      switch ( task.get( 0 ) ) {
+
+         case "true":
+         case "false":
+            if ( args.size( ) == 1 && ( args.get( 0 ).equals( "--help" ) || args.get( 0 ).equals( "--version" ) ) ) {
+               return( null );
+            }
+            exitValue = task.get( 0 ).equals( "true" ) ? 0 : 1;
+            break;
+
+         case "echo":
+            if ( !echo( args, out ) ) {
+               return( null );
+            }
+            break;
+
+         case "cat":
+            rawOut = new ByteArrayOutputStream( );
+            if ( !cat( directory, args, rawOut ) ) {
+               return( null );
+            }
+            break;
+
+         case "test":
+            if ( args.size( ) != 2 ) {
+               return( null );
+            }
+            Path path = directory.resolve( args.get( 1 ) );
+            boolean exists = !args.get( 1 ).isEmpty( ) && Files.exists( path );
+            switch ( args.get( 0 ) ) {
+               case "-e":
+                  exitValue = exists ? 0 : 1;
+                  break;
+               case "-f":
+                  exitValue = exists && Files.isRegularFile( path ) ? 0 : 1;
+                  break;
+               case "-d":
+                  exitValue = exists && Files.isDirectory( path ) ? 0 : 1;
+                  break;
+               default:
+                  return( null );
+            }
+            break;
+
+         case "pwd":
+            if ( !args.isEmpty( ) ) {
+               return( null );
+            }
+            out.append( directory.toRealPath( ) ).append( '\n' );
+            break;
+
+         case "mkdir":
+            if ( args.size( ) < 2 || !args.get( 0 ).equals( "-p" ) || hasOption( args.subList( 1, args.size( ) ) ) ) {
+               return( null );
+            }
+            try {
+               for ( String dir : args.subList( 1, args.size( ) ) ) {
+                  if ( dir.isEmpty( ) ) {
+                     return( null );
+                  }
+                  Files.createDirectories( directory.resolve( dir ) );
+               }
+            } catch ( IOException | RuntimeException e ) {
+               return( null );
+            }
+            break;
+
+         case "basename":
+            if ( args.isEmpty( ) || args.size( ) > 2 || hasOption( args ) ) {
+               return( null );
+            }
+            out.append( basename( args.get( 0 ), args.size( ) == 2 ? args.get( 1 ) : null ) ).append( '\n' );
+            break;
+
+         case "dirname":
+            if ( args.size( ) != 1 || hasOption( args ) ) {
+               return( null );
+            }
+            out.append( dirname( args.get( 0 ) ) ).append( '\n' );
+            break;
+
+         default:
+            return( null );
+
+      }
+
+      byte[] outBytes;
+
+      if ( rawOut != null ) {
+         outBytes = rawOut.toByteArray( );
+         out.append( new String( outBytes, Charset.defaultCharset( ) ) );
+      } else {
+         outBytes = out.toString( ).getBytes( Charset.defaultCharset( ) );
+      }
+
+      // a redirect file receives the bytes unchanged; only the captured 'out' is normalized
+      writeRedirects( setup, outBytes );
+
+      return( Exec.toResultMap( setup, exitValue, Exec.normalizeLines( out ), "" ) );
+
+   }
+
+
+   /*
+    * Appends the output of 'echo' and returns 'true', or returns 'false' if an option isn't supported.
+    */
+   private static boolean echo( List<String> args, StringBuilder out ) {
+
+      if ( args.size( ) == 1 && ( args.get( 0 ).equals( "--help" ) || args.get( 0 ).equals( "--version" ) ) ) {
+         return( false );
+      }
+
+      boolean newline = true;
+      int first = 0;
+
+      // leading arguments consisting only of option letters are options; stop at the first that isn't
+      while ( first < args.size( ) && args.get( first ).matches( "-[neE]+" ) ) {
+         if ( args.get( first ).indexOf( 'e' ) >= 0 ) {
+            return( false );
+         }
+         if ( args.get( first ).indexOf( 'n' ) >= 0 ) {
+            newline = false;
+         }
+         first++;
+      }
+
+      for ( int i = first; i < args.size( ); i++ ) {
+         if ( i > first ) {
+            out.append( ' ' );
+         }
+         out.append( args.get( i ) );
+      }
+
+      if ( newline ) {
+         out.append( '\n' );
+      }
+
+      return( true );
+
+   }
+
+
+   /*
+    * Writes the bytes of the files and returns 'true', or returns 'false' if an argument is an option or a file can't be read.
+    */
+   private static boolean cat( Path directory, List<String> args, ByteArrayOutputStream out ) {
+
+      if ( args.isEmpty( ) || hasOption( args ) ) {
+         return( false );
+      }
+
+      try {
+         for ( String file : args ) {
+            Path path = directory.resolve( file );
+            if ( file.isEmpty( ) || !Files.isRegularFile( path ) ) {
+               return( false );
+            }
+            out.write( Files.readAllBytes( path ) );
+         }
+      } catch ( IOException | RuntimeException e ) {
+         return( false );
+      }
+
+      return( true );
+
+   }
+
+
+   /*
+    * Returns the name with leading directory components removed, as by 'basename'.
+    */
+   static String basename( String name, String suffix ) {
+
+      int end = name.length( );
+
+      while ( end > 1 && name.charAt( end - 1 ) == '/' ) {
+         end--;
+      }
+
+      if ( end == 1 && name.charAt( 0 ) == '/' ) {
+         return( "/" );
+      }
+
+      String base = name.substring( name.lastIndexOf( '/', end - 1 ) + 1, end );
+
+      if ( suffix != null && !suffix.isEmpty( ) && base.length( ) > suffix.length( ) && base.endsWith( suffix ) ) {
+         base = base.substring( 0, base.length( ) - suffix.length( ) );
+      }
+
+      return( base );
+
+   }
+
+
+   /*
+    * Returns the name with its last component removed, as by 'dirname'.
+    */
+   static String dirname( String name ) {
+
+      int end = name.length( );
+
+      // remove trailing slashes, then the last component, then the slashes before it
+      while ( end > 0 && name.charAt( end - 1 ) == '/' ) {
+         end--;
+      }
+      while ( end > 0 && name.charAt( end - 1 ) != '/' ) {
+         end--;
+      }
+      while ( end > 0 && name.charAt( end - 1 ) == '/' ) {
+         end--;
+      }
+
+      if ( end == 0 ) {
+         return( name.startsWith( "/" ) ? "/" : "." );
+      }
+
+      return( name.substring( 0, end ) );
+
+   }
+
+
+   private static boolean hasOption( List<String> args ) {
+
+      for ( String arg : args ) {
+         if ( arg.startsWith( "-" ) ) {
+            return( true );
+         }
+      }
+
+      return( false );
+
+   }
+
+
+   /*
+    * Creates or writes the files to which standard output and standard error are redirected, as starting the process would.
+    */
+   private static void writeRedirects( Exec.Setup setup, byte[] out )
+         throws IOException {
+
+      Redirect outRedirect = setup.processBuilder.redirectOutput( );
+      Redirect errRedirect = setup.processBuilder.redirectError( );
+
+      if ( outRedirect.file( ) != null ) {
+         write( outRedirect, out );
+      }
+
+      if ( errRedirect.file( ) != null ) {
+         write( errRedirect, new byte[0] );
+      }
+
+   }
+
+
+   private static void write( Redirect redirect, byte[] bytes )
+         throws IOException {
+
+      if ( redirect.type( ) == Redirect.Type.APPEND ) {
+         Files.write( redirect.file( ).toPath( ), bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND );
+      } else {
+         Files.write( redirect.file( ).toPath( ), bytes );
+      }
+
+   }
+
+}
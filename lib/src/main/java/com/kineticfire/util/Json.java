@@ -0,0 +1,60 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+/*
+ * Helpers for writing JSON, shared by the classes that produce JSON text, e.g. the Chrome trace of 'TaskGraph' and 'ExecSpan.toJson()'.
+ *
+ */
+final class Json {
+
+   private Json( ) { }
+
+
+   /*
+    * Returns the String as a JSON string literal, quoted and with '"', '\', and control characters escaped.
+    */
+   static String string( String value ) {
+
+      StringBuilder sb = new StringBuilder( value.length( ) + 2 );
+
+      sb.append( '"' );
+
+      for ( int i = 0; i < value.length( ); i++ ) {
+         char c = value.charAt( i );
+         if ( c == '"' || c == '\\' ) {
+            sb.append( '\\' ).append( c );
+         } else if ( c < 0x20 ) {
+            sb.append( String.format( "\\u%04x", (int)c ) );
+         } else {
+            sb.append( c );
+         }
+      }
+
+      sb.append( '"' );
+
+      return( sb.toString( ) );
+
+   }
+
+}
@@ -0,0 +1,427 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.IOException;
+
+
+
+/**
+ * Decodes JSON from a process output stream incrementally as the process produces it, passing each top-level value to a consumer as soon as it is complete.
+ * <p>
+ * Pass an instance as a handler to 'Exec.exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;,OutputHandler,OutputHandler)'.  The stream may contain a single JSON document, newline-delimited JSON (NDJSON), or any sequence of whitespace-separated JSON values.  The output text is never held in full:  a record is built directly from the bytes read and handed to the consumer before the next record is read.
+ * <p>
+ * Values are decoded as follows:
+ * <ul>
+ *    <li>object - a Map&lt;String,Object&gt; preserving member order</li>
+ *    <li>array - a List&lt;Object&gt;</li>
+ *    <li>string - a String</li>
+ *    <li>number - a Long if integral and in range, a BigInteger if integral and out of range, and a Double otherwise</li>
+ *    <li>true/false - a Boolean</li>
+ *    <li>null - null</li>
+ * </ul>
+ * <p>
+ * The stream is decoded as UTF-8.  Objects and arrays may be nested up to 'MAX_DEPTH' levels.  Malformed input, including input nested too deeply, results in an IOException from 'Exec.exec(...)' that gives the line and column of the error; values completed before the error have already been passed to the consumer.
+ *
+ */
+public final class JsonOutputHandler implements OutputHandler {
+
+   /** maximum nesting depth of objects and arrays */
+   public static final int MAX_DEPTH = 512;
+
+
+   /* the number grammar of RFC 8259 */
+   private static final Pattern NUMBER = Pattern.compile( "-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?" );
+
+
+   private final Consumer<Object> consumer;
+   private long count;
+
+
+   /**
+    * Constructs a JsonOutputHandler that passes each decoded top-level value to the consumer.
+    *
+    * @param consumer
+    *    receives each top-level value, on the thread draining the stream; required
+    * @throws NullPointerException
+    *    if the consumer is null
+    */
+   public JsonOutputHandler( Consumer<Object> consumer ) {
+
+      if ( consumer == null ) {
+         throw new NullPointerException( "Argument 'consumer' cannot be null." );
+      }
+
+      this.consumer = consumer;
+   }
+
+
+   /**
+    * Decodes the stream until end of stream, passing each top-level value to the consumer.
+    *
+    * @param in
+    *    the stream to decode
+    * @param process
+    *    the process producing the stream
+    * @throws IOException
+    *    if an I/O error occurs or the stream isn't valid JSON
+    */
+   @Override
+   public void handle( InputStream in, Process process )
+         throws IOException {
+
+      Parser parser = new Parser( new InputStreamReader( in, StandardCharsets.UTF_8 ) );
+
+      while ( parser.skipWhitespace( ) != -1 ) {
+         consumer.accept( parser.readValue( ) );
+         synchronized ( this ) {
+            count++;
+         }
+      }
+
+   }
+
+
+   /**
+    * Returns the number of top-level values passed to the consumer.
+    *
+    * @return the number of decoded top-level values
+    */
+   public synchronized long getCount( ) {
+      return( count );
+   }
+
+
+   /*
+    * Recursive-descent JSON parser reading from a Reader through a fixed-size buffer.
+    *
+    */
+   private static final class Parser {
+
+      private final Reader reader;
+      private final char[] buffer = new char[8192];
+      private final StringBuilder sb = new StringBuilder( );
+      private int pos;
+      private int limit;
+      private long line = 1;
+      private long column = 1;
+      private int depth;
+
+      Parser( Reader reader ) {
+         this.reader = reader;
+      }
+
+      /*
+       * Skips whitespace and returns the next character without consuming it, or -1 at end of stream.
+       */
+      int skipWhitespace( )
+            throws IOException {
+
+         int c = peek( );
+
+         while ( c == ' ' || c == '\t' || c == '\n' || c == '\r' ) {
+            next( );
+            c = peek( );
+         }
+
+         return( c );
+
+      }
+
+      Object readValue( )
+            throws IOException {
+
+         int c = skipWhitespace( );
+
+         switch ( c ) {
+            case '{':
+               return( readObject( ) );
+            case '[':
+               return( readArray( ) );
+            case '"':
+               return( readString( ) );
+            case 't':
+               expectLiteral( "true" );
+               return( Boolean.TRUE );
+            case 'f':
+               expectLiteral( "false" );
+               return( Boolean.FALSE );
+            case 'n':
+               expectLiteral( "null" );
+               return( null );
+            case -1:
+               throw error( "Unexpected end of stream" );
+            default:
+               if ( c == '-' || ( c >= '0' && c <= '9' ) ) {
+                  return( readNumber( ) );
+               }
+               throw error( "Unexpected character '" + (char)c + "'" );
+         }
+
+      }
+
+      private Map<String,Object> readObject( )
+            throws IOException {
+
+         Map<String,Object> map = new LinkedHashMap<String,Object>( );
+
+         enter( );
+         next( ); // '{'
+
+         if ( skipWhitespace( ) == '}' ) {
+            next( );
+            depth--;
+            return( map );
+         }
+
+         while ( true ) {
+
+            if ( skipWhitespace( ) != '"' ) {
+               throw error( "Expected object member name" );
+            }
+
+            String name = readString( );
+
+            if ( skipWhitespace( ) != ':' ) {
+               throw error( "Expected ':'" );
+            }
+            next( );
+
+            map.put( name, readValue( ) );
+
+            int c = skipWhitespace( );
+            next( );
+
+            if ( c == '}' ) {
+               depth--;
+               return( map );
+            } else if ( c != ',' ) {
+               throw error( "Expected ',' or '}'" );
+            }
+
+         }
+
+      }
+
+      private List<Object> readArray( )
+            throws IOException {
+
+         List<Object> list = new ArrayList<Object>( );
+
+         enter( );
+         next( ); // '['
+
+         if ( skipWhitespace( ) == ']' ) {
+            next( );
+            depth--;
+            return( list );
+         }
+
+         while ( true ) {
+
+            list.add( readValue( ) );
+
+            int c = skipWhitespace( );
+            next( );
+
+            if ( c == ']' ) {
+               depth--;
+               return( list );
+            } else if ( c != ',' ) {
+               throw error( "Expected ',' or ']'" );
+            }
+
+         }
+
+      }
+
+      /*
+       * Enters an object or array, bounding the recursion of the parser.
+       */
+      private void enter( )
+            throws IOException {
+
+         if ( ++depth > MAX_DEPTH ) {
+            throw error( "Nesting deeper than " + MAX_DEPTH + " levels" );
+         }
+
+      }
+
+      private String readString( )
+            throws IOException {
+
+         next( ); // opening quote
+
+         sb.setLength( 0 );
+
+         while ( true ) {
+
+            int c = next( );
+
+            if ( c == '"' ) {
+               return( sb.toString( ) );
+            } else if ( c == '\\' ) {
+               c = next( );
+               switch ( c ) {
+                  case '"':  sb.append( '"' ); break;
+                  case '\\': sb.append( '\\' ); break;
+                  case '/':  sb.append( '/' ); break;
+                  case 'b':  sb.append( '\b' ); break;
+                  case 'f':  sb.append( '\f' ); break;
+                  case 'n':  sb.append( '\n' ); break;
+                  case 'r':  sb.append( '\r' ); break;
+                  case 't':  sb.append( '\t' ); break;
+                  case 'u':  sb.append( readHexChar( ) ); break;
+                  default:   throw error( "Illegal escape sequence" );
+               }
+            } else if ( c == -1 ) {
+               throw error( "Unterminated string" );
+            } else if ( c < 0x20 ) {
+               throw error( "Unescaped control character in string" );
+            } else {
+               sb.append( (char)c );
+            }
+
+         }
+
+      }
+
+      private char readHexChar( )
+            throws IOException {
+
+         int value = 0;
+
+         for ( int i = 0; i < 4; i++ ) {
+            int digit = Character.digit( next( ), 16 );
+            if ( digit < 0 ) {
+               throw error( "Illegal unicode escape" );
+            }
+            value = ( value << 4 ) | digit;
+         }
+
+         return( (char)value );
+
+      }
+
+      private Object readNumber( )
+            throws IOException {
+
+         sb.setLength( 0 );
+
+         boolean integral = true;
+         int c = peek( );
+
+         while ( c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || ( c >= '0' && c <= '9' ) ) {
+            if ( c == '.' || c == 'e' || c == 'E' ) {
+               integral = false;
+            }
+            sb.append( (char)next( ) );
+            c = peek( );
+         }
+
+         String text = sb.toString( );
+
+         // rejects forms Java accepts but JSON doesn't, such as leading zeros, '+1', and '1.'
+         if ( !NUMBER.matcher( text ).matches( ) ) {
+            throw error( "Illegal number '" + text + "'" );
+         }
+
+         try {
+            if ( !integral ) {
+               return( Double.valueOf( text ) );
+            } else if ( text.length( ) < 19 ) {
+               return( Long.valueOf( text ) );
+            } else {
+               BigInteger value = new BigInteger( text );
+               return( value.bitLength( ) < 64 ? (Object)Long.valueOf( value.longValue( ) ) : value );
+            }
+         } catch ( NumberFormatException e ) {
+            throw error( "Illegal number '" + text + "'" );
+         }
+
+      }
+
+      private void expectLiteral( String literal )
+            throws IOException {
+
+         for ( int i = 0; i < literal.length( ); i++ ) {
+            if ( next( ) != literal.charAt( i ) ) {
+               throw error( "Expected '" + literal + "'" );
+            }
+         }
+
+      }
+
+      private int peek( )
+            throws IOException {
+
+         if ( pos == limit ) {
+            limit = reader.read( buffer, 0, buffer.length );
+            pos = 0;
+            if ( limit <= 0 ) {
+               limit = 0;
+               return( -1 );
+            }
+         }
+
+         return( buffer[pos] );
+
+      }
+
+      private int next( )
+            throws IOException {
+
+         int c = peek( );
+
+         if ( c != -1 ) {
+            pos++;
+            if ( c == '\n' ) {
+               line++;
+               column = 1;
+            } else {
+               column++;
+            }
+         }
+
+         return( c );
+
+      }
+
+      private IOException error( String message ) {
+         return( new IOException( "Malformed JSON at line " + line + ", column " + column + ":  " + message + "." ) );
+      }
+
+   }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.util.List;
+import java.util.Map;
+import java.io.IOException;
+
+
+
+/**
+ * Executes a task on behalf of 'Exec.exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;)' and the methods built on it.
+ * <p>
+ * Install an implementation with 'Exec.setLauncher(Launcher)' to change how tasks are executed, e.g. to record results with a RecordingLauncher or serve them without starting a process with a ReplayLauncher.  The default launcher, returned by 'Exec.getDefaultLauncher()', starts a native command line process.  Implementations must be thread-safe.
+ *
+ */
+public interface Launcher {
+
+   /**
+    * Executes a task and returns a Map result as defined by 'Exec.exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;)'.
+    *
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @param config
+    *    a Map of key-value pairs defining the configuration; optional, can be empty or null
+    * @param addEnv
+    *    a Map of key-value of environment variables to add; optional, can be empty or null
+    * @param removeEnv
+    *    a List of environment variables to remove; optional, can be empty or null
+    * @return a Map of the result of the command execution
+    * @throws IOException
+    *    if an I/O error occurs
+    */
+   Map<String,String> launch( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv )
+         throws IOException;
+
+}
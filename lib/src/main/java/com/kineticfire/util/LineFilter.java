@@ -0,0 +1,299 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.IOException;
+
+
+
+/**
+ * Keeps only the lines of a process output stream that match a filter, testing each line as the process produces it.
+ * <p>
+ * Pass an instance as a handler to 'Exec.exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;,OutputHandler,OutputHandler)'.  Lines are split as by 'BufferedReader.readLine()' and tested in place without creating a String; only matching lines are retained.  Retrieve them with 'getLines()' or 'getText()' once the call returns.
+ * <p>
+ * If a maximum number of matches is set, the process and its descendants are forcibly destroyed once that many lines have matched, and 'isStopped()' returns 'true'.  In that case the exit value in the result Map reflects the destruction of the process rather than its own outcome.
+ * <p>
+ * An instance filters one stream once.
+ *
+ */
+public final class LineFilter implements OutputHandler {
+
+   private final Predicate<CharSequence> predicate;
+   private final int maxMatches;
+
+   private final List<String> lines = new ArrayList<String>( );
+   private boolean stopped;
+   private boolean handled;
+
+
+   /**
+    * Constructs a LineFilter that keeps lines satisfying the predicate.
+    * <p>
+    * The CharSequence passed to the predicate is only valid for the duration of the call; convert it with 'toString()' to retain it.
+    *
+    * @param predicate
+    *    tests each line, without its line terminator; required
+    * @param maxMatches
+    *    the number of matching lines after which to destroy the process; 0 for no limit
+    * @throws IllegalArgumentException
+    *    if maxMatches is negative
+    * @throws NullPointerException
+    *    if the predicate is null
+    */
+   public LineFilter( Predicate<CharSequence> predicate, int maxMatches ) {
+
+      if ( predicate == null ) {
+         throw new NullPointerException( "Argument 'predicate' cannot be null." );
+      }
+
+      if ( maxMatches < 0 ) {
+         throw new IllegalArgumentException( "Illegal value '" + maxMatches + "' for 'maxMatches'.  Must be non-negative." );
+      }
+
+      this.predicate = predicate;
+      this.maxMatches = maxMatches;
+   }
+
+
+   /**
+    * Returns a LineFilter that keeps lines in which the pattern is found, as by 'Matcher.find()'.
+    *
+    * @param pattern
+    *    the precompiled pattern; required
+    * @param maxMatches
+    *    the number of matching lines after which to destroy the process; 0 for no limit
+    * @return a new LineFilter
+    * @throws IllegalArgumentException
+    *    if maxMatches is negative
+    * @throws NullPointerException
+    *    if the pattern is null
+    */
+   public static LineFilter regex( Pattern pattern, int maxMatches ) {
+
+      if ( pattern == null ) {
+         throw new NullPointerException( "Argument 'pattern' cannot be null." );
+      }
+
+      // the filter runs on a single drainer thread, so one Matcher is reset for every line
+      Matcher matcher = pattern.matcher( "" );
+
+      return( new LineFilter( line -> matcher.reset( line ).find( ), maxMatches ) );
+
+   }
+
+
+   /**
+    * Returns a LineFilter that keeps lines starting with the prefix.
+    *
+    * @param prefix
+    *    the prefix; required
+    * @param maxMatches
+    *    the number of matching lines after which to destroy the process; 0 for no limit
+    * @return a new LineFilter
+    * @throws IllegalArgumentException
+    *    if maxMatches is negative
+    * @throws NullPointerException
+    *    if the prefix is null
+    */
+   public static LineFilter prefix( String prefix, int maxMatches ) {
+
+      if ( prefix == null ) {
+         throw new NullPointerException( "Argument 'prefix' cannot be null." );
+      }
+
+      return( new LineFilter( line -> startsWith( line, prefix ), maxMatches ) );
+
+   }
+
+
+   /**
+    * Filters the stream until end of stream or until the maximum number of matches is reached.
+    *
+    * @param in
+    *    the stream to filter
+    * @param process
+    *    the process producing the stream; destroyed if the maximum number of matches is reached
+    * @throws IOException
+    *    if an I/O error occurs
+    * @throws IllegalStateException
+    *    if this instance already filtered a stream
+    */
+   @Override
+   public synchronized void handle( InputStream in, Process process )
+         throws IOException {
+
+      if ( handled ) {
+         throw new IllegalStateException( "LineFilter already filtered a stream." );
+      }
+
+      handled = true;
+
+      Reader reader = new InputStreamReader( in );
+      CharSlice slice = new CharSlice( null, 0, 0 );
+
+      char[] buffer = new char[8192];
+      int start = 0;          // start of the current line
+      int scan = 0;           // next char to examine
+      int end = 0;            // end of valid chars
+      boolean skipLf = false; // 'true' if the previous line ended with '\r', so a following '\n' is part of its terminator
+
+      while ( true ) {
+
+         while ( scan < end ) {
+
+            char c = buffer[scan];
+
+            if ( c == '\n' && skipLf && scan == start ) {
+               start++;
+               scan++;
+               skipLf = false;
+            } else if ( c == '\n' || c == '\r' ) {
+               if ( accept( slice.set( buffer, start, scan ), process ) ) {
+                  return;
+               }
+               skipLf = ( c == '\r' );
+               scan++;
+               start = scan;
+            } else {
+               skipLf = false;
+               scan++;
+            }
+
+         }
+
+         // make room for more input, keeping the partial line
+         if ( start > 0 ) {
+            System.arraycopy( buffer, start, buffer, 0, end - start );
+            end -= start;
+            scan -= start;
+            start = 0;
+         } else if ( end == buffer.length ) {
+            buffer = Arrays.copyOf( buffer, buffer.length * 2 );
+         }
+
+         int read = reader.read( buffer, end, buffer.length - end );
+
+         if ( read == -1 ) {
+            if ( start < end ) {
+               accept( slice.set( buffer, start, end ), process );
+            }
+            return;
+         }
+
+         end += read;
+
+      }
+
+   }
+
+
+   /**
+    * Returns the matching lines, without line terminators, in the order produced.
+    *
+    * @return the matching lines
+    */
+   public synchronized List<String> getLines( ) {
+      return( new ArrayList<String>( lines ) );
+   }
+
+
+   /**
+    * Returns the matching lines joined with '\n'.
+    *
+    * @return the matching lines as a String, which is empty if no line matched
+    */
+   public synchronized String getText( ) {
+      return( String.join( "\n", lines ) );
+   }
+
+
+   /**
+    * Returns the number of matching lines.
+    *
+    * @return the number of matching lines
+    */
+   public synchronized int getMatchCount( ) {
+      return( lines.size( ) );
+   }
+
+
+   /**
+    * Returns whether the process was destroyed because the maximum number of matches was reached.
+    *
+    * @return 'true' if the process was destroyed by this filter and 'false' otherwise
+    */
+   public synchronized boolean isStopped( ) {
+      return( stopped );
+   }
+
+
+   /*
+    * Tests a line, retaining it if it matches, and destroys the process if the maximum number of matches is reached.
+    *
+    * @return 'true' if filtering should stop and 'false' otherwise
+    */
+   private boolean accept( CharSlice line, Process process ) {
+
+      if ( predicate.test( line ) ) {
+
+         lines.add( line.toString( ) );
+
+         if ( maxMatches > 0 && lines.size( ) >= maxMatches ) {
+            stopped = true;
+            Exec.destroyTree( process );
+            return( true );
+         }
+
+      }
+
+      return( false );
+
+   }
+
+
+   private static boolean startsWith( CharSequence line, String prefix ) {
+
+      if ( line.length( ) < prefix.length( ) ) {
+         return( false );
+      }
+
+      for ( int i = 0; i < prefix.length( ); i++ ) {
+         if ( line.charAt( i ) != prefix.charAt( i ) ) {
+            return( false );
+         }
+      }
+
+      return( true );
+
+   }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+
+
+/**
+ * Exports spans to a file as newline-delimited JSON (NDJSON), one 'ExecSpan.toJson()' object per line, for offline analysis.
+ * <p>
+ * Spans are appended to the file, which is created if it doesn't exist.  Each span is flushed as it is written, so the file is complete up to the last exported span even if the JVM exits without closing the exporter.  Read the file back with a JsonOutputHandler, e.g. by executing 'cat' on it.  Instances are thread-safe.
+ *
+ */
+public final class NdjsonSpanExporter implements SpanExporter, AutoCloseable {
+
+   private final Writer writer;
+   private long count;
+   private boolean closed;
+
+
+   /**
+    * Constructs an NdjsonSpanExporter that appends spans to the file.
+    *
+    * @param file
+    *    the file to append spans to; required
+    * @throws IOException
+    *    if the file can't be opened for appending
+    * @throws NullPointerException
+    *    if the file is null
+    */
+   public NdjsonSpanExporter( Path file )
+         throws IOException {
+
+      if ( file == null ) {
+         throw new NullPointerException( "Argument 'file' cannot be null." );
+      }
+
+      this.writer = Files.newBufferedWriter( file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE );
+   }
+
+
+   /**
+    * Appends the span to the file as a line of JSON.
+    *
+    * @param span
+    *    the span to export
+    * @throws IllegalStateException
+    *    if the exporter is closed
+    * @throws UncheckedIOException
+    *    if an I/O error occurs
+    */
+   @Override
+   public synchronized void export( ExecSpan span ) {
+
+      if ( closed ) {
+         throw new IllegalStateException( "NdjsonSpanExporter is closed." );
+      }
+
+      try {
+         writer.write( span.toJson( ) );
+         writer.write( '\n' );
+         writer.flush( );
+      } catch ( IOException e ) {
+         throw new UncheckedIOException( e );
+      }
+
+      count++;
+
+   }
+
+
+   /**
+    * Returns the number of spans written.
+    *
+    * @return the number of exported spans
+    */
+   public synchronized long getCount( ) {
+      return( count );
+   }
+
+
+   /**
+    * Closes the file.  Spans exported after closing are discarded by 'Exec'.
+    *
+    * @throws IOException
+    *    if an I/O error occurs
+    */
+   @Override
+   public synchronized void close( )
+         throws IOException {
+
+      if ( !closed ) {
+         closed = true;
+         writer.close( );
+      }
+
+   }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.io.InputStream;
+import java.io.IOException;
+
+
+
+/**
+ * Consumes an output stream of a native command line process as the process produces it.
+ * <p>
+ * Passed to 'Exec.exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;,OutputHandler,OutputHandler)', which calls 'handle(...)' on a dedicated thread while the process runs.  The handler should read the stream promptly, since a process blocks once its output buffer is full.  The caller discards whatever the handler leaves unread and closes the stream afterwards.
+ *
+ */
+public interface OutputHandler {
+
+   /**
+    * Consumes the stream, typically until end of stream.
+    *
+    * @param in
+    *    the standard output or standard error stream of the process
+    * @param process
+    *    the process producing the stream, e.g. to destroy it once enough output has been seen
+    * @throws IOException
+    *    if an I/O error occurs; reported to the caller of 'Exec.exec(...)'
+    */
+   void handle( InputStream in, Process process )
+         throws IOException;
+
+}
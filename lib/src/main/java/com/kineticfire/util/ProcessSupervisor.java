@@ -0,0 +1,590 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.io.File;
+import java.io.IOException;
+
+
+
+/**
+ * Starts and supervises long-running native command line processes, restarting them with backoff when they exit and rotating their output files.
+ * <p>
+ * Processes are configured as per 'Exec.exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;)'.  Supervised output is never read by a thread:  standard output and standard error go to the files configured with 'redirectOutFilePath' and 'redirectErrFilePath' (or are merged with 'redirectErrToOut'), and are otherwise discarded by the operating system.
+ * <p>
+ * Exits are observed through 'Process.onExit()', and restarts and rotation run on a small fixed pool of scheduler threads, so supervising many processes doesn't require a thread per process beyond what the JDK itself uses to reap child processes.
+ * <p>
+ * The optional supervision Map (which may be null or empty) defines key-value pairs as follows:
+ * <ul>
+ *    <li>restart - 'always' to restart whenever the process exits, 'on-failure' to restart when it exits with a non-zero exit value, and 'never' to not restart; optional, defaults to 'on-failure'</li>
+ *    <li>maxRestarts - the maximum number of restarts, or -1 for no limit; optional, defaults to -1</li>
+ *    <li>backoffInitialMillis - the delay before the first restart after a failure in milliseconds; doubled for each consecutive restart; optional, defaults to 100</li>
+ *    <li>backoffMaxMillis - the maximum delay before a restart in milliseconds; a process that ran at least this long resets the backoff; optional, defaults to 30000</li>
+ *    <li>rotateMaxBytes - rotate an output file once it exceeds this size in bytes, or 0 to not rotate; requires the output files to use redirect type 'append'; optional, defaults to 0</li>
+ *    <li>rotateKeep - the number of rotated files to keep, named with suffixes '.1' (newest) to '.&lt;rotateKeep&gt;'; optional, defaults to 5</li>
+ * </ul>
+ * <p>
+ * Output files are rotated by copying and truncating them, so that a running process keeps appending to the same file.  Close the supervisor to stop all supervised processes and its threads.
+ *
+ */
+public final class ProcessSupervisor implements AutoCloseable {
+
+   /** how often output files are checked for rotation, in milliseconds */
+   private static final long ROTATE_CHECK_MILLIS = 1000;
+
+   /** time given to a process to exit after a graceful stop request before it is destroyed forcibly, in milliseconds */
+   private static final long STOP_GRACE_MILLIS = 5000;
+
+
+   private final ScheduledExecutorService scheduler;
+   private final Map<String,Supervised> supervisedMap = new ConcurrentHashMap<String,Supervised>( );
+   private volatile boolean closed;
+
+
+   /**
+    * Constructs a ProcessSupervisor with one scheduler thread.
+    *
+    */
+   public ProcessSupervisor( ) {
+      this( 1 );
+   }
+
+
+   /**
+    * Constructs a ProcessSupervisor with the specified number of scheduler threads.
+    *
+    * @param threads
+    *    the number of scheduler threads; must be at least 1
+    * @throws IllegalArgumentException
+    *    if threads is less than 1
+    */
+   public ProcessSupervisor( int threads ) {
+
+      if ( threads < 1 ) {
+         throw new IllegalArgumentException( "Illegal value '" + threads + "' for 'threads'.  Must be at least 1." );
+      }
+
+      AtomicInteger count = new AtomicInteger( );
+
+      scheduler = Executors.newScheduledThreadPool( threads, runnable -> {
+         Thread thread = new Thread( runnable, "process-supervisor-" + count.incrementAndGet( ) );
+         thread.setDaemon( true );
+         return( thread );
+      } );
+
+      scheduler.scheduleWithFixedDelay( this::rotateAll, ROTATE_CHECK_MILLIS, ROTATE_CHECK_MILLIS, TimeUnit.MILLISECONDS );
+   }
+
+
+   /**
+    * Starts a task as a supervised native command line process.
+    *
+    * @param name
+    *    unique name of the supervised process; required
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @param config
+    *    a Map of key-value pairs defining the configuration as per 'Exec.exec(...)'; optional, can be empty or null
+    * @param addEnv
+    *    a Map of key-value of environment variables to add; optional, can be empty or null
+    * @param removeEnv
+    *    a List of environment variables to remove; optional, can be empty or null
+    * @param supervision
+    *    a Map of key-value pairs defining the supervision; optional, can be empty or null
+    * @return the supervised process
+    * @throws IllegalArgumentException
+    *    if an illegal or inappropriate argument was passed to this method, or the name is already in use
+    * @throws IllegalStateException
+    *    if the supervisor was closed
+    * @throws IOException
+    *    if an I/O error occurs starting the process
+    */
+   public Supervised start( String name, List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv, Map<String,String> supervision )
+         throws IOException {
+
+      if ( closed ) {
+         throw new IllegalStateException( "ProcessSupervisor was closed." );
+      }
+
+      if ( name == null ) {
+         throw new NullPointerException( "Argument 'name' cannot be null." );
+      }
+
+      Exec.Setup setup = Exec.configure( task, config, addEnv, removeEnv );
+      ProcessBuilder processBuilder = setup.processBuilder;
+
+      // nothing reads the process streams, so let the operating system discard output that isn't sent to a file
+      if ( !setup.outToFile ) {
+         processBuilder.redirectOutput( Redirect.DISCARD );
+      }
+      if ( !setup.errRedirect ) {
+         processBuilder.redirectError( Redirect.DISCARD );
+      }
+
+      Supervised supervised = new Supervised( name, processBuilder, supervision );
+
+      if ( supervisedMap.putIfAbsent( name, supervised ) != null ) {
+         throw new IllegalArgumentException( "A supervised process named '" + name + "' already exists." );
+      }
+
+      try {
+         supervised.launch( );
+      } catch ( IOException | RuntimeException e ) {
+         supervisedMap.remove( name );
+         throw e;
+      }
+
+      return( supervised );
+
+   }
+
+
+   /**
+    * Returns the supervised process with the specified name.
+    *
+    * @param name
+    *    the name of the supervised process
+    * @return the supervised process, or null if there is none with that name
+    */
+   public Supervised get( String name ) {
+      return( supervisedMap.get( name ) );
+   }
+
+
+   /**
+    * Returns all supervised processes, including stopped ones that haven't been removed.
+    *
+    * @return a List of the supervised processes
+    */
+   public List<Supervised> getSupervised( ) {
+      return( new ArrayList<Supervised>( supervisedMap.values( ) ) );
+   }
+
+
+   /**
+    * Stops and removes the supervised process with the specified name.
+    *
+    * @param name
+    *    the name of the supervised process
+    * @return 'true' if a supervised process was removed and 'false' if there is none with that name
+    */
+   public boolean remove( String name ) {
+
+      Supervised supervised = supervisedMap.remove( name );
+
+      if ( supervised == null ) {
+         return( false );
+      }
+
+      supervised.stop( );
+
+      return( true );
+
+   }
+
+
+   /**
+    * Stops all supervised processes and shuts down the scheduler threads.
+    *
+    */
+   @Override
+   public void close( ) {
+
+      closed = true;
+
+      for ( Supervised supervised : supervisedMap.values( ) ) {
+         supervised.stop( );
+      }
+
+      supervisedMap.clear( );
+
+      scheduler.shutdown( );
+
+   }
+
+
+   /*
+    * Rotates the output files of all supervised processes that exceed their maximum size.
+    */
+   private void rotateAll( ) {
+      for ( Supervised supervised : supervisedMap.values( ) ) {
+         supervised.rotate( );
+      }
+   }
+
+
+   /*
+    * Copies the file to '&lt;file&gt;.1', shifting older rotated files up to '&lt;file&gt;.&lt;keep&gt;', and truncates the file.
+    */
+   private static void rotate( Path file, int keep )
+         throws IOException {
+
+      Files.deleteIfExists( Path.of( file + "." + keep ) );
+
+      for ( int i = keep - 1; i >= 1; i-- ) {
+         Path older = Path.of( file + "." + i );
+         if ( Files.exists( older ) ) {
+            Files.move( older, Path.of( file + "." + ( i + 1 ) ), StandardCopyOption.REPLACE_EXISTING );
+         }
+      }
+
+      if ( keep > 0 ) {
+         Files.copy( file, Path.of( file + ".1" ), StandardCopyOption.REPLACE_EXISTING );
+      }
+
+      try ( FileChannel channel = FileChannel.open( file, StandardOpenOption.WRITE ) ) {
+         channel.truncate( 0 );
+      }
+
+   }
+
+
+   private static String getString( Map<String,String> map, String key, String defaultValue ) {
+      return( ( map != null && map.get( key ) != null ) ? map.get( key ) : defaultValue );
+   }
+
+
+   private static long getLong( Map<String,String> map, String key, long defaultValue, long min ) {
+
+      String value = getString( map, key, null );
+
+      if ( value == null ) {
+         return( defaultValue );
+      }
+
+      try {
+         long parsed = Long.parseLong( value );
+         if ( parsed >= min ) {
+            return( parsed );
+         }
+      } catch ( NumberFormatException ignore ) {
+         // fall through to exception
+      }
+
+      throw new IllegalArgumentException( "Illegal value '" + value + "' for '" + key + "' in 'supervision'." );
+
+   }
+
+
+   /**
+    * A process under supervision.
+    * <p>
+    * Methods are thread-safe.
+    *
+    */
+   public final class Supervised {
+
+      private final String name;
+      private final ProcessBuilder processBuilder;
+
+      private final String restart;
+      private final long maxRestarts;
+      private final long backoffInitialMillis;
+      private final long backoffMaxMillis;
+      private final long rotateMaxBytes;
+      private final int rotateKeep;
+
+      private Process process;
+      private long startNanos;
+      private int restartCount;
+      private int consecutiveFailures;
+      private int lastExitValue = -1;
+      private boolean stopped;
+
+
+      private Supervised( String name, ProcessBuilder processBuilder, Map<String,String> supervision ) {
+
+         this.name = name;
+         this.processBuilder = processBuilder;
+
+         restart = getString( supervision, "restart", "on-failure" );
+
+         if ( !restart.equals( "always" ) && !restart.equals( "on-failure" ) && !restart.equals( "never" ) ) {
+            throw new IllegalArgumentException( "Illegal value '" + restart + "' for 'restart' in 'supervision'." );
+         }
+
+         maxRestarts = getLong( supervision, "maxRestarts", -1, -1 );
+         backoffInitialMillis = getLong( supervision, "backoffInitialMillis", 100, 0 );
+         backoffMaxMillis = getLong( supervision, "backoffMaxMillis", 30000, 0 );
+         rotateMaxBytes = getLong( supervision, "rotateMaxBytes", 0, 0 );
+         rotateKeep = (int)getLong( supervision, "rotateKeep", 5, 0 );
+
+         if ( rotateMaxBytes > 0 ) {
+            checkAppend( processBuilder.redirectOutput( ) );
+            checkAppend( processBuilder.redirectError( ) );
+         }
+
+      }
+
+
+      /**
+       * Returns the name of the supervised process.
+       *
+       * @return the name
+       */
+      public String getName( ) {
+         return( name );
+      }
+
+
+      /**
+       * Returns whether the process is currently running.
+       *
+       * @return 'true' if the process is running and 'false' otherwise, e.g. while waiting to restart
+       */
+      public synchronized boolean isAlive( ) {
+         return( process != null && process.isAlive( ) );
+      }
+
+
+      /**
+       * Returns the process ID of the current or most recent process.
+       *
+       * @return the process ID, or -1 if no process was started
+       */
+      public synchronized long getPid( ) {
+         return( process != null ? process.pid( ) : -1 );
+      }
+
+
+      /**
+       * Returns the number of times the process was restarted.
+       *
+       * @return the restart count
+       */
+      public synchronized int getRestartCount( ) {
+         return( restartCount );
+      }
+
+
+      /**
+       * Returns the exit value of the most recent process to exit.
+       *
+       * @return the exit value, or -1 if no process has exited
+       */
+      public synchronized int getLastExitValue( ) {
+         return( lastExitValue );
+      }
+
+
+      /**
+       * Returns whether supervision was stopped, after which the process is not restarted.
+       *
+       * @return 'true' if stopped and 'false' otherwise
+       */
+      public synchronized boolean isStopped( ) {
+         return( stopped );
+      }
+
+
+      /**
+       * Stops supervision and the process, requesting a graceful exit and destroying the process and its descendants forcibly if they haven't exited after a grace period.
+       *
+       */
+      public void stop( ) {
+
+         Process current;
+
+         synchronized ( this ) {
+            if ( stopped ) {
+               return;
+            }
+            stopped = true;
+            current = process;
+         }
+
+         if ( current != null && current.isAlive( ) ) {
+            current.descendants( ).forEach( ProcessHandle::destroy );
+            current.destroy( );
+            if ( !scheduler.isShutdown( ) ) {
+               scheduler.schedule( ( ) -> {
+                  if ( current.isAlive( ) ) {
+                     Exec.destroyTree( current );
+                  }
+               }, STOP_GRACE_MILLIS, TimeUnit.MILLISECONDS );
+            }
+         }
+
+      }
+
+
+      /*
+       * Starts the process and arranges for 'exited(...)' to run on the scheduler when it exits.
+       */
+      private void launch( )
+            throws IOException {
+
+         Process started;
+
+         synchronized ( this ) {
+            if ( stopped ) {
+               return;
+            }
+            started = processBuilder.start( );
+            process = started;
+            startNanos = System.nanoTime( );
+         }
+
+         started.onExit( ).thenAcceptAsync( this::exited, scheduler );
+
+      }
+
+
+      /*
+       * Records the exit of the process and schedules a restart as per the restart policy.
+       */
+      private void exited( Process exitedProcess ) {
+
+         long delayMillis;
+
+         synchronized ( this ) {
+
+            lastExitValue = exitedProcess.exitValue( );
+
+            long ranMillis = TimeUnit.NANOSECONDS.toMillis( System.nanoTime( ) - startNanos );
+
+            if ( ranMillis >= backoffMaxMillis ) {
+               consecutiveFailures = 0;
+            }
+
+            boolean restartWanted = restart.equals( "always" ) || ( restart.equals( "on-failure" ) && lastExitValue != 0 );
+
+            if ( stopped || !restartWanted || ( maxRestarts >= 0 && restartCount >= maxRestarts ) ) {
+               return;
+            }
+
+            delayMillis = backoffMillis( );
+            consecutiveFailures++;
+            restartCount++;
+
+         }
+
+         scheduleRestart( delayMillis );
+
+      }
+
+
+      private void scheduleRestart( long delayMillis ) {
+
+         if ( scheduler.isShutdown( ) ) {
+            return;
+         }
+
+         scheduler.schedule( ( ) -> {
+            try {
+               launch( );
+            } catch ( IOException | RuntimeException e ) {
+               long nextDelayMillis;
+               synchronized ( this ) {
+                  if ( stopped || ( maxRestarts >= 0 && restartCount >= maxRestarts ) ) {
+                     return;
+                  }
+                  nextDelayMillis = backoffMillis( );
+                  consecutiveFailures++;
+                  restartCount++;
+               }
+               scheduleRestart( nextDelayMillis );
+            }
+         }, delayMillis, TimeUnit.MILLISECONDS );
+
+      }
+
+
+      /*
+       * Returns the delay before the next restart.  Must be called while holding the lock.
+       */
+      private long backoffMillis( ) {
+
+         if ( consecutiveFailures >= 62 || backoffInitialMillis << consecutiveFailures > backoffMaxMillis || backoffInitialMillis << consecutiveFailures < 0 ) {
+            return( backoffMaxMillis );
+         }
+
+         return( backoffInitialMillis << consecutiveFailures );
+
+      }
+
+
+      /*
+       * Rotates the output files that exceed the maximum size.
+       */
+      private void rotate( ) {
+
+         if ( rotateMaxBytes <= 0 ) {
+            return;
+         }
+
+         Redirect out = processBuilder.redirectOutput( );
+         Redirect err = processBuilder.redirectError( );
+
+         if ( out != Redirect.DISCARD ) {
+            rotateIfNeeded( out.file( ) );
+         }
+
+         if ( err != Redirect.DISCARD && err.file( ) != null && !err.file( ).equals( out.file( ) ) ) {
+            rotateIfNeeded( err.file( ) );
+         }
+
+      }
+
+
+      private void rotateIfNeeded( File file ) {
+
+         if ( file == null ) {
+            return;
+         }
+
+         try {
+            Path path = file.toPath( );
+            if ( Files.exists( path ) && Files.size( path ) > rotateMaxBytes ) {
+               ProcessSupervisor.rotate( path, rotateKeep );
+            }
+         } catch ( IOException ignore ) {
+            // retried on the next check
+         }
+
+      }
+
+
+      private void checkAppend( Redirect redirect ) {
+         if ( redirect != Redirect.DISCARD && redirect.file( ) != null && redirect.type( ) != Redirect.Type.APPEND ) {
+            throw new IllegalArgumentException( "Illegal configuration.  Rotation with 'rotateMaxBytes' requires output files to use redirect type 'append'." );
+         }
+      }
+
+   }
+
+}
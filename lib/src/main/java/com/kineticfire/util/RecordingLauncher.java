@@ -0,0 +1,306 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+
+
+/**
+ * Executes tasks with a delegate Launcher and records each invocation and its result to a file for later replay by a ReplayLauncher.
+ * <p>
+ * Install an instance with 'Exec.setLauncher(Launcher)', typically wrapping 'Exec.getDefaultLauncher()', and close it to flush the recording.  Each record holds the task, config, environment changes, and the outcome:  either the result Map (exit value, standard output, and standard error) or, if the invocation threw an IOException, such as when the command wasn't found, the class and message of the exception.  Invocations that throw any other exception aren't recorded.  Files written by a task through 'redirectOutFilePath' or 'redirectErrFilePath' aren't recorded.
+ * <p>
+ * The recording is a compact binary file:  a header followed by one record per invocation, with Strings stored as UTF-8 bytes preceded by their length.  Instances are thread-safe.
+ *
+ */
+public final class RecordingLauncher implements Launcher, AutoCloseable {
+
+   /** identifies a recording file */
+   static final int MAGIC = 0x4B465252;
+
+   /** format version of a recording file */
+   static final int VERSION = 2;
+
+   /** outcome tag of a record holding a result Map */
+   static final byte OUTCOME_RESULT = 0;
+
+   /** outcome tag of a record holding the class and message of an IOException */
+   static final byte OUTCOME_EXCEPTION = 1;
+
+
+   private final Launcher delegate;
+   private final DataOutputStream out;
+   private long count;
+   private boolean closed;
+
+
+   /**
+    * Constructs a RecordingLauncher that executes tasks with the delegate and records them to the file, overwriting it if it exists.
+    *
+    * @param delegate
+    *    the launcher that executes tasks; required
+    * @param file
+    *    the file to which to record; required
+    * @throws IOException
+    *    if the file can't be created
+    * @throws NullPointerException
+    *    if the delegate or file is null
+    */
+   public RecordingLauncher( Launcher delegate, Path file )
+         throws IOException {
+
+      if ( delegate == null ) {
+         throw new NullPointerException( "Argument 'delegate' cannot be null." );
+      }
+
+      if ( file == null ) {
+         throw new NullPointerException( "Argument 'file' cannot be null." );
+      }
+
+      this.delegate = delegate;
+
+      out = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( file ) ) );
+      out.writeInt( MAGIC );
+      out.writeInt( VERSION );
+   }
+
+
+   /**
+    * Executes the task with the delegate and records the invocation and its result, or the IOException it threw.
+    *
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @param config
+    *    a Map of key-value pairs defining the configuration; optional, can be empty or null
+    * @param addEnv
+    *    a Map of key-value of environment variables to add; optional, can be empty or null
+    * @param removeEnv
+    *    a List of environment variables to remove; optional, can be empty or null
+    * @return a Map of the result of the command execution, as returned by the delegate
+    * @throws IOException
+    *    if an I/O error occurs executing the task or writing the recording
+    * @throws IllegalStateException
+    *    if this instance was closed
+    */
+   @Override
+   public Map<String,String> launch( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv )
+         throws IOException {
+
+      Map<String,String> resultMap;
+
+      try {
+         resultMap = delegate.launch( task, config, addEnv, removeEnv );
+      } catch ( IOException e ) {
+         record( task, config, addEnv, removeEnv, null, e );
+         throw( e );
+      }
+
+      record( task, config, addEnv, removeEnv, resultMap, null );
+
+      return( resultMap );
+
+   }
+
+
+   /*
+    * Writes a record of the invocation with its outcome, which is the result Map if the exception is null.
+    */
+   private synchronized void record( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv, Map<String,String> resultMap, IOException exception )
+         throws IOException {
+
+      if ( closed ) {
+         throw new IllegalStateException( "RecordingLauncher was closed." );
+      }
+
+      writeList( out, task );
+      writeMap( out, config );
+      writeMap( out, addEnv );
+      writeList( out, removeEnv );
+
+      if ( exception == null ) {
+         out.writeByte( OUTCOME_RESULT );
+         writeMap( out, resultMap );
+      } else {
+         out.writeByte( OUTCOME_EXCEPTION );
+         writeString( out, exception.getClass( ).getName( ) );
+         writeString( out, exception.getMessage( ) );
+      }
+
+      count++;
+
+   }
+
+
+   /**
+    * Returns the number of invocations recorded.
+    *
+    * @return the number of recorded invocations
+    */
+   public synchronized long getCount( ) {
+      return( count );
+   }
+
+
+   /**
+    * Flushes and closes the recording.
+    *
+    * @throws IOException
+    *    if an I/O error occurs
+    */
+   @Override
+   public synchronized void close( )
+         throws IOException {
+
+      if ( !closed ) {
+         closed = true;
+         out.close( );
+      }
+
+   }
+
+
+   /*
+    * Writes a List of Strings, treating null as an empty List.
+    */
+   static void writeList( DataOutputStream out, List<String> list )
+         throws IOException {
+
+      if ( list == null ) {
+         out.writeInt( 0 );
+         return;
+      }
+
+      out.writeInt( list.size( ) );
+
+      for ( String value : list ) {
+         writeString( out, value );
+      }
+
+   }
+
+
+   /*
+    * Writes a Map of Strings in key order, treating null as an empty Map and omitting null values, which 'Exec' treats as undefined.
+    */
+   static void writeMap( DataOutputStream out, Map<String,String> map )
+         throws IOException {
+
+      TreeMap<String,String> sorted = new TreeMap<String,String>( );
+
+      if ( map != null ) {
+         for ( Map.Entry<String,String> entry : map.entrySet( ) ) {
+            if ( entry.getKey( ) != null && entry.getValue( ) != null ) {
+               sorted.put( entry.getKey( ), entry.getValue( ) );
+            }
+         }
+      }
+
+      out.writeInt( sorted.size( ) );
+
+      for ( Map.Entry<String,String> entry : sorted.entrySet( ) ) {
+         writeString( out, entry.getKey( ) );
+         writeString( out, entry.getValue( ) );
+      }
+
+   }
+
+
+   /*
+    * Writes a String as its UTF-8 length and bytes, or -1 for null.
+    */
+   static void writeString( DataOutputStream out, String value )
+         throws IOException {
+
+      if ( value == null ) {
+         out.writeInt( -1 );
+         return;
+      }
+
+      byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+
+      out.writeInt( bytes.length );
+      out.write( bytes );
+
+   }
+
+
+   static List<String> readList( DataInputStream in )
+         throws IOException {
+
+      int size = in.readInt( );
+
+      List<String> list = new ArrayList<String>( size );
+
+      for ( int i = 0; i < size; i++ ) {
+         list.add( readString( in ) );
+      }
+
+      return( list );
+
+   }
+
+
+   static TreeMap<String,String> readMap( DataInputStream in )
+         throws IOException {
+
+      int size = in.readInt( );
+
+      TreeMap<String,String> map = new TreeMap<String,String>( );
+
+      for ( int i = 0; i < size; i++ ) {
+         map.put( readString( in ), readString( in ) );
+      }
+
+      return( map );
+
+   }
+
+
+   static String readString( DataInputStream in )
+         throws IOException {
+
+      int length = in.readInt( );
+
+      if ( length < 0 ) {
+         return( null );
+      }
+
+      byte[] bytes = new byte[length];
+      in.readFully( bytes );
+
+      return( new String( bytes, StandardCharsets.UTF_8 ) );
+
+   }
+
+}
@@ -0,0 +1,573 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.nio.charset.Charset;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+
+
+/**
+ * Executes tasks on a pool of remote ExecAgents over TCP, returning the same result Map as 'Exec.exec(...)'.
+ * <p>
+ * Each task is placed on the agent with the lowest load, measured as the number of tasks in flight relative to the agent's concurrency limit.  The limit of an agent is the lower of the limit given to this client and the 'maxConcurrency' the agent advertises when first connected.  When every agent is at its limit, a call waits for a task to finish.  An agent that can't be connected to is skipped for a few seconds, and the task is placed on another agent; once a task was sent to an agent, a failure of that agent is reported rather than retried, since the task may have run.  A pooled connection that fails while the task is being sent, e.g. because the agent closed it while idle, is replaced by a fresh connection once, since the task didn't reach the agent.
+ * <p>
+ * Install an instance with 'Exec.setLauncher(Launcher)' to send all 'Exec.exec(...)' traffic to the agents, or call 'exec(...)' directly to also receive output as it is produced.  Connections are pooled and reused.  Instances are thread-safe.
+ *
+ */
+public final class RemoteExec implements Launcher, AutoCloseable {
+
+   /** time for which an agent that couldn't be connected to is skipped, in milliseconds */
+   private static final long RETRY_MILLIS = 5000;
+
+   /** timeout for connecting to an agent, in milliseconds */
+   private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+
+
+   private final List<Agent> agents = new ArrayList<Agent>( );
+   private int next;
+   private boolean closed;
+
+
+   /**
+    * Constructs a RemoteExec for the agents, limited by the concurrency each agent advertises.
+    *
+    * @param addresses
+    *    the addresses of the agents; required, must not be empty
+    * @throws IllegalArgumentException
+    *    if no addresses are given
+    */
+   public RemoteExec( List<InetSocketAddress> addresses ) {
+      this( addresses, Integer.MAX_VALUE );
+   }
+
+
+   /**
+    * Constructs a RemoteExec for the agents, placing at most 'perAgentLimit' tasks on any one agent at a time.
+    *
+    * @param addresses
+    *    the addresses of the agents; required, must not be empty
+    * @param perAgentLimit
+    *    the maximum number of tasks in flight per agent; must be at least 1
+    * @throws IllegalArgumentException
+    *    if no addresses are given or perAgentLimit is less than 1
+    */
+   public RemoteExec( List<InetSocketAddress> addresses, int perAgentLimit ) {
+
+      if ( addresses == null || addresses.isEmpty( ) ) {
+         throw new IllegalArgumentException( "Argument 'addresses' must define at least one agent." );
+      }
+
+      if ( perAgentLimit < 1 ) {
+         throw new IllegalArgumentException( "Illegal value '" + perAgentLimit + "' for 'perAgentLimit'.  Must be at least 1." );
+      }
+
+      for ( InetSocketAddress address : addresses ) {
+         agents.add( new Agent( address, perAgentLimit ) );
+      }
+
+   }
+
+
+   /**
+    * Executes the task on an agent and returns the result Map, as per 'Exec.exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;)'.
+    *
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @param config
+    *    a Map of key-value pairs defining the configuration; optional, can be empty or null
+    * @param addEnv
+    *    a Map of key-value of environment variables to add; optional, can be empty or null
+    * @param removeEnv
+    *    a List of environment variables to remove; optional, can be empty or null
+    * @return a Map of the result of the command execution
+    * @throws IllegalArgumentException
+    *    if an illegal or inappropriate argument was passed to this method
+    * @throws IOException
+    *    if no agent is available, the connection to the agent failed, the agent couldn't start the process, or the current thread was interrupted while waiting for an agent
+    */
+   @Override
+   public Map<String,String> launch( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv )
+         throws IOException {
+
+      return( exec( task, config, addEnv, removeEnv, null, null ) );
+
+   }
+
+
+   /**
+    * Executes the task on an agent, writing its standard output and standard error to the streams as the agent receives them, and returns the result Map.
+    * <p>
+    * The streams receive the raw output of the process, in chunks, while the result Map holds the output as per 'Exec.exec(...)', assembled from the chunks and decoded with the default charset of this JVM.
+    *
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @param config
+    *    a Map of key-value pairs defining the configuration; optional, can be empty or null
+    * @param addEnv
+    *    a Map of key-value of environment variables to add; optional, can be empty or null
+    * @param removeEnv
+    *    a List of environment variables to remove; optional, can be empty or null
+    * @param outStream
+    *    stream to which to write standard output as it arrives; optional, can be null
+    * @param errStream
+    *    stream to which to write standard error as it arrives; optional, can be null
+    * @return a Map of the result of the command execution
+    * @throws IllegalArgumentException
+    *    if an illegal or inappropriate argument was passed to this method
+    * @throws IllegalStateException
+    *    if this instance was closed
+    * @throws IOException
+    *    if no agent is available, the connection to the agent failed, the agent couldn't start the process, writing to a stream failed, or the current thread was interrupted while waiting for an agent
+    */
+   public Map<String,String> exec( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv, OutputStream outStream, OutputStream errStream )
+         throws IOException {
+
+      if ( task == null ) {
+         throw new NullPointerException( "Argument 'task' cannot be null." );
+      }
+
+      for ( int attempt = 0; attempt < agents.size( ); attempt++ ) {
+
+         Agent agent = acquire( );
+         Connection connection;
+
+         try {
+            connection = agent.connection( );
+         } catch ( IOException e ) {
+            agent.markDown( );
+            release( agent );
+            continue;
+         }
+
+         boolean reusable = false;
+
+         try {
+
+            try {
+               connection.send( task, config, addEnv, removeEnv );
+            } catch ( IOException e ) {
+               if ( !connection.pooled ) {
+                  throw e;
+               }
+               // the agent closed the idle connection, so the task didn't reach it; retry once on a fresh connection
+               connection.close( );
+               connection = agent.connect( );
+               connection.send( task, config, addEnv, removeEnv );
+            }
+
+            Map<String,String> resultMap = connection.receive( outStream, errStream, config );
+            reusable = true;
+            return( resultMap );
+         } catch ( RemoteException e ) {
+            reusable = true;
+            throw e.toLocal( );
+         } finally {
+            agent.finish( connection, reusable );
+            release( agent );
+         }
+
+      }
+
+      throw new IOException( "No execution agent is available." );
+
+   }
+
+
+   /**
+    * Returns the number of tasks in flight on all agents.
+    *
+    * @return the number of tasks in flight
+    */
+   public synchronized int getInFlight( ) {
+
+      int inFlight = 0;
+
+      for ( Agent agent : agents ) {
+         inFlight += agent.inFlight;
+      }
+
+      return( inFlight );
+
+   }
+
+
+   /**
+    * Closes the pooled connections.  Tasks in flight complete, after which their connections are closed.
+    *
+    */
+   @Override
+   public void close( ) {
+
+      synchronized ( this ) {
+         closed = true;
+         notifyAll( );
+      }
+
+      for ( Agent agent : agents ) {
+         agent.closeIdle( );
+      }
+
+   }
+
+
+   /*
+    * Waits for and reserves a slot on the least loaded available agent.
+    */
+   private synchronized Agent acquire( )
+         throws IOException {
+
+      while ( true ) {
+
+         if ( closed ) {
+            throw new IllegalStateException( "RemoteExec was closed." );
+         }
+
+         long now = System.nanoTime( );
+         Agent best = null;
+         boolean anyUp = false;
+
+         // start the scan at a rotating index so that ties are spread across agents
+         for ( int i = 0; i < agents.size( ); i++ ) {
+
+            Agent agent = agents.get( ( next + i ) % agents.size( ) );
+
+            if ( agent.isDown( now ) ) {
+               continue;
+            }
+
+            anyUp = true;
+
+            if ( agent.inFlight < agent.limit && ( best == null || (long)agent.inFlight * best.limit < (long)best.inFlight * agent.limit ) ) {
+               best = agent;
+            }
+
+         }
+
+         if ( !anyUp ) {
+            throw new IOException( "No execution agent is available." );
+         }
+
+         if ( best != null ) {
+            next = ( next + 1 ) % agents.size( );
+            best.inFlight++;
+            return( best );
+         }
+
+         try {
+            wait( );
+         } catch ( InterruptedException e ) {
+            Thread.currentThread( ).interrupt( );
+            throw new InterruptedIOException( "Interrupted while waiting for an execution agent." );
+         }
+
+      }
+
+   }
+
+
+   private synchronized void release( Agent agent ) {
+      agent.inFlight--;
+      notifyAll( );
+   }
+
+
+   /*
+    * An agent and its idle connections.  'inFlight' and 'limit' are guarded by the RemoteExec instance; the connection pool by the Agent.
+    *
+    */
+   private final class Agent {
+
+      final InetSocketAddress address;
+      final ArrayDeque<Connection> idle = new ArrayDeque<Connection>( );
+      int limit;
+      int inFlight;
+      long downUntil;
+      boolean down;
+
+      Agent( InetSocketAddress address, int limit ) {
+         this.address = address;
+         this.limit = limit;
+      }
+
+      boolean isDown( long now ) {
+         if ( down && now - downUntil >= 0 ) {
+            down = false;
+         }
+         return( down );
+      }
+
+      void markDown( ) {
+         synchronized ( RemoteExec.this ) {
+            down = true;
+            downUntil = System.nanoTime( ) + RETRY_MILLIS * 1000000L;
+         }
+      }
+
+      Connection connection( )
+            throws IOException {
+
+         synchronized ( this ) {
+            if ( !idle.isEmpty( ) ) {
+               return( idle.pop( ) );
+            }
+         }
+
+         return( connect( ) );
+
+      }
+
+      Connection connect( )
+            throws IOException {
+
+         Connection connection = new Connection( address );
+
+         synchronized ( RemoteExec.this ) {
+            limit = Math.min( limit, connection.maxConcurrency );
+         }
+
+         return( connection );
+
+      }
+
+      void finish( Connection connection, boolean reusable ) {
+
+         boolean keep;
+
+         synchronized ( RemoteExec.this ) {
+            keep = reusable && !closed;
+         }
+
+         if ( keep ) {
+            synchronized ( this ) {
+               connection.pooled = true;
+               idle.push( connection );
+            }
+         } else {
+            connection.close( );
+         }
+
+      }
+
+      synchronized void closeIdle( ) {
+         while ( !idle.isEmpty( ) ) {
+            idle.pop( ).close( );
+         }
+      }
+
+   }
+
+
+   /*
+    * A connection to an agent, used by one task at a time.
+    *
+    */
+   private static final class Connection {
+
+      final Socket socket;
+      final DataInputStream in;
+      final DataOutputStream out;
+      final int maxConcurrency;
+
+      /* 'true' once the connection was returned to the pool, after which the agent may have closed it */
+      boolean pooled;
+
+      Connection( InetSocketAddress address )
+            throws IOException {
+
+         socket = new Socket( );
+
+         try {
+
+            socket.connect( address, CONNECT_TIMEOUT_MILLIS );
+            socket.setTcpNoDelay( true );
+
+            in = new DataInputStream( new BufferedInputStream( socket.getInputStream( ) ) );
+            out = new DataOutputStream( new BufferedOutputStream( socket.getOutputStream( ) ) );
+
+            if ( in.readInt( ) != ExecAgent.MAGIC || in.readInt( ) != ExecAgent.VERSION ) {
+               throw new IOException( "Agent at '" + address + "' doesn't use a supported protocol." );
+            }
+
+            maxConcurrency = Math.max( 1, in.readInt( ) );
+
+         } catch ( IOException e ) {
+            socket.close( );
+            throw e;
+         }
+
+      }
+
+      void send( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv )
+            throws IOException {
+
+         RecordingLauncher.writeList( out, task );
+         RecordingLauncher.writeMap( out, config );
+         RecordingLauncher.writeMap( out, addEnv );
+         RecordingLauncher.writeList( out, removeEnv );
+         out.flush( );
+
+      }
+
+      /*
+       * Reads frames until the result, writing output chunks to the streams and into the 'out' and 'err' values of the result Map, which the agent leaves empty.
+       */
+      Map<String,String> receive( OutputStream outStream, OutputStream errStream, Map<String,String> config )
+            throws IOException {
+
+         byte[] chunk = new byte[ExecAgent.CHUNK_SIZE];
+
+         ByteArrayOutputStream outCapture = new ByteArrayOutputStream( );
+         ByteArrayOutputStream errCapture = new ByteArrayOutputStream( );
+
+         while ( true ) {
+
+            byte frameType = in.readByte( );
+
+            switch ( frameType ) {
+
+               case ExecAgent.FRAME_OUT:
+               case ExecAgent.FRAME_ERR:
+                  int length = in.readInt( );
+                  // the length comes from the agent, so bound it rather than allocate whatever it asks for
+                  if ( length < 0 || length > chunk.length ) {
+                     throw new IOException( "Illegal output frame length '" + length + "' from agent.  Must be on the range [0," + chunk.length + "]." );
+                  }
+                  in.readFully( chunk, 0, length );
+                  ( frameType == ExecAgent.FRAME_OUT ? outCapture : errCapture ).write( chunk, 0, length );
+                  OutputStream stream = ( frameType == ExecAgent.FRAME_OUT ) ? outStream : errStream;
+                  if ( stream != null ) {
+                     stream.write( chunk, 0, length );
+                  }
+                  break;
+
+               case ExecAgent.FRAME_RESULT:
+                  return( fill( new HashMap<String,String>( RecordingLauncher.readMap( in ) ), outCapture, errCapture, config ) );
+
+               case ExecAgent.FRAME_EXCEPTION:
+                  throw new RemoteException( RecordingLauncher.readString( in ), RecordingLauncher.readString( in ) );
+
+               default:
+                  throw new IOException( "Illegal frame type '" + frameType + "' from agent." );
+
+            }
+
+         }
+
+      }
+
+      /*
+       * Replaces the empty 'out' and 'err' values of the result Map with the received output, trimmed unless configured otherwise, and judges 'limitHit' from the received standard error.
+       */
+      private static Map<String,String> fill( Map<String,String> resultMap, ByteArrayOutputStream outCapture, ByteArrayOutputStream errCapture, Map<String,String> config ) {
+
+         boolean trim = config == null || !"false".equals( config.get( "trim" ) );
+
+         String err = toText( errCapture );
+
+         if ( resultMap.containsKey( "out" ) ) {
+            String out = toText( outCapture );
+            resultMap.put( "out", trim ? out.trim( ) : out );
+         }
+
+         if ( resultMap.containsKey( "err" ) ) {
+            resultMap.put( "err", trim ? err.trim( ) : err );
+         }
+
+         if ( resultMap.containsKey( "limitHit" ) ) {
+            resultMap.put( "limitHit", Exec.limitHit( resultMap.get( "appliedLimits" ), Integer.parseInt( resultMap.get( "exitValue" ) ), err ) );
+         }
+
+         return( resultMap );
+
+      }
+
+      private static String toText( ByteArrayOutputStream capture ) {
+         return( Exec.normalizeLines( capture.toString( Charset.defaultCharset( ) ) ).toString( ) );
+      }
+
+      void close( ) {
+         try {
+            socket.close( );
+         } catch ( IOException ignore ) {
+            // nothing to recover
+         }
+      }
+
+   }
+
+
+   /*
+    * An exception reported by the agent for a task, after which the connection remains usable.
+    *
+    */
+   private static final class RemoteException extends IOException {
+
+      private static final long serialVersionUID = 1L;
+
+      final String type;
+
+      RemoteException( String type, String message ) {
+         super( message );
+         this.type = type;
+      }
+
+      /*
+       * Returns the exception as the type that 'Exec.exec(...)' would have thrown locally.
+       */
+      RuntimeException toLocal( )
+            throws IOException {
+
+         switch ( type ) {
+            case "IllegalArgumentException":
+               return( new IllegalArgumentException( getMessage( ) ) );
+            case "NullPointerException":
+               return( new NullPointerException( getMessage( ) ) );
+            case "IndexOutOfBoundsException":
+            case "ArrayIndexOutOfBoundsException":
+               return( new IndexOutOfBoundsException( getMessage( ) ) );
+            case "UnsupportedOperationException":
+               return( new UnsupportedOperationException( getMessage( ) ) );
+            default:
+               throw new IOException( getMessage( ) );
+         }
+
+      }
+
+   }
+
+}
@@ -0,0 +1,295 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.lang.reflect.Constructor;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+
+
+/**
+ * Serves task results from a recording made by a RecordingLauncher, without starting a process.
+ * <p>
+ * Install an instance with 'Exec.setLauncher(Launcher)'.  The recording is loaded into memory and indexed by invocation:  the task, config, and environment changes, where a null config, environment Map, or environment List matches an empty one and config entries with null values are ignored.  Repeated identical invocations are served the results recorded for them in recorded order.
+ * <p>
+ * The config is validated as by 'Exec.exec(...)', so an illegal config throws the same IllegalArgumentException as it would when starting a process.  Files that a task would have written through 'redirectOutFilePath' or 'redirectErrFilePath' aren't written.
+ * <p>
+ * An invocation recorded as throwing an IOException throws an IOException of the same class and message, or a plain IOException with that message if the class can't be instantiated from a message.  An invocation that wasn't recorded, or that is made more often than it was recorded, throws an IllegalStateException rather than falling back to starting a process.  Instances are thread-safe.
+ *
+ */
+public final class ReplayLauncher implements Launcher {
+
+   /* recorded outcomes per invocation, each a result Map or a Failure */
+   private final Map<String,ArrayDeque<Object>> resultsMap = new HashMap<String,ArrayDeque<Object>>( );
+   private int remaining;
+
+
+   /**
+    * Constructs a ReplayLauncher serving the results recorded in the file.
+    *
+    * @param file
+    *    a file written by a RecordingLauncher; required
+    * @throws IOException
+    *    if the file can't be read or isn't a complete recording
+    * @throws NullPointerException
+    *    if the file is null
+    */
+   public ReplayLauncher( Path file )
+         throws IOException {
+
+      if ( file == null ) {
+         throw new NullPointerException( "Argument 'file' cannot be null." );
+      }
+
+      try ( DataInputStream in = new DataInputStream( new BufferedInputStream( Files.newInputStream( file ) ) ) ) {
+
+         if ( in.readInt( ) != RecordingLauncher.MAGIC ) {
+            throw new IOException( "File '" + file + "' is not a recording." );
+         }
+
+         int version = in.readInt( );
+
+         if ( version != RecordingLauncher.VERSION ) {
+            throw new IOException( "Unsupported recording version '" + version + "' in file '" + file + "'." );
+         }
+
+         // the end of the stream is only valid between records; an end within a record is a truncated recording
+         while ( !atEnd( in ) ) {
+
+            String key = key( RecordingLauncher.readList( in ), RecordingLauncher.readMap( in ), RecordingLauncher.readMap( in ), RecordingLauncher.readList( in ) );
+            Object outcome;
+
+            if ( in.readByte( ) == RecordingLauncher.OUTCOME_RESULT ) {
+               outcome = RecordingLauncher.readMap( in );
+            } else {
+               outcome = new Failure( RecordingLauncher.readString( in ), RecordingLauncher.readString( in ) );
+            }
+
+            resultsMap.computeIfAbsent( key, k -> new ArrayDeque<Object>( ) ).add( outcome );
+            remaining++;
+
+         }
+
+      } catch ( EOFException e ) {
+         throw new IOException( "Recording in file '" + file + "' is truncated.", e );
+      }
+
+   }
+
+
+   /**
+    * Returns the next result recorded for the invocation, without starting a process.
+    *
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @param config
+    *    a Map of key-value pairs defining the configuration; optional, can be empty or null
+    * @param addEnv
+    *    a Map of key-value of environment variables to add; optional, can be empty or null
+    * @param removeEnv
+    *    a List of environment variables to remove; optional, can be empty or null
+    * @return a Map of the recorded result of the command execution
+    * @throws IllegalArgumentException
+    *    if an illegal or inappropriate argument was passed to this method
+    * @throws IllegalStateException
+    *    if no unused result was recorded for the invocation
+    * @throws IOException
+    *    equivalent to the IOException recorded for the invocation
+    */
+   @Override
+   public Map<String,String> launch( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv )
+         throws IOException {
+
+      // validate as when starting a process, so that tests see the same argument errors
+      Exec.configure( task, config, addEnv, removeEnv );
+
+      String key = key( task, config, addEnv, removeEnv );
+
+      synchronized ( this ) {
+
+         ArrayDeque<Object> results = resultsMap.get( key );
+
+         if ( results == null ) {
+            throw new IllegalStateException( "No recorded result for task '" + task + "' with config '" + config + "', addEnv '" + addEnv + "', and removeEnv '" + removeEnv + "'." );
+         }
+
+         if ( results.isEmpty( ) ) {
+            throw new IllegalStateException( "All recorded results were used for task '" + task + "' with config '" + config + "', addEnv '" + addEnv + "', and removeEnv '" + removeEnv + "'." );
+         }
+
+         remaining--;
+
+         Object outcome = results.poll( );
+
+         if ( outcome instanceof Failure ) {
+            throw( ( (Failure)outcome ).toException( ) );
+         }
+
+         @SuppressWarnings( "unchecked" )
+         Map<String,String> resultMap = (Map<String,String>)outcome;
+
+         return( new HashMap<String,String>( resultMap ) );
+
+      }
+
+   }
+
+
+   /**
+    * Returns the number of recorded results not yet served, e.g. to check that a test made every recorded invocation.
+    *
+    * @return the number of unused recorded results
+    */
+   public synchronized int getRemaining( ) {
+      return( remaining );
+   }
+
+
+   /*
+    * Returns whether the stream has ended, reading ahead one byte and resetting the stream if it hasn't.
+    */
+   private static boolean atEnd( DataInputStream in )
+         throws IOException {
+
+      in.mark( 1 );
+
+      if ( in.read( ) == -1 ) {
+         return( true );
+      }
+
+      in.reset( );
+
+      return( false );
+
+   }
+
+
+   /*
+    * Returns the canonical index key of an invocation, with each String prefixed by its length so that distinct invocations can't collide.
+    */
+   private static String key( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv ) {
+
+      StringBuilder sb = new StringBuilder( );
+
+      appendList( sb, task );
+      appendMap( sb, config );
+      appendMap( sb, addEnv );
+      appendList( sb, removeEnv );
+
+      return( sb.toString( ) );
+
+   }
+
+
+   private static void appendList( StringBuilder sb, List<String> list ) {
+
+      int size = ( list != null ) ? list.size( ) : 0;
+
+      sb.append( size ).append( '[' );
+
+      for ( int i = 0; i < size; i++ ) {
+         appendString( sb, list.get( i ) );
+      }
+
+   }
+
+
+   private static void appendMap( StringBuilder sb, Map<String,String> map ) {
+
+      TreeMap<String,String> sorted = new TreeMap<String,String>( );
+
+      if ( map != null ) {
+         for ( Map.Entry<String,String> entry : map.entrySet( ) ) {
+            if ( entry.getKey( ) != null && entry.getValue( ) != null ) {
+               sorted.put( entry.getKey( ), entry.getValue( ) );
+            }
+         }
+      }
+
+      sb.append( sorted.size( ) ).append( '{' );
+
+      for ( Map.Entry<String,String> entry : sorted.entrySet( ) ) {
+         appendString( sb, entry.getKey( ) );
+         appendString( sb, entry.getValue( ) );
+      }
+
+   }
+
+
+   private static void appendString( StringBuilder sb, String value ) {
+
+      if ( value == null ) {
+         sb.append( "-:" );
+      } else {
+         sb.append( value.length( ) ).append( ':' ).append( value );
+      }
+
+   }
+
+
+   /*
+    * The class and message of a recorded IOException.
+    *
+    */
+   private static final class Failure {
+
+      final String className;
+      final String message;
+
+      Failure( String className, String message ) {
+         this.className = className;
+         this.message = message;
+      }
+
+      /*
+       * Returns a new exception of the recorded class with the recorded message, or a plain IOException with the message.
+       */
+      IOException toException( ) {
+
+         try {
+            Class<?> type = Class.forName( className );
+            if ( IOException.class.isAssignableFrom( type ) ) {
+               Constructor<?> constructor = type.getConstructor( String.class );
+               return( (IOException)constructor.newInstance( message ) );
+            }
+         } catch ( ReflectiveOperationException | LinkageError ignore ) {
+            // fall back to a plain IOException
+         }
+
+         return( new IOException( message ) );
+
+      }
+
+   }
+
+}
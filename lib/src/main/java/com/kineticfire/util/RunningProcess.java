@@ -0,0 +1,384 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+
+
+/**
+ * A native command line process started by 'Exec.startAndAwaitReady(...)' that has signaled it is ready, e.g. a server that logged that it is listening.
+ * <p>
+ * The standard output and error of the process continue to be drained in the background, so the process can't block on a full pipe.  The most recent lines are retained for diagnostics and returned by 'getRecentOutput()'.
+ * <p>
+ * Stop the process with 'stop()' or 'close()', e.g. in a try-with-resources statement.  Instances are thread-safe.
+ *
+ */
+public final class RunningProcess implements AutoCloseable {
+
+   /** number of most recent lines of output retained */
+   static final int RECENT_LINES = 1000;
+
+   /** time to wait for the process to exit after requesting termination, before forcibly destroying it */
+   private static final long STOP_GRACE_MILLIS = 5000;
+
+   /** time to wait, after the process exited, for its final output to be read */
+   private static final long EXIT_DRAIN_MILLIS = 1000;
+
+
+   private final List<String> task;
+   private final Process process;
+   private final Predicate<CharSequence> ready;
+   private final CountDownLatch wake = new CountDownLatch( 1 );
+   private final ArrayDeque<String> recentLines = new ArrayDeque<String>( );
+   private final long startNanos;
+   private final Thread outThread;
+   private final Thread errThread;
+
+   private String readyLine;
+   private long readyNanos;
+
+   /* exception thrown by the ready predicate, after which lines are no longer tested */
+   private RuntimeException readyFailure;
+
+
+   private RunningProcess( List<String> task, Process process, Predicate<CharSequence> ready ) {
+      this.task = task;
+      this.process = process;
+      this.ready = ready;
+      this.startNanos = System.nanoTime( );
+      this.outThread = watch( process.getInputStream( ), "out" );
+      this.errThread = watch( process.getErrorStream( ), "err" );
+   }
+
+
+   /*
+    * Starts the task and returns once a line of its output satisfies the predicate.
+    * <p>
+    * See 'Exec.startAndAwaitReady(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;,Predicate&lt;CharSequence&gt;,long)' for the parameters and exceptions.
+    */
+   static RunningProcess start( List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv, Predicate<CharSequence> ready, long timeoutMillis )
+         throws IOException, TaskExecutionException, TimeoutException {
+
+      if ( ready == null ) {
+         throw new NullPointerException( "Argument 'ready' cannot be null." );
+      }
+
+      if ( timeoutMillis < 0 ) {
+         throw new IllegalArgumentException( "Illegal value '" + timeoutMillis + "' for 'timeoutMillis'.  Must be non-negative." );
+      }
+
+      Exec.Setup setup = Exec.configure( task, config, addEnv, removeEnv );
+
+      RunningProcess running = new RunningProcess( List.copyOf( task ), setup.processBuilder.start( ), ready );
+
+      boolean success = false;
+
+      try {
+         running.awaitReady( timeoutMillis );
+         success = true;
+      } finally {
+         if ( !success ) {
+            running.stop( );
+         }
+      }
+
+      return( running );
+
+   }
+
+
+   /*
+    * Waits until the process is ready, throwing an exception if it exits first, the timeout elapses, or the ready predicate throws.
+    */
+   private void awaitReady( long timeoutMillis )
+         throws IOException, TaskExecutionException, TimeoutException {
+
+      process.onExit( ).thenRun( wake::countDown );
+
+      try {
+
+         if ( !wake.await( timeoutMillis, TimeUnit.MILLISECONDS ) ) {
+            throw new TimeoutException( "Task '" + task + "' didn't become ready within " + timeoutMillis + " ms." + recentOutputSuffix( ) );
+         }
+
+         if ( isReady( ) ) {
+            return;
+         }
+
+         // the process exited, but its last lines, perhaps the ready line, may not have been read yet
+         outThread.join( EXIT_DRAIN_MILLIS );
+         errThread.join( EXIT_DRAIN_MILLIS );
+
+         if ( isReady( ) ) {
+            return;
+         }
+
+         int exitValue = process.exitValue( );
+
+         throw new TaskExecutionException( "Task '" + task + "' exited with value '" + exitValue + "' before becoming ready." + recentOutputSuffix( ), exitValue );
+
+      } catch ( InterruptedException e ) {
+         Thread.currentThread( ).interrupt( );
+         throw new InterruptedIOException( "Interrupted while waiting for task to become ready." );
+      }
+
+   }
+
+
+   /*
+    * Starts a daemon thread that reads the stream line by line, retaining recent lines and testing each for readiness until the process is ready.
+    */
+   private Thread watch( InputStream in, String name ) {
+
+      Thread thread = new Thread( ( ) -> {
+         BufferedReader reader = new BufferedReader( new InputStreamReader( in ) );
+         try {
+            String line;
+            while ( ( line = reader.readLine( ) ) != null ) {
+               accept( line );
+            }
+         } catch ( IOException ignore ) {
+            // the stream was closed when the process was stopped
+         }
+      }, "running-process-" + process.pid( ) + "-" + name );
+
+      thread.setDaemon( true );
+      thread.start( );
+
+      return( thread );
+
+   }
+
+
+   private void accept( String line ) {
+
+      synchronized ( this ) {
+
+         recentLines.addLast( line );
+         if ( recentLines.size( ) > RECENT_LINES ) {
+            recentLines.removeFirst( );
+         }
+
+         if ( readyLine != null || readyFailure != null ) {
+            return;
+         }
+
+         // both streams are tested under this lock, so the predicate needn't be thread-safe
+         try {
+
+            if ( !ready.test( line ) ) {
+               return;
+            }
+
+            readyLine = line;
+            readyNanos = System.nanoTime( );
+
+         } catch ( RuntimeException e ) {
+            // wake the waiter to throw the exception; the watcher keeps draining the stream
+            readyFailure = e;
+         }
+
+      }
+
+      wake.countDown( );
+
+   }
+
+
+   private String recentOutputSuffix( ) {
+      String recent = getRecentOutput( );
+      return( recent.isEmpty( ) ? "" : "  Recent output:  " + recent );
+   }
+
+
+   /*
+    * Returns whether the process is ready, throwing the exception of the ready predicate if it threw one.
+    */
+   private synchronized boolean isReady( ) {
+
+      if ( readyFailure != null ) {
+         throw readyFailure;
+      }
+
+      return( readyLine != null );
+
+   }
+
+
+   /**
+    * Returns the task.
+    *
+    * @return the task
+    */
+   public List<String> getTask( ) {
+      return( task );
+   }
+
+
+   /**
+    * Returns the underlying process.
+    *
+    * @return the process
+    */
+   public Process getProcess( ) {
+      return( process );
+   }
+
+
+   /**
+    * Returns the native process ID of the process.
+    *
+    * @return the process ID
+    */
+   public long getPid( ) {
+      return( process.pid( ) );
+   }
+
+
+   /**
+    * Returns whether the process is alive.
+    *
+    * @return 'true' if the process is alive and 'false' otherwise
+    */
+   public boolean isAlive( ) {
+      return( process.isAlive( ) );
+   }
+
+
+   /**
+    * Returns the line of output that signaled the process was ready.
+    *
+    * @return the ready line
+    */
+   public synchronized String getReadyLine( ) {
+      return( readyLine );
+   }
+
+
+   /**
+    * Returns the time from starting the process until it signaled it was ready.
+    *
+    * @return the time to become ready, in milliseconds
+    */
+   public synchronized long getReadyMillis( ) {
+      return( TimeUnit.NANOSECONDS.toMillis( readyNanos - startNanos ) );
+   }
+
+
+   /**
+    * Returns the most recent lines of standard output and error, up to 1,000, in the order read and joined with '\n'.
+    *
+    * @return the recent output, which is empty if the process has written no output
+    */
+   public synchronized String getRecentOutput( ) {
+      return( String.join( "\n", recentLines ) );
+   }
+
+
+   /**
+    * Waits for the process to exit.
+    *
+    * @param timeout
+    *    the maximum time to wait
+    * @param unit
+    *    the unit of the timeout
+    * @return 'true' if the process exited and 'false' if the timeout elapsed
+    * @throws InterruptedException
+    *    if the current thread is interrupted while waiting
+    */
+   public boolean waitFor( long timeout, TimeUnit unit )
+         throws InterruptedException {
+      return( process.waitFor( timeout, unit ) );
+   }
+
+
+   /**
+    * Stops the process and its descendants, requesting termination then forcibly destroying them if the process hasn't exited within 5 seconds, and returns its exit value.
+    *
+    * @return the exit value of the process
+    */
+   public int stop( ) {
+
+      boolean interrupted = false;
+
+      if ( process.isAlive( ) ) {
+
+         process.descendants( ).forEach( ProcessHandle::destroy );
+         process.destroy( );
+
+         try {
+            if ( !process.waitFor( STOP_GRACE_MILLIS, TimeUnit.MILLISECONDS ) ) {
+               Exec.destroyTree( process );
+            }
+         } catch ( InterruptedException e ) {
+            interrupted = true;
+            Exec.destroyTree( process );
+         }
+
+      }
+
+      // the watching threads end at end of stream; closing their streams here could block on a read in progress
+      try { process.getOutputStream( ).close( ); } catch ( IOException ignore ) { }
+
+      int exitValue;
+
+      while ( true ) {
+         try {
+            exitValue = process.waitFor( );
+            break;
+         } catch ( InterruptedException e ) {
+            interrupted = true;
+         }
+      }
+
+      if ( interrupted ) {
+         Thread.currentThread( ).interrupt( );
+      }
+
+      return( exitValue );
+
+   }
+
+
+   /**
+    * Stops the process as by 'stop()'.
+    *
+    */
+   @Override
+   public void close( ) {
+      stop( );
+   }
+
+}
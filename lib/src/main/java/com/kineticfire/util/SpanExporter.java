@@ -0,0 +1,41 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+/**
+ * Receives the span recorded for each native command line process started by 'Exec', e.g. to forward it to a tracing system.
+ * <p>
+ * Install an implementation with 'Exec.setSpanExporter(SpanExporter)'.  'export(ExecSpan)' is called on the thread that executed the task, after the process exited and its output was read, so implementations should be fast and must be thread-safe.  An exception thrown by an exporter is discarded, so that tracing never fails a task.  NdjsonSpanExporter writes spans to a file for offline use.
+ *
+ */
+public interface SpanExporter {
+
+   /**
+    * Exports a span.
+    *
+    * @param span
+    *    the span of a completed execution
+    */
+   void export( ExecSpan span );
+
+}
@@ -0,0 +1,359 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.IOException;
+
+
+
+/**
+ * Captures a process output stream in memory up to a threshold, transparently spilling to a temporary file beyond it, and optionally tees the output to a file.
+ * <p>
+ * Pass an instance as a handler to 'Exec.exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;,OutputHandler,OutputHandler)'.  Once the call returns, read the captured output as a stream with 'openStream()', as a read-only buffer with 'map(...)', or as a String with 'asString()'.  Small outputs stay on the heap; heap usage for large outputs is bounded by the threshold.
+ * <p>
+ * Captured output is the raw bytes produced by the process, without line ending normalization or trimming.  An instance captures one stream once.  Close the instance to delete the temporary file, if any.
+ *
+ */
+public final class SpillCapture implements OutputHandler, AutoCloseable {
+
+   /** default number of bytes held in memory before spilling to a temporary file */
+   public static final int DEFAULT_THRESHOLD = 1024 * 1024;
+
+
+   private static final int CHUNK_SIZE = 8192;
+
+
+   private final int threshold;
+   private final Path teeFile;
+   private final boolean teeAppend;
+
+   private byte[] memory = new byte[0];
+   private long size;
+   private Path spillFile;
+   private boolean handled;
+
+
+   /**
+    * Constructs a SpillCapture with the default threshold and without a tee file.
+    *
+    */
+   public SpillCapture( ) {
+      this( DEFAULT_THRESHOLD, null, null );
+   }
+
+
+   /**
+    * Constructs a SpillCapture with the specified threshold and optional tee file.
+    *
+    * @param threshold
+    *    the number of bytes held in memory before spilling to a temporary file; must be non-negative
+    * @param teeFile
+    *    file to which the output is also written; optional, can be null
+    * @param teeType
+    *    'overwrite' to overwrite the contents of the tee file and 'append' to append output to existing file contents; required if defining 'teeFile', otherwise must be null
+    * @throws IllegalArgumentException
+    *    if the threshold is negative or the tee file and type are inconsistent
+    */
+   public SpillCapture( int threshold, Path teeFile, String teeType ) {
+
+      if ( threshold < 0 ) {
+         throw new IllegalArgumentException( "Illegal value '" + threshold + "' for 'threshold'.  Must be non-negative." );
+      }
+
+      if ( teeFile != null && teeType == null ) {
+         throw new IllegalArgumentException( "Argument 'teeFile' is set, but 'teeType' is null.  Must specify tee type as either 'overwrite' or 'append'." );
+      } else if ( teeType != null && teeFile == null ) {
+         throw new IllegalArgumentException( "Argument 'teeType' is set, but 'teeFile' is null." );
+      }
+
+      if ( teeType != null && !teeType.equalsIgnoreCase( "overwrite" ) && !teeType.equalsIgnoreCase( "append" ) ) {
+         throw new IllegalArgumentException( "Illegal value '" + teeType + "' for 'teeType'." );
+      }
+
+      this.threshold = threshold;
+      this.teeFile = teeFile;
+      this.teeAppend = teeType != null && teeType.equalsIgnoreCase( "append" );
+   }
+
+
+   /**
+    * Captures the stream until end of stream.
+    *
+    * @param in
+    *    the stream to capture
+    * @param process
+    *    the process producing the stream
+    * @throws IOException
+    *    if an I/O error occurs reading the stream or writing the temporary or tee file
+    * @throws IllegalStateException
+    *    if this instance already captured a stream
+    */
+   @Override
+   public synchronized void handle( InputStream in, Process process )
+         throws IOException {
+
+      if ( handled ) {
+         throw new IllegalStateException( "SpillCapture already captured a stream." );
+      }
+
+      handled = true;
+
+      OutputStream tee = null;
+      OutputStream spill = null;
+
+      try {
+
+         if ( teeFile != null ) {
+            tee = new BufferedOutputStream( teeAppend
+               ? Files.newOutputStream( teeFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND )
+               : Files.newOutputStream( teeFile ) );
+         }
+
+         byte[] chunk = new byte[CHUNK_SIZE];
+         int read;
+
+         while ( ( read = in.read( chunk ) ) != -1 ) {
+
+            if ( tee != null ) {
+               tee.write( chunk, 0, read );
+            }
+
+            if ( spill == null && size + read > threshold ) {
+               spillFile = Files.createTempFile( "java-util-spill-", ".out" );
+               spill = new BufferedOutputStream( Files.newOutputStream( spillFile ) );
+               spill.write( memory, 0, (int)size );
+               memory = new byte[0];
+            }
+
+            if ( spill != null ) {
+               spill.write( chunk, 0, read );
+            } else {
+               if ( size + read > memory.length ) {
+                  memory = Arrays.copyOf( memory, (int)Math.min( threshold, Math.max( size + read, memory.length * 2L ) ) );
+               }
+               System.arraycopy( chunk, 0, memory, (int)size, read );
+            }
+
+            size += read;
+
+         }
+
+      } finally {
+         if ( spill != null ) {
+            spill.close( );
+         }
+         if ( tee != null ) {
+            tee.close( );
+         }
+      }
+
+   }
+
+
+   /**
+    * Returns the number of bytes captured.
+    *
+    * @return the number of bytes captured
+    */
+   public synchronized long size( ) {
+      return( size );
+   }
+
+
+   /**
+    * Returns whether the output exceeded the threshold and was spilled to a temporary file.
+    *
+    * @return 'true' if the output was spilled to a temporary file and 'false' if it is held in memory
+    */
+   public synchronized boolean isSpilled( ) {
+      return( spillFile != null );
+   }
+
+
+   /**
+    * Opens a stream that reads the captured output from the beginning.  The caller must close the stream.
+    *
+    * @return a stream of the captured output
+    * @throws IOException
+    *    if the temporary file can't be opened
+    * @throws IllegalStateException
+    *    if this instance was closed
+    */
+   public synchronized InputStream openStream( )
+         throws IOException {
+
+      checkOpen( );
+
+      if ( spillFile != null ) {
+         return( Files.newInputStream( spillFile ) );
+      }
+
+      return( new ByteArrayInputStream( memory, 0, (int)size ) );
+
+   }
+
+
+   /**
+    * Returns a read-only view of the captured output, memory-mapping the temporary file if the output was spilled.
+    * <p>
+    * A single view can't exceed Integer.MAX_VALUE bytes; use 'map(long,long)' to view larger outputs in parts.
+    *
+    * @return a read-only buffer over the captured output
+    * @throws IOException
+    *    if the temporary file can't be mapped
+    * @throws IllegalStateException
+    *    if this instance was closed or the output is larger than Integer.MAX_VALUE bytes
+    */
+   public synchronized ByteBuffer map( )
+         throws IOException {
+
+      if ( size > Integer.MAX_VALUE ) {
+         throw new IllegalStateException( "Captured output of " + size + " bytes is too large to map as a single buffer." );
+      }
+
+      return( map( 0, size ) );
+
+   }
+
+
+   /**
+    * Returns a read-only view of part of the captured output, memory-mapping the temporary file if the output was spilled.
+    *
+    * @param position
+    *    the offset in bytes of the start of the view
+    * @param length
+    *    the number of bytes in the view; at most Integer.MAX_VALUE
+    * @return a read-only buffer over the part of the captured output
+    * @throws IOException
+    *    if the temporary file can't be mapped
+    * @throws IllegalArgumentException
+    *    if the part doesn't lie within the captured output
+    * @throws IllegalStateException
+    *    if this instance was closed
+    */
+   public synchronized ByteBuffer map( long position, long length )
+         throws IOException {
+
+      checkOpen( );
+
+      if ( position < 0 || length < 0 || length > Integer.MAX_VALUE || position + length > size ) {
+         throw new IllegalArgumentException( "Illegal range of position '" + position + "' and length '" + length + "' for captured output of " + size + " bytes." );
+      }
+
+      if ( spillFile != null ) {
+         try ( FileChannel channel = FileChannel.open( spillFile, StandardOpenOption.READ ) ) {
+            return( channel.map( FileChannel.MapMode.READ_ONLY, position, length ) );
+         }
+      }
+
+      return( ByteBuffer.wrap( memory, (int)position, (int)length ).slice( ).asReadOnlyBuffer( ) );
+
+   }
+
+
+   /**
+    * Returns the captured output as a String decoded with the default charset, as used by 'Exec.exec(...)'.
+    *
+    * @return the captured output as a String
+    * @throws IOException
+    *    if the temporary file can't be read
+    * @throws IllegalStateException
+    *    if this instance was closed or the output is too large for a String
+    */
+   public String asString( )
+         throws IOException {
+
+      return( asString( Charset.defaultCharset( ) ) );
+
+   }
+
+
+   /**
+    * Returns the captured output as a String decoded with the specified charset.
+    *
+    * @param charset
+    *    the charset with which to decode the output
+    * @return the captured output as a String
+    * @throws IOException
+    *    if the temporary file can't be read
+    * @throws IllegalStateException
+    *    if this instance was closed or the output is too large for a String
+    */
+   public synchronized String asString( Charset charset )
+         throws IOException {
+
+      checkOpen( );
+
+      if ( size > Integer.MAX_VALUE - 8 ) {
+         throw new IllegalStateException( "Captured output of " + size + " bytes is too large for a String." );
+      }
+
+      if ( spillFile != null ) {
+         return( new String( Files.readAllBytes( spillFile ), charset ) );
+      }
+
+      return( new String( memory, 0, (int)size, charset ) );
+
+   }
+
+
+   /**
+    * Releases the captured output and deletes the temporary file, if any.
+    *
+    * @throws IOException
+    *    if the temporary file can't be deleted
+    */
+   @Override
+   public synchronized void close( )
+         throws IOException {
+
+      memory = null;
+
+      if ( spillFile != null ) {
+         Files.deleteIfExists( spillFile );
+      }
+
+   }
+
+
+   /*
+    * Throws an IllegalStateException if this instance was closed.
+    */
+   private void checkOpen( ) {
+      if ( memory == null ) {
+         throw new IllegalStateException( "SpillCapture was closed." );
+      }
+   }
+
+}
@@ -56,7 +56,7 @@ public final class Sys {
     * @throws IllegalArgumentException
     *    if an illegal or inappropriate argument was passed to this method
     * @throws IOException
-    *    if an I/O error occurs
+    *    if an I/O error occurs, including if the validation utility isn't found
     * @throws NullPointerException
     *    if an element in task list is null
     * @throws SecurityException
@@ -96,7 +96,7 @@ public final class Sys {
     * @throws IllegalArgumentException
     *    if an illegal or inappropriate argument was passed to this method
     * @throws IOException
-    *    if an I/O error occurs
+    *    if an I/O error occurs, including if the validation utility isn't found
     * @throws NullPointerException
     *    if an element in task list is null
     * @throws SecurityException
@@ -136,7 +136,7 @@ public final class Sys {
     * @throws IllegalArgumentException
     *    if an illegal or inappropriate argument was passed to this method
     * @throws IOException
-    *    if an I/O error occurs
+    *    if an I/O error occurs, including if the validation utility isn't found
     * @throws NullPointerException
     *    if an element in task list is null
     * @throws SecurityException
@@ -200,7 +200,7 @@ public final class Sys {
     * @throws IllegalArgumentException
     *    if an illegal or inappropriate argument was passed to this method
     * @throws IOException
-    *    if an I/O error occurs
+    *    if an I/O error occurs, including if the 'shellcheck' utility isn't found on the PATH
     * @throws NullPointerException
     *    if an element in task list is null
     * @throws SecurityException
@@ -215,7 +215,14 @@ public final class Sys {
    private static Map<String,String> validateScriptForUnixLikePlatform( String script )
       throws IOException {
 
-      List<String> task = Arrays.asList( "shellcheck", script );
+      // fail fast with a clear message, rather than with the launch failure
+      Path shellcheck = ExecutableResolver.getDefault( ).resolve( "shellcheck" );
+
+      if ( shellcheck == null ) {
+         throw new IOException( "Required utility 'shellcheck' was not found on the PATH." );
+      }
+
+      List<String> task = Arrays.asList( shellcheck.toString( ), script );
 
       Map<String,String> responseMap = Exec.exec( task );
 
@@ -21,17 +21,37 @@
 package com.kineticfire.util;
 
 
+
+import java.util.List;
+
+
+
 /**
  * Indicates that a task, executed as a native command line process, resulted in an error.
  * <p>
  * The exit value returned by the process, if set in the exception, may be retrieved with 'getExitValue()'.  If not set, the returned exit value is -1.
+ * <p>
+ * A lightweight exception, constructed with 'TaskExecutionException(List&lt;String&gt;,int,String)', is intended for expected failures on high-rate paths:  it doesn't fill in a stack trace, builds its detail message only when 'getMessage()' is first called, and holds the task and the tail of the error output as structured fields retrieved with 'getTask()' and 'getErr()'.
  *
  */
 public class TaskExecutionException extends Exception {
 
+   /** maximum number of trailing characters of error output held by a lightweight exception */
+   public static final int MAX_ERR_LENGTH = 4096;
+
+
    /** the exit value returned by the process */
    private int exitValue;
 
+   /** the task that failed; null unless lightweight */
+   private List<String> task;
+
+   /** the tail of the error output of the task; null unless lightweight */
+   private String err;
+
+   /** the detail message of a lightweight exception, built on first use */
+   private String lazyMessage;
+
 
    /**
     * Constructs a TaskExecutionException with null as its error detail message and an invalid exit value of -1.
@@ -139,6 +159,105 @@ public class TaskExecutionException extends Exception {
    }
 
 
+   /**
+    * Constructs a lightweight TaskExecutionException for the failed task, exit value, and error output, without a stack trace.
+    * <p>
+    * The detail message is built from the task, exit value, and error output when 'getMessage()' is first called, matching the message of the exception thrown by 'Exec.execExceptionOnTaskFail(...)'.  Only the last 'MAX_ERR_LENGTH' characters of the error output are held.
+    *
+    * @param task
+    *    the task that failed; required
+    * @param exitValue
+    *    exit value returned by the process
+    * @param err
+    *    error output of the task; optional, can be null
+    */
+   public TaskExecutionException( List<String> task, int exitValue, String err ) {
+      super( null, null, false, false );
+      this.exitValue = exitValue;
+      this.task = task;
+      this.err = ( err != null && err.length( ) > MAX_ERR_LENGTH ) ? err.substring( err.length( ) - MAX_ERR_LENGTH ) : err;
+   }
+
+
+   /**
+    * Returns the detail message of the exception, building it on first use for a lightweight exception.
+    *
+    * @return the detail message, which may be null
+    */
+   @Override
+   public String getMessage( ) {
+
+      if ( task == null ) {
+         return( super.getMessage( ) );
+      }
+
+      String message = lazyMessage;
+
+      if ( message == null ) {
+         message = buildMessage( task, exitValue, err );
+         lazyMessage = message;
+      }
+
+      return( message );
+
+   }
+
+
+   /**
+    * Returns the task that failed, if this is a lightweight exception.
+    *
+    * @return the task, or null if not a lightweight exception
+    */
+   public List<String> getTask( ) {
+      return( task );
+   }
+
+
+   /**
+    * Returns the tail of the error output of the task, if this is a lightweight exception.
+    *
+    * @return up to the last 'MAX_ERR_LENGTH' characters of the error output, or null if not a lightweight exception or no error output was given
+    */
+   public String getErr( ) {
+      return( err );
+   }
+
+
+   /*
+    * Returns the detail message for a failed task as used by 'Exec.execExceptionOnTaskFail(...)'.
+    *
+    * @param task
+    *    the task that failed
+    * @param exitValue
+    *    exit value returned by the process
+    * @param err
+    *    error output of the task; may be null or empty
+    * @return the detail message
+    */
+   static String buildMessage( List<String> task, int exitValue, String err ) {
+
+      StringBuilder messageSb = new StringBuilder( );
+
+      messageSb.append( "Executing task '[" );
+
+      for ( int i = 0; i < task.size( ); i++ ) {
+         if ( i > 0 ) {
+            messageSb.append( ',' );
+         }
+         messageSb.append( task.get( i ) );
+      }
+
+      messageSb.append( "]' failed with exit value '" ).append( exitValue ).append( '.' );
+
+      if ( err != null && !err.equals( "" ) ) {
+         messageSb.append( "  " ).append( err );
+      }
+
+      return( messageSb.toString( ) );
+
+   }
+
+
    /**
     * Returns the exit value associate with the exception.
     *
@@ -0,0 +1,871 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+
+
+/**
+ * Executes a graph of tasks with dependencies, running every task whose dependencies have succeeded in parallel and prioritizing the critical path.
+ * <p>
+ * Add tasks with 'add(...)', naming the tasks each depends on, then call 'execute(int)'.  Tasks run through 'Exec.exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;)' on a fixed pool of the given parallelism.  Ready tasks wait in a shared priority queue ordered by upward rank:  the estimated duration of the longest path from the task to the end of the graph.  Starting the tasks with the longest remaining path first keeps the makespan close to the critical path length.  Durations are estimated from a History of previous executions; tasks without history are estimated at the average of the known estimates.
+ * <p>
+ * A task succeeds if its exit value is 0.  When a task fails, either by a non-zero exit value or by an exception:
+ * <ul>
+ *    <li>fail fast (default) - no further tasks are started, and tasks not yet started are CANCELLED; tasks already running complete</li>
+ *    <li>continue on error - only the tasks that depend on the failed task, directly or indirectly, are SKIPPED; other tasks continue</li>
+ * </ul>
+ * <p>
+ * The Report returned by 'execute(int)' gives the status, result Map, and timing of each task, and a timing trace in the Chrome trace event format.  A graph can be executed more than once; the History is updated after each execution.  Adding tasks isn't thread-safe.
+ *
+ */
+public final class TaskGraph {
+
+   /**
+    * Status of a task after executing the graph.
+    *
+    */
+   public enum Status {
+
+      /** the task returned exit value 0 */
+      SUCCEEDED,
+
+      /** the task returned a non-zero exit value or threw an exception */
+      FAILED,
+
+      /** the task wasn't started because a task it depends on failed with continue on error */
+      SKIPPED,
+
+      /** the task wasn't started because a task failed with fail fast */
+      CANCELLED
+
+   }
+
+
+   private final Map<String,Node> nodes = new LinkedHashMap<String,Node>( );
+   private final History history;
+
+
+   /**
+    * Constructs an empty TaskGraph with a new, empty History.
+    *
+    */
+   public TaskGraph( ) {
+      this( new History( ) );
+   }
+
+
+   /**
+    * Constructs an empty TaskGraph that estimates durations from, and records durations to, the History.
+    *
+    * @param history
+    *    the durations of previous executions; required
+    * @throws NullPointerException
+    *    if history is null
+    */
+   public TaskGraph( History history ) {
+
+      if ( history == null ) {
+         throw new NullPointerException( "Argument 'history' cannot be null." );
+      }
+
+      this.history = history;
+   }
+
+
+   /**
+    * Adds a task that fails fast, with default configuration.
+    * <p>
+    * This method is a convenience method for 'add(String,List&lt;String&gt;,null,null,null,List&lt;String&gt;,false)'.
+    *
+    * @param name
+    *    the unique name of the task in the graph; required
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @param dependsOn
+    *    the names of the tasks that must succeed before this task starts; optional, can be empty or null
+    * @return this TaskGraph
+    * @throws IllegalArgumentException
+    *    if a task with the name was already added
+    */
+   public TaskGraph add( String name, List<String> task, List<String> dependsOn ) {
+      return( add( name, task, null, null, null, dependsOn, false ) );
+   }
+
+
+   /**
+    * Adds a task.
+    * <p>
+    * The task, config, addEnv, and removeEnv are as per 'Exec.exec(List&lt;String&gt;,Map&lt;String,String&gt;,Map&lt;String,String&gt;,List&lt;String&gt;)'.  Dependencies may name tasks that are added later; they are resolved by 'execute(int)'.
+    *
+    * @param name
+    *    the unique name of the task in the graph; required
+    * @param task
+    *    the task to execute as a String List, where the first item is the command and any subsequent items are arguments; required
+    * @param config
+    *    a Map of key-value pairs defining the configuration; optional, can be empty or null
+    * @param addEnv
+    *    a Map of key-value of environment variables to add; optional, can be empty or null
+    * @param removeEnv
+    *    a List of environment variables to remove; optional, can be empty or null
+    * @param dependsOn
+    *    the names of the tasks that must succeed before this task starts; optional, can be empty or null
+    * @param continueOnError
+    *    'true' to only skip the dependents of this task if it fails and 'false' to fail fast
+    * @return this TaskGraph
+    * @throws IllegalArgumentException
+    *    if a task with the name was already added
+    * @throws NullPointerException
+    *    if name or task is null
+    */
+   public TaskGraph add( String name, List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv, List<String> dependsOn, boolean continueOnError ) {
+
+      if ( name == null ) {
+         throw new NullPointerException( "Argument 'name' cannot be null." );
+      }
+
+      if ( task == null ) {
+         throw new NullPointerException( "Argument 'task' cannot be null." );
+      }
+
+      if ( nodes.containsKey( name ) ) {
+         throw new IllegalArgumentException( "A task named '" + name + "' was already added." );
+      }
+
+      nodes.put( name, new Node( name, task, config, addEnv, removeEnv, dependsOn, continueOnError, nodes.size( ) ) );
+
+      return( this );
+
+   }
+
+
+   /**
+    * Executes the graph, waiting until every task has completed or won't be started.
+    *
+    * @param parallelism
+    *    the maximum number of tasks to run at a time; must be at least 1
+    * @return the Report of the execution
+    * @throws IllegalArgumentException
+    *    if parallelism is less than 1, a dependency names a task that wasn't added, or the dependencies form a cycle
+    * @throws InterruptedException
+    *    if the current thread was interrupted while waiting; no further tasks are started
+    */
+   public Report execute( int parallelism )
+         throws InterruptedException {
+
+      if ( parallelism < 1 ) {
+         throw new IllegalArgumentException( "Illegal value '" + parallelism + "' for 'parallelism'.  Must be at least 1." );
+      }
+
+      List<Node> order = topologicalOrder( );
+
+      rank( order );
+
+      Execution execution = new Execution( parallelism );
+
+      return( execution.run( ) );
+
+   }
+
+
+   /*
+    * Resolves dependencies and returns the nodes in topological order.
+    *
+    * @throws IllegalArgumentException
+    *    if a dependency names a task that wasn't added or the dependencies form a cycle
+    */
+   private List<Node> topologicalOrder( ) {
+
+      for ( Node node : nodes.values( ) ) {
+         node.dependents.clear( );
+      }
+
+      for ( Node node : nodes.values( ) ) {
+         for ( String dependency : node.dependsOn ) {
+            Node parent = nodes.get( dependency );
+            if ( parent == null ) {
+               throw new IllegalArgumentException( "Task '" + node.name + "' depends on task '" + dependency + "', which wasn't added." );
+            }
+            parent.dependents.add( node );
+         }
+      }
+
+      Map<Node,Integer> remaining = new LinkedHashMap<Node,Integer>( );
+      List<Node> order = new ArrayList<Node>( nodes.size( ) );
+
+      for ( Node node : nodes.values( ) ) {
+         remaining.put( node, node.dependsOn.size( ) );
+         if ( node.dependsOn.isEmpty( ) ) {
+            order.add( node );
+         }
+      }
+
+      for ( int i = 0; i < order.size( ); i++ ) {
+         for ( Node dependent : order.get( i ).dependents ) {
+            int count = remaining.get( dependent ) - 1;
+            remaining.put( dependent, count );
+            if ( count == 0 ) {
+               order.add( dependent );
+            }
+         }
+      }
+
+      if ( order.size( ) < nodes.size( ) ) {
+         List<String> cycle = new ArrayList<String>( );
+         for ( Map.Entry<Node,Integer> entry : remaining.entrySet( ) ) {
+            if ( entry.getValue( ) > 0 ) {
+               cycle.add( entry.getKey( ).name );
+            }
+         }
+         throw new IllegalArgumentException( "Dependencies form a cycle among tasks " + cycle + "." );
+      }
+
+      return( order );
+
+   }
+
+
+   /*
+    * Sets the upward rank of each node from the estimated durations, visiting the nodes in reverse topological order.
+    */
+   private void rank( List<Node> order ) {
+
+      double total = 0;
+      int known = 0;
+
+      for ( Node node : order ) {
+         double estimate = history.getEstimateMillis( node.name );
+         if ( estimate >= 0 ) {
+            total += estimate;
+            known++;
+         }
+      }
+
+      double defaultEstimate = known > 0 ? total / known : 1.0;
+
+      for ( int i = order.size( ) - 1; i >= 0; i-- ) {
+
+         Node node = order.get( i );
+         double estimate = history.getEstimateMillis( node.name );
+         double longestDependent = 0;
+
+         for ( Node dependent : node.dependents ) {
+            longestDependent = Math.max( longestDependent, dependent.rank );
+         }
+
+         node.rank = ( estimate >= 0 ? estimate : defaultEstimate ) + longestDependent;
+
+      }
+
+   }
+
+
+   /*
+    * A task in the graph.
+    *
+    */
+   private static final class Node {
+
+      final String name;
+      final List<String> task;
+      final Map<String,String> config;
+      final Map<String,String> addEnv;
+      final List<String> removeEnv;
+      final List<String> dependsOn;
+      final boolean continueOnError;
+      final int index;
+      final List<Node> dependents = new ArrayList<Node>( );
+      double rank;
+
+      Node( String name, List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv, List<String> dependsOn, boolean continueOnError, int index ) {
+         this.name = name;
+         this.task = new ArrayList<String>( task );
+         this.config = config;
+         this.addEnv = addEnv;
+         this.removeEnv = removeEnv;
+         this.dependsOn = ( dependsOn != null ) ? new ArrayList<String>( dependsOn ) : Collections.<String>emptyList( );
+         this.continueOnError = continueOnError;
+         this.index = index;
+      }
+
+   }
+
+
+   /*
+    * The outcome of a task in one execution of the graph.
+    *
+    */
+   private static final class Outcome {
+
+      Status status;
+      Map<String,String> resultMap;
+      Exception exception;
+      long startNanos;
+      long endNanos;
+      int lane;
+      int remainingDependencies;
+      boolean started;
+
+   }
+
+
+   /*
+    * One execution of the graph.  State is guarded by the Execution instance.
+    *
+    */
+   private final class Execution {
+
+      private final ExecutorService pool;
+      private final PriorityQueue<Node> ready = new PriorityQueue<Node>( ( a, b ) -> a.rank != b.rank ? Double.compare( b.rank, a.rank ) : Integer.compare( a.index, b.index ) );
+      private final Map<Node,Outcome> outcomes = new LinkedHashMap<Node,Outcome>( );
+      private final Map<Thread,Integer> lanes = new ConcurrentHashMap<Thread,Integer>( );
+      private final long startNanos = System.nanoTime( );
+      private int unresolved;
+      private boolean stopped;
+
+      Execution( int parallelism ) {
+
+         pool = Executors.newFixedThreadPool( parallelism, runnable -> {
+            Thread thread = new Thread( runnable, "task-graph" );
+            thread.setDaemon( true );
+            return( thread );
+         } );
+
+         for ( Node node : nodes.values( ) ) {
+            Outcome outcome = new Outcome( );
+            outcome.remainingDependencies = node.dependsOn.size( );
+            outcomes.put( node, outcome );
+         }
+
+         unresolved = nodes.size( );
+
+      }
+
+      Report run( )
+            throws InterruptedException {
+
+         try {
+
+            synchronized ( this ) {
+
+               for ( Node node : nodes.values( ) ) {
+                  if ( node.dependsOn.isEmpty( ) ) {
+                     schedule( node );
+                  }
+               }
+
+               while ( unresolved > 0 ) {
+                  wait( );
+               }
+
+            }
+
+         } catch ( InterruptedException e ) {
+            synchronized ( this ) {
+               stop( );
+            }
+            throw e;
+         } finally {
+            pool.shutdown( );
+         }
+
+         long endNanos = System.nanoTime( );
+
+         Map<String,Outcome> byName = new LinkedHashMap<String,Outcome>( );
+
+         for ( Map.Entry<Node,Outcome> entry : outcomes.entrySet( ) ) {
+            byName.put( entry.getKey( ).name, entry.getValue( ) );
+            if ( entry.getValue( ).status == Status.SUCCEEDED ) {
+               history.record( entry.getKey( ).name, TimeUnit.NANOSECONDS.toMillis( entry.getValue( ).endNanos - entry.getValue( ).startNanos ) );
+            }
+         }
+
+         return( new Report( byName, criticalPathNanos( ), startNanos, endNanos ) );
+
+      }
+
+      /*
+       * Queues a ready node and submits a runner for it.  Must be called while holding the lock.
+       */
+      private void schedule( Node node ) {
+         ready.add( node );
+         // runners scheduled by other runners capture the same context, since each runs with it current
+         pool.execute( TraceContext.propagate( this::runNext ) );
+      }
+
+      /*
+       * Runs the highest ranked ready node, if any.
+       */
+      private void runNext( ) {
+
+         Node node;
+         Outcome outcome;
+
+         synchronized ( this ) {
+            node = ready.poll( );
+            if ( node == null ) {
+               return;
+            }
+            outcome = outcomes.get( node );
+            outcome.started = true;
+            outcome.startNanos = System.nanoTime( );
+            outcome.lane = lanes.computeIfAbsent( Thread.currentThread( ), thread -> lanes.size( ) + 1 );
+         }
+
+         Map<String,String> resultMap = null;
+         Exception exception = null;
+
+         try {
+            resultMap = Exec.exec( node.task, node.config, node.addEnv, node.removeEnv );
+         } catch ( IOException | RuntimeException e ) {
+            exception = e;
+         } catch ( Error e ) {
+            exception = new ExecutionException( e );
+            throw e;
+         } finally {
+            // resolve the node whatever was thrown, so that 'execute(int)' doesn't wait for it forever
+            complete( node, outcome, resultMap, exception );
+         }
+
+      }
+
+      private synchronized void complete( Node node, Outcome outcome, Map<String,String> resultMap, Exception exception ) {
+
+         outcome.endNanos = System.nanoTime( );
+         outcome.resultMap = resultMap;
+         outcome.exception = exception;
+
+         boolean succeeded = exception == null && "0".equals( resultMap.get( "exitValue" ) );
+
+         resolve( outcome, succeeded ? Status.SUCCEEDED : Status.FAILED );
+
+         if ( succeeded ) {
+
+            for ( Node dependent : node.dependents ) {
+               Outcome dependentOutcome = outcomes.get( dependent );
+               dependentOutcome.remainingDependencies--;
+               if ( dependentOutcome.remainingDependencies == 0 && dependentOutcome.status == null && !stopped ) {
+                  schedule( dependent );
+               }
+            }
+
+         } else if ( node.continueOnError ) {
+            skipDependents( node );
+         } else {
+            stop( );
+         }
+
+      }
+
+      /*
+       * Marks the unresolved descendants of a node as SKIPPED.  Must be called while holding the lock.
+       */
+      private void skipDependents( Node node ) {
+
+         for ( Node dependent : node.dependents ) {
+            Outcome outcome = outcomes.get( dependent );
+            if ( outcome.status == null ) {
+               resolve( outcome, Status.SKIPPED );
+               skipDependents( dependent );
+            }
+         }
+
+      }
+
+      /*
+       * Stops starting tasks, marking every task not yet started as CANCELLED.  Must be called while holding the lock.
+       */
+      private void stop( ) {
+
+         stopped = true;
+         ready.clear( );
+
+         for ( Outcome outcome : outcomes.values( ) ) {
+            if ( outcome.status == null && !outcome.started ) {
+               resolve( outcome, Status.CANCELLED );
+            }
+         }
+
+      }
+
+      private void resolve( Outcome outcome, Status status ) {
+
+         outcome.status = status;
+         unresolved--;
+
+         if ( unresolved == 0 ) {
+            notifyAll( );
+         }
+
+      }
+
+      /*
+       * Returns the duration of the longest path through the graph using the measured durations of the tasks that ran.
+       */
+      private long criticalPathNanos( ) {
+
+         Map<Node,Long> longest = new LinkedHashMap<Node,Long>( );
+         long critical = 0;
+
+         for ( Node node : topologicalOrder( ) ) {
+
+            long start = 0;
+
+            for ( String dependency : node.dependsOn ) {
+               start = Math.max( start, longest.get( nodes.get( dependency ) ) );
+            }
+
+            Outcome outcome = outcomes.get( node );
+            long duration = outcome.status == Status.SUCCEEDED || outcome.status == Status.FAILED ? outcome.endNanos - outcome.startNanos : 0;
+
+            longest.put( node, start + duration );
+            critical = Math.max( critical, start + duration );
+
+         }
+
+         return( critical );
+
+      }
+
+   }
+
+
+   /**
+    * The outcome of executing a TaskGraph.
+    *
+    */
+   public static final class Report {
+
+      private final Map<String,Outcome> outcomes;
+      private final long criticalPathNanos;
+      private final long startNanos;
+      private final long endNanos;
+
+
+      private Report( Map<String,Outcome> outcomes, long criticalPathNanos, long startNanos, long endNanos ) {
+         this.outcomes = outcomes;
+         this.criticalPathNanos = criticalPathNanos;
+         this.startNanos = startNanos;
+         this.endNanos = endNanos;
+      }
+
+
+      /**
+       * Returns whether every task succeeded.
+       *
+       * @return 'true' if every task succeeded and 'false' otherwise
+       */
+      public boolean isSuccess( ) {
+
+         for ( Outcome outcome : outcomes.values( ) ) {
+            if ( outcome.status != Status.SUCCEEDED ) {
+               return( false );
+            }
+         }
+
+         return( true );
+
+      }
+
+
+      /**
+       * Returns the names of the tasks in the order they were added.
+       *
+       * @return the task names
+       */
+      public List<String> getNames( ) {
+         return( new ArrayList<String>( outcomes.keySet( ) ) );
+      }
+
+
+      /**
+       * Returns the status of a task.
+       *
+       * @param name
+       *    the name of the task
+       * @return the status
+       * @throws IllegalArgumentException
+       *    if the graph has no task with the name
+       */
+      public Status getStatus( String name ) {
+         return( outcome( name ).status );
+      }
+
+
+      /**
+       * Returns the result Map of a task, as returned by 'Exec.exec(...)'.
+       *
+       * @param name
+       *    the name of the task
+       * @return the result Map, or null if the task didn't run or threw an exception
+       * @throws IllegalArgumentException
+       *    if the graph has no task with the name
+       */
+      public Map<String,String> getResult( String name ) {
+         return( outcome( name ).resultMap );
+      }
+
+
+      /**
+       * Returns the exception thrown executing a task.  An Error thrown executing a task is returned wrapped in an ExecutionException.
+       *
+       * @param name
+       *    the name of the task
+       * @return the exception, or null if the task didn't run or didn't throw an exception
+       * @throws IllegalArgumentException
+       *    if the graph has no task with the name
+       */
+      public Exception getException( String name ) {
+         return( outcome( name ).exception );
+      }
+
+
+      /**
+       * Returns the duration of a task in milliseconds.
+       *
+       * @param name
+       *    the name of the task
+       * @return the duration, or 0 if the task didn't run
+       * @throws IllegalArgumentException
+       *    if the graph has no task with the name
+       */
+      public long getDurationMillis( String name ) {
+         Outcome outcome = outcome( name );
+         return( outcome.started ? TimeUnit.NANOSECONDS.toMillis( outcome.endNanos - outcome.startNanos ) : 0 );
+      }
+
+
+      /**
+       * Returns the time from the start of the execution until every task completed, in milliseconds.
+       *
+       * @return the makespan
+       */
+      public long getMakespanMillis( ) {
+         return( TimeUnit.NANOSECONDS.toMillis( endNanos - startNanos ) );
+      }
+
+
+      /**
+       * Returns the duration of the longest dependency path, using the measured durations of the tasks that ran, in milliseconds.  This is the lower bound of the makespan.
+       *
+       * @return the critical path length
+       */
+      public long getCriticalPathMillis( ) {
+         return( TimeUnit.NANOSECONDS.toMillis( criticalPathNanos ) );
+      }
+
+
+      /**
+       * Returns the timing trace of the tasks that ran in the Chrome trace event format, which can be loaded in 'chrome://tracing' or Perfetto.
+       * <p>
+       * Each task is a complete ('X') event with its start time and duration in microseconds, on a thread ID identifying the worker that ran it, with the status and exit value as arguments.
+       *
+       * @return the trace as a JSON String
+       */
+      public String toTraceJson( ) {
+
+         StringBuilder sb = new StringBuilder( "{\"traceEvents\":[" );
+         boolean first = true;
+
+         for ( Map.Entry<String,Outcome> entry : outcomes.entrySet( ) ) {
+
+            Outcome outcome = entry.getValue( );
+
+            if ( !outcome.started ) {
+               continue;
+            }
+
+            if ( !first ) {
+               sb.append( ',' );
+            }
+            first = false;
+
+            sb.append( "\n{\"name\":" ).append( Json.string( entry.getKey( ) ) );
+            sb.append( ",\"ph\":\"X\",\"pid\":1,\"tid\":" ).append( outcome.lane );
+            sb.append( ",\"ts\":" ).append( TimeUnit.NANOSECONDS.toMicros( outcome.startNanos - startNanos ) );
+            sb.append( ",\"dur\":" ).append( TimeUnit.NANOSECONDS.toMicros( outcome.endNanos - outcome.startNanos ) );
+            sb.append( ",\"args\":{\"status\":" ).append( Json.string( outcome.status.name( ) ) );
+            if ( outcome.resultMap != null ) {
+               sb.append( ",\"exitValue\":" ).append( Json.string( outcome.resultMap.get( "exitValue" ) ) );
+            }
+            sb.append( "}}" );
+
+         }
+
+         sb.append( "\n]}\n" );
+
+         return( sb.toString( ) );
+
+      }
+
+
+      private Outcome outcome( String name ) {
+
+         Outcome outcome = outcomes.get( name );
+
+         if ( outcome == null ) {
+            throw new IllegalArgumentException( "No task named '" + name + "' in the graph." );
+         }
+
+         return( outcome );
+
+      }
+
+   }
+
+
+   /**
+    * Estimated durations of tasks by name, from previous executions.
+    * <p>
+    * Estimates are exponentially weighted moving averages of the durations of successful executions.  A History can be shared by graphs and saved to a file to carry estimates across runs.  Instances are thread-safe.
+    *
+    */
+   public static final class History {
+
+      /** weight of the newest duration in the moving average */
+      private static final double SMOOTHING = 0.3;
+
+
+      private final Map<String,Double> estimates = new ConcurrentHashMap<String,Double>( );
+
+
+      /**
+       * Constructs an empty History.
+       *
+       */
+      public History( ) {
+      }
+
+
+      /**
+       * Loads a History saved with 'save(Path)'.
+       *
+       * @param file
+       *    the file to load; required
+       * @return the loaded History
+       * @throws IOException
+       *    if the file can't be read
+       * @throws IllegalArgumentException
+       *    if the file holds an estimate that isn't a number
+       */
+      public static History load( Path file )
+            throws IOException {
+
+         Properties properties = new Properties( );
+
+         try ( InputStream in = Files.newInputStream( file ) ) {
+            properties.load( in );
+         }
+
+         History history = new History( );
+
+         for ( String name : properties.stringPropertyNames( ) ) {
+            try {
+               history.estimates.put( name, Double.valueOf( properties.getProperty( name ) ) );
+            } catch ( NumberFormatException e ) {
+               throw new IllegalArgumentException( "Illegal value '" + properties.getProperty( name ) + "' for '" + name + "' in file '" + file + "'." );
+            }
+         }
+
+         return( history );
+
+      }
+
+
+      /**
+       * Saves the History to a file as properties of task name and estimated milliseconds, overwriting the file if it exists.
+       *
+       * @param file
+       *    the file to save to; required
+       * @throws IOException
+       *    if the file can't be written
+       */
+      public void save( Path file )
+            throws IOException {
+
+         Properties properties = new Properties( );
+
+         for ( Map.Entry<String,Double> entry : estimates.entrySet( ) ) {
+            properties.setProperty( entry.getKey( ), entry.getValue( ).toString( ) );
+         }
+
+         try ( OutputStream out = Files.newOutputStream( file ) ) {
+            properties.store( out, "TaskGraph durations in milliseconds" );
+         }
+
+      }
+
+
+      /**
+       * Returns the estimated duration of a task.
+       *
+       * @param name
+       *    the name of the task
+       * @return the estimated duration in milliseconds, or -1 if unknown
+       */
+      public double getEstimateMillis( String name ) {
+         Double estimate = estimates.get( name );
+         return( estimate != null ? estimate : -1 );
+      }
+
+
+      /**
+       * Records a duration of a task, updating its estimate.
+       *
+       * @param name
+       *    the name of the task
+       * @param durationMillis
+       *    the duration in milliseconds; must be non-negative
+       * @throws IllegalArgumentException
+       *    if durationMillis is negative
+       */
+      public void record( String name, double durationMillis ) {
+
+         if ( durationMillis < 0 ) {
+            throw new IllegalArgumentException( "Illegal value '" + durationMillis + "' for 'durationMillis'.  Must be non-negative." );
+         }
+
+         estimates.merge( name, durationMillis, ( previous, latest ) -> previous + SMOOTHING * ( latest - previous ) );
+
+      }
+
+   }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.util.List;
+
+
+
+/**
+ * The success or failure result of a task executed as a native command line process by 'Exec.execResult(...)'.
+ * <p>
+ * A result is either a success, with the output of the task, or a failure, with the exit value and error output of the task.  Use 'toException()' to obtain the TaskExecutionException that 'Exec.execExceptionOnTaskFail(...)' would have thrown for a failure.
+ *
+ */
+public final class TaskResult {
+
+   private final List<String> task;
+   private final int exitValue;
+   private final String out;
+   private final String err;
+
+
+   /*
+    * Constructs a TaskResult.
+    *
+    * @param task
+    *    the executed task
+    * @param exitValue
+    *    exit value returned by the process
+    * @param out
+    *    output of the task; empty if redirected to a file
+    * @param err
+    *    error output of the task if it failed, and null otherwise
+    */
+   TaskResult( List<String> task, int exitValue, String out, String err ) {
+      this.task = task;
+      this.exitValue = exitValue;
+      this.out = out;
+      this.err = err;
+   }
+
+
+   /**
+    * Returns whether the task succeeded, e.g. returned an exit value of 0.
+    *
+    * @return 'true' if the task succeeded and 'false' otherwise
+    */
+   public boolean isSuccess( ) {
+      return( exitValue == 0 );
+   }
+
+
+   /**
+    * Returns the exit value returned by the process.
+    *
+    * @return the exit value on the range of [0,255]
+    */
+   public int getExitValue( ) {
+      return( exitValue );
+   }
+
+
+   /**
+    * Returns the output of the task, as returned by 'Exec.execExceptionOnTaskFail(...)' on success.
+    *
+    * @return the output of the task, which is empty if the output was redirected to a file
+    */
+   public String getOut( ) {
+      return( out );
+   }
+
+
+   /**
+    * Returns the error output of the task if it failed.
+    *
+    * @return the error output, which could be an empty String, if the task failed and null otherwise
+    */
+   public String getErr( ) {
+      return( err );
+   }
+
+
+   /**
+    * Returns the executed task.
+    *
+    * @return the task
+    */
+   public List<String> getTask( ) {
+      return( task );
+   }
+
+
+   /**
+    * Returns a lightweight TaskExecutionException describing the failure.
+    *
+    * @return the exception for the failure
+    * @throws IllegalStateException
+    *    if the task succeeded
+    */
+   public TaskExecutionException toException( ) {
+
+      if ( isSuccess( ) ) {
+         throw new IllegalStateException( "Task succeeded, so there is no exception." );
+      }
+
+      return( new TaskExecutionException( task, exitValue, err ) );
+
+   }
+
+}
@@ -0,0 +1,296 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util;
+
+
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+
+
+
+/**
+ * A W3C Trace Context, identifying the trace and the span within it that commands executed by 'Exec' are part of.
+ * <p>
+ * Make a context current for the calling thread with 'makeCurrent()', e.g. from the 'traceparent' header of an incoming request parsed with 'parse(String,String)'.  While a context is current, 'Exec' passes it to each native command line process in the 'TRACEPARENT' and 'TRACESTATE' environment variables, so instrumented child tools continue the trace.  If a SpanExporter is installed with 'Exec.setSpanExporter(SpanExporter)', each execution is also recorded as a child span of the current context, or of a new trace if none is current, and the child tools continue from that span.
+ * <p>
+ * Tasks that 'Exec.execChunked(...)', 'TaskGraph', and 'HedgedExec' execute on their own threads continue the context that was current for the calling thread.
+ * <p>
+ * Instances are immutable.
+ *
+ */
+public final class TraceContext {
+
+   private static final ThreadLocal<TraceContext> CURRENT = new ThreadLocal<TraceContext>( );
+
+
+   private final String traceId;
+   private final String spanId;
+   private final String traceFlags;
+   private final String traceState;
+
+
+   private TraceContext( String traceId, String spanId, String traceFlags, String traceState ) {
+      this.traceId = traceId;
+      this.spanId = spanId;
+      this.traceFlags = traceFlags;
+      this.traceState = traceState;
+   }
+
+
+   /**
+    * Returns a TraceContext parsed from the values of the W3C 'traceparent' and 'tracestate' headers.
+    *
+    * @param traceparent
+    *    the 'traceparent' value, e.g. '00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01'; required
+    * @param tracestate
+    *    the 'tracestate' value, passed on unchanged; optional, can be empty or null
+    * @return the parsed context
+    * @throws IllegalArgumentException
+    *    if the traceparent value is malformed, or has an all-zero trace ID or span ID
+    * @throws NullPointerException
+    *    if the traceparent is null
+    */
+   public static TraceContext parse( String traceparent, String tracestate ) {
+
+      if ( traceparent == null ) {
+         throw new NullPointerException( "Argument 'traceparent' cannot be null." );
+      }
+
+      String value = traceparent.trim( );
+
+      // later versions may append fields, which are ignored
+      if ( !value.matches( "[0-9a-f]{2}-[0-9a-f]{32}-[0-9a-f]{16}-[0-9a-f]{2}(-.*)?" ) || value.startsWith( "ff" ) || ( value.startsWith( "00" ) && value.length( ) != 55 ) ) {
+         throw new IllegalArgumentException( "Illegal value '" + traceparent + "' for 'traceparent'." );
+      }
+
+      String traceId = value.substring( 3, 35 );
+      String spanId = value.substring( 36, 52 );
+
+      if ( traceId.matches( "0+" ) || spanId.matches( "0+" ) ) {
+         throw new IllegalArgumentException( "Illegal value '" + traceparent + "' for 'traceparent'." );
+      }
+
+      return( new TraceContext( traceId, spanId, value.substring( 53, 55 ), ( tracestate == null || tracestate.isEmpty( ) ) ? null : tracestate ) );
+
+   }
+
+
+   /**
+    * Returns a TraceContext that starts a new, sampled trace.
+    *
+    * @return a new root context
+    */
+   public static TraceContext newRoot( ) {
+      return( new TraceContext( randomHex( 2 ), randomHex( 1 ), "01", null ) );
+   }
+
+
+   /**
+    * Returns the context current for the calling thread.
+    *
+    * @return the current context, or null if none is current
+    */
+   public static TraceContext current( ) {
+      return( CURRENT.get( ) );
+   }
+
+
+   /**
+    * Makes this context current for the calling thread until the returned scope is closed, which restores the previously current context.
+    *
+    * @return the scope, to close in a try-with-resources statement
+    */
+   public Scope makeCurrent( ) {
+
+      TraceContext previous = CURRENT.get( );
+
+      CURRENT.set( this );
+
+      return( new Scope( previous ) );
+
+   }
+
+
+   /*
+    * Returns a Runnable that runs the runnable with the context current for the calling thread made current, so that work handed to another thread continues the caller's trace.
+    */
+   static Runnable propagate( Runnable runnable ) {
+
+      TraceContext context = current( );
+
+      if ( context == null ) {
+         return( runnable );
+      }
+
+      return( ( ) -> {
+         Scope scope = context.makeCurrent( );
+         try {
+            runnable.run( );
+         } finally {
+            scope.close( );
+         }
+      } );
+
+   }
+
+
+   /*
+    * Returns a Callable that calls the callable with the context current for the calling thread made current, so that work handed to another thread continues the caller's trace.
+    */
+   static <T> Callable<T> propagate( Callable<T> callable ) {
+
+      TraceContext context = current( );
+
+      if ( context == null ) {
+         return( callable );
+      }
+
+      return( ( ) -> {
+         Scope scope = context.makeCurrent( );
+         try {
+            return( callable.call( ) );
+         } finally {
+            scope.close( );
+         }
+      } );
+
+   }
+
+
+   /*
+    * Returns a context for a new span that is a child of this context in the same trace.
+    */
+   TraceContext newChild( ) {
+      return( new TraceContext( traceId, randomHex( 1 ), traceFlags, traceState ) );
+   }
+
+
+   /*
+    * Returns a random, non-zero, lowercase hex ID of 'longs' 64-bit words.
+    */
+   private static String randomHex( int longs ) {
+
+      StringBuilder sb = new StringBuilder( longs * 16 );
+      ThreadLocalRandom random = ThreadLocalRandom.current( );
+
+      for ( int i = 0; i < longs; i++ ) {
+         long value = random.nextLong( );
+         if ( i == longs - 1 && value == 0 && sb.toString( ).matches( "0*" ) ) {
+            value = 1;
+         }
+         String hex = Long.toHexString( value );
+         for ( int pad = hex.length( ); pad < 16; pad++ ) {
+            sb.append( '0' );
+         }
+         sb.append( hex );
+      }
+
+      return( sb.toString( ) );
+
+   }
+
+
+   /**
+    * Returns the trace ID.
+    *
+    * @return the trace ID as 32 lowercase hex characters
+    */
+   public String getTraceId( ) {
+      return( traceId );
+   }
+
+
+   /**
+    * Returns the span ID.
+    *
+    * @return the span ID as 16 lowercase hex characters
+    */
+   public String getSpanId( ) {
+      return( spanId );
+   }
+
+
+   /**
+    * Returns the trace flags.
+    *
+    * @return the trace flags as 2 lowercase hex characters, e.g. '01' if sampled
+    */
+   public String getTraceFlags( ) {
+      return( traceFlags );
+   }
+
+
+   /**
+    * Returns the vendor-specific trace state.
+    *
+    * @return the trace state, or null if none
+    */
+   public String getTraceState( ) {
+      return( traceState );
+   }
+
+
+   /**
+    * Returns the W3C 'traceparent' value of this context.
+    *
+    * @return the 'traceparent' value, in version '00' format
+    */
+   public String toTraceparent( ) {
+      return( "00-" + traceId + "-" + spanId + "-" + traceFlags );
+   }
+
+
+   @Override
+   public String toString( ) {
+      return( toTraceparent( ) );
+   }
+
+
+   /**
+    * The period during which a TraceContext is current for a thread.
+    *
+    */
+   public static final class Scope implements AutoCloseable {
+
+      private final TraceContext previous;
+
+      private Scope( TraceContext previous ) {
+         this.previous = previous;
+      }
+
+
+      /**
+       * Restores the context that was current before this scope.
+       *
+       */
+      @Override
+      public void close( ) {
+         if ( previous == null ) {
+            CURRENT.remove( );
+         } else {
+            CURRENT.set( previous );
+         }
+      }
+
+   }
+
+}
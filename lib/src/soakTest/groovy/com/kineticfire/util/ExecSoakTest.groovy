@@ -0,0 +1,243 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.lang.management.ManagementFactory
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.atomic.AtomicInteger
+import static java.util.concurrent.TimeUnit.HOURS
+import static java.util.concurrent.TimeUnit.NANOSECONDS
+
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.lang.Timeout
+
+
+
+
+/**
+ * Load, soak, and leak tests for 'Exec', run with 'gradle soakTest' rather than as part of the unit tests.
+ * <p>
+ * Each scenario executes many tasks at a fixed concurrency and output size, including tasks that fail, handlers that throw, and commands that can't start, then asserts that the open file descriptors, live threads, and heap used returned to their levels from before the scenario.  The sustained executions per second and latency percentiles are printed, so the suite doubles as a capacity-planning tool.
+ * <p>
+ * Tune with system properties, which the 'soakTest' task passes from '-Psoak.&lt;property&gt;=&lt;value&gt;':
+ * <ul>
+ *    <li>soak.executions - executions per scenario; defaults to 2000, use hundreds of thousands for a soak</li>
+ *    <li>soak.concurrency - comma-separated concurrency levels; defaults to '1,4,16'</li>
+ *    <li>soak.outputLines - comma-separated lines of output per task; defaults to '0,100,10000'</li>
+ *    <li>soak.fdSlack - open file descriptors allowed above the baseline; defaults to 16</li>
+ *    <li>soak.threadSlack - live threads allowed above the baseline, beyond the idle process reaper threads; defaults to 8</li>
+ *    <li>soak.heapSlackMb - megabytes of heap used allowed above the baseline; defaults to 32</li>
+ * </ul>
+ *
+ */
+@Timeout( value = 24, unit = HOURS )
+class ExecSoakTest extends Specification {
+
+    @Shared
+    int executions = Integer.getInteger( 'soak.executions', 2000 )
+
+    @Shared
+    List<Integer> concurrencyList = intList( System.getProperty( 'soak.concurrency', '1,4,16' ) )
+
+    @Shared
+    List<Integer> outputLinesList = intList( System.getProperty( 'soak.outputLines', '0,100,10000' ) )
+
+    @Shared
+    int fdSlack = Integer.getInteger( 'soak.fdSlack', 16 )
+
+    @Shared
+    int threadSlack = Integer.getInteger( 'soak.threadSlack', 8 )
+
+    @Shared
+    long heapSlackBytes = Long.getLong( 'soak.heapSlackMb', 32 ) * 1024 * 1024
+
+
+    def setupSpec( ) {
+        // start the JVM's process reaper and stream threads, and load classes, before any baseline is taken
+        runScenario( concurrencyList.max( ), 100, executionsOf( 200 ) )
+    }
+
+
+    private static List<Integer> intList( String value ) {
+        return( value.split( ',' ).collect { it.trim( ) as Integer } )
+    }
+
+
+    private int executionsOf( int count ) {
+        return( Math.min( count, executions ) )
+    }
+
+
+    /*
+     * Returns the number of open file descriptors of this JVM, or -1 if it can't be determined.
+     */
+    private static int openFdCount( ) {
+        String[] fds = new File( '/proc/self/fd' ).list( )
+        return( fds != null ? fds.length : -1 )
+    }
+
+
+    private static int liveThreadCount( ) {
+        return( ManagementFactory.getThreadMXBean( ).getThreadCount( ) )
+    }
+
+
+    /*
+     * Returns the heap used after garbage collection has settled.
+     */
+    private static long heapUsedBytes( ) {
+        long used = Long.MAX_VALUE
+        for ( int i = 0; i < 5; i++ ) {
+            System.gc( )
+            Thread.sleep( 100 )
+            used = Math.min( used, ManagementFactory.getMemoryMXBean( ).getHeapMemoryUsage( ).getUsed( ) )
+        }
+        return( used )
+    }
+
+
+    /*
+     * Returns the number of live threads after idle threads, such as those of the JVM's process reaper, have had a chance to exit.
+     */
+    private static int settledThreadCount( int allowed ) {
+        int count = liveThreadCount( )
+        for ( int i = 0; i < 150 && count > allowed; i++ ) {
+            Thread.sleep( 1000 )
+            count = liveThreadCount( )
+        }
+        return( count )
+    }
+
+
+    /*
+     * Executes the mix of tasks and returns the latency of each execution in nanoseconds.  One execution in 100 fails, one in 100 uses a handler that throws, and one in 100 can't start.
+     */
+    private List<Long> runScenario( int concurrency, int outputLines, int count ) {
+
+        List<String> okTask = Arrays.asList( 'seq', '1', Integer.toString( outputLines ) )
+        List<String> failTask = Arrays.asList( 'sh', '-c', 'seq 1 ' + outputLines + '; echo fail >&2; exit 3' )
+        List<String> missingTask = Arrays.asList( 'soak-no-such-command' )
+        OutputHandler throwingHandler = { InputStream input, Process process -> input.read( ); throw new IllegalStateException( 'soak' ) } as OutputHandler
+
+        String expectedOut = ( outputLines == 0 ) ? '' : ( 1..outputLines ).join( '\n' )
+
+        long[] latencies = new long[count]
+        AtomicInteger next = new AtomicInteger( )
+        ExecutorService executor = Executors.newFixedThreadPool( concurrency )
+
+        try {
+
+            List<Future<?>> futures = ( 1..concurrency ).collect {
+                executor.submit( {
+                    int i
+                    while ( ( i = next.getAndIncrement( ) ) < count ) {
+
+                        long start = System.nanoTime( )
+
+                        switch ( i % 100 ) {
+                            case 97:
+                                Map<String,String> failMap = Exec.exec( failTask, null, null, null )
+                                assert failMap.exitValue == '3' && failMap.err == 'fail'
+                                break
+                            case 98:
+                                try {
+                                    Exec.exec( okTask, null, null, null, throwingHandler, null )
+                                    assert false : 'handler exception not thrown'
+                                } catch ( IOException expected ) { }
+                                break
+                            case 99:
+                                try {
+                                    Exec.exec( missingTask )
+                                    assert false : 'start exception not thrown'
+                                } catch ( IOException expected ) { }
+                                break
+                            default:
+                                Map<String,String> resultMap = Exec.exec( okTask, null, null, null )
+                                assert resultMap.exitValue == '0' && resultMap.out == expectedOut
+                        }
+
+                        latencies[i] = System.nanoTime( ) - start
+
+                    }
+                } as Runnable )
+            }
+
+            futures.each { it.get( ) }
+
+        } finally {
+            executor.shutdownNow( )
+        }
+
+        return( latencies as List<Long> )
+
+    }
+
+
+    private static double percentileMillis( List<Long> sorted, double percentile ) {
+        int index = (int)Math.ceil( percentile / 100.0 * sorted.size( ) ) - 1
+        return( NANOSECONDS.toMicros( sorted[Math.max( 0, index )] ) / 1000.0 )
+    }
+
+
+    def "sustained exec at concurrency #concurrency with #outputLines output lines doesn't leak file descriptors, threads, or heap"( ) {
+
+        given: "resource usage before the scenario"
+        int fdsBefore = openFdCount( )
+        int threadsBefore = liveThreadCount( )
+        long heapBefore = heapUsedBytes( )
+
+        when: "execute the tasks"
+        long start = System.nanoTime( )
+        List<Long> latencies = runScenario( concurrency, outputLines, executions )
+        long elapsed = System.nanoTime( ) - start
+
+        and: "measure resource usage after the scenario"
+        int threadsAfter = settledThreadCount( threadsBefore + threadSlack )
+        int fdsAfter = openFdCount( )
+        long heapAfter = heapUsedBytes( )
+
+        and: "report throughput and latency"
+        List<Long> sorted = latencies.sort( false )
+        println String.format( 'soak: concurrency=%d outputLines=%d executions=%d  %.1f exec/s  latency ms p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f  fds %d->%d  threads %d->%d  heap MB %.1f->%.1f',
+            concurrency, outputLines, executions, executions / ( elapsed / 1.0e9 ),
+            percentileMillis( sorted, 50 ), percentileMillis( sorted, 90 ), percentileMillis( sorted, 99 ), percentileMillis( sorted, 99.9 ), percentileMillis( sorted, 100 ),
+            fdsBefore, fdsAfter, threadsBefore, threadsAfter, heapBefore / 1048576.0, heapAfter / 1048576.0 )
+
+        then: "open file descriptors returned to the baseline, where they can be counted"
+        fdsBefore == -1 || fdsAfter <= fdsBefore + fdSlack
+
+        and: "live threads returned to the baseline"
+        threadsAfter <= threadsBefore + threadSlack
+
+        and: "heap used returned to the baseline"
+        heapAfter <= heapBefore + heapSlackBytes
+
+        where:
+        [concurrency, outputLines] << [concurrencyList, outputLinesList].combinations( )
+    }
+
+}
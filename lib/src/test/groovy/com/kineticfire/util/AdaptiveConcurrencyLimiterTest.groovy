@@ -0,0 +1,205 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.util.Map
+import static java.util.concurrent.TimeUnit.MINUTES
+import static java.util.concurrent.TimeUnit.MILLISECONDS
+
+import spock.lang.Specification
+import spock.lang.Timeout
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class AdaptiveConcurrencyLimiterTest extends Specification {
+
+    static final long ONE_MS = MILLISECONDS.toNanos( 1 )
+
+
+    def "AdaptiveConcurrencyLimiter(int,int,int) sets the initial limit"( ) {
+
+        when: "instantiate"
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter( 4, 1, 10 )
+
+        then: "limit is the initial limit and nothing is in flight"
+        limiter.getLimit( ) == 4
+        limiter.getInFlight( ) == 0
+    }
+
+    def "AdaptiveConcurrencyLimiter(int,int,int) throws exception for illegal limits"( ) {
+
+        when: "instantiate with illegal limits"
+        new AdaptiveConcurrencyLimiter( initial, min, max )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+
+        where:
+        initial | min | max
+        1       | 0   | 10
+        5       | 6   | 10
+        11      | 1   | 10
+        1       | 2   | 1
+    }
+
+    def "acquire() and release(long,boolean) track in-flight permits"( ) {
+
+        given: "a limiter"
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter( 2, 1, 2 )
+
+        when: "acquire two permits"
+        limiter.acquire( )
+        limiter.acquire( )
+
+        then: "two in flight"
+        limiter.getInFlight( ) == 2
+
+        when: "release one"
+        limiter.release( ONE_MS, false )
+
+        then: "one in flight"
+        limiter.getInFlight( ) == 1
+    }
+
+    def "release(long,boolean) throws exception without a matching acquire()"( ) {
+
+        given: "a limiter"
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter( )
+
+        when: "release without acquire"
+        limiter.release( ONE_MS, false )
+
+        then: "thrown exception"
+        thrown IllegalStateException
+    }
+
+    def "limit rises while latency is flat and permits are in use"( ) {
+
+        given: "a limiter"
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter( 4, 1, 100 )
+
+        when: "complete many executions at full utilization with constant latency"
+        for ( int i = 0; i < 200; i++ ) {
+            int limit = limiter.getLimit( )
+            for ( int j = 0; j < limit; j++ ) {
+                limiter.acquire( )
+            }
+            for ( int j = 0; j < limit; j++ ) {
+                limiter.release( ONE_MS, false )
+            }
+        }
+
+        then: "limit increased up to the maximum"
+        limiter.getLimit( ) == 100
+    }
+
+    def "limit does not rise while permits are unused"( ) {
+
+        given: "a limiter"
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter( 8, 1, 100 )
+
+        when: "complete many executions one at a time with constant latency"
+        for ( int i = 0; i < 200; i++ ) {
+            limiter.acquire( )
+            limiter.release( ONE_MS, false )
+        }
+
+        then: "limit is unchanged"
+        limiter.getLimit( ) == 8
+    }
+
+    def "limit falls when latency rises"( ) {
+
+        given: "a limiter with an established latency baseline"
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter( 50, 1, 50 )
+        for ( int i = 0; i < 50; i++ ) {
+            limiter.acquire( )
+        }
+        for ( int i = 0; i < 50; i++ ) {
+            limiter.release( ONE_MS, false )
+        }
+
+        when: "latency rises sharply"
+        for ( int i = 0; i < 20; i++ ) {
+            limiter.acquire( )
+            limiter.release( 20 * ONE_MS, false )
+        }
+
+        then: "limit reduced"
+        limiter.getLimit( ) < 50
+    }
+
+    def "limit falls when executions are dropped"( ) {
+
+        given: "a limiter"
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter( 10, 2, 10 )
+
+        when: "drop many executions"
+        for ( int i = 0; i < 50; i++ ) {
+            limiter.acquire( )
+            limiter.release( ONE_MS, true )
+        }
+
+        then: "limit reduced to the minimum"
+        limiter.getLimit( ) == 2
+    }
+
+    def "exec(List<String>,Map<String,String>,Map<String,String>,List<String>) returns the Exec result and releases the permit"( ) {
+
+        given: "a limiter"
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter( )
+
+        when: "execute a command"
+        Map<String,String> resultMap = limiter.exec( Arrays.asList( 'echo', 'hello' ), null, null, null )
+
+        then: "map key 'exitValue' is '0' and map key 'out' has the output"
+        resultMap.exitValue.equals( '0' )
+        resultMap.out.equals( 'hello' )
+
+        and: "permit released"
+        limiter.getInFlight( ) == 0
+    }
+
+    def "exec(List<String>,Map<String,String>,Map<String,String>,List<String>) releases the permit when an exception is thrown"( ) {
+
+        given: "a limiter"
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter( )
+
+        when: "execute an empty task"
+        limiter.exec( Arrays.asList( '' ), null, null, null )
+
+        then: "thrown exception"
+        thrown IOException
+
+        and: "permit released"
+        limiter.getInFlight( ) == 0
+    }
+
+}
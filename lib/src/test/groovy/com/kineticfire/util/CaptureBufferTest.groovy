@@ -0,0 +1,196 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.nio.file.Path
+import java.nio.file.Files
+import java.nio.charset.Charset
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.TempDir
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class CaptureBufferTest extends Specification {
+
+    @TempDir
+    Path tempDir
+
+
+    /*
+     * Returns the text captured from the bytes by a new buffer.
+     */
+    private static String capture( byte[] bytes, boolean trim ) {
+        CaptureBuffer buffer = CaptureBuffer.acquire( )
+        try {
+            buffer.readFrom( new ByteArrayInputStream( bytes ) )
+            return( buffer.toString( trim ) )
+        } finally {
+            CaptureBuffer.release( buffer )
+        }
+    }
+
+
+    def "readFrom(InputStream in) normalizes line endings as reading line by line does"( ) {
+
+        expect: "line endings normalized"
+        capture( raw.getBytes( 'UTF-8' ), false ) == expected
+
+        where:
+        raw              | expected
+        ''               | ''
+        'abc'            | 'abc\n'
+        'abc\n'          | 'abc\n'
+        '\n'             | '\n'
+        '\r'             | '\n'
+        'a\r\nb\r\n'     | 'a\nb\n'
+        'a\rb\rc'        | 'a\nb\nc\n'
+        'a\r\r\nb'       | 'a\n\nb\n'
+        'a\n\n\nb'       | 'a\n\n\nb\n'
+    }
+
+    def "toString(boolean trim) removes leading and trailing whitespace"( ) {
+
+        expect: "trimmed"
+        capture( raw.getBytes( 'UTF-8' ), true ) == expected
+
+        where:
+        raw              | expected
+        ''               | ''
+        '  \n\t\n'       | ''
+        '  a b  \n\n'    | 'a b'
+        'abc'            | 'abc'
+    }
+
+    def "readFrom(InputStream in) decodes characters split across chunks"( ) {
+
+        given: "multi-byte characters straddling every chunk boundary"
+        byte[] bytes = ( 'x' + ( '€' * 20000 ) ).getBytes( Charset.defaultCharset( ) )
+
+        when: "capture the text"
+        String result = capture( bytes, false )
+
+        then: "text is decoded intact"
+        result == new String( bytes, Charset.defaultCharset( ) ) + '\n'
+    }
+
+    def "readFrom(InputStream in) grows for large output"( ) {
+
+        given: "output larger than the largest size class"
+        String line = ( 'y' * 99 ) + '\n'
+        String text = line * 20000
+
+        when: "capture the text"
+        String result = capture( text.getBytes( 'UTF-8' ), false )
+
+        then: "all output is captured"
+        result.length( ) == 2000000
+        result == text
+    }
+
+    def "grownCapacity(int,int,int) doubles the capacity and caps it at the largest array size"( ) {
+
+        expect: "the grown capacity"
+        CaptureBuffer.grownCapacity( capacity, length, more ) == expected
+
+        where:
+        capacity       | length         | more              | expected
+        8192           | 8192           | 1                 | 16384
+        8192           | 8000           | 100000            | 131072
+        1 << 30        | 1 << 30        | 1                 | Integer.MAX_VALUE - 8
+        1 << 30        | 1 << 30        | ( 1 << 30 ) - 9   | Integer.MAX_VALUE - 8
+    }
+
+    def "grownCapacity(int,int,int) throws error when the content can't fit in an array"( ) {
+
+        when: "grow past the largest array size"
+        CaptureBuffer.grownCapacity( 1 << 30, length, more )
+
+        then: "thrown error"
+        thrown OutOfMemoryError
+
+        where:
+        length                   | more
+        Integer.MAX_VALUE - 8    | 1
+        1 << 30                  | Integer.MAX_VALUE
+    }
+
+    def "release(CaptureBuffer buffer) pools the buffer for reuse"( ) {
+
+        given: "a buffer that captured text"
+        CaptureBuffer buffer = CaptureBuffer.acquire( )
+        buffer.readFrom( new ByteArrayInputStream( 'first'.getBytes( 'UTF-8' ) ) )
+
+        when: "release and acquire again"
+        CaptureBuffer.release( buffer )
+        CaptureBuffer reused = CaptureBuffer.acquire( )
+
+        then: "the same buffer is returned, empty"
+        reused.is( buffer )
+        reused.length( ) == 0
+
+        cleanup:
+        CaptureBuffer.release( reused )
+    }
+
+    def "release(CaptureBuffer buffer) doesn't pool a buffer grown past the largest size class"( ) {
+
+        given: "a buffer that captured large output"
+        CaptureBuffer buffer = CaptureBuffer.acquire( )
+        buffer.readFrom( new ByteArrayInputStream( new byte[2000000] ) )
+        int before = CaptureBuffer.pooled( )
+
+        when: "release the buffer"
+        CaptureBuffer.release( buffer )
+
+        then: "the buffer isn't pooled"
+        CaptureBuffer.pooled( ) == before
+    }
+
+    def "exec(...) returns the same output through pooled buffers across calls"( ) {
+
+        given: "a command with mixed line endings"
+        List<String> task = Arrays.asList( 'printf', 'one\\r\\ntwo\\rthree' )
+        Map<String,String> config = new HashMap<String,String>( )
+        config.put( 'trim', 'false' )
+
+        when: "execute the command repeatedly"
+        Set<String> outputs = new HashSet<String>( )
+        for ( int i = 0; i < 20; i++ ) {
+            outputs.add( Exec.exec( task, config, null, null ).out )
+        }
+
+        then: "every call returned the normalized output"
+        outputs == [ 'one\ntwo\nthree\n' ] as Set
+    }
+
+}
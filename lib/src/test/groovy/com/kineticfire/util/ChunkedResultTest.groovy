@@ -0,0 +1,185 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.nio.file.Path
+import java.nio.file.Files
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.TempDir
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class ChunkedResultTest extends Specification {
+
+    @TempDir
+    Path tempDir
+
+
+    def "split(...) fills each chunk up to the argument space"( ) {
+
+        given: "arguments of 9 bytes, which cost 18 bytes each with NUL and pointer"
+        List<String> args = ( 1..10 ).collect { String.format( 'arg%06d', it ) }
+
+        when: "split with room for the headroom, the command, and three arguments"
+        // command 'cmd' costs 12 bytes; headroom is 2048
+        List<List<String>> chunks = ChunkedResult.split( Arrays.asList( 'cmd' ), args, new HashMap<String,String>( ), 2048 + 12 + 3 * 18, 0 )
+
+        then: "chunks of three arguments, in order"
+        chunks.collect { it.size( ) } == [3, 3, 3, 1]
+        chunks.flatten( ) == args
+    }
+
+    def "split(...) counts the environment against the argument space"( ) {
+
+        given: "an environment entry 'K=vvvvvvv' costing 18 bytes"
+        Map<String,String> environment = new HashMap<String,String>( )
+        environment.put( 'K', 'vvvvvvv' )
+        List<String> args = ( 1..4 ).collect { String.format( 'arg%06d', it ) }
+
+        when: "split with room for the headroom, the command, the environment, and two arguments"
+        List<List<String>> chunks = ChunkedResult.split( Arrays.asList( 'cmd' ), args, environment, 2048 + 12 + 18 + 2 * 18, 0 )
+
+        then: "chunks of two arguments"
+        chunks.collect { it.size( ) } == [2, 2]
+    }
+
+    def "split(...) honors maximum arguments per chunk"( ) {
+
+        when: "split with a maximum of two arguments per chunk"
+        List<List<String>> chunks = ChunkedResult.split( Arrays.asList( 'cmd' ), Arrays.asList( 'a', 'b', 'c', 'd', 'e' ), new HashMap<String,String>( ), 1000000, 2 )
+
+        then: "chunks of at most two arguments"
+        chunks == [['a', 'b'], ['c', 'd'], ['e']]
+    }
+
+    def "split(...) for an argument that can't fit throws exception"( ) {
+
+        when: "split an argument longer than the argument space"
+        ChunkedResult.split( Arrays.asList( 'cmd' ), Arrays.asList( 'x' * 5000 ), new HashMap<String,String>( ), 4096, 0 )
+
+        then: "thrown exception"
+        IllegalArgumentException e = thrown( )
+        e.getMessage( ).contains( "doesn't fit in the argument space" )
+    }
+
+    def "execChunked(List<String> baseTask, List<String> args, int parallelism) runs more arguments than fit in one process"( ) {
+
+        given: "more argument bytes than ARG_MAX"
+        int count = (int)( ChunkedResult.argMax( ) / 20 ) + 1000
+        List<String> args = ( 1..count ).collect { String.format( 'argument-%010d', it ) }
+
+        when: "execute the base task over the arguments"
+        ChunkedResult result = Exec.execChunked( Arrays.asList( 'sh', '-c', 'echo $#', 'sh' ), args, 4 )
+
+        then: "every argument was passed to exactly one of several chunks"
+        result.isSuccess( )
+        result.getExitValue( ) == 0
+        result.getChunkCount( ) > 1
+        result.getOut( ).split( '\n' ).collect { it as Integer }.sum( ) == count
+        result.getChunks( ).collect { it.getArgs( ) }.flatten( ) == args
+    }
+
+    def "execChunked(...) attributes failures to their chunks"( ) {
+
+        given: "a base task that fails on the argument 'bad'"
+        List<String> baseTask = Arrays.asList( 'sh', '-c', 'for a; do if [ "$a" = bad ]; then echo "bad arg" >&2; exit 5; fi; echo $a; done', 'sh' )
+
+        when: "execute over arguments with two per chunk"
+        ChunkedResult result = Exec.execChunked( baseTask, Arrays.asList( 'a', 'b', 'bad', 'c', 'd' ), null, null, null, 2, 2 )
+
+        then: "the merged result failed with the exit value of the failed chunk"
+        !result.isSuccess( )
+        result.getExitValue( ) == 5
+        result.getChunkCount( ) == 3
+
+        and: "the failed chunk holds its arguments and error output"
+        result.getFailedChunks( ).size( ) == 1
+        result.getFailedChunks( )[0].getArgs( ) == ['bad', 'c']
+        result.getFailedChunks( )[0].getErr( ).equals( 'bad arg' )
+
+        and: "output of the other chunks is merged in argument order"
+        result.getOut( ).equals( 'a\nb\nd' )
+        result.getErr( ).equals( 'bad arg' )
+    }
+
+    def "execChunked(...) with output appended to a file writes output of every chunk"( ) {
+
+        given: "config appending output to a file"
+        Path outFile = tempDir.resolve( 'out.txt' )
+        Map<String,String> config = new HashMap<String,String>( )
+        config.put( 'redirectOutType', 'append' )
+        config.put( 'redirectOutFilePath', outFile.toString( ) )
+
+        when: "execute over arguments with one per chunk"
+        ChunkedResult result = Exec.execChunked( Arrays.asList( 'echo' ), Arrays.asList( 'a', 'b', 'c' ), config, null, null, 1, 1 )
+
+        then: "the file has the output of every chunk"
+        result.isSuccess( )
+        Files.readAllLines( outFile ) == ['a', 'b', 'c']
+    }
+
+    def "execChunked(...) with empty arguments executes no chunks"( ) {
+
+        when: "execute over no arguments"
+        ChunkedResult result = Exec.execChunked( Arrays.asList( 'false' ), new ArrayList<String>( ), 2 )
+
+        then: "no chunks and success"
+        result.getChunkCount( ) == 0
+        result.isSuccess( )
+        result.getOut( ).equals( '' )
+    }
+
+    def "execChunked(...) with illegal argument throws exception"( ) {
+
+        given: "config"
+        Map<String,String> config = new HashMap<String,String>( )
+        if ( redirectOutType != null ) {
+            config.put( 'redirectOutType', redirectOutType )
+            config.put( 'redirectOutFilePath', tempDir.resolve( 'out.txt' ).toString( ) )
+        }
+
+        when: "execute with an illegal argument"
+        Exec.execChunked( Arrays.asList( 'echo' ), Arrays.asList( 'a' ), config, null, null, maxArgsPerChunk, parallelism )
+
+        then: "thrown exception"
+        IllegalArgumentException e = thrown( )
+        e.getMessage( ).startsWith( message )
+
+        where:
+        redirectOutType | maxArgsPerChunk | parallelism || message
+        null            | -1              | 1           || "Illegal value '-1' for 'maxArgsPerChunk'."
+        null            | 0               | 0           || "Illegal value '0' for 'parallelism'."
+        'overwrite'     | 0               | 1           || "Illegal value 'overwrite' for 'redirectOutType' in 'config'."
+    }
+
+}
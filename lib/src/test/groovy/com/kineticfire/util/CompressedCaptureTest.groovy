@@ -0,0 +1,158 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class CompressedCaptureTest extends Specification {
+
+    def "CompressedCapture(int) throws exception for illegal block size"( ) {
+
+        when: "instantiate with a zero block size"
+        new CompressedCapture( 0 )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+    }
+
+    def "handle(...) compresses repetitive output"( ) {
+
+        given: "a capture and a task producing repetitive output"
+        CompressedCapture capture = new CompressedCapture( )
+        List<String> task = Arrays.asList( 'sh', '-c', 'for i in $(seq 1 20000); do echo "[INFO] Compiling module $((i % 10)) ok"; done' )
+
+        when: "execute the task"
+        Map<String,String> resultMap = Exec.exec( task, null, null, null, capture, null )
+
+        then: "map key 'out' is not present"
+        resultMap.exitValue.equals( '0' )
+        resultMap.containsKey( 'out' ) == false
+
+        and: "output was compressed to a fraction of its size"
+        capture.size( ) > 500000
+        capture.compressedSize( ) < capture.size( ) / 10
+
+        and: "output decompresses to the original"
+        capture.lines( ).count( ) == 20000
+        capture.lines( ).findFirst( ).get( ).equals( '[INFO] Compiling module 1 ok' )
+        capture.asString( ).equals( Exec.exec( task, [ 'trim': 'false' ] ).out )
+    }
+
+    def "handle(...) keeps raw bytes across block boundaries"( ) {
+
+        given: "a capture with a small block size"
+        CompressedCapture capture = new CompressedCapture( 3 )
+
+        when: "execute a task"
+        Exec.exec( Arrays.asList( 'printf', 'ab\\r\\ncdefg\\nh' ), null, null, null, capture, null )
+
+        then: "output is the raw bytes"
+        capture.size( ) == 12
+        capture.asString( ).equals( 'ab\r\ncdefg\nh' )
+        capture.openStream( ).readAllBytes( ).length == 12
+
+        and: "lines are split as by readLine"
+        capture.lines( ).toList( ) == [ 'ab', 'cdefg', 'h' ]
+    }
+
+    def "handle(...) captures empty output"( ) {
+
+        given: "a capture"
+        CompressedCapture capture = new CompressedCapture( )
+
+        when: "execute a task without output"
+        Exec.exec( Arrays.asList( 'true' ), null, null, null, capture, null )
+
+        then: "capture is empty"
+        capture.size( ) == 0
+        capture.compressedSize( ) == 0
+        capture.asString( ).equals( '' )
+        capture.lines( ).count( ) == 0
+    }
+
+    def "size() and openStream() return blocks compressed so far while capturing"( ) {
+
+        given: "a capture with a small block size reading a pipe"
+        CompressedCapture capture = new CompressedCapture( 4 )
+        PipedOutputStream output = new PipedOutputStream( )
+        PipedInputStream input = new PipedInputStream( output )
+        Thread thread = Thread.start { capture.handle( input, null ) }
+
+        when: "write two blocks and part of a third"
+        output.write( 'abcdefghij'.getBytes( ) )
+        output.flush( )
+        while ( capture.size( ) < 8 ) {
+            Thread.sleep( 10 )
+        }
+
+        then: "finished blocks are readable while the stream is open"
+        capture.size( ) == 8
+        new String( capture.openStream( ).readAllBytes( ) ).equals( 'abcdefgh' )
+
+        when: "end the stream"
+        output.close( )
+        thread.join( )
+
+        then: "all output is captured"
+        capture.asString( ).equals( 'abcdefghij' )
+    }
+
+    def "lines() stream closes without error"( ) {
+
+        given: "a capture with output"
+        CompressedCapture capture = new CompressedCapture( 3 )
+        capture.handle( new ByteArrayInputStream( 'a\nb\nc'.getBytes( ) ), null )
+
+        when: "read lines in try-with-resources style"
+        List<String> lines = capture.lines( ).withCloseable { it.toList( ) }
+
+        then: "lines are read"
+        lines == [ 'a', 'b', 'c' ]
+    }
+
+    def "handle(...) throws exception when reused"( ) {
+
+        given: "a capture that already captured a stream"
+        CompressedCapture capture = new CompressedCapture( )
+        capture.handle( new ByteArrayInputStream( 'abc'.getBytes( ) ), null )
+
+        when: "capture another stream"
+        capture.handle( new ByteArrayInputStream( 'def'.getBytes( ) ), null )
+
+        then: "thrown exception"
+        thrown IllegalStateException
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.nio.file.Path
+import java.nio.file.Files
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.TempDir
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class ExecAgentTest extends Specification {
+
+    def "ExecAgent(InetSocketAddress,int) throws exception for illegal maxConcurrency"( ) {
+
+        when: "instantiate with zero concurrency"
+        new ExecAgent( new InetSocketAddress( InetAddress.getLoopbackAddress( ), 0 ), 0 )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+    }
+
+    def "ExecAgent(InetSocketAddress,int) listens on a free port"( ) {
+
+        when: "start an agent on port 0"
+        ExecAgent agent = new ExecAgent( new InetSocketAddress( InetAddress.getLoopbackAddress( ), 0 ), 3 )
+
+        then: "agent listens on a selected port"
+        agent.getPort( ) > 0
+        agent.getMaxConcurrency( ) == 3
+        agent.getActiveCount( ) == 0
+        agent.getExecutedCount( ) == 0
+
+        cleanup:
+        agent?.close( )
+    }
+
+    def "close() stops accepting connections"( ) {
+
+        given: "a closed agent"
+        ExecAgent agent = new ExecAgent( new InetSocketAddress( InetAddress.getLoopbackAddress( ), 0 ), 1 )
+        int port = agent.getPort( )
+        agent.close( )
+
+        when: "connect to the agent"
+        new Socket( InetAddress.getLoopbackAddress( ), port )
+
+        then: "thrown exception"
+        thrown IOException
+    }
+
+    def "agent limits the number of tasks executing at a time"( ) {
+
+        given: "an agent with concurrency 1 and a client with a higher limit"
+        ExecAgent agent = new ExecAgent( new InetSocketAddress( InetAddress.getLoopbackAddress( ), 0 ), 1 )
+        RemoteExec remote = new RemoteExec( Arrays.asList( new InetSocketAddress( InetAddress.getLoopbackAddress( ), agent.getPort( ) ) ) )
+        int maxActive = 0
+
+        when: "execute tasks concurrently"
+        List<Thread> threads = ( 1..3 ).collect { Thread.start { remote.launch( Arrays.asList( 'sleep', '0.2' ), null, null, null ) } }
+        while ( threads.any { it.isAlive( ) } ) {
+            maxActive = Math.max( maxActive, agent.getActiveCount( ) )
+            Thread.sleep( 10 )
+        }
+
+        then: "tasks executed one at a time"
+        maxActive == 1
+        agent.getExecutedCount( ) == 3
+
+        cleanup:
+        remote?.close( )
+        agent?.close( )
+    }
+
+}
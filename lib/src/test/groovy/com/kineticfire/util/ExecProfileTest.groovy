@@ -0,0 +1,171 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.nio.file.Path
+import java.nio.file.Files
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.TempDir
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class ExecProfileTest extends Specification {
+
+    @TempDir
+    Path tempDir
+
+
+    def "profile(List<String> task, Map<String,String> config, int runs, int warmups) measures each run"( ) {
+
+        when: "profile a command"
+        ExecProfile profile = Exec.profile( Arrays.asList( 'seq', '1', '1000' ), null, 10, 2 )
+
+        then: "all measured runs are counted and succeeded"
+        profile.getRuns( ) == 10
+        profile.getConcurrency( ) == 1
+        profile.getFailureCount( ) == 0
+        profile.getTask( ).equals( Arrays.asList( 'seq', '1', '1000' ) )
+
+        and: "output size is the bytes of output"
+        profile.getOutputSize( ).getMean( ) == 3893.0
+        profile.getOutputSize( ).getStandardDeviation( ) == 0.0
+
+        and: "wall time statistics are ordered and include spawn time"
+        profile.getWallTime( ).getCount( ) == 10
+        profile.getWallTime( ).getMin( ) > 0.0
+        profile.getWallTime( ).getMin( ) <= profile.getWallTime( ).getP50( )
+        profile.getWallTime( ).getP50( ) <= profile.getWallTime( ).getP90( )
+        profile.getWallTime( ).getP90( ) <= profile.getWallTime( ).getP99( )
+        profile.getWallTime( ).getP99( ) <= profile.getWallTime( ).getMax( )
+        profile.getSpawnTime( ).getMean( ) <= profile.getWallTime( ).getMean( )
+
+        and: "throughput is positive"
+        profile.getThroughput( ) > 0.0
+        profile.getElapsedMillis( ) > 0.0
+    }
+
+    def "profile(List<String> task, Map<String,String> config, int runs, int warmups, int concurrency) counts failed runs"( ) {
+
+        when: "profile a failing command concurrently"
+        ExecProfile profile = Exec.profile( Arrays.asList( 'sh', '-c', 'exit 1' ), null, 8, 1, 4 )
+
+        then: "all measured runs are counted as failures"
+        profile.getRuns( ) == 8
+        profile.getConcurrency( ) == 4
+        profile.getFailureCount( ) == 8
+    }
+
+    def "profile(List<String> task, Map<String,String> config, int runs, int warmups, int concurrency) with output redirected to a file measures no output"( ) {
+
+        given: "config redirecting output to a file"
+        Map<String,String> config = new HashMap<String,String>( )
+        config.put( 'redirectOutType', 'overwrite' )
+        config.put( 'redirectOutFilePath', tempDir.resolve( 'out.txt' ).toString( ) )
+
+        when: "profile the command"
+        ExecProfile profile = Exec.profile( Arrays.asList( 'echo', 'hello' ), config, 3, 0, 1 )
+
+        then: "output size is 0 and the file has the output"
+        profile.getOutputSize( ).getMax( ) == 0.0
+        Files.readString( tempDir.resolve( 'out.txt' ) ).trim( ).equals( 'hello' )
+    }
+
+    def "compare(ExecProfile baseline) detects a slower command"( ) {
+
+        given: "profiles of a fast and a slow command"
+        ExecProfile fast = Exec.profile( Arrays.asList( 'true' ), null, 10, 1 )
+        ExecProfile slow = Exec.profile( Arrays.asList( 'sleep', '0.05' ), null, 10, 1 )
+
+        when: "compare slow to fast"
+        ExecProfile.Comparison comparison = slow.compare( fast )
+
+        then: "slow is significantly slower"
+        comparison.getMeanDifferenceMillis( ) > 30.0
+        comparison.getRatio( ) > 1.0
+        comparison.getPValue( ) < 0.01
+        comparison.isSignificant( 0.05 )
+    }
+
+    def "compare(ExecProfile baseline) with a single run has no p-value"( ) {
+
+        given: "profiles with one run"
+        ExecProfile first = Exec.profile( Arrays.asList( 'true' ), null, 1, 0 )
+        ExecProfile second = Exec.profile( Arrays.asList( 'true' ), null, 1, 0 )
+
+        when: "compare them"
+        ExecProfile.Comparison comparison = first.compare( second )
+
+        then: "p-value is NaN and the difference isn't significant"
+        Double.isNaN( comparison.getPValue( ) )
+        !comparison.isSignificant( 0.05 )
+    }
+
+    def "compare(ExecProfile baseline) with null baseline throws exception"( ) {
+
+        given: "a profile"
+        ExecProfile profile = Exec.profile( Arrays.asList( 'true' ), null, 1, 0 )
+
+        when: "compare to null"
+        profile.compare( null )
+
+        then: "thrown exception"
+        NullPointerException e = thrown( )
+        e.getMessage( ).equals( "Argument 'baseline' cannot be null." )
+    }
+
+    def "profile(List<String> task, Map<String,String> config, int runs, int warmups, int concurrency) with illegal argument throws exception"( ) {
+
+        when: "profile with an illegal argument"
+        Exec.profile( Arrays.asList( 'true' ), null, runs, warmups, concurrency )
+
+        then: "thrown exception"
+        IllegalArgumentException e = thrown( )
+        e.getMessage( ).startsWith( "Illegal value '" + value + "' for '" + name + "'." )
+
+        where:
+        runs | warmups | concurrency || name          | value
+        0    | 0       | 1           || 'runs'        | 0
+        1    | -1      | 1           || 'warmups'     | -1
+        1    | 0       | 0           || 'concurrency' | 0
+    }
+
+    def "profile(List<String> task, Map<String,String> config, int runs, int warmups, int concurrency) for a command that can't start throws exception"( ) {
+
+        when: "profile a missing command concurrently"
+        Exec.profile( Arrays.asList( 'no-such-command-for-profile' ), null, 4, 0, 2 )
+
+        then: "thrown exception"
+        thrown( IOException )
+    }
+
+}
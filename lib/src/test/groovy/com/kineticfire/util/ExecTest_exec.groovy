@@ -1810,4 +1810,318 @@ class ExecTest_exec extends Specification {
         resultMap.containsKey( 'err' ) == false
     }
 
+
+
+    // *******************************************************************************
+    // *******************************************************************************
+
+
+    // ********************************************************
+    // exec
+    //      - x, x, x, x, outHandler, errHandler
+    // ********************************************************
+
+    def "exec(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv, OutputHandler outHandler, OutputHandler errHandler) passes output to handler and omits 'out'"( ) {
+
+        given: "command to execute and a handler for standard output"
+        List<String> task = Arrays.asList( 'echo', 'hello' )
+        ByteArrayOutputStream captured = new ByteArrayOutputStream( )
+        OutputHandler outHandler = { InputStream input, Process process -> input.transferTo( captured ) } as OutputHandler
+
+        when: "execute the command"
+        Map<String,String> resultMap = Exec.exec( task, null, null, null, outHandler, null )
+
+        then: "map key 'exitValue' is '0'"
+        resultMap.exitValue.equals( '0' )
+
+        and: "handler received the untrimmed output"
+        captured.toString( ).equals( 'hello\n' )
+
+        and: "map key 'out' is not present"
+        resultMap.containsKey( 'out' ) == false
+    }
+
+    def "exec(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv, OutputHandler outHandler, OutputHandler errHandler) passes error to handler and omits 'err'"( ) {
+
+        given: "command to produce error and a handler for standard error"
+        List<String> task = Arrays.asList( 'ls', '-j' )
+        ByteArrayOutputStream captured = new ByteArrayOutputStream( )
+        OutputHandler errHandler = { InputStream input, Process process -> input.transferTo( captured ) } as OutputHandler
+
+        when: "execute the command"
+        Map<String,String> resultMap = Exec.exec( task, null, null, null, null, errHandler )
+
+        then: "map key 'exitValue' is '2'"
+        resultMap.exitValue.equals( '2' )
+
+        and: "handler received the error output"
+        captured.toString( ).contains( 'invalid option' )
+
+        and: "map key 'out' is empty string and map key 'err' is not present"
+        resultMap.out.equals( '' )
+        resultMap.containsKey( 'err' ) == false
+    }
+
+    def "exec(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv, OutputHandler outHandler, OutputHandler errHandler) completes when handler reads nothing"( ) {
+
+        given: "command producing more output than a pipe buffer and a handler that reads nothing"
+        List<String> task = Arrays.asList( 'seq', '1', '100000' )
+        OutputHandler outHandler = { InputStream input, Process process -> } as OutputHandler
+
+        when: "execute the command"
+        Map<String,String> resultMap = Exec.exec( task, null, null, null, outHandler, null )
+
+        then: "map key 'exitValue' is '0'"
+        resultMap.exitValue.equals( '0' )
+    }
+
+    def "exec(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv, OutputHandler outHandler, OutputHandler errHandler) throws exception thrown by handler"( ) {
+
+        given: "command to execute and a handler that fails"
+        List<String> task = Arrays.asList( 'echo', 'hello' )
+        OutputHandler outHandler = { InputStream input, Process process -> throw new IOException( 'handler failed' ) } as OutputHandler
+
+        when: "execute the command"
+        Exec.exec( task, null, null, null, outHandler, null )
+
+        then: "thrown exception"
+        IOException e = thrown( )
+        e.getMessage( ).equals( 'handler failed' )
+    }
+
+    def "exec(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv, OutputHandler outHandler, OutputHandler errHandler) drains the stream and rethrows Error thrown by handler"( ) {
+
+        given: "command producing more output than a pipe holds and a handler that fails with an Error"
+        List<String> task = Arrays.asList( 'seq', '1', '200000' )
+        OutputHandler outHandler = { InputStream input, Process process -> throw new StackOverflowError( 'handler overflowed' ) } as OutputHandler
+
+        when: "execute the command"
+        Exec.exec( task, null, null, null, outHandler, null )
+
+        then: "the process completed and the Error is rethrown"
+        StackOverflowError e = thrown( )
+        e.getMessage( ).equals( 'handler overflowed' )
+    }
+
+
+    // ********************************************************
+    // exec
+    //      - x, config, x, x
+    //           - resource controls
+    // ********************************************************
+
+    def "exec(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv) with config 'nice' runs task at niceness"( ) {
+
+        given: "command printing its niceness"
+        List<String> task = Arrays.asList( 'sh', '-c', 'nice' )
+
+        and: "config with niceness"
+        Map<String,String> config = new HashMap<String,String>( )
+        config.put( 'nice', '5' )
+
+        when: "execute the command"
+        Map<String,String> resultMap = Exec.exec( task, config, null, null )
+
+        then: "map key 'out' is the niceness"
+        resultMap.exitValue.equals( '0' )
+        resultMap.out.equals( '5' )
+
+        and: "map key 'appliedLimits' lists the niceness and map key 'limitHit' is not present"
+        resultMap.appliedLimits.equals( 'nice=5' )
+        resultMap.containsKey( 'limitHit' ) == false
+
+        and: "the task list is unchanged"
+        task.equals( Arrays.asList( 'sh', '-c', 'nice' ) )
+    }
+
+    def "exec(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv) with config 'cpuAffinity' pins task to CPUs"( ) {
+
+        given: "command printing its CPU affinity"
+        List<String> task = Arrays.asList( 'sh', '-c', 'taskset -c -p $$' )
+
+        and: "config with CPU affinity"
+        Map<String,String> config = new HashMap<String,String>( )
+        config.put( 'cpuAffinity', '0' )
+
+        when: "execute the command"
+        Map<String,String> resultMap = Exec.exec( task, config, null, null )
+
+        then: "affinity list is CPU 0"
+        resultMap.exitValue.equals( '0' )
+        resultMap.out.endsWith( ': 0' )
+        resultMap.appliedLimits.equals( 'cpuAffinity=0' )
+    }
+
+    def "exec(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv) with config 'ionice' sets I/O scheduling class"( ) {
+
+        given: "command printing its I/O scheduling class"
+        List<String> task = Arrays.asList( 'ionice' )
+
+        and: "config with best-effort I/O scheduling"
+        Map<String,String> config = new HashMap<String,String>( )
+        config.put( 'ionice', 'best-effort:3' )
+
+        when: "execute the command"
+        Map<String,String> resultMap = Exec.exec( task, config, null, null )
+
+        then: "class and priority are reported"
+        resultMap.exitValue.equals( '0' )
+        resultMap.out.equals( 'best-effort: prio 3' )
+        resultMap.appliedLimits.equals( 'ionice=best-effort:3' )
+    }
+
+    def "exec(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv) with config 'rlimitNofile' limits open files"( ) {
+
+        given: "command printing its open file limit"
+        List<String> task = Arrays.asList( 'sh', '-c', 'ulimit -n' )
+
+        and: "config with open file limit"
+        Map<String,String> config = new HashMap<String,String>( )
+        config.put( 'rlimitNofile', '64' )
+
+        when: "execute the command"
+        Map<String,String> resultMap = Exec.exec( task, config, null, null )
+
+        then: "limit is reported and no limit was hit"
+        resultMap.exitValue.equals( '0' )
+        resultMap.out.equals( '64' )
+        resultMap.appliedLimits.equals( 'rlimitNofile=64' )
+        resultMap.limitHit.equals( 'none' )
+    }
+
+    def "exec(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv) with config 'rlimitNofile' reports limit hit"( ) {
+
+        given: "command opening more files than allowed"
+        List<String> task = Arrays.asList( 'sh', '-c', 'exec 3</dev/null 4</dev/null 5</dev/null' )
+
+        and: "config with open file limit"
+        Map<String,String> config = new HashMap<String,String>( )
+        config.put( 'rlimitNofile', '5' )
+
+        when: "execute the command"
+        Map<String,String> resultMap = Exec.exec( task, config, null, null )
+
+        then: "task failed on the limit"
+        resultMap.exitValue.equals( '0' ) == false
+        resultMap.err.contains( 'Too many open files' )
+        resultMap.limitHit.equals( 'rlimitNofile' )
+    }
+
+    def "exec(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv) with config 'rlimitCpu' ends busy task"( ) {
+
+        given: "command spinning forever"
+        List<String> task = Arrays.asList( 'sh', '-c', 'while :; do :; done' )
+
+        and: "config with CPU time limit and more resource controls"
+        Map<String,String> config = new HashMap<String,String>( )
+        config.put( 'rlimitCpu', '1' )
+        config.put( 'nice', '10' )
+
+        when: "execute the command"
+        Map<String,String> resultMap = Exec.exec( task, config, null, null )
+
+        then: "task killed by SIGXCPU"
+        resultMap.exitValue.equals( '152' )
+        resultMap.limitHit.equals( 'rlimitCpu' )
+        resultMap.appliedLimits.equals( 'rlimitCpu=1,nice=10' )
+    }
+
+    def "exec(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv) with illegal resource control throws exception"( ) {
+
+        given: "config with illegal resource control"
+        Map<String,String> config = new HashMap<String,String>( )
+        config.put( key, value )
+
+        when: "execute the command"
+        Exec.exec( Arrays.asList( 'true' ), config, null, null )
+
+        then: "thrown exception"
+        IllegalArgumentException e = thrown( )
+        e.getMessage( ).equals( "Illegal value '" + value + "' for '" + key + "' in 'config'." )
+
+        where:
+        key            | value
+        'nice'         | '20'
+        'nice'         | '-21'
+        'nice'         | 'low'
+        'ionice'       | 'realtime:8'
+        'ionice'       | 'batch'
+        'cpuAffinity'  | '0-'
+        'cpuAffinity'  | 'all'
+        'rlimitAs'     | '-1'
+        'rlimitCpu'    | '1.5'
+        'rlimitNofile' | ''
+    }
+
+    def "exec(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv) with config 'statusOnly' discards output"( ) {
+
+        given: "config for status only"
+        List<String> task = Arrays.asList( 'sh', '-c', 'echo out; echo err >&2; exit 3' )
+        Map<String,String> config = new HashMap<String,String>( )
+        config.put( 'statusOnly', 'true' )
+
+        when: "execute the command"
+        Map<String,String> resultMap = Exec.exec( task, config, null, null )
+
+        then: "only the exit value is returned"
+        resultMap.size( ) == 1
+        resultMap.get( 'exitValue' ).equals( '3' )
+    }
+
+    def "exec(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv) with config 'statusOnly' keeps file redirect"( ) {
+
+        given: "config for status only with output and merged error redirected to a file"
+        String outFilePath = tempDir.toString( ) + File.separator + 'out.txt'
+        List<String> task = Arrays.asList( 'sh', '-c', 'echo out; echo err >&2' )
+        Map<String,String> config = new HashMap<String,String>( )
+        config.put( 'statusOnly', 'true' )
+        config.put( 'redirectOutFilePath', outFilePath )
+        config.put( 'redirectOutType', 'overwrite' )
+        config.put( 'redirectErrToOut', 'true' )
+
+        when: "execute the command"
+        Map<String,String> resultMap = Exec.exec( task, config, null, null )
+
+        then: "output is written to the file"
+        resultMap.size( ) == 1
+        resultMap.get( 'exitValue' ).equals( '0' )
+        new File( outFilePath ).text.equals( 'out\nerr\n' )
+    }
+
+    def "exec(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv) with both streams redirected to files returns exit value"( ) {
+
+        given: "config redirecting output and error to files"
+        String outFilePath = tempDir.toString( ) + File.separator + 'out.txt'
+        String errFilePath = tempDir.toString( ) + File.separator + 'err.txt'
+        List<String> task = Arrays.asList( 'sh', '-c', 'echo out; echo err >&2; exit 2' )
+        Map<String,String> config = new HashMap<String,String>( )
+        config.put( 'redirectOutFilePath', outFilePath )
+        config.put( 'redirectOutType', 'overwrite' )
+        config.put( 'redirectErrFilePath', errFilePath )
+        config.put( 'redirectErrType', 'overwrite' )
+
+        when: "execute the command"
+        Map<String,String> resultMap = Exec.exec( task, config, null, null )
+
+        then: "exit value is returned and output is in the files"
+        resultMap.size( ) == 1
+        resultMap.get( 'exitValue' ).equals( '2' )
+        new File( outFilePath ).text.equals( 'out\n' )
+        new File( errFilePath ).text.equals( 'err\n' )
+    }
+
+    def "exec(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv) with illegal 'statusOnly' throws exception"( ) {
+
+        given: "config with illegal 'statusOnly'"
+        Map<String,String> config = new HashMap<String,String>( )
+        config.put( 'statusOnly', 'yes' )
+
+        when: "execute the command"
+        Exec.exec( Arrays.asList( 'true' ), config, null, null )
+
+        then: "thrown exception"
+        IllegalArgumentException e = thrown( )
+        e.getMessage( ).equals( "Illegal value 'yes' for 'statusOnly' in 'config'." )
+    }
+
 }
@@ -0,0 +1,141 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.nio.file.Path
+import java.nio.file.Files
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.TempDir
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class ExecTest_execAsync extends Specification {
+
+    @TempDir
+    Path tempDir
+
+
+    def cleanup( ) {
+        Exec.setSpanExporter( null )
+    }
+
+
+    def "execAsync(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv) completes with the exit value"( ) {
+
+        given: "a command that writes output and fails"
+        List<String> task = Arrays.asList( 'sh', '-c', 'echo out; echo err >&2; exit 4' )
+
+        when: "execute the command"
+        Map<String,String> resultMap = Exec.execAsync( task, null, null, null ).get( 30, TimeUnit.SECONDS )
+
+        then: "only the exit value is returned"
+        resultMap.size( ) == 1
+        resultMap.get( 'exitValue' ).equals( '4' )
+    }
+
+    def "execAsync(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv) runs many tasks concurrently"( ) {
+
+        when: "start many commands"
+        List<CompletableFuture<Map<String,String>>> futures = new ArrayList<CompletableFuture<Map<String,String>>>( )
+        for ( int i = 0; i < 50; i++ ) {
+            futures.add( Exec.execAsync( Arrays.asList( 'sh', '-c', 'exit ' + ( i % 3 ) ), null, null, null ) )
+        }
+
+        then: "each completes with its exit value"
+        for ( int i = 0; i < 50; i++ ) {
+            assert futures[i].get( 30, TimeUnit.SECONDS ).get( 'exitValue' ).equals( Integer.toString( i % 3 ) )
+        }
+    }
+
+    def "execAsync(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv) keeps file redirect"( ) {
+
+        given: "config redirecting output to a file"
+        String outFilePath = tempDir.toString( ) + File.separator + 'out.txt'
+        Map<String,String> config = new HashMap<String,String>( )
+        config.put( 'redirectOutFilePath', outFilePath )
+        config.put( 'redirectOutType', 'overwrite' )
+
+        when: "execute the command"
+        Map<String,String> resultMap = Exec.execAsync( Arrays.asList( 'echo', 'hello' ), config, null, null ).get( 30, TimeUnit.SECONDS )
+
+        then: "output is written to the file"
+        resultMap.get( 'exitValue' ).equals( '0' )
+        new File( outFilePath ).text.equals( 'hello\n' )
+    }
+
+    def "execAsync(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv) records a span"( ) {
+
+        given: "an exporter collecting spans"
+        List<ExecSpan> spans = Collections.synchronizedList( new ArrayList<ExecSpan>( ) )
+        Exec.setSpanExporter( { ExecSpan span -> spans.add( span ) } as SpanExporter )
+
+        when: "execute the command"
+        Exec.execAsync( Arrays.asList( 'sh', '-c', 'exit 1' ), null, null, null ).get( 30, TimeUnit.SECONDS )
+
+        then: "a span with the exit value"
+        spans.size( ) == 1
+        spans[0].getExitValue( ) == 1
+        spans[0].getName( ).equals( 'exec sh' )
+    }
+
+    def "execAsync(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv) destroys the process when cancelled"( ) {
+
+        given: "a long-running command"
+        String pidFilePath = tempDir.toString( ) + File.separator + 'pid.txt'
+        CompletableFuture<Map<String,String>> future = Exec.execAsync( Arrays.asList( 'sh', '-c', 'echo $$ > ' + pidFilePath + '; exec sleep 60' ), null, null, null )
+        while ( !new File( pidFilePath ).exists( ) || new File( pidFilePath ).text.isEmpty( ) ) {
+            Thread.sleep( 10 )
+        }
+        long pid = Long.parseLong( new File( pidFilePath ).text.trim( ) )
+
+        when: "cancel the future and wait for the process to end"
+        future.cancel( true )
+        ProcessHandle.of( pid ).ifPresent( { it.onExit( ).get( 10, TimeUnit.SECONDS ) } )
+
+        then: "the process is destroyed"
+        future.isCancelled( )
+        !ProcessHandle.of( pid ).map( { it.isAlive( ) } ).orElse( false )
+    }
+
+    def "execAsync(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv) with missing command throws exception"( ) {
+
+        when: "execute a missing command"
+        Exec.execAsync( Arrays.asList( 'no-such-command-for-async' ), null, null, null )
+
+        then: "thrown exception"
+        thrown( IOException )
+    }
+
+}
@@ -462,6 +462,21 @@ class ExecTest_execExceptionOnTaskFail extends Specification {
         thrown IllegalArgumentException
     }
 
+    def "execExceptionOnTaskFail(List<String> task, Map<String,String> config) throws exception if specify 'statusOnly=true'"( ) {
+
+        given: "valid command to run"
+        List<String> task = Arrays.asList( 'id', '-un' )
+        Map<String,String> cfg = new HashMap<String,String>( )
+        cfg.put( 'statusOnly', 'true' )
+
+        when: "execute the command"
+        String result = Exec.execExceptionOnTaskFail( task, cfg )
+
+        then: "exception thrown"
+        IllegalArgumentException e = thrown( )
+        e.getMessage( ).equals( "Illegal configuration in 'config'.  Either do not define 'statusOnly' or set to 'false'." )
+    }
+
     def "execExceptionOnTaskFail(List<String> task, Map<String,String> config) throws exception if specify 'redirectErrToOut' is an illegal value"( ) {
 
         given: "valid command to run"
@@ -1031,4 +1046,69 @@ class ExecTest_execExceptionOnTaskFail extends Specification {
         !result.contains( 'GREET2=' )
     }
 
+
+
+    // *******************************************************************************
+    // *******************************************************************************
+
+
+    // ********************************************************
+    // execExceptionOnTaskFail
+    //      - x, config
+    //           - lightweightException
+    // ********************************************************
+
+    def "execExceptionOnTaskFail(List<String> task, Map<String,String> config) throws lightweight exception when lightweightException=true"( ) {
+
+        given: "command to produce error and lightweightException set to true"
+        List<String> task = Arrays.asList( 'ls', '-j' )
+        Map<String,String> cfg = new HashMap<String,String>( )
+        cfg.put( 'lightweightException', 'true' )
+
+        when: "execute the command"
+        String result = Exec.execExceptionOnTaskFail( task, cfg )
+
+        then: "thrown exception"
+        def e = thrown( TaskExecutionException )
+
+        and: "exception has structured fields, the same message, and no stack trace"
+        e.getTask( ) == task
+        e.getExitValue( ) == 2
+        e.getErr( ).contains( 'invalid option' )
+        e.message.startsWith( "Executing task '[ls,-j]' failed with exit value '2.  " )
+        e.getStackTrace( ).length == 0
+    }
+
+    def "execExceptionOnTaskFail(List<String> task, Map<String,String> config) throws exception with stack trace when lightweightException=false"( ) {
+
+        given: "command to produce error and lightweightException set to false"
+        List<String> task = Arrays.asList( 'ls', '-j' )
+        Map<String,String> cfg = new HashMap<String,String>( )
+        cfg.put( 'lightweightException', 'false' )
+
+        when: "execute the command"
+        String result = Exec.execExceptionOnTaskFail( task, cfg )
+
+        then: "thrown exception"
+        def e = thrown( TaskExecutionException )
+
+        and: "exception has a stack trace"
+        e.getTask( ) == null
+        e.getStackTrace( ).length > 0
+    }
+
+    def "execExceptionOnTaskFail(List<String> task, Map<String,String> config) throws exception for invalid lightweightException value"( ) {
+
+        given: "command and invalid lightweightException setting"
+        List<String> task = Arrays.asList( 'whoami' )
+        Map<String,String> cfg = new HashMap<String,String>( )
+        cfg.put( 'lightweightException', 'illegal-value' )
+
+        when: "execute the command"
+        String result = Exec.execExceptionOnTaskFail( task, cfg )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+    }
+
 }
@@ -0,0 +1,170 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.util.Map
+import java.util.HashMap
+import static java.util.concurrent.TimeUnit.MINUTES
+import java.io.IOException
+import java.nio.file.Path
+import java.nio.file.Files
+
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.TempDir
+
+
+
+
+/**
+ * Unit tests for 'Exec.execResult(...)'.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class ExecTest_execResult extends Specification {
+
+    @TempDir
+    Path tempDir
+
+
+    // ********************************************************
+    // execResult
+    //      - task
+    // ********************************************************
+
+    def "execResult(List<String> task) for valid task returns success result"( ) {
+
+        given: "command to execute to get the current username"
+        List<String> task = Arrays.asList( 'id', '-un' )
+
+        when: "execute the command"
+        TaskResult result = Exec.execResult( task )
+
+        then: "result is a success with the correct username"
+        result.isSuccess( )
+        result.getExitValue( ) == 0
+        result.getOut( ).equals( System.properties[ 'user.name' ] )
+        result.getErr( ) == null
+        result.getTask( ) == task
+    }
+
+    def "execResult(List<String> task) for invalid task returns failure result"( ) {
+
+        given: "command to produce error"
+        List<String> task = Arrays.asList( 'ls', '-j' )
+
+        when: "execute the command"
+        TaskResult result = Exec.execResult( task )
+
+        then: "result is a failure with exit value and error output"
+        !result.isSuccess( )
+        result.getExitValue( ) == 2
+        result.getErr( ).contains( 'invalid option' )
+    }
+
+    def "execResult(List<String> task) throws exception for empty task"( ) {
+
+        given: "empty command"
+        List<String> task = Arrays.asList( '' )
+
+        when: "execute the command"
+        Exec.execResult( task )
+
+        then: "thrown exception"
+        thrown IOException
+    }
+
+
+    // ********************************************************
+    // execResult
+    //      - task, config, addEnv, removeEnv
+    // ********************************************************
+
+    def "execResult(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv) returns empty output when output redirected to a file"( ) {
+
+        given: "command to execute with output redirected to a file"
+        List<String> task = Arrays.asList( 'id', '-un' )
+        Map<String,String> cfg = new HashMap<String,String>( )
+        String outFilePath = tempDir.toString( ) + File.separator + 'test.txt'
+        cfg.put( 'redirectOutFilePath', outFilePath )
+        cfg.put( 'redirectOutType', 'overwrite' )
+
+        when: "execute the command"
+        TaskResult result = Exec.execResult( task, cfg, null, null )
+
+        then: "result is a success with empty output"
+        result.isSuccess( )
+        result.getOut( ).equals( '' )
+
+        and: "out file has output"
+        Files.readString( Path.of( outFilePath ) ).trim( ).equals( System.properties[ 'user.name' ] )
+    }
+
+    def "execResult(List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv) throws exception for config that redirects standard error"( ) {
+
+        given: "command and config redirecting standard error"
+        List<String> task = Arrays.asList( 'whoami' )
+        Map<String,String> cfg = new HashMap<String,String>( )
+        cfg.put( 'redirectErrToOut', 'true' )
+
+        when: "execute the command"
+        Exec.execResult( task, cfg, null, null )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+    }
+
+
+    // ********************************************************
+    // TaskResult
+    //      - toException
+    // ********************************************************
+
+    def "toException() returns lightweight exception for failure result"( ) {
+
+        given: "a failure result"
+        TaskResult result = Exec.execResult( Arrays.asList( 'ls', '-j' ) )
+
+        when: "get the exception"
+        TaskExecutionException e = result.toException( )
+
+        then: "exception describes the failure"
+        e.getExitValue( ) == 2
+        e.getTask( ) == Arrays.asList( 'ls', '-j' )
+        e.getMessage( ).contains( 'invalid option' )
+    }
+
+    def "toException() throws exception for success result"( ) {
+
+        given: "a success result"
+        TaskResult result = Exec.execResult( Arrays.asList( 'whoami' ) )
+
+        when: "get the exception"
+        result.toException( )
+
+        then: "thrown exception"
+        thrown IllegalStateException
+    }
+
+}
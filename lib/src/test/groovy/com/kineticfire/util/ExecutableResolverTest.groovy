@@ -0,0 +1,235 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.nio.file.Path
+import java.nio.file.Files
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.TempDir
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class ExecutableResolverTest extends Specification {
+
+    @TempDir
+    Path tempDir
+
+
+    /*
+     * Polls the resolver until the command resolves as expected or 10 seconds elapse, and returns the last result.
+     */
+    private static Path awaitResolve( ExecutableResolver resolver, String command, String pathValue, boolean found ) {
+        Path path = resolver.resolve( command, pathValue )
+        long deadline = System.currentTimeMillis( ) + 10000
+        while ( ( path != null ) != found && System.currentTimeMillis( ) < deadline ) {
+            Thread.sleep( 20 )
+            path = resolver.resolve( command, pathValue )
+        }
+        return( path )
+    }
+
+
+    private static Path createExecutable( Path dir, String name ) {
+        Path file = dir.resolve( name )
+        Files.writeString( file, '#!/bin/sh\necho ' + name + '\n' )
+        file.toFile( ).setExecutable( true )
+        return( file )
+    }
+
+
+    def "resolve(String command, String pathValue) returns the first executable on the PATH"( ) {
+
+        given: "two PATH directories with the same command"
+        Path first = Files.createDirectory( tempDir.resolve( 'first' ) )
+        Path second = Files.createDirectory( tempDir.resolve( 'second' ) )
+        createExecutable( second, 'tool' )
+        Path expected = createExecutable( first, 'tool' )
+
+        and: "a resolver"
+        ExecutableResolver resolver = new ExecutableResolver( 0 )
+
+        when: "resolve the command"
+        Path path = resolver.resolve( 'tool', first.toString( ) + File.pathSeparator + second.toString( ) )
+
+        then: "the executable in the first directory is returned"
+        path.equals( expected )
+
+        cleanup:
+        resolver?.close( )
+    }
+
+    def "resolve(String command, String pathValue) skips files that aren't executable"( ) {
+
+        given: "a PATH directory with a non-executable file"
+        Files.writeString( tempDir.resolve( 'plain' ), 'text' )
+        ExecutableResolver resolver = new ExecutableResolver( 0 )
+
+        expect: "the command isn't found"
+        resolver.resolve( 'plain', tempDir.toString( ) ) == null
+
+        cleanup:
+        resolver?.close( )
+    }
+
+    def "resolve(String command, String pathValue) discards cached result when an executable is created or deleted"( ) {
+
+        given: "a resolver that cached a missing command"
+        ExecutableResolver resolver = new ExecutableResolver( 0 )
+        String pathValue = tempDir.toString( )
+        resolver.resolve( 'later', pathValue )
+
+        when: "the executable is created"
+        Path file = createExecutable( tempDir, 'later' )
+
+        then: "the command resolves"
+        awaitResolve( resolver, 'later', pathValue, true ).equals( file )
+
+        when: "the executable is deleted"
+        Files.delete( file )
+
+        then: "the command no longer resolves"
+        awaitResolve( resolver, 'later', pathValue, false ) == null
+
+        cleanup:
+        resolver?.close( )
+    }
+
+    def "resolve(String command, String pathValue) refreshes results after maximum age without watching"( ) {
+
+        given: "a closed resolver, which no longer watches, with a short maximum age"
+        ExecutableResolver resolver = new ExecutableResolver( 100 )
+        resolver.close( )
+        String pathValue = tempDir.toString( )
+
+        when: "a missing command is cached, then created, and the maximum age elapses"
+        Path before = resolver.resolve( 'aged', pathValue )
+        Path file = createExecutable( tempDir, 'aged' )
+        Thread.sleep( 200 )
+
+        then: "the command resolves"
+        before == null
+        resolver.resolve( 'aged', pathValue ).equals( file )
+    }
+
+    def "resolve(String command, String pathValue) for a command with a separator returns it if executable"( ) {
+
+        given: "an executable"
+        Path file = createExecutable( tempDir, 'direct' )
+        ExecutableResolver resolver = new ExecutableResolver( 0 )
+
+        expect: "the path resolves to itself without searching"
+        resolver.resolve( file.toString( ), null ).equals( file )
+        resolver.resolve( tempDir.resolve( 'missing' ).toString( ), null ) == null
+
+        cleanup:
+        resolver?.close( )
+    }
+
+    def "invalidate() discards cached results"( ) {
+
+        given: "a closed resolver, which no longer watches, that cached a missing command"
+        ExecutableResolver resolver = new ExecutableResolver( 0 )
+        resolver.close( )
+        String pathValue = tempDir.toString( )
+        resolver.resolve( 'manual', pathValue )
+        Path file = createExecutable( tempDir, 'manual' )
+
+        when: "invalidate the cache"
+        resolver.invalidate( )
+
+        then: "the command resolves"
+        resolver.resolve( 'manual', pathValue ).equals( file )
+    }
+
+    def "isAvailable(String command) reports commands on the JVM PATH"( ) {
+
+        expect: "'sh' is available and a made-up command isn't"
+        ExecutableResolver.getDefault( ).isAvailable( 'sh' )
+        !ExecutableResolver.getDefault( ).isAvailable( 'no-such-command-for-resolver' )
+    }
+
+    def "exec(...) with config 'resolveExecutable' runs the resolved executable"( ) {
+
+        given: "config to resolve the executable"
+        Map<String,String> config = new HashMap<String,String>( )
+        config.put( 'resolveExecutable', 'true' )
+
+        when: "execute a command that prints its own name"
+        Map<String,String> resultMap = Exec.exec( Arrays.asList( 'sh', '-c', 'echo $0' ), config, null, null )
+
+        then: "the command was started by absolute path"
+        resultMap.exitValue.equals( '0' )
+        resultMap.out.equals( ExecutableResolver.getDefault( ).resolve( 'sh' ).toString( ) )
+    }
+
+    def "exec(...) with config 'resolveExecutable' and 'nice' resolves the task command rather than the wrapper"( ) {
+
+        given: "config to resolve the executable and lower the priority"
+        Map<String,String> config = new HashMap<String,String>( )
+        config.put( 'resolveExecutable', 'true' )
+        config.put( 'nice', '5' )
+
+        when: "execute a command that prints its own name"
+        Map<String,String> resultMap = Exec.exec( Arrays.asList( 'sh', '-c', 'echo $0' ), config, null, null )
+
+        then: "the task command was started by absolute path under 'nice'"
+        resultMap.exitValue.equals( '0' )
+        resultMap.out.equals( ExecutableResolver.getDefault( ).resolve( 'sh' ).toString( ) )
+        resultMap.appliedLimits.equals( 'nice=5' )
+    }
+
+    def "exec(...) with illegal config 'resolveExecutable' throws exception"( ) {
+
+        given: "config with an illegal value"
+        Map<String,String> config = new HashMap<String,String>( )
+        config.put( 'resolveExecutable', 'yes' )
+
+        when: "execute the command"
+        Exec.exec( Arrays.asList( 'true' ), config, null, null )
+
+        then: "thrown exception"
+        IllegalArgumentException e = thrown( )
+        e.getMessage( ).equals( "Illegal value 'yes' for 'resolveExecutable' in 'config'." )
+    }
+
+    def "ExecutableResolver(long maxAgeMillis) with negative maximum age throws exception"( ) {
+
+        when: "construct with a negative maximum age"
+        new ExecutableResolver( -1 )
+
+        then: "thrown exception"
+        IllegalArgumentException e = thrown( )
+        e.getMessage( ).equals( "Illegal value '-1' for 'maxAgeMillis'.  Must be non-negative." )
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.nio.file.Path
+import java.nio.file.Files
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.TempDir
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class HedgedExecTest extends Specification {
+
+    @TempDir
+    Path tempDir
+
+
+    /*
+     * Returns a task whose first execution sleeps for 'sleepSeconds' before printing 'done', while later executions print 'done' immediately.
+     */
+    List<String> slowFirstTask( int sleepSeconds ) {
+        String lockDir = tempDir.toString( ) + File.separator + 'lock'
+        return( Arrays.asList( 'sh', '-c', 'if mkdir ' + lockDir + ' 2>/dev/null; then sleep ' + sleepSeconds + '; fi; echo done' ) )
+    }
+
+
+    def "HedgedExec(long,double,double) throws exception for illegal arguments"( ) {
+
+        when: "instantiate with illegal arguments"
+        new HedgedExec( delay, percentile, ratio )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+
+        where:
+        delay | percentile | ratio
+        -1    | 95.0       | 0.1
+        50    | -1.0       | 0.1
+        50    | 101.0      | 0.1
+        50    | 95.0       | -0.1
+        50    | 95.0       | 1.1
+    }
+
+    def "execExceptionOnTaskFail(List<String> task) returns output for valid task"( ) {
+
+        given: "a hedged executor"
+        HedgedExec hedged = new HedgedExec( )
+
+        when: "execute the command"
+        String result = hedged.execExceptionOnTaskFail( Arrays.asList( 'echo', 'hello' ) )
+
+        then: "returns the output"
+        result.equals( 'hello' )
+    }
+
+    def "execExceptionOnTaskFail(List<String> task) throws exception for invalid task"( ) {
+
+        given: "a hedged executor"
+        HedgedExec hedged = new HedgedExec( )
+
+        when: "execute the command"
+        hedged.execExceptionOnTaskFail( Arrays.asList( 'ls', '-j' ) )
+
+        then: "thrown exception with exit value and error output"
+        TaskExecutionException e = thrown( )
+        e.getExitValue( ) == 2
+        e.getMessage( ).contains( 'invalid option' )
+    }
+
+    def "execExceptionOnTaskFail(...) throws exception for config that redirects standard error"( ) {
+
+        given: "a hedged executor and config redirecting standard error"
+        HedgedExec hedged = new HedgedExec( )
+        Map<String,String> cfg = new HashMap<String,String>( )
+        cfg.put( 'redirectErrToOut', 'true' )
+
+        when: "execute the command"
+        hedged.execExceptionOnTaskFail( Arrays.asList( 'echo', 'hello' ), cfg, null, null )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+    }
+
+    def "execExceptionOnTaskFail(List<String> task) hedges a slow attempt and returns the first success"( ) {
+
+        given: "a hedged executor with a short delay and a full budget"
+        HedgedExec hedged = new HedgedExec( 100, 0, 1.0 )
+
+        when: "execute a command whose first attempt is slow"
+        long start = System.currentTimeMillis( )
+        String result = hedged.execExceptionOnTaskFail( slowFirstTask( 30 ) )
+        long elapsed = System.currentTimeMillis( ) - start
+
+        then: "returns the output of the hedge well before the slow attempt would finish"
+        result.equals( 'done' )
+        elapsed < 10000
+    }
+
+    def "execExceptionOnTaskFail(List<String> task) keeps statistics per command"( ) {
+
+        given: "a hedged executor"
+        HedgedExec hedged = new HedgedExec( )
+
+        when: "execute a command with varying arguments"
+        List<String> results = ( 1..5 ).collect { hedged.execExceptionOnTaskFail( Arrays.asList( 'echo', 'id-' + it ) ) }
+
+        then: "statistics are kept once for the command"
+        results == [ 'id-1', 'id-2', 'id-3', 'id-4', 'id-5' ]
+        hedged.commandCount( ) == 1
+    }
+
+    def "execExceptionOnTaskFail(List<String> task) bounds the number of commands with statistics"( ) {
+
+        given: "a hedged executor"
+        HedgedExec hedged = new HedgedExec( )
+
+        when: "execute more distinct commands than are retained"
+        for ( int i = 0; i < 300; i++ ) {
+            try {
+                hedged.execExceptionOnTaskFail( Arrays.asList( 'no-such-command-' + i ) )
+            } catch ( IOException ignore ) {
+                // the command doesn't exist
+            }
+        }
+
+        then: "only the most recently used commands are retained"
+        hedged.commandCount( ) == 256
+    }
+
+    def "execExceptionOnTaskFail(List<String> task) doesn't hedge without budget"( ) {
+
+        given: "a hedged executor with a short delay and no budget"
+        HedgedExec hedged = new HedgedExec( 100, 0, 0 )
+
+        when: "execute a command whose first attempt is slow"
+        long start = System.currentTimeMillis( )
+        String result = hedged.execExceptionOnTaskFail( slowFirstTask( 2 ) )
+        long elapsed = System.currentTimeMillis( ) - start
+
+        then: "returns the output of the slow attempt"
+        result.equals( 'done' )
+        elapsed >= 2000
+    }
+
+}
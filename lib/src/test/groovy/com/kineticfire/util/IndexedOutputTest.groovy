@@ -0,0 +1,186 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.nio.file.Path
+import java.nio.file.Files
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.TempDir
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class IndexedOutputTest extends Specification {
+
+    @TempDir
+    Path tempDir
+
+
+    /*
+     * Returns an IndexedOutput that captured the text.
+     */
+    private static IndexedOutput indexed( String text ) {
+        IndexedOutput output = new IndexedOutput( )
+        output.handle( new ByteArrayInputStream( text.getBytes( 'UTF-8' ) ), null )
+        return( output )
+    }
+
+
+    def "handle(InputStream in, Process process) splits lines as reading line by line does"( ) {
+
+        when: "capture the text"
+        IndexedOutput output = indexed( text )
+
+        then: "lines are indexed"
+        output.lineCount( ) == expected.size( )
+        output.lines( )*.toString( ) == expected
+
+        where:
+        text             | expected
+        ''               | [ ]
+        'a'              | [ 'a' ]
+        'a\n'            | [ 'a' ]
+        '\n'             | [ '' ]
+        'a\nb'           | [ 'a', 'b' ]
+        'a\r\nb\rc\n'    | [ 'a', 'b', 'c' ]
+        'a\n\nb\n'       | [ 'a', '', 'b' ]
+        '\r\r\n'         | [ '', '' ]
+    }
+
+    def "line(int index) returns the line"( ) {
+
+        given: "captured text"
+        IndexedOutput output = indexed( 'zero\none\ntwo\n' )
+
+        expect: "line at index"
+        output.line( 0 ).toString( ) == 'zero'
+        output.line( 2 ).toString( ) == 'two'
+        output.line( 1 ).length( ) == 3
+        output.line( 1 ).charAt( 0 ) == 'o' as char
+        output.line( 1 ).subSequence( 1, 3 ).toString( ) == 'ne'
+    }
+
+    def "line(int index) with index out of bounds throws exception"( ) {
+
+        given: "captured text"
+        IndexedOutput output = indexed( 'zero\none\n' )
+
+        when: "get a line out of bounds"
+        output.line( index )
+
+        then: "thrown exception"
+        thrown( IndexOutOfBoundsException )
+
+        where:
+        index << [ -1, 2 ]
+    }
+
+    def "lastLines(int count) returns the last lines"( ) {
+
+        given: "captured text"
+        IndexedOutput output = indexed( 'a\nb\nc\nd\n' )
+
+        expect: "last lines"
+        output.lastLines( count )*.toString( ) == expected
+
+        where:
+        count | expected
+        0     | [ ]
+        2     | [ 'c', 'd' ]
+        4     | [ 'a', 'b', 'c', 'd' ]
+        10    | [ 'a', 'b', 'c', 'd' ]
+    }
+
+    def "lastLines(int count) with negative count throws exception"( ) {
+
+        when: "get lines with a negative count"
+        indexed( 'a\n' ).lastLines( -1 )
+
+        then: "thrown exception"
+        IllegalArgumentException e = thrown( )
+        e.getMessage( ).equals( "Illegal value '-1' for 'count'.  Must be non-negative." )
+    }
+
+    def "reverseLines() iterates from last to first"( ) {
+
+        when: "iterate in reverse"
+        List<String> lines = [ ]
+        for ( CharSequence line : indexed( 'a\nb\nc' ).reverseLines( ) ) {
+            lines.add( line.toString( ) )
+        }
+
+        then: "lines in reverse order"
+        lines == [ 'c', 'b', 'a' ]
+    }
+
+    def "countLines(Predicate<CharSequence> predicate) counts matching lines"( ) {
+
+        given: "captured text"
+        IndexedOutput output = indexed( 'keep 1\ndrop\nkeep 2\n' )
+
+        expect: "count of matching lines"
+        output.countLines( { CharSequence line -> line.length( ) > 4 && line.charAt( 0 ) == 'k' as char } ) == 2
+    }
+
+    def "handle(InputStream in, Process process) called twice throws exception"( ) {
+
+        given: "an instance that captured a stream"
+        IndexedOutput output = indexed( 'a\n' )
+
+        when: "capture another stream"
+        output.handle( new ByteArrayInputStream( new byte[0] ), null )
+
+        then: "thrown exception"
+        IllegalStateException e = thrown( )
+        e.getMessage( ).equals( 'IndexedOutput already captured a stream.' )
+    }
+
+    def "exec(...) with IndexedOutput indexes large output"( ) {
+
+        given: "a command producing many lines"
+        List<String> task = Arrays.asList( 'seq', '1', '200000' )
+        IndexedOutput output = new IndexedOutput( )
+
+        when: "execute the command"
+        Map<String,String> resultMap = Exec.exec( task, null, null, null, output, null )
+
+        then: "lines are indexed"
+        resultMap.exitValue.equals( '0' )
+        resultMap.out == null
+        output.lineCount( ) == 200000
+        output.line( 0 ).toString( ) == '1'
+        output.line( 99999 ).toString( ) == '100000'
+        output.lastLines( 1 )[0].toString( ) == '200000'
+        output.getText( ).length( ) == 1288895
+    }
+
+}
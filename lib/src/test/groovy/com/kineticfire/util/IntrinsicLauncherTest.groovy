@@ -0,0 +1,231 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.nio.file.Path
+import java.nio.file.Files
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.TempDir
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class IntrinsicLauncherTest extends Specification {
+
+    @TempDir
+    Path tempDir
+
+    int delegated = 0
+
+    Launcher countingDelegate = { List<String> task, Map<String,String> config, Map<String,String> addEnv, List<String> removeEnv ->
+        delegated++
+        return( Exec.getDefaultLauncher( ).launch( task, config, addEnv, removeEnv ) )
+    } as Launcher
+
+
+    def setup( ) {
+        Files.writeString( tempDir.resolve( 'a.txt' ), 'line1\r\nline2\rline3' )
+        Files.writeString( tempDir.resolve( 'empty.txt' ), '' )
+    }
+
+
+    def "IntrinsicLauncher(Launcher) throws exception for null delegate"( ) {
+
+        when: "instantiate with a null delegate"
+        new IntrinsicLauncher( null )
+
+        then: "thrown exception"
+        thrown NullPointerException
+    }
+
+    def "launch(...) returns same result as process for intrinsic command without starting a process"( ) {
+
+        given: "an intrinsic launcher and a config"
+        IntrinsicLauncher launcher = new IntrinsicLauncher( countingDelegate )
+        Map<String,String> config = [ 'directory': tempDir.toString( ), 'trim': trim ]
+
+        when: "launch the task in-process and as a process"
+        Map<String,String> intrinsicMap = launcher.launch( task, config, null, null )
+        Map<String,String> processMap = Exec.getDefaultLauncher( ).launch( task, config, null, null )
+
+        then: "results are the same"
+        intrinsicMap == processMap
+
+        and: "delegate wasn't called"
+        delegated == 0
+
+        where:
+        task                                        | trim
+        [ 'true' ]                                  | 'true'
+        [ 'false' ]                                 | 'true'
+        [ 'false' ]                                 | 'false'
+        [ 'echo', 'hello', 'world' ]                | 'false'
+        [ 'echo', '-n', 'hello' ]                   | 'false'
+        [ 'echo', '-nE', '-x' ]                     | 'false'
+        [ 'echo', 'a\\nb' ]                         | 'true'
+        [ 'cat', 'a.txt' ]                          | 'false'
+        [ 'cat', 'a.txt', 'empty.txt', 'a.txt' ]    | 'true'
+        [ 'test', '-f', 'a.txt' ]                   | 'true'
+        [ 'test', '-d', 'a.txt' ]                   | 'true'
+        [ 'test', '-e', 'missing' ]                 | 'true'
+        [ 'pwd' ]                                   | 'false'
+        [ 'basename', '/a/b.txt', '.txt' ]          | 'true'
+        [ 'basename', 'a/b//' ]                     | 'true'
+        [ 'basename', '//' ]                        | 'true'
+        [ 'dirname', 'a//b//' ]                     | 'true'
+        [ 'dirname', '//a' ]                        | 'true'
+        [ 'dirname', 'a' ]                          | 'true'
+    }
+
+    def "launch(...) creates directories for 'mkdir -p'"( ) {
+
+        given: "an intrinsic launcher"
+        IntrinsicLauncher launcher = new IntrinsicLauncher( countingDelegate )
+
+        when: "launch mkdir"
+        Map<String,String> resultMap = launcher.launch( Arrays.asList( 'mkdir', '-p', 'x/y', 'z' ), [ 'directory': tempDir.toString( ) ], null, null )
+
+        then: "directories were created in-process"
+        resultMap == [ 'exitValue': '0', 'out': '' ]
+        Files.isDirectory( tempDir.resolve( 'x/y' ) )
+        Files.isDirectory( tempDir.resolve( 'z' ) )
+        delegated == 0
+    }
+
+    def "launch(...) passes failing or unsupported command to delegate"( ) {
+
+        given: "an intrinsic launcher"
+        IntrinsicLauncher launcher = new IntrinsicLauncher( countingDelegate )
+
+        when: "launch the task"
+        Map<String,String> resultMap = launcher.launch( task, [ 'directory': tempDir.toString( ) ], null, null )
+
+        then: "delegate executed the task"
+        delegated == 1
+        resultMap == Exec.getDefaultLauncher( ).launch( task, [ 'directory': tempDir.toString( ) ], null, null )
+
+        where:
+        task << [
+            [ 'cat', 'missing.txt' ],
+            [ 'cat', '-n', 'a.txt' ],
+            [ 'echo', '-e', 'a\\tb' ],
+            [ 'mkdir', '-p', 'a.txt' ],
+            [ 'true', '--version' ],
+            [ 'ls', 'a.txt' ]
+        ]
+    }
+
+    def "launch(...) serves immutable task list"( ) {
+
+        given: "an intrinsic launcher installed for Exec"
+        Exec.setLauncher( new IntrinsicLauncher( countingDelegate ) )
+
+        when: "execute intrinsic and delegated commands given as immutable lists"
+        Map<String,String> intrinsicMap = Exec.exec( List.of( 'echo', 'hi' ) )
+        Map<String,String> delegatedMap = Exec.exec( List.of( 'sh', '-c', 'echo hi' ) )
+
+        then: "results are returned"
+        intrinsicMap == [ 'exitValue': '0', 'out': 'hi' ]
+        delegatedMap == [ 'exitValue': '0', 'out': 'hi' ]
+        delegated == 1
+
+        cleanup:
+        Exec.setLauncher( null )
+    }
+
+    def "launch(...) passes task that changes environment to delegate"( ) {
+
+        given: "an intrinsic launcher"
+        IntrinsicLauncher launcher = new IntrinsicLauncher( countingDelegate )
+
+        when: "launch an intrinsic command with an added environment variable"
+        Map<String,String> resultMap = launcher.launch( Arrays.asList( 'echo', 'hello' ), null, [ 'VAR': 'value' ], null )
+
+        then: "delegate executed the task"
+        delegated == 1
+        resultMap.out.equals( 'hello' )
+    }
+
+    def "launch(...) writes and creates redirect files"( ) {
+
+        given: "an intrinsic launcher and redirect files"
+        IntrinsicLauncher launcher = new IntrinsicLauncher( countingDelegate )
+        Path outFile = tempDir.resolve( 'out.txt' )
+        Path errFile = tempDir.resolve( 'err.txt' )
+        Files.writeString( errFile, 'old' )
+        Map<String,String> config = [ 'redirectOutFilePath': outFile.toString( ), 'redirectOutType': 'append', 'redirectErrFilePath': errFile.toString( ), 'redirectErrType': 'overwrite' ]
+
+        when: "launch echo twice"
+        launcher.launch( Arrays.asList( 'echo', 'one' ), config, null, null )
+        Map<String,String> resultMap = launcher.launch( Arrays.asList( 'echo', 'two' ), config, null, null )
+
+        then: "map key 'out' is not present"
+        resultMap == [ 'exitValue': '0' ]
+
+        and: "output was appended and error file truncated"
+        Files.readString( outFile ).equals( 'one\ntwo\n' )
+        Files.size( errFile ) == 0
+        delegated == 0
+    }
+
+    def "launch(...) writes the exact bytes of files to redirect file for 'cat'"( ) {
+
+        given: "an intrinsic launcher and a file with CRLF, invalid UTF-8, and no final newline"
+        IntrinsicLauncher launcher = new IntrinsicLauncher( countingDelegate )
+        byte[] content = [ 0x61, 0x0d, 0x0a, 0xff, 0xfe, 0x62 ] as byte[]
+        Files.write( tempDir.resolve( 'raw.bin' ), content )
+        Path outFile = tempDir.resolve( 'intrinsic.txt' )
+        Path expectedFile = tempDir.resolve( 'process.txt' )
+
+        when: "launch 'cat' with the intrinsic launcher and as a process"
+        Map<String,String> resultMap = launcher.launch( Arrays.asList( 'cat', 'raw.bin', 'a.txt' ), [ 'directory': tempDir.toString( ), 'redirectOutFilePath': outFile.toString( ), 'redirectOutType': 'overwrite' ], null, null )
+        Exec.getDefaultLauncher( ).launch( Arrays.asList( 'cat', 'raw.bin', 'a.txt' ), [ 'directory': tempDir.toString( ), 'redirectOutFilePath': expectedFile.toString( ), 'redirectOutType': 'overwrite' ], null, null )
+
+        then: "the redirect file holds the same bytes as written by the process"
+        resultMap == [ 'exitValue': '0' ]
+        Files.readAllBytes( outFile ) == Files.readAllBytes( expectedFile )
+        delegated == 0
+    }
+
+    def "launch(...) throws exception for illegal config"( ) {
+
+        given: "an intrinsic launcher"
+        IntrinsicLauncher launcher = new IntrinsicLauncher( countingDelegate )
+
+        when: "launch with an illegal config"
+        launcher.launch( Arrays.asList( 'true' ), [ 'trim': 'maybe' ], null, null )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+    }
+
+}
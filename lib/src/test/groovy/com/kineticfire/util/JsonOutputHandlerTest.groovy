@@ -0,0 +1,162 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class JsonOutputHandlerTest extends Specification {
+
+    /*
+     * Runs 'printf' with the format string and decodes its output, returning the decoded values.
+     */
+    List<Object> decode( String format ) {
+        List<Object> values = new ArrayList<Object>( )
+        JsonOutputHandler handler = new JsonOutputHandler( { values.add( it ) } )
+        Exec.exec( Arrays.asList( 'printf', format ), null, null, null, handler, null )
+        return( values )
+    }
+
+
+    def "JsonOutputHandler(Consumer<Object>) throws exception for null consumer"( ) {
+
+        when: "instantiate with null consumer"
+        new JsonOutputHandler( null )
+
+        then: "thrown exception"
+        thrown NullPointerException
+    }
+
+    def "decodes a single JSON document"( ) {
+
+        when: "decode a document"
+        List<Object> values = decode( '{"name": "x", "items": [1, 2.5, true, false, null], "nested": {"empty": {}}}\n' )
+
+        then: "one value decoded with the expected types"
+        values.size( ) == 1
+        values[0].name == 'x'
+        values[0].items == [1L, 2.5d, true, false, null]
+        values[0].nested == [empty: [:]]
+    }
+
+    def "decodes each NDJSON record"( ) {
+
+        when: "decode newline-delimited records"
+        List<Object> values = decode( '{"id":1}\n{"id":2}\n\n{"id":3}\n' )
+
+        then: "each record decoded in order"
+        values == [[id: 1L], [id: 2L], [id: 3L]]
+    }
+
+    def "decodes string escapes and large numbers"( ) {
+
+        when: "decode values with escapes and large numbers"
+        List<Object> values = decode( '["a\\\\"b\\\\\\\\c\\\\u0041\\\\n", 12345678901234567890, -1.5e3]' )
+
+        then: "values decoded"
+        values[0][0] == 'a"b\\cA\n'
+        values[0][1] == new BigInteger( '12345678901234567890' )
+        values[0][2] == -1500.0d
+    }
+
+    def "getCount() returns the number of decoded values"( ) {
+
+        given: "a handler"
+        JsonOutputHandler handler = new JsonOutputHandler( { } )
+
+        when: "decode three values"
+        Exec.exec( Arrays.asList( 'printf', '1 "two" [3]' ), null, null, null, handler, null )
+
+        then: "count is three"
+        handler.getCount( ) == 3
+    }
+
+    def "throws exception for malformed JSON while still draining the process"( ) {
+
+        given: "a command producing malformed JSON followed by a large amount of output"
+        List<String> task = Arrays.asList( 'sh', '-c', 'echo \'{"a":}\'; seq 1 100000' )
+
+        when: "decode the output"
+        Exec.exec( task, null, null, null, new JsonOutputHandler( { } ), null )
+
+        then: "thrown exception giving the location of the error"
+        IOException e = thrown( )
+        e.getMessage( ).contains( 'line 1, column 6' )
+    }
+
+    def "decodes numbers of the JSON grammar"( ) {
+
+        when: "decode numbers"
+        List<Object> values = decode( '[0, -0, 10, 0.5, -1E-2, 2e+2]' )
+
+        then: "values decoded"
+        values[0] == [0L, 0L, 10L, 0.5d, -0.01d, 200.0d]
+    }
+
+    def "throws exception for numbers outside the JSON grammar"( ) {
+
+        when: "decode an illegal number"
+        decode( '[' + number + ']' )
+
+        then: "thrown exception"
+        IOException e = thrown( )
+        e.getMessage( ).contains( "Illegal number '" + number + "'" )
+
+        where:
+        number << [ '01', '-01', '00', '1.', '1.e5', '1e', '-' ]
+    }
+
+    def "decodes values nested to the maximum depth"( ) {
+
+        when: "decode arrays nested to the maximum depth"
+        List<Object> values = decode( ( '[' * JsonOutputHandler.MAX_DEPTH ) + ( ']' * JsonOutputHandler.MAX_DEPTH ) )
+
+        then: "one value decoded"
+        values.size( ) == 1
+    }
+
+    def "throws exception for values nested deeper than the maximum depth while still draining the process"( ) {
+
+        given: "a command producing deeply nested arrays followed by a large amount of output"
+        List<String> task = Arrays.asList( 'sh', '-c', 'printf "%0100000d" 0 | tr 0 "["; seq 1 100000' )
+
+        when: "decode the output"
+        Exec.exec( task, null, null, null, new JsonOutputHandler( { } ), null )
+
+        then: "thrown exception"
+        IOException e = thrown( )
+        e.getMessage( ).contains( 'Nesting deeper than 512 levels' )
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.util.function.Predicate
+import java.util.regex.Pattern
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class LineFilterTest extends Specification {
+
+    def "LineFilter(Predicate<CharSequence>,int) throws exception for illegal arguments"( ) {
+
+        when: "instantiate with a null predicate"
+        new LineFilter( null, 0 )
+
+        then: "thrown exception"
+        thrown NullPointerException
+
+        when: "instantiate with negative maxMatches"
+        new LineFilter( { true } as Predicate, -1 )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+    }
+
+    def "regex(Pattern,int) keeps only lines in which the pattern is found"( ) {
+
+        given: "a regex filter"
+        LineFilter filter = LineFilter.regex( Pattern.compile( '7$' ), 0 )
+
+        when: "execute the command"
+        Map<String,String> resultMap = Exec.exec( Arrays.asList( 'seq', '1', '100' ), null, null, null, filter, null )
+
+        then: "map key 'exitValue' is '0' and map key 'out' is not present"
+        resultMap.exitValue.equals( '0' )
+        resultMap.containsKey( 'out' ) == false
+
+        and: "only matching lines kept"
+        filter.getLines( ) == ['7', '17', '27', '37', '47', '57', '67', '77', '87', '97']
+        filter.getMatchCount( ) == 10
+        !filter.isStopped( )
+    }
+
+    def "prefix(String,int) keeps only lines starting with the prefix"( ) {
+
+        given: "a prefix filter"
+        LineFilter filter = LineFilter.prefix( 'ERROR', 0 )
+
+        when: "execute the command"
+        Exec.exec( Arrays.asList( 'printf', 'ERROR one\nok\nERR\nERROR two\n' ), null, null, null, filter, null )
+
+        then: "only matching lines kept"
+        filter.getText( ).equals( 'ERROR one\nERROR two' )
+    }
+
+    def "filter splits lines on all line terminators"( ) {
+
+        given: "a filter keeping every line"
+        LineFilter filter = new LineFilter( { true } as Predicate, 0 )
+
+        when: "execute a command with mixed line terminators and no final terminator"
+        Exec.exec( Arrays.asList( 'printf', 'a\r\nb\rc\n\nd' ), null, null, null, filter, null )
+
+        then: "lines split as by readLine()"
+        filter.getLines( ) == ['a', 'b', 'c', '', 'd']
+    }
+
+    def "filter handles lines longer than its buffer"( ) {
+
+        given: "a filter keeping every line"
+        LineFilter filter = new LineFilter( { true } as Predicate, 0 )
+
+        when: "execute a command with a long line"
+        Exec.exec( Arrays.asList( 'sh', '-c', 'head -c 20000 /dev/zero | tr "\\0" a; echo; echo b' ), null, null, null, filter, null )
+
+        then: "long line kept intact"
+        filter.getLines( )*.length( ) == [20000, 1]
+    }
+
+    def "filter destroys the process after the maximum number of matches"( ) {
+
+        given: "a filter stopping after two matches"
+        LineFilter filter = LineFilter.prefix( 'ERROR', 2 )
+
+        when: "execute a long-running command"
+        long start = System.currentTimeMillis( )
+        Map<String,String> resultMap = Exec.exec( Arrays.asList( 'sh', '-c', 'echo ERROR a; echo ok; echo ERROR b; sleep 30; echo ERROR c' ), null, null, null, filter, null )
+        long elapsed = System.currentTimeMillis( ) - start
+
+        then: "filter stopped early with two matches"
+        filter.isStopped( )
+        filter.getLines( ) == ['ERROR a', 'ERROR b']
+        elapsed < 20000
+
+        and: "map key 'exitValue' reflects the destroyed process"
+        !resultMap.exitValue.equals( '0' )
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.nio.file.Path
+import java.nio.file.Files
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.TempDir
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class NdjsonSpanExporterTest extends Specification {
+
+    @TempDir
+    Path tempDir
+
+
+    def cleanup( ) {
+        Exec.setSpanExporter( null )
+    }
+
+
+    /*
+     * Returns the JSON objects in the NDJSON file, decoded with a JsonOutputHandler.
+     */
+    private static List<Object> readSpans( Path file ) {
+        List<Object> values = new ArrayList<Object>( )
+        new JsonOutputHandler( { values.add( it ) } ).handle( new ByteArrayInputStream( Files.readAllBytes( file ) ), null )
+        return( values )
+    }
+
+
+    def "export(ExecSpan span) writes a line of JSON per execution"( ) {
+
+        given: "an installed exporter"
+        Path file = tempDir.resolve( 'spans.ndjson' )
+        NdjsonSpanExporter exporter = new NdjsonSpanExporter( file )
+        Exec.setSpanExporter( exporter )
+
+        when: "execute two commands"
+        Exec.exec( Arrays.asList( 'echo', 'hello' ), null, null, null )
+        Exec.exec( Arrays.asList( 'sh', '-c', 'exit 2' ), null, null, null )
+        Exec.setSpanExporter( null )
+        exporter.close( )
+
+        then: "two lines were written"
+        exporter.getCount( ) == 2
+        Files.readAllLines( file ).size( ) == 2
+
+        and: "the spans decode with their attributes"
+        List<Object> spans = readSpans( file )
+        spans[0].name == 'exec echo'
+        spans[0].status == 'OK'
+        spans[0].parentSpanId == null
+        spans[0].attributes.'process.command_args' == ['echo', 'hello']
+        spans[0].attributes.'process.exit.code' == 0
+        spans[0].attributes.'exec.out_bytes' == 6
+        spans[0].endTimeUnixNano >= spans[0].startTimeUnixNano
+        spans[1].status == 'ERROR'
+        spans[1].attributes.'process.exit.code' == 2
+    }
+
+    def "NdjsonSpanExporter(Path file) appends to an existing file"( ) {
+
+        given: "a file with a line"
+        Path file = tempDir.resolve( 'spans.ndjson' )
+        Files.writeString( file, '{"existing":true}\n' )
+
+        when: "export a span"
+        NdjsonSpanExporter exporter = new NdjsonSpanExporter( file )
+        Exec.setSpanExporter( exporter )
+        Exec.exec( Arrays.asList( 'true' ), null, null, null )
+        exporter.close( )
+
+        then: "the span follows the existing line"
+        List<Object> values = readSpans( file )
+        values.size( ) == 2
+        values[0].existing == true
+        values[1].name == 'exec true'
+    }
+
+    def "export(ExecSpan span) after close throws exception"( ) {
+
+        given: "a closed exporter and a span"
+        NdjsonSpanExporter exporter = new NdjsonSpanExporter( tempDir.resolve( 'spans.ndjson' ) )
+        ExecSpan span = null
+        Exec.setSpanExporter( { span = it } as SpanExporter )
+        Exec.exec( Arrays.asList( 'true' ), null, null, null )
+        exporter.close( )
+
+        when: "export the span"
+        exporter.export( span )
+
+        then: "thrown exception"
+        IllegalStateException e = thrown( )
+        e.getMessage( ).equals( 'NdjsonSpanExporter is closed.' )
+    }
+
+    def "NdjsonSpanExporter(Path file) with null file throws exception"( ) {
+
+        when: "construct with a null file"
+        new NdjsonSpanExporter( null )
+
+        then: "thrown exception"
+        NullPointerException e = thrown( )
+        e.getMessage( ).equals( "Argument 'file' cannot be null." )
+    }
+
+}
@@ -0,0 +1,246 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.nio.file.Path
+import java.nio.file.Files
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.TempDir
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class ProcessSupervisorTest extends Specification {
+
+    @TempDir
+    Path tempDir
+
+    ProcessSupervisor supervisor = new ProcessSupervisor( )
+
+
+    def cleanup( ) {
+        supervisor.close( )
+    }
+
+
+    /*
+     * Waits up to ten seconds for the condition to become true.
+     */
+    boolean waitFor( Closure<Boolean> condition ) {
+        long deadline = System.currentTimeMillis( ) + 10000
+        while ( !condition( ) && System.currentTimeMillis( ) < deadline ) {
+            Thread.sleep( 20 )
+        }
+        return( condition( ) )
+    }
+
+
+    def "ProcessSupervisor(int) throws exception for illegal thread count"( ) {
+
+        when: "instantiate with zero threads"
+        new ProcessSupervisor( 0 )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+    }
+
+    def "start(...) starts a long-running process"( ) {
+
+        when: "start a process"
+        ProcessSupervisor.Supervised supervised = supervisor.start( 'sleeper', Arrays.asList( 'sleep', '30' ), null, null, null, null )
+
+        then: "process is running and tracked"
+        supervised.isAlive( )
+        supervised.getPid( ) > 0
+        supervised.getName( ) == 'sleeper'
+        supervisor.get( 'sleeper' ).is( supervised )
+        supervisor.getSupervised( ).size( ) == 1
+    }
+
+    def "start(...) throws exception for duplicate name"( ) {
+
+        given: "a supervised process"
+        supervisor.start( 'sleeper', Arrays.asList( 'sleep', '30' ), null, null, null, null )
+
+        when: "start another process with the same name"
+        supervisor.start( 'sleeper', Arrays.asList( 'sleep', '30' ), null, null, null, null )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+    }
+
+    def "start(...) throws exception for illegal supervision value"( ) {
+
+        when: "start with an illegal value"
+        supervisor.start( 'bad', Arrays.asList( 'true' ), null, null, null, supervision )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+
+        and: "nothing is supervised"
+        supervisor.get( 'bad' ) == null
+
+        where:
+        supervision << [
+            [ 'restart': 'sometimes' ],
+            [ 'maxRestarts': '-2' ],
+            [ 'backoffInitialMillis': 'abc' ]
+        ]
+    }
+
+    def "start(...) throws exception for rotation without append"( ) {
+
+        given: "an output file with redirect type overwrite"
+        Map<String,String> config = [ 'redirectOutFilePath': tempDir.resolve( 'out.log' ).toString( ), 'redirectOutType': 'overwrite' ]
+
+        when: "start with rotation"
+        supervisor.start( 'rotate', Arrays.asList( 'true' ), config, null, null, [ 'rotateMaxBytes': '100' ] )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+    }
+
+    def "start(...) restarts failed process up to maxRestarts"( ) {
+
+        given: "a task that writes a line and fails"
+        Path out = tempDir.resolve( 'out.log' )
+        Map<String,String> config = [ 'redirectOutFilePath': out.toString( ), 'redirectOutType': 'append' ]
+
+        when: "start with a restart limit"
+        ProcessSupervisor.Supervised supervised = supervisor.start( 'failer', Arrays.asList( 'sh', '-c', 'echo run; exit 3' ), config, null, null, [ 'maxRestarts': '2', 'backoffInitialMillis': '10' ] )
+
+        then: "process is restarted twice"
+        waitFor { Files.readAllLines( out ).size( ) == 3 && !supervised.isAlive( ) }
+        supervised.getRestartCount( ) == 2
+        supervised.getLastExitValue( ) == 3
+
+        and: "not restarted again"
+        Thread.sleep( 300 )
+        Files.readAllLines( out ).size( ) == 3
+    }
+
+    def "start(...) doesn't restart successful process with on-failure"( ) {
+
+        when: "start a task that succeeds"
+        ProcessSupervisor.Supervised supervised = supervisor.start( 'ok', Arrays.asList( 'true' ), null, null, null, [ 'backoffInitialMillis': '10' ] )
+
+        then: "process isn't restarted"
+        waitFor { supervised.getLastExitValue( ) == 0 }
+        Thread.sleep( 300 )
+        supervised.getRestartCount( ) == 0
+    }
+
+    def "start(...) restarts successful process with always"( ) {
+
+        when: "start a task that succeeds"
+        ProcessSupervisor.Supervised supervised = supervisor.start( 'ok', Arrays.asList( 'true' ), null, null, null, [ 'restart': 'always', 'backoffInitialMillis': '10' ] )
+
+        then: "process is restarted"
+        waitFor { supervised.getRestartCount( ) >= 2 }
+    }
+
+    def "start(...) doesn't restart failed process with never"( ) {
+
+        when: "start a task that fails"
+        ProcessSupervisor.Supervised supervised = supervisor.start( 'fail', Arrays.asList( 'false' ), null, null, null, [ 'restart': 'never', 'backoffInitialMillis': '10' ] )
+
+        then: "process isn't restarted"
+        waitFor { supervised.getLastExitValue( ) == 1 }
+        Thread.sleep( 300 )
+        supervised.getRestartCount( ) == 0
+    }
+
+    def "start(...) rotates output file exceeding rotateMaxBytes"( ) {
+
+        given: "a task that writes output continuously"
+        Path out = tempDir.resolve( 'out.log' )
+        Map<String,String> config = [ 'redirectOutFilePath': out.toString( ), 'redirectOutType': 'append' ]
+        List<String> task = Arrays.asList( 'sh', '-c', 'while true; do echo 0123456789012345678901234567890123456789; sleep 0.01; done' )
+
+        when: "start with rotation"
+        supervisor.start( 'writer', task, config, null, null, [ 'rotateMaxBytes': '1000', 'rotateKeep': '2' ] )
+
+        then: "output is rotated, keeping at most two rotated files"
+        waitFor { Files.exists( tempDir.resolve( 'out.log.2' ) ) }
+        !Files.exists( tempDir.resolve( 'out.log.3' ) )
+        Files.size( tempDir.resolve( 'out.log.1' ) ) > 1000
+    }
+
+    def "stop() stops the process and supervision"( ) {
+
+        given: "a supervised process"
+        ProcessSupervisor.Supervised supervised = supervisor.start( 'sleeper', Arrays.asList( 'sleep', '30' ), null, null, null, [ 'restart': 'always' ] )
+
+        when: "stop the process"
+        supervised.stop( )
+
+        then: "process exited and isn't restarted"
+        waitFor { !supervised.isAlive( ) }
+        supervised.isStopped( )
+        Thread.sleep( 300 )
+        supervised.getRestartCount( ) == 0
+    }
+
+    def "remove(String) stops and removes the process"( ) {
+
+        given: "a supervised process"
+        ProcessSupervisor.Supervised supervised = supervisor.start( 'sleeper', Arrays.asList( 'sleep', '30' ), null, null, null, null )
+
+        when: "remove the process"
+        boolean removed = supervisor.remove( 'sleeper' )
+
+        then: "process was removed and stopped"
+        removed
+        !supervisor.remove( 'sleeper' )
+        supervisor.get( 'sleeper' ) == null
+        waitFor { !supervised.isAlive( ) }
+    }
+
+    def "close() stops all processes and rejects new ones"( ) {
+
+        given: "supervised processes"
+        List<ProcessSupervisor.Supervised> supervised = ( 1..3 ).collect { supervisor.start( 'sleeper' + it, Arrays.asList( 'sleep', '30' ), null, null, null, null ) }
+
+        when: "close the supervisor"
+        supervisor.close( )
+
+        then: "all processes exited"
+        waitFor { supervised.every { !it.isAlive( ) } }
+
+        when: "start a process after closing"
+        supervisor.start( 'late', Arrays.asList( 'true' ), null, null, null, null )
+
+        then: "thrown exception"
+        thrown IllegalStateException
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.nio.file.Path
+import java.nio.file.Files
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.TempDir
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class RecordingLauncherTest extends Specification {
+
+    @TempDir
+    Path tempDir
+
+
+    def "RecordingLauncher(Launcher,Path) throws exception for null arguments"( ) {
+
+        when: "instantiate with a null argument"
+        new RecordingLauncher( delegate, file )
+
+        then: "thrown exception"
+        thrown NullPointerException
+
+        where:
+        delegate                    | file
+        null                        | Path.of( 'recording.bin' )
+        Exec.getDefaultLauncher( )  | null
+    }
+
+    def "launch(...) returns result of delegate and records it"( ) {
+
+        given: "a recording launcher"
+        Path file = tempDir.resolve( 'recording.bin' )
+        RecordingLauncher recorder = new RecordingLauncher( Exec.getDefaultLauncher( ), file )
+
+        when: "launch tasks"
+        Map<String,String> okMap = recorder.launch( Arrays.asList( 'echo', 'hello' ), null, null, null )
+        Map<String,String> failMap = recorder.launch( Arrays.asList( 'ls', '-j' ), [ 'trim': 'false' ], null, null )
+        recorder.close( )
+
+        then: "results are those of the delegate"
+        okMap.exitValue.equals( '0' )
+        okMap.out.equals( 'hello' )
+        failMap.exitValue.equals( '2' )
+        failMap.err.contains( 'invalid option' )
+
+        and: "invocations were recorded"
+        recorder.getCount( ) == 2
+        Files.size( file ) > 8
+    }
+
+    def "launch(...) doesn't record invocation that throws exception"( ) {
+
+        given: "a recording launcher"
+        RecordingLauncher recorder = new RecordingLauncher( Exec.getDefaultLauncher( ), tempDir.resolve( 'recording.bin' ) )
+
+        when: "launch a task with an illegal config"
+        recorder.launch( Arrays.asList( 'echo', 'hello' ), [ 'trim': 'maybe' ], null, null )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+
+        and: "nothing was recorded"
+        recorder.getCount( ) == 0
+
+        cleanup:
+        recorder.close( )
+    }
+
+    def "launch(...) records invocation that throws IOException"( ) {
+
+        given: "a recording launcher"
+        RecordingLauncher recorder = new RecordingLauncher( Exec.getDefaultLauncher( ), tempDir.resolve( 'recording.bin' ) )
+
+        when: "launch a command that doesn't exist"
+        recorder.launch( Arrays.asList( 'no-such-command-to-record' ), null, null, null )
+
+        then: "thrown exception"
+        thrown IOException
+
+        and: "the invocation was recorded"
+        recorder.getCount( ) == 1
+
+        cleanup:
+        recorder.close( )
+    }
+
+    def "launch(...) throws exception after close"( ) {
+
+        given: "a closed recording launcher"
+        RecordingLauncher recorder = new RecordingLauncher( Exec.getDefaultLauncher( ), tempDir.resolve( 'recording.bin' ) )
+        recorder.close( )
+
+        when: "launch a task"
+        recorder.launch( Arrays.asList( 'echo', 'hello' ), null, null, null )
+
+        then: "thrown exception"
+        thrown IllegalStateException
+    }
+
+}
@@ -0,0 +1,341 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.nio.file.Path
+import java.nio.file.Files
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.TempDir
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class RemoteExecTest extends Specification {
+
+    List<ExecAgent> agents = [ ]
+
+    List<InetSocketAddress> addresses = [ ]
+
+
+    /*
+     * Starts an agent on a free loopback port and returns its address.
+     */
+    InetSocketAddress startAgent( int maxConcurrency ) {
+        ExecAgent agent = new ExecAgent( new InetSocketAddress( InetAddress.getLoopbackAddress( ), 0 ), maxConcurrency )
+        agents.add( agent )
+        InetSocketAddress address = new InetSocketAddress( InetAddress.getLoopbackAddress( ), agent.getPort( ) )
+        addresses.add( address )
+        return( address )
+    }
+
+
+    def cleanup( ) {
+        Exec.setLauncher( null )
+        agents.each { it.close( ) }
+    }
+
+
+    def "RemoteExec(List,int) throws exception for illegal arguments"( ) {
+
+        when: "instantiate with illegal arguments"
+        new RemoteExec( list, limit )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+
+        where:
+        list                                                                     | limit
+        [ ]                                                                      | 1
+        [ new InetSocketAddress( InetAddress.getLoopbackAddress( ), 1234 ) ]     | 0
+    }
+
+    def "launch(...) returns same result as local execution"( ) {
+
+        given: "an agent and a client"
+        startAgent( 2 )
+        RemoteExec remote = new RemoteExec( addresses )
+
+        when: "execute the task remotely and locally"
+        Map<String,String> remoteMap = remote.launch( task, config, addEnv, null )
+        Map<String,String> localMap = Exec.exec( task, config, addEnv, null )
+
+        then: "results are the same"
+        remoteMap == localMap
+
+        cleanup:
+        remote.close( )
+
+        where:
+        task                                                                       | config               | addEnv
+        [ 'echo', 'hello' ]                                                        | null                 | null
+        [ 'sh', '-c', 'echo $GREETING; echo oops >&2; exit 3' ]                    | [ 'trim': 'false' ]  | [ 'GREETING': 'hi' ]
+        [ 'sh', '-c', 'printf "a\\r\\nb"' ]                                        | [ 'trim': 'false' ]  | null
+        [ 'ls', '-j' ]                                                             | null                 | null
+        [ 'sh', '-c', 'echo "  out  "; echo "  err  " >&2; exit 1' ]               | null                 | null
+        [ 'sh', '-c', 'echo out; echo err >&2; exit 1' ]                           | [ 'redirectErrToOut': 'true' ] | null
+        [ 'sh', '-c', 'exec 3</dev/null 4</dev/null 5</dev/null' ]                 | [ 'rlimitNofile': '5' ] | null
+        [ 'seq', '1', '200000' ]                                                   | null                 | null
+    }
+
+    def "launch(...) throws same exceptions as local execution"( ) {
+
+        given: "an agent and a client"
+        startAgent( 1 )
+        RemoteExec remote = new RemoteExec( addresses )
+
+        when: "execute a task with an illegal config"
+        remote.launch( Arrays.asList( 'echo', 'hello' ), [ 'trim': 'maybe' ], null, null )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+
+        when: "execute a command that doesn't exist"
+        remote.launch( Arrays.asList( 'no-such-command-xyz' ), null, null, null )
+
+        then: "thrown exception"
+        thrown IOException
+
+        when: "execute a task on the same connection"
+        Map<String,String> resultMap = remote.launch( Arrays.asList( 'echo', 'hello' ), null, null, null )
+
+        then: "task succeeded"
+        resultMap.out.equals( 'hello' )
+
+        cleanup:
+        remote.close( )
+    }
+
+    def "exec(...) streams output as it is produced"( ) {
+
+        given: "an agent and a client"
+        startAgent( 1 )
+        RemoteExec remote = new RemoteExec( addresses )
+        ByteArrayOutputStream outStream = new ByteArrayOutputStream( )
+        ByteArrayOutputStream errStream = new ByteArrayOutputStream( )
+
+        when: "execute a task"
+        Map<String,String> resultMap = remote.exec( Arrays.asList( 'sh', '-c', 'seq 1 3; echo bad >&2; exit 1' ), null, null, null, outStream, errStream )
+
+        then: "streams received the raw output"
+        outStream.toString( ).equals( '1\n2\n3\n' )
+        errStream.toString( ).equals( 'bad\n' )
+
+        and: "result Map holds the output"
+        resultMap.out.equals( '1\n2\n3' )
+        resultMap.err.equals( 'bad' )
+
+        cleanup:
+        remote.close( )
+    }
+
+    def "launch(...) spreads tasks across agents within their limits"( ) {
+
+        given: "two agents with concurrency 2 and a client"
+        startAgent( 2 )
+        startAgent( 2 )
+        RemoteExec remote = new RemoteExec( addresses )
+
+        when: "execute eight tasks concurrently"
+        long start = System.currentTimeMillis( )
+        List<Thread> threads = ( 1..8 ).collect { Thread.start { remote.launch( Arrays.asList( 'sleep', '0.5' ), null, null, null ) } }
+        threads*.join( )
+        long elapsed = System.currentTimeMillis( ) - start
+
+        then: "both agents executed tasks, four at a time"
+        agents.every { it.getExecutedCount( ) > 0 }
+        agents.sum { it.getExecutedCount( ) } == 8
+        elapsed >= 1000
+        elapsed < 3500
+        remote.getInFlight( ) == 0
+
+        cleanup:
+        remote.close( )
+    }
+
+    def "launch(...) skips agent that can't be connected to"( ) {
+
+        given: "a client with an unreachable agent and a running agent"
+        ExecAgent closed = new ExecAgent( new InetSocketAddress( InetAddress.getLoopbackAddress( ), 0 ), 1 )
+        InetSocketAddress unreachable = new InetSocketAddress( InetAddress.getLoopbackAddress( ), closed.getPort( ) )
+        closed.close( )
+        startAgent( 1 )
+        RemoteExec remote = new RemoteExec( [ unreachable ] + addresses )
+
+        when: "execute tasks"
+        List<String> outputs = ( 1..3 ).collect { remote.launch( Arrays.asList( 'echo', 'hello' ), null, null, null ).out }
+
+        then: "running agent executed them"
+        outputs == [ 'hello', 'hello', 'hello' ]
+        agents[0].getExecutedCount( ) == 3
+
+        cleanup:
+        remote.close( )
+    }
+
+    def "launch(...) retries on fresh connection when pooled connection was closed by agent"( ) {
+
+        given: "a fake agent that answers one task per connection, then resets the connection"
+        ServerSocket server = new ServerSocket( 0, 50, InetAddress.getLoopbackAddress( ) )
+        Thread thread = new Thread( {
+            while ( !server.isClosed( ) ) {
+                Socket socket
+                try {
+                    socket = server.accept( )
+                } catch ( IOException e ) {
+                    return
+                }
+                DataInputStream input = new DataInputStream( new BufferedInputStream( socket.getInputStream( ) ) )
+                DataOutputStream output = new DataOutputStream( new BufferedOutputStream( socket.getOutputStream( ) ) )
+                output.writeInt( ExecAgent.MAGIC )
+                output.writeInt( ExecAgent.VERSION )
+                output.writeInt( 1 )
+                output.flush( )
+                RecordingLauncher.readList( input )
+                RecordingLauncher.readMap( input )
+                RecordingLauncher.readMap( input )
+                RecordingLauncher.readList( input )
+                output.writeByte( ExecAgent.FRAME_OUT )
+                output.writeInt( 5 )
+                output.write( 'hello'.getBytes( ) )
+                output.writeByte( ExecAgent.FRAME_RESULT )
+                RecordingLauncher.writeMap( output, [ 'exitValue': '0', 'out': '' ] )
+                output.flush( )
+                socket.setSoLinger( true, 0 )
+                socket.close( )
+            }
+        } )
+        thread.setDaemon( true )
+        thread.start( )
+        RemoteExec remote = new RemoteExec( Arrays.asList( new InetSocketAddress( InetAddress.getLoopbackAddress( ), server.getLocalPort( ) ) ) )
+
+        when: "execute a task, which pools the connection that is then reset"
+        String first = remote.launch( Arrays.asList( 'echo', 'hello' ), null, null, null ).out
+        Thread.sleep( 200 )
+
+        and: "execute another task"
+        String second = remote.launch( Arrays.asList( 'echo', 'hello' ), null, null, null ).out
+
+        then: "both tasks returned output"
+        first.equals( 'hello' )
+        second.equals( 'hello' )
+
+        cleanup:
+        remote.close( )
+        server.close( )
+    }
+
+    def "launch(...) throws exception for illegal output frame length from agent"( ) {
+
+        given: "a fake agent that answers with an output frame of the length"
+        ServerSocket server = new ServerSocket( 0, 50, InetAddress.getLoopbackAddress( ) )
+        Thread thread = new Thread( {
+            Socket socket = server.accept( )
+            DataInputStream input = new DataInputStream( new BufferedInputStream( socket.getInputStream( ) ) )
+            DataOutputStream output = new DataOutputStream( new BufferedOutputStream( socket.getOutputStream( ) ) )
+            output.writeInt( ExecAgent.MAGIC )
+            output.writeInt( ExecAgent.VERSION )
+            output.writeInt( 1 )
+            output.flush( )
+            RecordingLauncher.readList( input )
+            RecordingLauncher.readMap( input )
+            RecordingLauncher.readMap( input )
+            RecordingLauncher.readList( input )
+            output.writeByte( ExecAgent.FRAME_OUT )
+            output.writeInt( length )
+            output.flush( )
+        } )
+        thread.setDaemon( true )
+        thread.start( )
+        RemoteExec remote = new RemoteExec( Arrays.asList( new InetSocketAddress( InetAddress.getLoopbackAddress( ), server.getLocalPort( ) ) ) )
+
+        when: "execute a task"
+        remote.launch( Arrays.asList( 'echo', 'hello' ), null, null, null )
+
+        then: "thrown exception"
+        IOException e = thrown( )
+        e.getMessage( ).startsWith( "Illegal output frame length '" + length + "'" )
+
+        cleanup:
+        remote.close( )
+        server.close( )
+
+        where:
+        length << [ -1, ExecAgent.CHUNK_SIZE + 1, Integer.MAX_VALUE ]
+    }
+
+    def "launch(...) throws exception when no agent is available"( ) {
+
+        given: "a client with only an unreachable agent"
+        ExecAgent closed = new ExecAgent( new InetSocketAddress( InetAddress.getLoopbackAddress( ), 0 ), 1 )
+        RemoteExec remote = new RemoteExec( Arrays.asList( new InetSocketAddress( InetAddress.getLoopbackAddress( ), closed.getPort( ) ) ) )
+        closed.close( )
+
+        when: "execute a task"
+        remote.launch( Arrays.asList( 'echo', 'hello' ), null, null, null )
+
+        then: "thrown exception"
+        thrown IOException
+    }
+
+    def "launch(...) serves Exec when installed as launcher"( ) {
+
+        given: "an agent and a client installed as launcher"
+        startAgent( 1 )
+        RemoteExec remote = new RemoteExec( addresses )
+        Exec.setLauncher( remote )
+
+        when: "execute a task through Exec"
+        String out = Exec.execExceptionOnTaskFail( Arrays.asList( 'echo', 'remote' ) )
+
+        then: "agent executed the task"
+        out.equals( 'remote' )
+        agents[0].getExecutedCount( ) == 1
+
+        cleanup:
+        remote.close( )
+    }
+
+    def "close() rejects new tasks"( ) {
+
+        given: "a closed client"
+        startAgent( 1 )
+        RemoteExec remote = new RemoteExec( addresses )
+        remote.close( )
+
+        when: "execute a task"
+        remote.launch( Arrays.asList( 'echo', 'hello' ), null, null, null )
+
+        then: "thrown exception"
+        thrown IllegalStateException
+    }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.nio.file.Path
+import java.nio.file.Files
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.TempDir
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class ReplayLauncherTest extends Specification {
+
+    @TempDir
+    Path tempDir
+
+
+    def cleanup( ) {
+        Exec.setLauncher( null )
+    }
+
+
+    /*
+     * Records the invocations made by the closure through 'Exec' and returns the recording file.
+     */
+    Path record( Closure invocations ) {
+        Path file = tempDir.resolve( 'recording.bin' )
+        RecordingLauncher recorder = new RecordingLauncher( Exec.getDefaultLauncher( ), file )
+        Exec.setLauncher( recorder )
+        try {
+            invocations( )
+        } finally {
+            Exec.setLauncher( null )
+            recorder.close( )
+        }
+        return( file )
+    }
+
+
+    def "ReplayLauncher(Path) throws exception for file that isn't a recording"( ) {
+
+        given: "a file that isn't a recording"
+        Path file = tempDir.resolve( 'other.bin' )
+        Files.writeString( file, 'not a recording' )
+
+        when: "instantiate"
+        new ReplayLauncher( file )
+
+        then: "thrown exception"
+        thrown IOException
+    }
+
+    def "ReplayLauncher(Path) throws exception for unsupported version"( ) {
+
+        given: "a recording header with another version"
+        Path file = tempDir.resolve( 'other.bin' )
+        DataOutputStream out = new DataOutputStream( Files.newOutputStream( file ) )
+        out.writeInt( RecordingLauncher.MAGIC )
+        out.writeInt( 1 )
+        out.close( )
+
+        when: "instantiate"
+        new ReplayLauncher( file )
+
+        then: "thrown exception"
+        IOException e = thrown( )
+        e.getMessage( ).startsWith( "Unsupported recording version '1'" )
+    }
+
+    def "ReplayLauncher(Path) throws exception for recording truncated within a record"( ) {
+
+        given: "a recording with its last byte removed"
+        Path file = record {
+            Exec.exec( Arrays.asList( 'echo', 'hello' ) )
+            Exec.exec( Arrays.asList( 'echo', 'world' ) )
+        }
+        byte[] bytes = Files.readAllBytes( file )
+        Files.write( file, Arrays.copyOf( bytes, bytes.length - 1 ) )
+
+        when: "instantiate"
+        new ReplayLauncher( file )
+
+        then: "thrown exception"
+        IOException e = thrown( )
+        e.getMessage( ).contains( 'is truncated' )
+    }
+
+    def "launch(...) serves recorded results through Exec without starting a process"( ) {
+
+        given: "a recording of task executions"
+        Path marker = tempDir.resolve( 'marker' )
+        List<String> task = Arrays.asList( 'sh', '-c', 'touch ' + marker + '; echo $GREETING; echo oops >&2; exit 4' )
+        Path file = record {
+            Exec.exec( Arrays.asList( 'echo', 'hello' ) )
+            Exec.exec( task, [ 'trim': 'false' ], [ 'GREETING': 'hi' ], null )
+        }
+        Files.delete( marker )
+
+        and: "a replay launcher"
+        ReplayLauncher replayer = new ReplayLauncher( file )
+        Exec.setLauncher( replayer )
+
+        when: "execute the recorded tasks"
+        Map<String,String> okMap = Exec.exec( Arrays.asList( 'echo', 'hello' ), null )
+        Map<String,String> failMap = Exec.exec( task, [ 'trim': 'false' ], [ 'GREETING': 'hi' ], [ ] )
+
+        then: "results are as recorded"
+        okMap.exitValue.equals( '0' )
+        okMap.out.equals( 'hello' )
+        failMap.exitValue.equals( '4' )
+        failMap.out.equals( 'hi\n' )
+        failMap.err.equals( 'oops\n' )
+
+        and: "no process was started"
+        !Files.exists( marker )
+
+        and: "all results were used"
+        replayer.getRemaining( ) == 0
+    }
+
+    def "launch(...) serves repeated invocations in recorded order"( ) {
+
+        given: "a recording of a task whose output changes"
+        Path counter = tempDir.resolve( 'counter' )
+        List<String> task = Arrays.asList( 'sh', '-c', 'echo x >> ' + counter + '; wc -l < ' + counter )
+        Path file = record {
+            Exec.exec( task )
+            Exec.exec( task )
+        }
+
+        and: "a replay launcher"
+        Exec.setLauncher( new ReplayLauncher( file ) )
+
+        when: "execute the task twice"
+        String first = Exec.exec( task ).out
+        String second = Exec.exec( task ).out
+
+        then: "results are in recorded order"
+        first.equals( '1' )
+        second.equals( '2' )
+
+        when: "execute the task a third time"
+        Exec.exec( task )
+
+        then: "thrown exception"
+        thrown IllegalStateException
+    }
+
+    def "launch(...) throws exception for unmatched invocation"( ) {
+
+        given: "a recording and a replay launcher"
+        Path file = record {
+            Exec.exec( Arrays.asList( 'echo', 'hello' ) )
+        }
+        Exec.setLauncher( new ReplayLauncher( file ) )
+
+        when: "execute a task with different arguments"
+        Exec.exec( Arrays.asList( 'echo', 'goodbye' ) )
+
+        then: "thrown exception"
+        IllegalStateException e = thrown( )
+        e.getMessage( ).contains( 'goodbye' )
+    }
+
+    def "launch(...) rethrows recorded IOException"( ) {
+
+        given: "a recording of tasks that failed to start"
+        Map<String,String> badDirectory = [ 'directory': tempDir.resolve( 'missing' ).toString( ) ]
+        String missingMessage = null
+        String directoryMessage = null
+        Path file = record {
+            try {
+                Exec.exec( Arrays.asList( 'no-such-command-to-replay' ) )
+            } catch ( IOException e ) {
+                missingMessage = e.getMessage( )
+            }
+            try {
+                Exec.exec( Arrays.asList( 'echo', 'hello' ), badDirectory )
+            } catch ( IOException e ) {
+                directoryMessage = e.getMessage( )
+            }
+        }
+        Exec.setLauncher( new ReplayLauncher( file ) )
+
+        when: "replay the missing command"
+        Exec.exec( Arrays.asList( 'no-such-command-to-replay' ) )
+
+        then: "equivalent exception"
+        IOException missing = thrown( )
+        missing.getClass( ) == IOException
+        missing.getMessage( ) == missingMessage
+
+        when: "replay the task with the missing directory"
+        Exec.exec( Arrays.asList( 'echo', 'hello' ), badDirectory )
+
+        then: "equivalent exception"
+        IOException directory = thrown( )
+        directory.getMessage( ) == directoryMessage
+    }
+
+    def "launch(...) throws exception for illegal config"( ) {
+
+        given: "an empty recording and a replay launcher"
+        Exec.setLauncher( new ReplayLauncher( record { } ) )
+
+        when: "execute a task with an illegal config"
+        Exec.exec( Arrays.asList( 'echo', 'hello' ), [ 'trim': 'maybe' ] )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+    }
+
+    def "launch(...) serves execExceptionOnTaskFail(...) and execResult(...)"( ) {
+
+        given: "a recording and a replay launcher"
+        Path file = record {
+            Exec.execResult( Arrays.asList( 'ls', '-j' ) )
+        }
+        Exec.setLauncher( new ReplayLauncher( file ) )
+
+        when: "execute the failed task"
+        Exec.execExceptionOnTaskFail( Arrays.asList( 'ls', '-j' ) )
+
+        then: "thrown exception built from the recorded result"
+        TaskExecutionException e = thrown( )
+        e.getExitValue( ) == 2
+    }
+
+}
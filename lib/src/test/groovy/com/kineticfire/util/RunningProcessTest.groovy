@@ -0,0 +1,183 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.nio.file.Path
+import java.nio.file.Files
+import java.util.concurrent.TimeoutException
+import java.util.function.Predicate
+import java.util.regex.Pattern
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.TempDir
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class RunningProcessTest extends Specification {
+
+    @TempDir
+    Path tempDir
+
+
+    def "startAndAwaitReady(...) with pattern returns once standard error line matches"( ) {
+
+        given: "task that becomes ready after output on both streams"
+        List<String> task = Arrays.asList( 'sh', '-c', 'echo starting; sleep 0.2; echo "listening on 8080" >&2; sleep 30' )
+
+        when: "start and await ready"
+        RunningProcess running = Exec.startAndAwaitReady( task, null, null, null, Pattern.compile( 'listening on [0-9]+' ), 10000 )
+
+        then: "process is running and the ready line is known"
+        running.isAlive( )
+        running.getReadyLine( ).equals( 'listening on 8080' )
+        running.getReadyMillis( ) >= 150
+        running.getReadyMillis( ) < 10000
+        running.getRecentOutput( ).equals( 'starting\nlistening on 8080' )
+        running.getTask( ).equals( task )
+
+        when: "stop the process"
+        running.stop( )
+
+        then: "process exited"
+        !running.isAlive( )
+    }
+
+    def "startAndAwaitReady(...) with predicate keeps draining output after ready"( ) {
+
+        given: "task that writes more than a pipe buffer after ready"
+        List<String> task = Arrays.asList( 'sh', '-c', 'echo ready; seq 1 200000; echo done' )
+
+        when: "start and await ready"
+        RunningProcess running = Exec.startAndAwaitReady( task, null, null, null, { CharSequence line -> line.toString( ).equals( 'ready' ) } as Predicate<CharSequence>, 10000 )
+
+        then: "process runs to completion without blocking"
+        running.waitFor( 30, java.util.concurrent.TimeUnit.SECONDS )
+        running.getProcess( ).exitValue( ) == 0
+
+        and: "only the most recent lines are retained"
+        running.close( )
+        running.getRecentOutput( ).split( '\n' ).length <= 1000
+    }
+
+    def "startAndAwaitReady(...) with environment and directory config runs task as configured"( ) {
+
+        given: "config and environment"
+        Map<String,String> config = new HashMap<String,String>( )
+        config.put( 'directory', tempDir.toString( ) )
+        Map<String,String> addEnv = new HashMap<String,String>( )
+        addEnv.put( 'READY_WORD', 'go' )
+
+        when: "start and await ready"
+        RunningProcess running = Exec.startAndAwaitReady( Arrays.asList( 'sh', '-c', 'echo "$READY_WORD $(pwd)"; sleep 30' ), config, addEnv, null, Pattern.compile( '^go ' ), 10000 )
+
+        then: "ready line reflects the configuration"
+        running.getReadyLine( ).equals( 'go ' + tempDir.toRealPath( ).toString( ) )
+
+        cleanup:
+        running?.close( )
+    }
+
+    def "startAndAwaitReady(...) for task that prints ready and exits returns"( ) {
+
+        when: "start a task that exits right after signaling ready"
+        RunningProcess running = Exec.startAndAwaitReady( Arrays.asList( 'sh', '-c', 'echo ready' ), null, null, null, Pattern.compile( 'ready' ), 10000 )
+
+        then: "ready is returned rather than an early exit"
+        running.getReadyLine( ).equals( 'ready' )
+        running.stop( ) == 0
+    }
+
+    def "startAndAwaitReady(...) for task that exits before ready throws exception"( ) {
+
+        when: "start a task that fails"
+        Exec.startAndAwaitReady( Arrays.asList( 'sh', '-c', 'echo oops >&2; exit 4' ), null, null, null, Pattern.compile( 'ready' ), 10000 )
+
+        then: "thrown exception with exit value and recent output"
+        TaskExecutionException e = thrown( )
+        e.getExitValue( ) == 4
+        e.getMessage( ).contains( 'before becoming ready' )
+        e.getMessage( ).contains( 'oops' )
+    }
+
+    def "startAndAwaitReady(...) for task not ready within timeout throws exception and stops process"( ) {
+
+        given: "file for the process ID"
+        Path pidFile = tempDir.resolve( 'pid' )
+
+        when: "start a task that never becomes ready"
+        Exec.startAndAwaitReady( Arrays.asList( 'sh', '-c', 'echo $$ > ' + pidFile.toString( ) + '; exec sleep 30' ), null, null, null, Pattern.compile( 'ready' ), 500 )
+
+        then: "thrown exception"
+        TimeoutException e = thrown( )
+        e.getMessage( ).contains( 'within 500 ms' )
+
+        and: "process was stopped"
+        !ProcessHandle.of( Long.parseLong( Files.readString( pidFile ).trim( ) ) ).map( { it.isAlive( ) } ).orElse( false )
+    }
+
+    def "startAndAwaitReady(...) with predicate that throws rethrows exception and stops process"( ) {
+
+        given: "file for the process ID"
+        Path pidFile = tempDir.resolve( 'pid' )
+
+        when: "start a task with a predicate that throws"
+        Exec.startAndAwaitReady( Arrays.asList( 'sh', '-c', 'echo $$ > ' + pidFile.toString( ) + '; echo starting; exec sleep 30' ), null, null, null, { CharSequence line -> throw new IllegalStateException( 'bad predicate' ) } as Predicate<CharSequence>, 10000 )
+
+        then: "thrown exception of the predicate, without waiting for the timeout"
+        IllegalStateException e = thrown( )
+        e.getMessage( ).equals( 'bad predicate' )
+
+        and: "process was stopped"
+        !ProcessHandle.of( Long.parseLong( Files.readString( pidFile ).trim( ) ) ).map( { it.isAlive( ) } ).orElse( false )
+    }
+
+    def "startAndAwaitReady(...) with illegal argument throws exception"( ) {
+
+        when: "start with a negative timeout"
+        Exec.startAndAwaitReady( Arrays.asList( 'true' ), null, null, null, Pattern.compile( 'ready' ), -1 )
+
+        then: "thrown exception"
+        IllegalArgumentException e = thrown( )
+        e.getMessage( ).equals( "Illegal value '-1' for 'timeoutMillis'.  Must be non-negative." )
+    }
+
+    def "startAndAwaitReady(...) with null pattern throws exception"( ) {
+
+        when: "start with a null pattern"
+        Exec.startAndAwaitReady( Arrays.asList( 'true' ), null, null, null, (Pattern)null, 1000 )
+
+        then: "thrown exception"
+        NullPointerException e = thrown( )
+        e.getMessage( ).equals( "Argument 'readyPattern' cannot be null." )
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.nio.ByteBuffer
+import java.nio.file.Path
+import java.nio.file.Files
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.TempDir
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class SpillCaptureTest extends Specification {
+
+    @TempDir
+    Path tempDir
+
+
+    def "SpillCapture(int,Path,String) throws exception for illegal arguments"( ) {
+
+        when: "instantiate with illegal arguments"
+        new SpillCapture( threshold, teeFile, teeType )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+
+        where:
+        threshold | teeFile               | teeType
+        -1        | null                  | null
+        10        | Path.of( 'tee.txt' )  | null
+        10        | null                  | 'append'
+        10        | Path.of( 'tee.txt' )  | 'illegal-value'
+    }
+
+    def "captures small output in memory"( ) {
+
+        given: "a capture with the default threshold"
+        SpillCapture capture = new SpillCapture( )
+
+        when: "execute the command"
+        Map<String,String> resultMap = Exec.exec( Arrays.asList( 'echo', 'hello' ), null, null, null, capture, null )
+
+        then: "map key 'exitValue' is '0'"
+        resultMap.exitValue.equals( '0' )
+
+        and: "output held in memory"
+        !capture.isSpilled( )
+        capture.size( ) == 6
+        capture.asString( ).equals( 'hello\n' )
+        capture.openStream( ).text.equals( 'hello\n' )
+        capture.map( ).remaining( ) == 6
+
+        cleanup:
+        capture.close( )
+    }
+
+    def "spills output larger than the threshold to a temporary file"( ) {
+
+        given: "a capture with a small threshold"
+        SpillCapture capture = new SpillCapture( 100, null, null )
+        String expected = ( 1..10000 ).join( '\n' ) + '\n'
+
+        when: "execute the command"
+        Exec.exec( Arrays.asList( 'seq', '1', '10000' ), null, null, null, capture, null )
+
+        then: "output spilled and readable in every form"
+        capture.isSpilled( )
+        capture.size( ) == expected.length( )
+        capture.asString( ).equals( expected )
+        capture.openStream( ).text.equals( expected )
+
+        and: "part of the output can be mapped"
+        ByteBuffer buffer = capture.map( 0, 2 )
+        buffer.remaining( ) == 2
+        (char)buffer.get( ) == '1'
+
+        cleanup:
+        capture.close( )
+    }
+
+    def "tees output to a file while capturing"( ) {
+
+        given: "a capture teeing to an existing file with 'append'"
+        Path teeFile = tempDir.resolve( 'tee.txt' )
+        Files.writeString( teeFile, 'original\n' )
+        SpillCapture capture = new SpillCapture( 4, teeFile, 'append' )
+
+        when: "execute the command"
+        Exec.exec( Arrays.asList( 'echo', 'hello' ), null, null, null, capture, null )
+
+        then: "tee file has original content plus output"
+        Files.readString( teeFile ).equals( 'original\nhello\n' )
+
+        and: "output captured"
+        capture.asString( ).equals( 'hello\n' )
+
+        cleanup:
+        capture.close( )
+    }
+
+    def "close() deletes the temporary file and disallows reads"( ) {
+
+        given: "a spilled capture"
+        SpillCapture capture = new SpillCapture( 0, null, null )
+        Exec.exec( Arrays.asList( 'echo', 'hello' ), null, null, null, capture, null )
+
+        when: "close and read"
+        capture.close( )
+        capture.asString( )
+
+        then: "thrown exception"
+        thrown IllegalStateException
+    }
+
+    def "handle(InputStream,Process) throws exception when reused"( ) {
+
+        given: "a capture that already captured a stream"
+        SpillCapture capture = new SpillCapture( )
+        Exec.exec( Arrays.asList( 'echo', 'hello' ), null, null, null, capture, null )
+
+        when: "capture again"
+        Exec.exec( Arrays.asList( 'echo', 'hello' ), null, null, null, capture, null )
+
+        then: "thrown exception"
+        thrown IOException
+    }
+
+}
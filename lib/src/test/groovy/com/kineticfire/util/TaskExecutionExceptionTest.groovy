@@ -177,4 +177,57 @@ class TaskExecutionExceptionTest extends Specification {
         exitValue == exitValueExpected
     }
 
+    def "TaskExecutionException(List<String> task, int exitValue, String err)"( ) {
+
+        given: "arguments"
+        List<String> task = Arrays.asList( 'ls', '-j' )
+        int exitValue = 2
+        String err = "ls: invalid option -- 'j'"
+
+        when: "instantiate"
+        TaskExecutionException e = new TaskExecutionException( task, exitValue, err )
+
+        then: "verify values"
+        e.getMessage( ).equals( "Executing task '[ls,-j]' failed with exit value '2.  ls: invalid option -- 'j'" )
+        e.getCause( ) == null
+        e.getExitValue( ) == exitValue
+        e.getTask( ) == task
+        e.getErr( ).equals( err )
+
+        and: "no stack trace"
+        e.getStackTrace( ).length == 0
+    }
+
+    def "TaskExecutionException(List<String> task, int exitValue, String err) omits empty error output from message"( ) {
+
+        when: "instantiate with empty error output"
+        TaskExecutionException e = new TaskExecutionException( Arrays.asList( 'false' ), 1, '' )
+
+        then: "message has no error output"
+        e.getMessage( ).equals( "Executing task '[false]' failed with exit value '1." )
+    }
+
+    def "TaskExecutionException(List<String> task, int exitValue, String err) holds only the tail of long error output"( ) {
+
+        given: "error output longer than the maximum"
+        String err = 'a' * TaskExecutionException.MAX_ERR_LENGTH + 'tail'
+
+        when: "instantiate"
+        TaskExecutionException e = new TaskExecutionException( Arrays.asList( 'false' ), 1, err )
+
+        then: "error output is the tail"
+        e.getErr( ).length( ) == TaskExecutionException.MAX_ERR_LENGTH
+        e.getErr( ).endsWith( 'tail' )
+    }
+
+    def "getTask() and getErr() return null when not lightweight"( ) {
+
+        when: "instantiate"
+        TaskExecutionException e = new TaskExecutionException( "An error message", 5 )
+
+        then: "verify values"
+        e.getTask( ) == null
+        e.getErr( ) == null
+    }
+
 }
@@ -0,0 +1,292 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.nio.file.Path
+import java.nio.file.Files
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.TempDir
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class TaskGraphTest extends Specification {
+
+    @TempDir
+    Path tempDir
+
+
+    List<String> sleep( String seconds ) {
+        return( Arrays.asList( 'sleep', seconds ) )
+    }
+
+
+    def "add(...) throws exception for duplicate name"( ) {
+
+        given: "a graph with a task"
+        TaskGraph graph = new TaskGraph( ).add( 'a', Arrays.asList( 'true' ), null )
+
+        when: "add a task with the same name"
+        graph.add( 'a', Arrays.asList( 'true' ), null )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+    }
+
+    def "execute(int) throws exception for illegal graph"( ) {
+
+        when: "execute the graph"
+        graph.execute( 1 )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+
+        where:
+        graph << [
+            new TaskGraph( ).add( 'a', Arrays.asList( 'true' ), Arrays.asList( 'missing' ) ),
+            new TaskGraph( ).add( 'a', Arrays.asList( 'true' ), Arrays.asList( 'b' ) ).add( 'b', Arrays.asList( 'true' ), Arrays.asList( 'a' ) ),
+            new TaskGraph( ).add( 'a', Arrays.asList( 'true' ), null ).add( 'b', Arrays.asList( 'true' ), Arrays.asList( 'b' ) )
+        ]
+    }
+
+    def "execute(int) throws exception for illegal parallelism"( ) {
+
+        when: "execute with zero parallelism"
+        new TaskGraph( ).add( 'a', Arrays.asList( 'true' ), null ).execute( 0 )
+
+        then: "thrown exception"
+        thrown IllegalArgumentException
+    }
+
+    def "execute(int) runs tasks after their dependencies"( ) {
+
+        given: "a graph appending to a file in dependency order"
+        Path log = tempDir.resolve( 'log' )
+        TaskGraph graph = new TaskGraph( )
+        graph.add( 'package', Arrays.asList( 'sh', '-c', 'echo package >> ' + log ), Arrays.asList( 'link' ) )
+        graph.add( 'link', Arrays.asList( 'sh', '-c', 'echo link >> ' + log ), Arrays.asList( 'a', 'b' ) )
+        graph.add( 'a', Arrays.asList( 'sh', '-c', 'sleep 0.1; echo a >> ' + log ), null )
+        graph.add( 'b', Arrays.asList( 'sh', '-c', 'echo b >> ' + log ), null )
+
+        when: "execute the graph"
+        TaskGraph.Report report = graph.execute( 4 )
+
+        then: "all tasks succeeded"
+        report.isSuccess( )
+        report.getNames( ) == [ 'package', 'link', 'a', 'b' ]
+
+        and: "dependencies ran first"
+        List<String> lines = Files.readAllLines( log )
+        lines.indexOf( 'link' ) > lines.indexOf( 'a' )
+        lines.indexOf( 'link' ) > lines.indexOf( 'b' )
+        lines.indexOf( 'package' ) > lines.indexOf( 'link' )
+    }
+
+    def "execute(int) runs independent tasks in parallel"( ) {
+
+        given: "a graph of four independent tasks and a final task"
+        TaskGraph graph = new TaskGraph( )
+        ( 1..4 ).each { graph.add( 'sleep' + it, sleep( '0.5' ), null ) }
+        graph.add( 'echo', Arrays.asList( 'echo', 'done' ), Arrays.asList( 'sleep1', 'sleep2', 'sleep3', 'sleep4' ) )
+
+        when: "execute the graph"
+        TaskGraph.Report report = graph.execute( 4 )
+
+        then: "makespan approaches the critical path"
+        report.isSuccess( )
+        report.getResult( 'echo' ).out.equals( 'done' )
+        report.getCriticalPathMillis( ) >= 500
+        report.getMakespanMillis( ) < 1500
+    }
+
+    def "execute(int) starts the task with the longest remaining path first"( ) {
+
+        given: "a history and a graph with a long chain added last"
+        TaskGraph.History history = new TaskGraph.History( )
+        [ 'short1': 50, 'short2': 50, 'long1': 300, 'long2': 300 ].each { name, millis -> history.record( name, millis ) }
+        TaskGraph graph = new TaskGraph( history )
+        graph.add( 'short1', sleep( '0.05' ), null )
+        graph.add( 'short2', sleep( '0.05' ), null )
+        graph.add( 'long1', sleep( '0.3' ), null )
+        graph.add( 'long2', sleep( '0.3' ), Arrays.asList( 'long1' ) )
+
+        when: "execute the graph one task at a time"
+        TaskGraph.Report report = graph.execute( 1 )
+
+        then: "the long chain started first"
+        report.getStatus( 'long1' ) == TaskGraph.Status.SUCCEEDED
+        firstStarted( report ) == 'long1'
+    }
+
+    /*
+     * Parses the trace of the report.
+     */
+    Map<String,Object> parseTrace( TaskGraph.Report report ) {
+        List<Object> values = [ ]
+        new JsonOutputHandler( { values.add( it ) } ).handle( new ByteArrayInputStream( report.toTraceJson( ).getBytes( 'UTF-8' ) ), null )
+        return( (Map<String,Object>)values[0] )
+    }
+
+    /*
+     * Returns the name of the task with the earliest start time in the trace.
+     */
+    String firstStarted( TaskGraph.Report report ) {
+        return( parseTrace( report ).traceEvents.min { it.ts }.name )
+    }
+
+    def "execute(int) skips dependents of failed task with continue on error"( ) {
+
+        given: "a graph with a failing task that continues on error"
+        TaskGraph graph = new TaskGraph( )
+        graph.add( 'fail', Arrays.asList( 'false' ), null, null, null, null, true )
+        graph.add( 'child', Arrays.asList( 'true' ), Arrays.asList( 'fail' ) )
+        graph.add( 'grandchild', Arrays.asList( 'true' ), Arrays.asList( 'child' ) )
+        graph.add( 'other', Arrays.asList( 'true' ), null )
+
+        when: "execute the graph"
+        TaskGraph.Report report = graph.execute( 2 )
+
+        then: "dependents were skipped and other tasks ran"
+        !report.isSuccess( )
+        report.getStatus( 'fail' ) == TaskGraph.Status.FAILED
+        report.getResult( 'fail' ).exitValue.equals( '1' )
+        report.getStatus( 'child' ) == TaskGraph.Status.SKIPPED
+        report.getStatus( 'grandchild' ) == TaskGraph.Status.SKIPPED
+        report.getStatus( 'other' ) == TaskGraph.Status.SUCCEEDED
+    }
+
+    def "execute(int) cancels tasks not started after failed task with fail fast"( ) {
+
+        given: "a graph with a failing task that fails fast"
+        TaskGraph graph = new TaskGraph( )
+        graph.add( 'fail', Arrays.asList( 'sh', '-c', 'exit 2' ), null )
+        graph.add( 'running', sleep( '0.3' ), null )
+        graph.add( 'after', Arrays.asList( 'true' ), Arrays.asList( 'running' ) )
+
+        when: "execute the graph"
+        TaskGraph.Report report = graph.execute( 2 )
+
+        then: "running task completed and later task was cancelled"
+        report.getStatus( 'fail' ) == TaskGraph.Status.FAILED
+        report.getStatus( 'running' ) == TaskGraph.Status.SUCCEEDED
+        report.getStatus( 'after' ) == TaskGraph.Status.CANCELLED
+        report.getDurationMillis( 'after' ) == 0
+    }
+
+    def "execute(int) reports exception of task"( ) {
+
+        given: "a graph with a command that doesn't exist"
+        TaskGraph graph = new TaskGraph( ).add( 'missing', Arrays.asList( 'no-such-command-xyz' ), null )
+
+        when: "execute the graph"
+        TaskGraph.Report report = graph.execute( 1 )
+
+        then: "task failed with the exception"
+        report.getStatus( 'missing' ) == TaskGraph.Status.FAILED
+        report.getException( 'missing' ) instanceof IOException
+        report.getResult( 'missing' ) == null
+    }
+
+    def "execute(int) resolves task that threw an Error"( ) {
+
+        given: "a launcher that throws an Error"
+        Exec.setLauncher( { task, config, addEnv, removeEnv -> throw new AssertionError( 'broken' ) } as Launcher )
+
+        and: "a graph with the task and a dependent"
+        TaskGraph graph = new TaskGraph( )
+        graph.add( 'broken', Arrays.asList( 'true' ), null )
+        graph.add( 'after', Arrays.asList( 'true' ), Arrays.asList( 'broken' ) )
+
+        when: "execute the graph"
+        TaskGraph.Report report = graph.execute( 1 )
+
+        then: "task failed with the Error and dependent was cancelled"
+        report.getStatus( 'broken' ) == TaskGraph.Status.FAILED
+        report.getException( 'broken' ) instanceof java.util.concurrent.ExecutionException
+        report.getException( 'broken' ).getCause( ) instanceof AssertionError
+        report.getStatus( 'after' ) == TaskGraph.Status.CANCELLED
+
+        cleanup:
+        Exec.setLauncher( null )
+    }
+
+    def "toTraceJson() returns Chrome trace events for tasks that ran"( ) {
+
+        given: "an executed graph"
+        TaskGraph.Report report = new TaskGraph( ).add( 'a', Arrays.asList( 'true' ), null ).add( 'b "quoted"', Arrays.asList( 'true' ), Arrays.asList( 'a' ) ).execute( 1 )
+
+        when: "parse the trace"
+        Map<String,Object> trace = parseTrace( report )
+
+        then: "trace has a complete event per task"
+        trace.traceEvents.size( ) == 2
+        trace.traceEvents*.name == [ 'a', 'b "quoted"' ]
+        trace.traceEvents.every { it.ph == 'X' && it.dur >= 0 && it.args.status == 'SUCCEEDED' }
+    }
+
+    def "History records moving averages and round trips through a file"( ) {
+
+        given: "a history"
+        TaskGraph.History history = new TaskGraph.History( )
+
+        when: "record durations"
+        history.record( 'a', 100 )
+        history.record( 'a', 200 )
+
+        then: "estimate is a moving average"
+        history.getEstimateMillis( 'a' ) == 130.0d
+        history.getEstimateMillis( 'unknown' ) == -1.0d
+
+        when: "save and load the history"
+        Path file = tempDir.resolve( 'history.properties' )
+        history.save( file )
+        TaskGraph.History loaded = TaskGraph.History.load( file )
+
+        then: "estimate is preserved"
+        loaded.getEstimateMillis( 'a' ) == 130.0d
+    }
+
+    def "execute(int) records durations of successful tasks in the history"( ) {
+
+        given: "a graph with a history"
+        TaskGraph.History history = new TaskGraph.History( )
+        TaskGraph graph = new TaskGraph( history ).add( 'ok', sleep( '0.1' ), null ).add( 'fail', Arrays.asList( 'false' ), null, null, null, null, true )
+
+        when: "execute the graph"
+        graph.execute( 2 )
+
+        then: "only the successful task was recorded"
+        history.getEstimateMillis( 'ok' ) >= 100.0d
+        history.getEstimateMillis( 'fail' ) == -1.0d
+    }
+
+}
@@ -0,0 +1,272 @@
+/*
+ * (c) Copyright 2023-2025 java-util Contributors. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/*
+ * KineticFire Labs: https://labs.kineticfire.com/
+ *     project site: https://github.com/kineticfire-labs/java-util/
+ *
+ */
+package com.kineticfire.util
+
+
+
+
+import java.nio.file.Path
+import java.nio.file.Files
+import static java.util.concurrent.TimeUnit.MINUTES
+
+import spock.lang.Specification
+import spock.lang.Timeout
+import spock.lang.TempDir
+
+
+
+
+/**
+ * Unit tests.
+ *
+ */
+@Timeout( value = 1, unit = MINUTES )
+class TraceContextTest extends Specification {
+
+    @TempDir
+    Path tempDir
+
+
+    def cleanup( ) {
+        Exec.setSpanExporter( null )
+    }
+
+
+    def "parse(String traceparent, String tracestate) returns the context"( ) {
+
+        when: "parse a traceparent and tracestate"
+        TraceContext context = TraceContext.parse( '00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01', 'vendor=value' )
+
+        then: "fields are parsed"
+        context.getTraceId( ).equals( '4bf92f3577b34da6a3ce929d0e0e4736' )
+        context.getSpanId( ).equals( '00f067aa0ba902b7' )
+        context.getTraceFlags( ).equals( '01' )
+        context.getTraceState( ).equals( 'vendor=value' )
+        context.toTraceparent( ).equals( '00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01' )
+    }
+
+    def "parse(String traceparent, String tracestate) with illegal traceparent throws exception"( ) {
+
+        when: "parse an illegal traceparent"
+        TraceContext.parse( traceparent, null )
+
+        then: "thrown exception"
+        IllegalArgumentException e = thrown( )
+        e.getMessage( ).equals( "Illegal value '" + traceparent + "' for 'traceparent'." )
+
+        where:
+        traceparent << [
+            '',
+            '00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7',
+            '00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01',
+            '00-00000000000000000000000000000000-00f067aa0ba902b7-01',
+            '00-4bf92f3577b34da6a3ce929d0e0e4736-0000000000000000-01',
+            'ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01',
+            '00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-extra'
+        ]
+    }
+
+    def "newRoot() returns a sampled context with random IDs"( ) {
+
+        when: "create two root contexts"
+        TraceContext first = TraceContext.newRoot( )
+        TraceContext second = TraceContext.newRoot( )
+
+        then: "IDs are well-formed, sampled, and distinct"
+        first.getTraceId( ) ==~ /[0-9a-f]{32}/
+        first.getSpanId( ) ==~ /[0-9a-f]{16}/
+        first.getTraceFlags( ).equals( '01' )
+        first.getTraceState( ) == null
+        !first.getTraceId( ).equals( second.getTraceId( ) )
+    }
+
+    def "makeCurrent() sets the current context until the scope is closed"( ) {
+
+        given: "two contexts"
+        TraceContext outer = TraceContext.newRoot( )
+        TraceContext inner = TraceContext.newRoot( )
+
+        when: "make the outer context current"
+        TraceContext.Scope outerScope = outer.makeCurrent( )
+        TraceContext afterOuter = TraceContext.current( )
+
+        and: "make the inner context current"
+        TraceContext.Scope innerScope = inner.makeCurrent( )
+        TraceContext afterInner = TraceContext.current( )
+
+        and: "close the inner scope"
+        innerScope.close( )
+        TraceContext afterInnerClosed = TraceContext.current( )
+
+        and: "close the outer scope"
+        outerScope.close( )
+
+        then: "each scope restored the previous context"
+        afterOuter.is( outer )
+        afterInner.is( inner )
+        afterInnerClosed.is( outer )
+        TraceContext.current( ) == null
+    }
+
+    def "exec(...) with current context and no exporter passes the context to the process"( ) {
+
+        given: "a current context with trace state"
+        TraceContext context = TraceContext.parse( '00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01', 'k=v' )
+
+        when: "execute a command printing the trace environment variables"
+        Map<String,String> resultMap
+        try ( TraceContext.Scope scope = context.makeCurrent( ) ) {
+            resultMap = Exec.exec( Arrays.asList( 'sh', '-c', 'echo "$TRACEPARENT $TRACESTATE"' ), null, null, null )
+        }
+
+        then: "the process received the context"
+        resultMap.out.equals( '00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01 k=v' )
+    }
+
+    def "execChunked(...) passes the current context to the processes of the pool threads"( ) {
+
+        given: "a current context"
+        TraceContext context = TraceContext.parse( '00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01', null )
+
+        when: "execute chunks printing the trace environment variable on pool threads"
+        ChunkedResult result
+        try ( TraceContext.Scope scope = context.makeCurrent( ) ) {
+            result = Exec.execChunked( Arrays.asList( 'sh', '-c', 'echo $TRACEPARENT' ), Arrays.asList( 'a', 'b', 'c', 'd' ), null, null, null, 1, 2 )
+        }
+
+        then: "every process received the context"
+        result.getChunkCount( ) == 4
+        result.getChunks( ).every { it.getOut( ).equals( '00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01' ) }
+    }
+
+    def "TaskGraph execute(int) passes the current context to the processes of dependent tasks"( ) {
+
+        given: "a current context and a graph of two tasks"
+        TraceContext context = TraceContext.parse( '00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01', null )
+        TaskGraph graph = new TaskGraph( )
+        graph.add( 'first', Arrays.asList( 'sh', '-c', 'echo $TRACEPARENT' ), null )
+        graph.add( 'second', Arrays.asList( 'sh', '-c', 'echo $TRACEPARENT' ), Arrays.asList( 'first' ) )
+
+        when: "execute the graph"
+        TaskGraph.Report report
+        try ( TraceContext.Scope scope = context.makeCurrent( ) ) {
+            report = graph.execute( 2 )
+        }
+
+        then: "both processes received the context"
+        report.getResult( 'first' ).out.equals( '00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01' )
+        report.getResult( 'second' ).out.equals( '00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01' )
+    }
+
+    def "HedgedExec execExceptionOnTaskFail(...) passes the current context to the process"( ) {
+
+        given: "a current context"
+        TraceContext context = TraceContext.parse( '00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01', 'k=v' )
+
+        when: "execute a command printing the trace environment variables"
+        String out
+        try ( TraceContext.Scope scope = context.makeCurrent( ) ) {
+            out = new HedgedExec( ).execExceptionOnTaskFail( Arrays.asList( 'sh', '-c', 'echo "$TRACEPARENT $TRACESTATE"' ) )
+        }
+
+        then: "the process received the context"
+        out.equals( '00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01 k=v' )
+    }
+
+    def "exec(...) with exporter records a child span and passes its context to the process"( ) {
+
+        given: "an exporter collecting spans"
+        List<ExecSpan> spans = Collections.synchronizedList( new ArrayList<ExecSpan>( ) )
+        Exec.setSpanExporter( { ExecSpan span -> spans.add( span ) } as SpanExporter )
+        TraceContext parent = TraceContext.parse( '00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01', null )
+
+        when: "execute a command in the parent context"
+        Map<String,String> resultMap
+        try ( TraceContext.Scope scope = parent.makeCurrent( ) ) {
+            resultMap = Exec.exec( Arrays.asList( 'sh', '-c', 'echo $TRACEPARENT; printf abc >&2; exit 3' ), null, null, null )
+        }
+
+        then: "one span, a child of the parent"
+        spans.size( ) == 1
+        ExecSpan span = spans[0]
+        span.getTraceId( ).equals( parent.getTraceId( ) )
+        span.getParentSpanId( ).equals( parent.getSpanId( ) )
+        !span.getSpanId( ).equals( parent.getSpanId( ) )
+
+        and: "the process continued the trace from the span"
+        resultMap.out.equals( span.getContext( ).toTraceparent( ) )
+
+        and: "the span describes the execution"
+        span.getName( ).equals( 'exec sh' )
+        span.getExitValue( ) == 3
+        !span.isSuccess( )
+        span.getOutBytes( ) == 56
+        span.getErrBytes( ) == 3
+        span.getSpawnNanos( ) > 0
+        span.getDurationNanos( ) == span.getSpawnNanos( ) + span.getRunNanos( ) + span.getDrainNanos( )
+        span.getError( ) == null
+    }
+
+    def "exec(...) with exporter and no current context records a root span"( ) {
+
+        given: "an exporter collecting spans"
+        List<ExecSpan> spans = Collections.synchronizedList( new ArrayList<ExecSpan>( ) )
+        Exec.setSpanExporter( { ExecSpan span -> spans.add( span ) } as SpanExporter )
+
+        when: "execute a command"
+        Exec.exec( Arrays.asList( 'true' ), null, null, null )
+
+        then: "a root span"
+        spans.size( ) == 1
+        spans[0].getParentSpanId( ) == null
+        spans[0].isSuccess( )
+    }
+
+    def "exec(...) with exporter records a span for a process that can't start"( ) {
+
+        given: "an exporter collecting spans"
+        List<ExecSpan> spans = Collections.synchronizedList( new ArrayList<ExecSpan>( ) )
+        Exec.setSpanExporter( { ExecSpan span -> spans.add( span ) } as SpanExporter )
+
+        when: "execute a missing command"
+        Exec.exec( Arrays.asList( 'no-such-command-for-trace' ) )
+
+        then: "exception is thrown and the span has the error"
+        thrown( IOException )
+        spans.size( ) == 1
+        spans[0].getExitValue( ) == -1
+        spans[0].getError( ) != null
+        spans[0].getRunNanos( ) == 0
+    }
+
+    def "exec(...) with failing exporter still returns the result"( ) {
+
+        given: "an exporter that throws"
+        Exec.setSpanExporter( { ExecSpan span -> throw new IllegalStateException( 'exporter failed' ) } as SpanExporter )
+
+        when: "execute a command"
+        Map<String,String> resultMap = Exec.exec( Arrays.asList( 'echo', 'hi' ), null, null, null )
+
+        then: "the result is returned"
+        resultMap.out.equals( 'hi' )
+    }
+
+}